@@ -0,0 +1,92 @@
+//
+// BindingBenchmark
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.benchmark;
+
+import java.sql.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.*;
+import net.jextra.fauxjo.stub.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of binding a bean's values to insert and update statements.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class BindingBenchmark
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    @Param( { "NARROW", "WIDE" } )
+    public Shape shape;
+
+    private SQLTableProcessor<Fauxjo> processor;
+    private PreparedStatement statement;
+    private Fauxjo bean;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Setup
+    public void setup()
+        throws SQLException
+    {
+        StubConnection connection = shape.createConnection();
+        processor = new SQLTableProcessor<Fauxjo>( shape.createSchema( connection ), shape.getTableName(), shape.<Fauxjo> getBeanClass() );
+        statement = connection.prepareStatement( "benchmark" );
+        bean = shape.createBean();
+
+        // Load the column metadata outside of the measurement.
+        processor.getUpdateStatement();
+    }
+
+    @Benchmark
+    public PreparedStatement setInsertValues()
+        throws SQLException
+    {
+        processor.setInsertValues( statement, bean );
+
+        return statement;
+    }
+
+    @Benchmark
+    public PreparedStatement setUpdateValues()
+        throws SQLException
+    {
+        processor.setUpdateValues( statement, bean );
+
+        return statement;
+    }
+}
@@ -0,0 +1,149 @@
+//
+// CoercerBenchmark
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.benchmark;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of {@link Coercer#coerce(Object, Class)} for the type pairs that show up when mapping rows and binding parameters.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class CoercerBenchmark
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final String SAMPLE_UUID = "123e4567-e89b-12d3-a456-426614174000";
+
+    @Param( { "Long->Long", "Integer->Long", "Long->Integer", "Integer->int", "String->Integer", "Integer->String", "Timestamp->Date",
+        "Date->Timestamp", "String->UUID", "UUID->String" } )
+    public String pair;
+
+    private Coercer coercer;
+    private Object value;
+    private Class<?> destClass;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Setup
+    public void setup()
+    {
+        coercer = new Coercer();
+
+        String[] types = pair.split( "->" );
+        value = sampleValue( types[0], types[1] );
+        destClass = toClass( types[1] );
+    }
+
+    @Benchmark
+    public Object coerce()
+        throws FauxjoException
+    {
+        return coercer.coerce( value, destClass );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static Object sampleValue( String type, String destType )
+    {
+        if ( type.equals( "Long" ) )
+        {
+            return 123456L;
+        }
+        else if ( type.equals( "Integer" ) )
+        {
+            return 123456;
+        }
+        else if ( type.equals( "String" ) )
+        {
+            return destType.equals( "UUID" ) ? SAMPLE_UUID : "123456";
+        }
+        else if ( type.equals( "Timestamp" ) )
+        {
+            return new Timestamp( 1500000000000L );
+        }
+        else if ( type.equals( "Date" ) )
+        {
+            return new java.util.Date( 1500000000000L );
+        }
+        else if ( type.equals( "UUID" ) )
+        {
+            return UUID.fromString( SAMPLE_UUID );
+        }
+
+        throw new IllegalArgumentException( type );
+    }
+
+    private static Class<?> toClass( String type )
+    {
+        if ( type.equals( "Long" ) )
+        {
+            return Long.class;
+        }
+        else if ( type.equals( "Integer" ) )
+        {
+            return Integer.class;
+        }
+        else if ( type.equals( "int" ) )
+        {
+            return Integer.TYPE;
+        }
+        else if ( type.equals( "String" ) )
+        {
+            return String.class;
+        }
+        else if ( type.equals( "Timestamp" ) )
+        {
+            return Timestamp.class;
+        }
+        else if ( type.equals( "Date" ) )
+        {
+            return java.util.Date.class;
+        }
+        else if ( type.equals( "UUID" ) )
+        {
+            return UUID.class;
+        }
+
+        throw new IllegalArgumentException( type );
+    }
+}
@@ -0,0 +1,228 @@
+//
+// ColdStartBenchmark
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.benchmark;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.*;
+import net.jextra.fauxjo.stub.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * <p>
+ * Time from a freshly built schema of many tables to every table being ready for updates and deletes: either lazily, by the first
+ * update to each table, or up front with {@link Schema#warmUp()} and {@link Schema#warmUp(ExecutorService)}.
+ * </p>
+ * <p>
+ * The metadata queries can be given a simulated round trip (latencyMicros), since on a real database those dominate and are what
+ * the parallel warm-up overlaps.
+ * </p>
+ */
+@BenchmarkMode( Mode.SingleShotTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3 )
+@Measurement( iterations = 10 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class ColdStartBenchmark
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int WARM_UP_THREADS = 8;
+
+    @Param( { "100", "500" } )
+    public int tables;
+
+    @Param( { "0", "200" } )
+    public int latencyMicros;
+
+    // One Home class per table, as an application with a Home per table has.
+    private List<Constructor<?>> homeConstructors;
+
+    private ExecutorService executor;
+    private Schema schema;
+    private List<Home<NarrowBean>> homes;
+    private NarrowBean bean;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Setup( Level.Trial )
+    public void setupTrial()
+        throws Exception
+    {
+        byte[] homeClassBytes = readClassBytes( TableHome.class );
+        homeConstructors = new ArrayList<Constructor<?>>();
+        for ( int i = 0; i < tables; i++ )
+        {
+            Class<?> homeClass = new HomeClassLoader( homeClassBytes ).loadClass( TableHome.class.getName() );
+            homeConstructors.add( homeClass.getConstructor( Schema.class, String.class ) );
+        }
+
+        executor = Executors.newFixedThreadPool( WARM_UP_THREADS );
+        bean = Shape.NARROW.createBean();
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Setup( Level.Invocation )
+    public void setupInvocation()
+        throws Exception
+    {
+        StubConnection connection = new StubConnection();
+        connection.setMetaDataLatencyMicros( latencyMicros );
+        for ( int i = 0; i < tables; i++ )
+        {
+            connection.addTable( getTableName( i ), Shape.NARROW.getColumns(), Shape.NARROW.getTypes() );
+        }
+
+        schema = Shape.NARROW.createSchema( connection );
+        homes = new ArrayList<Home<NarrowBean>>();
+        for ( int i = 0; i < tables; i++ )
+        {
+            Constructor<?> constructor = homeConstructors.get( i );
+            Home<NarrowBean> home = (Home<NarrowBean>) constructor.newInstance( schema, getTableName( i ) );
+            schema.addHome( constructor.getDeclaringClass(), home );
+            homes.add( home );
+        }
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown()
+    {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public int firstUpdates()
+        throws SQLException
+    {
+        int rows = 0;
+        for ( Home<NarrowBean> home : homes )
+        {
+            rows += home.update( bean );
+        }
+
+        return rows;
+    }
+
+    @Benchmark
+    public void warmUp()
+        throws SQLException
+    {
+        schema.warmUp();
+    }
+
+    @Benchmark
+    public void parallelWarmUp()
+        throws SQLException
+    {
+        schema.warmUp( executor );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static String getTableName( int index )
+    {
+        return Shape.NARROW.getTableName() + "_" + index;
+    }
+
+    private static byte[] readClassBytes( Class<?> clazz )
+        throws IOException
+    {
+        String resource = "/" + clazz.getName().replace( '.', '/' ) + ".class";
+        InputStream in = clazz.getResourceAsStream( resource );
+        try
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ( ( length = in.read( buffer ) ) > 0 )
+            {
+                out.write( buffer, 0, length );
+            }
+
+            return out.toByteArray();
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    public static class TableHome extends Home<NarrowBean>
+    {
+        public TableHome( Schema schema, String tableName )
+        {
+            super( schema, NarrowBean.class, tableName );
+        }
+    }
+
+    /**
+     * Defines its own copy of {@link TableHome}, so each loader yields a distinct Home class.
+     */
+    private static class HomeClassLoader extends ClassLoader
+    {
+        private byte[] homeClassBytes;
+
+        public HomeClassLoader( byte[] homeClassBytes )
+        {
+            super( ColdStartBenchmark.class.getClassLoader() );
+            this.homeClassBytes = homeClassBytes;
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass( String name, boolean resolve )
+            throws ClassNotFoundException
+        {
+            if ( !name.equals( TableHome.class.getName() ) )
+            {
+                return super.loadClass( name, resolve );
+            }
+
+            Class<?> clazz = findLoadedClass( name );
+            if ( clazz == null )
+            {
+                clazz = defineClass( name, homeClassBytes, 0, homeClassBytes.length );
+            }
+
+            return clazz;
+        }
+    }
+}
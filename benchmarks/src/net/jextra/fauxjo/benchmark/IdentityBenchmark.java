@@ -0,0 +1,80 @@
+//
+// IdentityBenchmark
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.benchmark;
+
+import java.sql.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of {@link Fauxjo#hashCode()} and {@link Fauxjo#equals(Object)}, which are paid every time beans go into a HashSet or
+ * HashMap.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class IdentityBenchmark
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    @Param( { "NARROW", "WIDE" } )
+    public Shape shape;
+
+    private Fauxjo bean;
+    private Fauxjo sameKeyBean;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Setup
+    public void setup()
+        throws SQLException
+    {
+        bean = shape.createBean();
+        sameKeyBean = shape.createBean();
+    }
+
+    @Benchmark
+    public int hashCodeOfBean()
+    {
+        return bean.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsOfBeans()
+    {
+        return bean.equals( sameKeyBean );
+    }
+}
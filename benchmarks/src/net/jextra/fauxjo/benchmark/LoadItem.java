@@ -0,0 +1,88 @@
+//
+// LoadItem
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.benchmark;
+
+import java.util.*;
+import net.jextra.fauxjo.*;
+
+/**
+ * Row of the table the {@link LoadTest} works on.
+ */
+public class LoadItem extends Fauxjo
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    public static final String CREATE_TABLE = "create table load_item (id bigint primary key, name varchar(100), quantity integer, " +
+        "updated timestamp)";
+
+    @FauxjoPrimaryKey
+    @FauxjoField( "id" )
+    private Long id;
+
+    @FauxjoField( "name" )
+    private String name;
+
+    @FauxjoField( "quantity" )
+    private Integer quantity;
+
+    @FauxjoField( "updated" )
+    private Date updated;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public LoadItem()
+    {
+    }
+
+    public LoadItem( long id )
+    {
+        this.id = id;
+        name = "item " + id;
+        quantity = 0;
+        updated = new Date();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public Long getId()
+    {
+        return id;
+    }
+
+    public void touch()
+    {
+        quantity++;
+        updated = new Date();
+    }
+}
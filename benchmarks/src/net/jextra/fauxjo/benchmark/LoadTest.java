@@ -0,0 +1,367 @@
+//
+// LoadTest
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.benchmark;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import javax.sql.*;
+import net.jextra.fauxjo.*;
+import net.jextra.fauxjo.connectionsupplier.*;
+import net.jextra.fauxjo.metrics.*;
+import org.h2.jdbcx.*;
+
+/**
+ * <p>
+ * Drives a mix of inserts (20%), updates (30%), selects by primary key (40%) and deletes (10%) through a {@link Home} on an
+ * in-memory H2 database, for each {@link ConnectionSupplier} and a growing number of threads, and reports throughput and latency
+ * percentiles. This shows how far each supplier scales.
+ * </p>
+ * <p>
+ * A SimpleConnectionSupplier has a single connection and statement cache, so its threads take turns (as an application sharing one
+ * would have to). ThreadSafeConnectionSupplier opens a connection per thread; PooledConnectionSupplier borrows one from a pool.
+ * </p>
+ * <p>
+ * Usage (after {@code mvn package}):
+ * </p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar net.jextra.fauxjo.benchmark.LoadTest [-seconds 5] [-warmup 2] [-threads 1,2,4,...,256]
+ *     [-suppliers SIMPLE,THREAD_SAFE,POOLED]
+ * </pre>
+ */
+public class LoadTest
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int MAX_CONNECTIONS = 512;
+
+    private Supplier supplierType;
+    private int measureSeconds;
+    private int warmupSeconds;
+
+    private DataSource dataSource;
+    private ConnectionSupplier supplier;
+    private LoadSchema schema;
+    private AtomicLong nextId;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public LoadTest( Supplier supplierType, int measureSeconds, int warmupSeconds )
+    {
+        this.supplierType = supplierType;
+        this.measureSeconds = measureSeconds;
+        this.warmupSeconds = warmupSeconds;
+        nextId = new AtomicLong();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static void main( String[] args )
+        throws Exception
+    {
+        int measureSeconds = 5;
+        int warmupSeconds = 2;
+        String threadCounts = "1,2,4,8,16,32,64,128,256";
+        String suppliers = "SIMPLE,THREAD_SAFE,POOLED";
+        for ( int i = 0; i + 1 < args.length; i += 2 )
+        {
+            if ( args[i].equals( "-seconds" ) )
+            {
+                measureSeconds = Integer.parseInt( args[i + 1] );
+            }
+            else if ( args[i].equals( "-warmup" ) )
+            {
+                warmupSeconds = Integer.parseInt( args[i + 1] );
+            }
+            else if ( args[i].equals( "-threads" ) )
+            {
+                threadCounts = args[i + 1];
+            }
+            else if ( args[i].equals( "-suppliers" ) )
+            {
+                suppliers = args[i + 1];
+            }
+            else
+            {
+                throw new IllegalArgumentException( "Unknown option " + args[i] );
+            }
+        }
+
+        System.out.println( String.format( "%-12s %8s %12s %10s %10s %10s %8s", "supplier", "threads", "ops/s", "p50 ms", "p99 ms",
+            "p999 ms", "errors" ) );
+        for ( String supplier : suppliers.split( "," ) )
+        {
+            LoadTest test = new LoadTest( Supplier.valueOf( supplier.trim() ), measureSeconds, warmupSeconds );
+            test.setUp();
+            try
+            {
+                for ( String threads : threadCounts.split( "," ) )
+                {
+                    test.run( Integer.parseInt( threads.trim() ) );
+                }
+            }
+            finally
+            {
+                test.tearDown();
+            }
+        }
+    }
+
+    public void setUp()
+        throws SQLException
+    {
+        String url = "jdbc:h2:mem:fauxjo_load_" + supplierType.name().toLowerCase() + ";DB_CLOSE_DELAY=-1";
+        Connection connection = DriverManager.getConnection( url, "sa", "" );
+        Statement statement = connection.createStatement();
+        statement.execute( LoadItem.CREATE_TABLE );
+        statement.close();
+
+        switch ( supplierType )
+        {
+            case SIMPLE:
+                SimpleConnectionSupplier simple = new SimpleConnectionSupplier();
+                simple.setConnection( connection );
+                supplier = simple;
+                break;
+
+            case THREAD_SAFE:
+                connection.close();
+                JdbcDataSource plainDataSource = new JdbcDataSource();
+                plainDataSource.setURL( url );
+                plainDataSource.setUser( "sa" );
+                dataSource = plainDataSource;
+                supplier = new ThreadSafeConnectionSupplier( dataSource );
+                break;
+
+            case POOLED:
+                connection.close();
+                JdbcConnectionPool pool = JdbcConnectionPool.create( url, "sa", "" );
+                pool.setMaxConnections( MAX_CONNECTIONS );
+                dataSource = pool;
+                supplier = new PooledConnectionSupplier( dataSource );
+                break;
+        }
+
+        schema = new LoadSchema( supplier );
+    }
+
+    public void tearDown()
+        throws SQLException
+    {
+        if ( supplierType == Supplier.SIMPLE )
+        {
+            supplier.closeConnection();
+        }
+        if ( dataSource instanceof JdbcConnectionPool )
+        {
+            ( (JdbcConnectionPool) dataSource ).dispose();
+        }
+
+        // Drop the in-memory database.
+        Connection connection = DriverManager.getConnection( "jdbc:h2:mem:fauxjo_load_" + supplierType.name().toLowerCase(), "sa", "" );
+        connection.createStatement().execute( "shutdown" );
+    }
+
+    /**
+     * Run the workload on the given number of threads and print a line of results.
+     */
+    public void run( int numThreads )
+        throws Exception
+    {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicBoolean measuring = new AtomicBoolean();
+        final AtomicBoolean running = new AtomicBoolean( true );
+        final Object lock = supplierType == Supplier.SIMPLE ? new Object() : null;
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for ( int i = 0; i < numThreads; i++ )
+        {
+            final long seed = i;
+            Thread thread = new Thread( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    work( new Random( seed ), histogram, errors, measuring, running, lock );
+                }
+            }, "fauxjo-load-" + i );
+            threads.add( thread );
+            thread.start();
+        }
+
+        Thread.sleep( TimeUnit.SECONDS.toMillis( warmupSeconds ) );
+        measuring.set( true );
+        long start = System.nanoTime();
+        Thread.sleep( TimeUnit.SECONDS.toMillis( measureSeconds ) );
+        measuring.set( false );
+        long elapsedNanos = System.nanoTime() - start;
+        running.set( false );
+
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        OperationSnapshot snapshot = histogram.snapshot( errors.get() );
+        double opsPerSecond = snapshot.getCount() / ( elapsedNanos / 1e9 );
+        System.out.println( String.format( "%-12s %8d %12.0f %10.3f %10.3f %10.3f %8d", supplierType, numThreads, opsPerSecond,
+            snapshot.getP50Nanos() / 1e6, snapshot.getP99Nanos() / 1e6, snapshot.getP999Nanos() / 1e6, snapshot.getErrorCount() ) );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private void work( Random random, LatencyHistogram histogram, AtomicLong errors, AtomicBoolean measuring, AtomicBoolean running,
+        Object lock )
+    {
+        LoadItemHome home = schema.getHomeByClass( LoadItemHome.class );
+        List<LoadItem> live = new ArrayList<LoadItem>();
+
+        while ( running.get() )
+        {
+            long start = System.nanoTime();
+            try
+            {
+                if ( lock != null )
+                {
+                    synchronized ( lock )
+                    {
+                        doOperation( home, random, live );
+                    }
+                }
+                else
+                {
+                    doOperation( home, random, live );
+                }
+
+                if ( measuring.get() )
+                {
+                    histogram.record( System.nanoTime() - start );
+                }
+            }
+            catch ( Exception ex )
+            {
+                if ( measuring.get() )
+                {
+                    errors.incrementAndGet();
+                }
+            }
+        }
+
+        if ( lock == null )
+        {
+            try
+            {
+                supplier.closeConnection();
+            }
+            catch ( SQLException ex )
+            {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    private void doOperation( LoadItemHome home, Random random, List<LoadItem> live )
+        throws SQLException
+    {
+        int roll = random.nextInt( 100 );
+        if ( roll < 20 || live.isEmpty() )
+        {
+            LoadItem item = new LoadItem( nextId.incrementAndGet() );
+            home.insert( item );
+            live.add( item );
+        }
+        else if ( roll < 50 )
+        {
+            LoadItem item = live.get( random.nextInt( live.size() ) );
+            item.touch();
+            home.update( item );
+        }
+        else if ( roll < 90 )
+        {
+            home.findById( live.get( random.nextInt( live.size() ) ).getId() );
+        }
+        else
+        {
+            home.delete( live.remove( random.nextInt( live.size() ) ) );
+        }
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    public enum Supplier
+    {
+        SIMPLE,
+        THREAD_SAFE,
+        POOLED
+    }
+
+    public static class LoadItemHome extends Home<LoadItem>
+    {
+        public LoadItemHome( Schema schema )
+        {
+            super( schema, LoadItem.class, "load_item" );
+        }
+
+        public LoadItem findById( long id )
+            throws SQLException
+        {
+            PreparedStatement statement = prepareStatement( buildBasicSelect( "where id = ?" ) );
+            statement.setLong( 1, id );
+
+            return getFirst( statement.executeQuery() );
+        }
+    }
+
+    private static class LoadSchema extends ConnectionSupplierSchema
+    {
+        public LoadSchema( ConnectionSupplier supplier )
+        {
+            super( "PUBLIC" );
+            setSchemaConnectionSupplier( supplier );
+        }
+
+        @Override
+        protected void initHomeObjects()
+        {
+            addHome( LoadItemHome.class, new LoadItemHome( this ) );
+        }
+    }
+}
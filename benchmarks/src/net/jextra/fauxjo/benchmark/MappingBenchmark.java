@@ -0,0 +1,95 @@
+//
+// MappingBenchmark
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.benchmark;
+
+import java.sql.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of turning the current row of a ResultSet into a bean.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class MappingBenchmark
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    @Param( { "NARROW", "WIDE" } )
+    public Shape shape;
+
+    private ResultSet row;
+    private ResultSetRecordProcessor<Fauxjo> recordProcessor;
+    private ResultSetGrinder<Fauxjo> grinder;
+
+    // The bean every row is mapped into by convertResultSetRowReused, as by ResultSetIterator.reuseBeans.
+    private Fauxjo reusedBean;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Setup
+    public void setup()
+        throws SQLException
+    {
+        row = shape.createRow();
+        recordProcessor = new ResultSetRecordProcessor<Fauxjo>( shape.<Fauxjo> getBeanClass() );
+        grinder = new ResultSetGrinder<Fauxjo>( shape.<Fauxjo> getBeanClass() );
+    }
+
+    @Benchmark
+    public Fauxjo convertResultSetRow()
+        throws SQLException
+    {
+        return recordProcessor.convertResultSetRow( row );
+    }
+
+    @Benchmark
+    public Fauxjo convertResultSetRowReused()
+        throws SQLException
+    {
+        reusedBean = recordProcessor.convertResultSetRow( row, reusedBean );
+
+        return reusedBean;
+    }
+
+    @Benchmark
+    public Fauxjo grinderProcessRow()
+        throws SQLException
+    {
+        return grinder.processRow( row );
+    }
+}
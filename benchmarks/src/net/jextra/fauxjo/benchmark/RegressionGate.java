@@ -0,0 +1,191 @@
+//
+// RegressionGate
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.benchmark;
+
+import java.io.*;
+import java.util.*;
+import org.openjdk.jmh.profile.*;
+import org.openjdk.jmh.results.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * <p>
+ * Runs a fixed suite of the mapping and write benchmarks and compares throughput and bytes allocated per operation to a baseline
+ * file. Exits with status 1 if any benchmark is slower or allocates more than the tolerance allows, so it can fail a build (see the
+ * {@code regression} profile in the pom).
+ * </p>
+ * <p>
+ * System properties:
+ * </p>
+ * <ul>
+ * <li>{@code gate.baseline} Baseline file (default {@code baseline.properties}).</li>
+ * <li>{@code gate.throughputTolerance} Fraction throughput may drop by (default 0.20).</li>
+ * <li>{@code gate.allocationTolerance} Fraction allocation may grow by (default 0.05).</li>
+ * <li>{@code gate.update} If true, the baseline is rewritten with the measured values instead of compared.</li>
+ * </ul>
+ * <p>
+ * Allocation per operation hardly depends on the machine, but throughput does, so the baseline should be recorded on the machine
+ * that runs the gate.
+ * </p>
+ */
+public class RegressionGate
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    // Both the plain and the reused bean mapping are gated, each against its own baseline entries.
+    private static final String SUITE = "MappingBenchmark\\.convertResultSetRow(Reused)?$|BindingBenchmark|WriteBenchmark";
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    // Allocation can differ by a few bytes between runs because of alignment and TLAB sampling.
+    private static final double ALLOCATION_SLACK_BYTES = 16;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static void main( String[] args )
+        throws Exception
+    {
+        File baselineFile = new File( System.getProperty( "gate.baseline", "baseline.properties" ) );
+        double throughputTolerance = Double.parseDouble( System.getProperty( "gate.throughputTolerance", "0.20" ) );
+        double allocationTolerance = Double.parseDouble( System.getProperty( "gate.allocationTolerance", "0.05" ) );
+        boolean update = Boolean.getBoolean( "gate.update" );
+
+        Options options = new OptionsBuilder().include( SUITE ).addProfiler( GCProfiler.class ).build();
+        Properties measured = toProperties( new Runner( options ).run() );
+
+        if ( update )
+        {
+            store( measured, baselineFile );
+            System.out.println( "Baseline written to " + baselineFile.getAbsolutePath() );
+            return;
+        }
+
+        Properties baseline = new Properties();
+        InputStream in = new FileInputStream( baselineFile );
+        try
+        {
+            baseline.load( in );
+        }
+        finally
+        {
+            in.close();
+        }
+
+        int failures = 0;
+        for ( String key : new TreeSet<String>( measured.stringPropertyNames() ) )
+        {
+            double value = Double.parseDouble( measured.getProperty( key ) );
+            String expected = baseline.getProperty( key );
+            if ( expected == null )
+            {
+                System.out.println( String.format( "NEW   %-60s %12.3f (no baseline)", key, value ) );
+                continue;
+            }
+
+            double limit;
+            boolean failed;
+            if ( key.endsWith( ".allocation" ) )
+            {
+                limit = Double.parseDouble( expected ) * ( 1 + allocationTolerance ) + ALLOCATION_SLACK_BYTES;
+                failed = value > limit;
+            }
+            else
+            {
+                limit = Double.parseDouble( expected ) * ( 1 - throughputTolerance );
+                failed = value < limit;
+            }
+
+            System.out.println( String.format( "%-5s %-60s %12.3f (baseline %s, limit %.3f)", failed ? "FAIL" : "OK", key, value,
+                expected, limit ) );
+            if ( failed )
+            {
+                failures++;
+            }
+        }
+
+        if ( failures > 0 )
+        {
+            System.out.println( failures + " benchmark value(s) regressed beyond the tolerance." );
+            System.exit( 1 );
+        }
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    /**
+     * Key = Benchmark class and method, then parameter values, then "throughput" (ops/us) or "allocation" (bytes/op).
+     */
+    private static Properties toProperties( Collection<RunResult> results )
+    {
+        Properties properties = new Properties();
+        for ( RunResult result : results )
+        {
+            String name = result.getParams().getBenchmark();
+            StringBuilder key = new StringBuilder( name.substring( name.lastIndexOf( '.', name.lastIndexOf( '.' ) - 1 ) + 1 ) );
+            for ( String param : result.getParams().getParamsKeys() )
+            {
+                key.append( '.' ).append( result.getParams().getParam( param ) );
+            }
+
+            properties.setProperty( key + ".throughput", String.format( Locale.ROOT, "%.3f", result.getPrimaryResult().getScore() ) );
+
+            Result<?> allocation = result.getSecondaryResults().get( ALLOCATION );
+            if ( allocation != null )
+            {
+                properties.setProperty( key + ".allocation", String.format( Locale.ROOT, "%.1f", allocation.getScore() ) );
+            }
+        }
+
+        return properties;
+    }
+
+    private static void store( Properties properties, File file )
+        throws IOException
+    {
+        // Sorted, so that changes to the baseline diff cleanly.
+        PrintWriter out = new PrintWriter( new OutputStreamWriter( new FileOutputStream( file ), "ISO-8859-1" ) );
+        try
+        {
+            out.println( "# Benchmark baseline for RegressionGate: throughput in ops/us, allocation in bytes/op." );
+            for ( String key : new TreeSet<String>( properties.stringPropertyNames() ) )
+            {
+                out.println( key + "=" + properties.getProperty( key ) );
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+}
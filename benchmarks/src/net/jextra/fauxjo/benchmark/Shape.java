@@ -0,0 +1,208 @@
+//
+// Shape
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.benchmark;
+
+import java.lang.reflect.*;
+import java.sql.*;
+import java.util.*;
+import net.jextra.fauxjo.*;
+import net.jextra.fauxjo.connectionsupplier.*;
+import net.jextra.fauxjo.stub.*;
+
+/**
+ * The bean shapes the benchmarks are run against, with the table definition and a sample row of each.
+ */
+public enum Shape
+{
+    NARROW( "narrow", NarrowBean.class ),
+    WIDE( "wide", WideBean.class );
+
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private String tableName;
+    private Class<? extends Fauxjo> beanClass;
+    private String[] columns;
+    private int[] types;
+    private Object[] row;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    Shape( String tableName, Class<? extends Fauxjo> beanClass )
+    {
+        this.tableName = tableName;
+        this.beanClass = beanClass;
+
+        List<String> columnList = new ArrayList<String>();
+        List<Integer> typeList = new ArrayList<Integer>();
+        List<Object> values = new ArrayList<Object>();
+        for ( Field field : beanClass.getDeclaredFields() )
+        {
+            FauxjoField annotation = field.getAnnotation( FauxjoField.class );
+            if ( annotation == null )
+            {
+                continue;
+            }
+
+            int i = columnList.size();
+            columnList.add( annotation.value() );
+            Class<?> type = field.getType();
+
+            // Values are of the type a driver returns, so non primary key Longs and Dates go through the Coercer like they do
+            // with int4 and timestamp columns.
+            if ( field.isAnnotationPresent( FauxjoPrimaryKey.class ) )
+            {
+                typeList.add( Types.BIGINT );
+                values.add( 1000L + i );
+            }
+            else if ( type == String.class )
+            {
+                typeList.add( Types.VARCHAR );
+                values.add( "value of column " + i );
+            }
+            else if ( type == Long.class || type == Integer.class )
+            {
+                typeList.add( Types.INTEGER );
+                values.add( i * 31 );
+            }
+            else if ( type == Double.class )
+            {
+                typeList.add( Types.DOUBLE );
+                values.add( i * 1.5 );
+            }
+            else if ( type == java.util.Date.class )
+            {
+                typeList.add( Types.TIMESTAMP );
+                values.add( new Timestamp( 1500000000000L + i ) );
+            }
+            else if ( type == Boolean.class )
+            {
+                typeList.add( Types.BOOLEAN );
+                values.add( i % 2 == 0 );
+            }
+            else
+            {
+                throw new IllegalStateException( "No sample value for " + type );
+            }
+        }
+
+        columns = columnList.toArray( new String[columnList.size()] );
+        types = new int[typeList.size()];
+        for ( int i = 0; i < types.length; i++ )
+        {
+            types[i] = typeList.get( i );
+        }
+        row = values.toArray();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public String getTableName()
+    {
+        return tableName;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    public <T extends Fauxjo> Class<T> getBeanClass()
+    {
+        return (Class<T>) beanClass;
+    }
+
+    public String[] getColumns()
+    {
+        return columns;
+    }
+
+    public int[] getTypes()
+    {
+        return types;
+    }
+
+    /**
+     * @return ResultSet that is positioned on a single sample row.
+     */
+    public ResultSet createRow()
+        throws SQLException
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( columns, types, row ) );
+        rs.next();
+
+        return rs;
+    }
+
+    /**
+     * @return Connection whose metadata describes this shape's table.
+     */
+    public StubConnection createConnection()
+    {
+        StubConnection connection = new StubConnection();
+        connection.addTable( tableName, columns, types );
+
+        return connection;
+    }
+
+    /**
+     * @return Schema over the connection that, like a real one, caches its prepared statements.
+     */
+    public Schema createSchema( StubConnection connection )
+    {
+        final SimpleConnectionSupplier supplier = new SimpleConnectionSupplier();
+        supplier.setConnection( connection );
+
+        return new Schema()
+        {
+            @Override
+            public Connection getConnection()
+                throws SQLException
+            {
+                return supplier.getConnection();
+            }
+
+            @Override
+            public PreparedStatement prepareStatement( String sql )
+                throws SQLException
+            {
+                return supplier.prepareStatement( sql );
+            }
+        };
+    }
+
+    /**
+     * @return Bean with the values of the sample row.
+     */
+    public <T extends Fauxjo> T createBean()
+        throws SQLException
+    {
+        return new ResultSetRecordProcessor<T>( this.<T> getBeanClass() ).convertResultSetRow( createRow() );
+    }
+}
@@ -0,0 +1,128 @@
+//
+// WideBean
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.benchmark;
+
+import java.util.*;
+import net.jextra.fauxjo.*;
+
+/**
+ * Bean with 30 columns of mixed types, typical of the main entity tables.
+ */
+public class WideBean extends Fauxjo
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    @FauxjoPrimaryKey
+    @FauxjoField( "id" )
+    private Long id;
+
+    @FauxjoField( "text1" )
+    private String text1;
+
+    @FauxjoField( "text2" )
+    private String text2;
+
+    @FauxjoField( "text3" )
+    private String text3;
+
+    @FauxjoField( "text4" )
+    private String text4;
+
+    @FauxjoField( "text5" )
+    private String text5;
+
+    @FauxjoField( "text6" )
+    private String text6;
+
+    @FauxjoField( "text7" )
+    private String text7;
+
+    @FauxjoField( "text8" )
+    private String text8;
+
+    @FauxjoField( "text9" )
+    private String text9;
+
+    @FauxjoField( "amount1" )
+    private Long amount1;
+
+    @FauxjoField( "amount2" )
+    private Long amount2;
+
+    @FauxjoField( "amount3" )
+    private Long amount3;
+
+    @FauxjoField( "amount4" )
+    private Long amount4;
+
+    @FauxjoField( "amount5" )
+    private Long amount5;
+
+    @FauxjoField( "amount6" )
+    private Long amount6;
+
+    @FauxjoField( "count1" )
+    private Integer count1;
+
+    @FauxjoField( "count2" )
+    private Integer count2;
+
+    @FauxjoField( "count3" )
+    private Integer count3;
+
+    @FauxjoField( "count4" )
+    private Integer count4;
+
+    @FauxjoField( "count5" )
+    private Integer count5;
+
+    @FauxjoField( "count6" )
+    private Integer count6;
+
+    @FauxjoField( "ratio1" )
+    private Double ratio1;
+
+    @FauxjoField( "ratio2" )
+    private Double ratio2;
+
+    @FauxjoField( "ratio3" )
+    private Double ratio3;
+
+    @FauxjoField( "ratio4" )
+    private Double ratio4;
+
+    @FauxjoField( "time1" )
+    private Date time1;
+
+    @FauxjoField( "time2" )
+    private Date time2;
+
+    @FauxjoField( "flag1" )
+    private Boolean flag1;
+
+    @FauxjoField( "flag2" )
+    private Boolean flag2;
+}
@@ -0,0 +1,52 @@
+//
+// FauxjoJfrEvent
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+package net.jextra.fauxjo.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * <p>
+ * Base of the Flight Recorder events of fauxjo. {@link JfrEventListener} begins an event when the work starts and commits it when
+ * the work is done, so the duration of the event is the time the work took.
+ * </p>
+ */
+@Category( "Fauxjo" )
+@StackTrace( false )
+public abstract class FauxjoJfrEvent extends Event
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    @Label( "Table" )
+    @Description( "Table (or bean class) of the Home involved" )
+    public String table;
+
+    @Label( "SQL" )
+    @Description( "Normalized SQL of the statement involved" )
+    public String sql;
+
+    @Label( "Rows" )
+    @Description( "Rows involved, or -1 if not applicable" )
+    public long rows;
+}
@@ -0,0 +1,229 @@
+//
+// JfrEventListener
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+package net.jextra.fauxjo.jfr;
+
+import java.util.*;
+import jdk.jfr.*;
+import net.jextra.fauxjo.metrics.*;
+
+/**
+ * <p>
+ * Commits the events of fauxjo (see {@link FauxjoEventType}) as JDK Flight Recorder events, under the "Fauxjo" category. Call
+ * {@link #register()} once at startup:
+ * </p>
+ *
+ * <pre>
+ * JfrEventListener.register();
+ * </pre>
+ * <p>
+ * Each event is begun when the work starts and committed when it ends, so it has the duration of the work and sits on the
+ * recording's timeline next to the GC, lock and I/O events of the same thread. Thresholds in the recording settings apply as usual.
+ * An event type that is not enabled in a running recording costs nothing: fauxjo does not time the work at all.
+ * </p>
+ * <p>
+ * Row mapping and statement cache hits happen so often that their events are disabled by default; enable fauxjo.RowMap and
+ * fauxjo.StatementCacheHit in the recording settings to get them.
+ * </p>
+ */
+public class JfrEventListener implements FauxjoEventListener
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final List<Class<? extends Event>> EVENT_CLASSES = Collections.unmodifiableList(
+        Arrays.<Class<? extends Event>>asList( ConnectionWaitEvent.class, StatementCacheHitEvent.class, StatementPrepareEvent.class,
+            StatementExecuteEvent.class, ResultFetchEvent.class, RowMapEvent.class ) );
+
+    private static JfrEventListener instance;
+
+    // Index = FauxjoEventType ordinal. Null for the types that have no event.
+    private EventType[] eventTypes;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    private JfrEventListener()
+    {
+        eventTypes = new EventType[FauxjoEventType.values().length];
+        for ( FauxjoEventType type : FauxjoEventType.values() )
+        {
+            Class<? extends FauxjoJfrEvent> eventClass = getEventClass( type );
+            if ( eventClass != null )
+            {
+                eventTypes[type.ordinal()] = EventType.getEventType( eventClass );
+            }
+        }
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Register the event classes with Flight Recorder and the listener with {@link FauxjoEvents}. Does nothing if already
+     * registered.
+     */
+    public static synchronized void register()
+    {
+        if ( instance != null )
+        {
+            return;
+        }
+
+        for ( Class<? extends Event> eventClass : EVENT_CLASSES )
+        {
+            FlightRecorder.register( eventClass );
+        }
+        instance = new JfrEventListener();
+        FauxjoEvents.addListener( instance );
+    }
+
+    public static synchronized void unregister()
+    {
+        if ( instance == null )
+        {
+            return;
+        }
+
+        FauxjoEvents.removeListener( instance );
+        instance = null;
+        for ( Class<? extends Event> eventClass : EVENT_CLASSES )
+        {
+            FlightRecorder.unregister( eventClass );
+        }
+    }
+
+    public static List<Class<? extends Event>> getEventClasses()
+    {
+        return EVENT_CLASSES;
+    }
+
+    /**
+     * @return true if a running recording has the event of the type enabled.
+     */
+    @Override
+    public boolean isEnabled( FauxjoEventType type )
+    {
+        EventType eventType = eventTypes[type.ordinal()];
+
+        return eventType != null && eventType.isEnabled();
+    }
+
+    @Override
+    public Object begin( FauxjoEventType type )
+    {
+        FauxjoJfrEvent event = createEvent( type );
+        if ( event != null )
+        {
+            event.begin();
+        }
+
+        return event;
+    }
+
+    @Override
+    public void end( Object handle, FauxjoEventType type, String tableName, String sqlFingerprint, long startNanos,
+        long durationNanos, long rowCount )
+    {
+        if ( handle == null )
+        {
+            return;
+        }
+
+        FauxjoJfrEvent event = (FauxjoJfrEvent) handle;
+        event.end();
+        if ( event.shouldCommit() )
+        {
+            event.table = tableName;
+            event.sql = sqlFingerprint;
+            event.rows = rowCount;
+            event.commit();
+        }
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static Class<? extends FauxjoJfrEvent> getEventClass( FauxjoEventType type )
+    {
+        switch ( type )
+        {
+            case CONNECTION_ACQUIRE:
+                return ConnectionWaitEvent.class;
+
+            case STATEMENT_CACHE_HIT:
+                return StatementCacheHitEvent.class;
+
+            case STATEMENT_PREPARE:
+                return StatementPrepareEvent.class;
+
+            case STATEMENT_EXECUTE:
+                return StatementExecuteEvent.class;
+
+            case RESULT_FETCH:
+                return ResultFetchEvent.class;
+
+            case ROW_MAP:
+                return RowMapEvent.class;
+
+            default:
+                // STATEMENT_CACHE_MISS always comes with a STATEMENT_PREPARE.
+                return null;
+        }
+    }
+
+    private static FauxjoJfrEvent createEvent( FauxjoEventType type )
+    {
+        switch ( type )
+        {
+            case CONNECTION_ACQUIRE:
+                return new ConnectionWaitEvent();
+
+            case STATEMENT_CACHE_HIT:
+                return new StatementCacheHitEvent();
+
+            case STATEMENT_PREPARE:
+                return new StatementPrepareEvent();
+
+            case STATEMENT_EXECUTE:
+                return new StatementExecuteEvent();
+
+            case RESULT_FETCH:
+                return new ResultFetchEvent();
+
+            case ROW_MAP:
+                return new RowMapEvent();
+
+            default:
+                // STATEMENT_CACHE_MISS always comes with a STATEMENT_PREPARE.
+                return null;
+        }
+    }
+}
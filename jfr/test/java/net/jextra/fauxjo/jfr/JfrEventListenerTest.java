@@ -0,0 +1,76 @@
+package net.jextra.fauxjo.jfr;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.jextra.fauxjo.metrics.FauxjoEventType;
+import net.jextra.fauxjo.metrics.FauxjoEvents;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JfrEventListenerTest
+{
+    @Test
+    public void testRecording()
+        throws Exception
+    {
+        File file = File.createTempFile( "fauxjo", ".jfr" );
+        JfrEventListener.register();
+        try
+        {
+            assertTrue( FauxjoEvents.isEnabled() );
+            // No recording yet.
+            assertNull( FauxjoEvents.begin( FauxjoEventType.STATEMENT_EXECUTE ) );
+
+            Recording recording = new Recording();
+            recording.enable( "fauxjo.StatementExecute" );
+            recording.enable( "fauxjo.ConnectionWait" );
+            recording.enable( "fauxjo.ResultFetch" ).withThreshold( Duration.ofSeconds( 10 ) );
+            recording.start();
+
+            FauxjoEvents.Span span = FauxjoEvents.begin( FauxjoEventType.CONNECTION_ACQUIRE );
+            Thread.sleep( 5 );
+            FauxjoEvents.end( span, null, null, -1 );
+            FauxjoEvents.end( FauxjoEvents.begin( FauxjoEventType.STATEMENT_EXECUTE ), "character", "DELETE FROM character WHERE id = 5",
+                1 );
+            // Below the threshold.
+            FauxjoEvents.end( FauxjoEvents.begin( FauxjoEventType.RESULT_FETCH ), "character", null, 3 );
+            // Not enabled in the recording, so not even started.
+            assertNull( FauxjoEvents.begin( FauxjoEventType.ROW_MAP ) );
+
+            recording.stop();
+            recording.dump( file.toPath() );
+            recording.close();
+        }
+        finally
+        {
+            JfrEventListener.unregister();
+        }
+        assertFalse( FauxjoEvents.isEnabled() );
+
+        List<String> events = new ArrayList<String>();
+        for ( RecordedEvent event : RecordingFile.readAllEvents( file.toPath() ) )
+        {
+            events.add( event.getEventType().getName() + " " + event.getString( "table" ) + " " + event.getString( "sql" ) + " " +
+                event.getLong( "rows" ) );
+            if ( event.getEventType().getName().equals( "fauxjo.ConnectionWait" ) )
+            {
+                // Spans the work, instead of being a point in time at its end.
+                assertTrue( event.getDuration().toNanos() >= 5000000 );
+                assertTrue( event.getEndTime().isAfter( event.getStartTime() ) );
+            }
+        }
+        file.delete();
+
+        assertEquals( Arrays.asList( "fauxjo.ConnectionWait null null -1",
+            "fauxjo.StatementExecute character delete from character where id = ? 1" ), events );
+    }
+}
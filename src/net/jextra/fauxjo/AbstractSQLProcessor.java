@@ -25,10 +25,17 @@ package net.jextra.fauxjo;
 
 import java.sql.*;
 import java.util.*;
+import net.jextra.fauxjo.columnar.*;
+import net.jextra.fauxjo.metrics.*;
 
 /**
  * AbstractSQLProcessor is a base class of the various SQLProcessor classes and does all the shared stuff that doesn't
  * depend on the underlying table structure.
+ * <p>
+ * It also has the features that were added after {@link SQLProcessor} (lazy and partial mapping, column batches, projected selects
+ * and warming up), which are kept off the interface so that existing implementations of it still compile. {@link Home} and
+ * {@link Schema} only offer them for processors that extend this class.
+ * </p>
  *
  * @param <T> The {@link FauxjoInterface} bean class this processor works with.
  */
@@ -141,15 +148,116 @@ public abstract class AbstractSQLProcessor<T extends FauxjoInterface> implements
         return result;
     }
 
+    /**
+     * Map the rows of the result set lazily, as if the bean class had the {@link FauxjoLazy} annotation.
+     *
+     * @return The result set.
+     */
+    public ResultSet decodeLazily( ResultSet rs )
+    {
+        return recordProcessor.decodeLazily( rs );
+    }
+
+    /**
+     * Map the rows of the result set to partial beans, with the fields whose column is not in the result set tracked as not loaded.
+     *
+     * @return The result set.
+     */
+    public ResultSet mapPartially( ResultSet rs )
+    {
+        return recordProcessor.mapPartially( rs );
+    }
+
     @Override
     public ResultSetIterator<T> getIterator( ResultSet rs )
         throws SQLException
     {
-        ResultSetIterator<T> iterator = new ResultSetIterator<T>( recordProcessor, rs );
+        ResultSetIterator<T> iterator;
+        try
+        {
+            iterator = new ResultSetIterator<T>( recordProcessor, rs );
+        }
+        catch ( SQLException ex )
+        {
+            reportSQLException( ex );
+            throw ex;
+        }
+        iterator.setSchema( getSchema() );
 
         return iterator;
     }
 
+    /**
+     * @return The rows of the result set column by column, see {@link ColumnBatch}. The result set is closed.
+     */
+    public ColumnBatch getColumns( ResultSet rs )
+        throws SQLException
+    {
+        return getColumns( rs, Integer.MAX_VALUE );
+    }
+
+    public ColumnBatch getColumns( ResultSet rs, int maxNumRows )
+        throws SQLException
+    {
+        FauxjoEvents.Span span = FauxjoEvents.begin( FauxjoEventType.RESULT_FETCH );
+        ColumnBatch batch;
+        try
+        {
+            batch = recordProcessor.convertResultSetColumns( rs, maxNumRows );
+        }
+        catch ( SQLException ex )
+        {
+            reportSQLException( ex );
+            throw ex;
+        }
+
+        FauxjoEvents.end( span, getMetricsName(), null, batch.size() );
+
+        return batch;
+    }
+
+    /**
+     * @return Name the statistics of this processor are recorded under in {@link net.jextra.fauxjo.metrics.FauxjoMetrics}.
+     */
+    public String getMetricsName()
+    {
+        return recordProcessor.getMetricsName();
+    }
+
+    /**
+     * Build a select statement of only the given columns of the underlying table or tables, for mapping partial beans (see
+     * {@link #mapPartially(ResultSet)}). Not supported by default.
+     *
+     * @param clause
+     *            The where clause to build the statement with.
+     * @param keys
+     *            The columns to select.
+     * @throws SQLException
+     *             If a column is not in the table.
+     */
+    public String buildProjectedSelect( String clause, String... keys )
+        throws SQLException
+    {
+        throw new FauxjoException( getClass().getCanonicalName() + " does not support projected selects." );
+    }
+
+    /**
+     * Load the column metadata of the underlying table or tables and build the update and delete SQL ahead of first use. This
+     * may be called from a thread other than the ones that later use the processor. Nothing to load by default.
+     */
+    public void loadMetadata()
+        throws SQLException
+    {
+    }
+
+    /**
+     * Prepare the update and delete statements with the connection of the calling thread. Nothing to prepare by default.
+     */
+    public void prepareStatements()
+        throws SQLException
+    {
+    }
+
     // ----------
     // protected
     // ----------
@@ -157,17 +265,45 @@ public abstract class AbstractSQLProcessor<T extends FauxjoInterface> implements
     protected void processResultSet( Collection<T> collection, ResultSet rs, int numRows )
         throws SQLException
     {
+        FauxjoEvents.Span span = FauxjoEvents.begin( FauxjoEventType.RESULT_FETCH );
         int counter = 0;
-        while ( rs.next() && ( counter < numRows ) )
+        ResultSetRecordProcessor<T>.RowPlan plan = null;
+        try
+        {
+            while ( rs.next() && ( counter < numRows ) )
+            {
+                if ( plan == null )
+                {
+                    plan = recordProcessor.planRows( rs );
+                }
+                collection.add( recordProcessor.convertResultSetRow( plan, rs, null ) );
+                counter++;
+            }
+            rs.close();
+        }
+        catch ( SQLException ex )
         {
-            collection.add( recordProcessor.convertResultSetRow( rs ) );
-            counter++;
+            reportSQLException( ex );
+            throw ex;
         }
-        rs.close();
+
+        FauxjoEvents.end( span, getMetricsName(), null, counter );
     }
 
     protected ResultSetRecordProcessor<T> getResultSetRecordProcessor()
     {
         return recordProcessor;
     }
+
+    /**
+     * Let the schema check the connection after a failure (see {@link Schema#handleSQLException(SQLException)}).
+     */
+    protected void reportSQLException( SQLException ex )
+    {
+        Schema schema = getSchema();
+        if ( schema != null )
+        {
+            schema.reportSQLException( ex );
+        }
+    }
 }
@@ -0,0 +1,411 @@
+//
+// AsyncHome
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * <p>
+ * Asynchronous facade of a {@link Home}, obtained from {@link Home#async()}. Each operation is run on the {@link Schema}'s async
+ * executor and a {@link Future} of the result is returned right away, so callers can fan out independent queries and overlap them.
+ * </p>
+ * <p>
+ * The executor should be bounded and sized to the connection pool (see {@link #createExecutor(int, int)}). When its queue is full
+ * the operation is rejected right away with a {@link RejectedExecutionException}.
+ * </p>
+ * <p>
+ * The timeout of the operations is the schema's async timeout unless one is given with {@link #withTimeout(long)}. It counts from
+ * the moment the operation is submitted, so time spent waiting in the executor's queue counts too: an operation still queued when
+ * it runs out is never run. Statements prepared through the schema while an operation runs get a query timeout of the time left,
+ * and when the operation runs out they are cancelled with {@link Statement#cancel()} as well as the worker thread interrupted, as
+ * a thread blocked in a driver's socket read does not notice an interrupt.
+ * </p>
+ * <p>
+ * Note: The operations run on the executor's threads, so the schema's {@link net.jextra.fauxjo.connectionsupplier.ConnectionSupplier}
+ * must hand out a connection per thread (e.g. ThreadSafeConnectionSupplier or PooledConnectionSupplier).
+ * </p>
+ */
+public class AsyncHome<T extends FauxjoInterface>
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static ScheduledExecutorService timeoutTimer;
+
+    // The task run by the current (executor) thread.
+    private static final ThreadLocal<TimedTask<?>> currentTask = new ThreadLocal<TimedTask<?>>();
+
+    private Home<T> home;
+
+    // Negative to use the schema's async timeout.
+    private long timeoutMillis;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public AsyncHome( Home<T> home )
+    {
+        this( home, -1 );
+    }
+
+    /**
+     * @param timeoutMillis Timeout of the operations, zero for none, negative for the schema's async timeout.
+     */
+    public AsyncHome( Home<T> home, long timeoutMillis )
+    {
+        this.home = home;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Create a fixed size executor with a bounded queue that rejects new work when the queue is full.
+     *
+     * @param numThreads Should match the number of connections available to the schema.
+     * @param queueLimit Maximum number of operations waiting for a thread.
+     */
+    public static ExecutorService createExecutor( int numThreads, int queueLimit )
+    {
+        return new ThreadPoolExecutor( numThreads, numThreads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>( queueLimit ),
+            new DaemonThreadFactory( "fauxjo-async" ), new ThreadPoolExecutor.AbortPolicy() );
+    }
+
+    /**
+     * @return View of the same Home whose operations time out after the given time instead of the schema's async timeout (zero for
+     * no timeout), e.g. {@code home.async().withTimeout( 500 ).getList( query )}.
+     */
+    public AsyncHome<T> withTimeout( long timeoutMillis )
+    {
+        return new AsyncHome<T>( home, Math.max( timeoutMillis, 0 ) );
+    }
+
+    public long getTimeoutMillis()
+    {
+        return timeoutMillis < 0 ? home.getSchema().getAsyncTimeoutMillis() : timeoutMillis;
+    }
+
+    public Future<Boolean> insert( final T bean )
+    {
+        return submit( new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call()
+                throws SQLException
+            {
+                return home.insert( bean );
+            }
+        } );
+    }
+
+    public Future<Integer> update( final T bean )
+    {
+        return submit( new Callable<Integer>()
+        {
+            @Override
+            public Integer call()
+                throws SQLException
+            {
+                return home.update( bean );
+            }
+        } );
+    }
+
+    public Future<Boolean> delete( final T bean )
+    {
+        return submit( new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call()
+                throws SQLException
+            {
+                return home.delete( bean );
+            }
+        } );
+    }
+
+    public Future<T> getFirst( final Query<T> query )
+    {
+        return submit( new Callable<T>()
+        {
+            @Override
+            public T call()
+                throws SQLException
+            {
+                return home.getFirst( query.executeQuery( home ) );
+            }
+        } );
+    }
+
+    public Future<T> getUnique( final Query<T> query )
+    {
+        return submit( new Callable<T>()
+        {
+            @Override
+            public T call()
+                throws SQLException
+            {
+                return home.getUnique( query.executeQuery( home ) );
+            }
+        } );
+    }
+
+    public Future<List<T>> getList( final Query<T> query )
+    {
+        return submit( new Callable<List<T>>()
+        {
+            @Override
+            public List<T> call()
+                throws SQLException
+            {
+                return home.getList( query.executeQuery( home ) );
+            }
+        } );
+    }
+
+    public Future<Set<T>> getSet( final Query<T> query )
+    {
+        return submit( new Callable<Set<T>>()
+        {
+            @Override
+            public Set<T> call()
+                throws SQLException
+            {
+                return home.getSet( query.executeQuery( home ) );
+            }
+        } );
+    }
+
+    /**
+     * Run arbitrary work against the Home on the async executor.
+     */
+    public <V> Future<V> submit( Callable<V> work )
+    {
+        Schema schema = home.getSchema();
+        ExecutorService executor = schema.getAsyncExecutor();
+        if ( executor == null )
+        {
+            throw new IllegalStateException( "No async executor has been set on the schema." );
+        }
+
+        long timeoutMillis = getTimeoutMillis();
+        TimedTask<V> task = new TimedTask<V>( work, timeoutMillis );
+        executor.execute( task );
+
+        if ( timeoutMillis > 0 )
+        {
+            task.startTimeout( timeoutMillis );
+        }
+
+        return task;
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    /**
+     * Called by the schema for every statement it prepares, so the operation running on this thread (if any) can limit the
+     * statement to the time left and cancel it when it runs out.
+     */
+    static void watchStatement( Statement statement )
+        throws SQLException
+    {
+        TimedTask<?> task = currentTask.get();
+        if ( task != null )
+        {
+            task.watch( statement );
+        }
+    }
+
+    private static synchronized ScheduledExecutorService getTimeoutTimer()
+    {
+        if ( timeoutTimer == null )
+        {
+            timeoutTimer = Executors.newSingleThreadScheduledExecutor( new DaemonThreadFactory( "fauxjo-async-timeout" ) );
+        }
+
+        return timeoutTimer;
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    /**
+     * Executes the query for an asynchronous operation. It is called on the executor's thread, so it must prepare its statement
+     * there too (e.g. with {@link Home#prepareStatement(String)}).
+     */
+    public interface Query<T extends FauxjoInterface>
+    {
+        ResultSet executeQuery( Home<T> home )
+            throws SQLException;
+    }
+
+    /**
+     * Task that cancels itself, and the statements it is running, if it is not done before its timeout.
+     */
+    private static class TimedTask<V> extends FutureTask<V>
+    {
+        // Zero for no timeout.
+        private long deadlineNanos;
+        private volatile ScheduledFuture<?> timeout;
+
+        // Key = Statement prepared while the task ran.
+        // Value = Its query timeout before the task changed it.
+        private Map<Statement, Integer> statements;
+
+        public TimedTask( Callable<V> callable, long timeoutMillis )
+        {
+            super( callable );
+            deadlineNanos = timeoutMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( timeoutMillis ) : 0;
+            statements = new IdentityHashMap<Statement, Integer>();
+        }
+
+        @Override
+        public void run()
+        {
+            currentTask.set( this );
+            try
+            {
+                super.run();
+            }
+            finally
+            {
+                currentTask.remove();
+                restoreStatements();
+            }
+        }
+
+        public void startTimeout( long timeoutMillis )
+        {
+            timeout = getTimeoutTimer().schedule( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    expire();
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS );
+
+            // In case the task finished before the timeout was scheduled.
+            if ( isDone() )
+            {
+                timeout.cancel( false );
+            }
+        }
+
+        public void watch( Statement statement )
+            throws SQLException
+        {
+            if ( deadlineNanos == 0 )
+            {
+                return;
+            }
+
+            // Statements are often cached, so the query timeout they had is put back once the task is done.
+            Integer previous;
+            synchronized ( statements )
+            {
+                previous = statements.get( statement );
+                if ( previous == null )
+                {
+                    previous = statement.getQueryTimeout();
+                    statements.put( statement, previous );
+                }
+            }
+
+            // Query timeouts are whole seconds, rounded up so the driver does not give up before the task does.
+            long leftMillis = TimeUnit.NANOSECONDS.toMillis( deadlineNanos - System.nanoTime() );
+            int seconds = (int) Math.max( ( leftMillis + 999 ) / 1000, 1 );
+            if ( previous == 0 || previous > seconds )
+            {
+                statement.setQueryTimeout( seconds );
+            }
+        }
+
+        @Override
+        protected void done()
+        {
+            ScheduledFuture<?> t = timeout;
+            if ( t != null )
+            {
+                t.cancel( false );
+            }
+        }
+
+        private void expire()
+        {
+            // Cancelled first, so the failure of the cancelled statement is not what the caller gets.
+            if ( !cancel( true ) )
+            {
+                return;
+            }
+
+            synchronized ( statements )
+            {
+                for ( Statement statement : statements.keySet() )
+                {
+                    try
+                    {
+                        statement.cancel();
+                    }
+                    catch ( SQLException ex )
+                    {
+                        // Not supported by the driver or already finished; the interrupt is all that is left.
+                    }
+                }
+            }
+        }
+
+        private void restoreStatements()
+        {
+            synchronized ( statements )
+            {
+                for ( Map.Entry<Statement, Integer> entry : statements.entrySet() )
+                {
+                    try
+                    {
+                        entry.getKey().setQueryTimeout( entry.getValue() );
+                    }
+                    catch ( SQLException ex )
+                    {
+                        // The statement is closed, so there is nothing to restore.
+                    }
+                }
+                statements.clear();
+            }
+        }
+    }
+}
@@ -25,11 +25,22 @@ package net.jextra.fauxjo;
 
 import java.math.*;
 import java.util.*;
+import net.jextra.fauxjo.beandef.*;
 import net.jextra.fauxjo.coercer.*;
 
 /**
+ * <p>
  * General use tool that coerces one value type to another value type. For example from a
  * String to an Integer.
+ * </p>
+ * <p>
+ * The {@link TypeCoercer} for a pair of value class and destination class is looked up once and kept as a {@link Converter}. Code
+ * that converts many values of the same classes (e.g. every row of a result set) can hold on to the Converter itself.
+ * </p>
+ * <p>
+ * A Coercer is safe to share between threads. Each {@link Schema} has one for all its Homes, code without a Schema uses
+ * {@link #getDefault()}. Adding a TypeCoercer copies the registry, so lookups never lock.
+ * </p>
  */
 public class Coercer
 {
@@ -37,7 +48,15 @@ public class Coercer
     // Fields
     // ============================================================
 
-    private Map<Class<?>, TypeCoercer<?>> coercerMap = new HashMap<Class<?>, TypeCoercer<?>>();
+    private static final Converter IDENTITY = new IdentityConverter();
+    private static final Coercer DEFAULT = new Coercer();
+
+    // Never changed once published, replaced by a copy instead.
+    private volatile Map<Class<?>, TypeCoercer<?>> coercerMap;
+
+    // Key = Class of the value.
+    // Value = Converters of that class keyed by destination class.
+    private ClassCache<ClassCache<Converter>> converters;
 
     // ============================================================
     // Constructors
@@ -45,6 +64,7 @@ public class Coercer
 
     public Coercer()
     {
+        Map<Class<?>, TypeCoercer<?>> coercerMap = new HashMap<Class<?>, TypeCoercer<?>>();
         coercerMap.put( Object.class, new ObjectCoercer() );
         coercerMap.put( String.class, new StringCoercer() );
         coercerMap.put( Byte.class, new ByteCoercer() );
@@ -58,6 +78,36 @@ public class Coercer
         coercerMap.put( java.sql.Date.class, new SQLDateCoercer() );
         coercerMap.put( java.sql.Timestamp.class, new SQLTimestampCoercer() );
         coercerMap.put( UUID.class, new UUIDCoercer() );
+        ArrayCoercer arrayCoercer = new ArrayCoercer();
+        coercerMap.put( Object[].class, arrayCoercer );
+        coercerMap.put( long[].class, arrayCoercer );
+        coercerMap.put( int[].class, arrayCoercer );
+        coercerMap.put( double[].class, arrayCoercer );
+        this.coercerMap = coercerMap;
+
+        converters = new ClassCache<ClassCache<Converter>>()
+        {
+            @Override
+            protected ClassCache<Converter> computeValue( final Class<?> valueClass )
+            {
+                return new ClassCache<Converter>()
+                {
+                    @Override
+                    protected Converter computeValue( Class<?> destClass )
+                        throws FauxjoException
+                    {
+                        // A primitive destination shares the converter of its wrapper class.
+                        Class<?> wrapperClass = getWrapperClass( destClass );
+                        if ( wrapperClass != destClass )
+                        {
+                            return get( wrapperClass );
+                        }
+
+                        return resolveConverter( valueClass, destClass );
+                    }
+                };
+            }
+        };
     }
 
     // ============================================================
@@ -68,9 +118,24 @@ public class Coercer
     // public
     // ----------
 
-    public <T> void addTypeCoercer( Class<T> coercerClass, TypeCoercer<T> coercer )
+    /**
+     * @return The Coercer shared by code that has no {@link Schema} to take one from, e.g. a {@link ResultSetGrinder}.
+     */
+    public static Coercer getDefault()
+    {
+        return DEFAULT;
+    }
+
+    /**
+     * TypeCoercers are meant to be added once, at startup. Converters obtained before (or resolved during) the call keep using the
+     * TypeCoercers they were resolved with.
+     */
+    public synchronized <T> void addTypeCoercer( Class<T> coercerClass, TypeCoercer<T> coercer )
     {
-        coercerMap.put( (Class<?>) coercerClass, (TypeCoercer<?>) coercer );
+        Map<Class<?>, TypeCoercer<?>> newCoercerMap = new HashMap<Class<?>, TypeCoercer<?>>( coercerMap );
+        newCoercerMap.put( (Class<?>) coercerClass, (TypeCoercer<?>) coercer );
+        coercerMap = newCoercerMap;
+        converters.clear();
     }
 
     @SuppressWarnings( "unchecked" )
@@ -79,7 +144,22 @@ public class Coercer
         return (TypeCoercer<T>) coercerMap.get( coercerClass );
     }
 
-    @SuppressWarnings( "unchecked" )
+    /**
+     * <p>
+     * The converter of values of exactly valueClass to destClass. A primitive destClass gets its wrapper class.
+     * </p>
+     * <p>
+     * Values already of destClass, or of a subclass of it without a TypeCoercer of their own, are passed through. Otherwise the
+     * TypeCoercer of the value class is used, or if it has none the one of its nearest superclass, then of its interfaces, and
+     * finally the {@link ObjectCoercer}. Arrays of objects (e.g. Long[]) use the TypeCoercer of Object[].
+     * </p>
+     */
+    public Converter getConverter( Class<?> valueClass, Class<?> destClass )
+        throws FauxjoException
+    {
+        return converters.get( valueClass ).get( destClass );
+    }
+
     public <T> Object coerce( T value, Class<?> destClass )
         throws FauxjoException
     {
@@ -89,56 +169,159 @@ public class Coercer
             return null;
         }
 
-        if ( destClass.isPrimitive() )
+        return getConverter( value.getClass(), destClass ).convert( value );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private Converter resolveConverter( Class<?> valueClass, Class<?> destClass )
+    {
+        Map<Class<?>, TypeCoercer<?>> coercerMap = this.coercerMap;
+
+        // Short-circuit if destClass same as value class
+        if ( valueClass == destClass )
+        {
+            return IDENTITY;
+        }
+
+        TypeCoercer<?> coercer = coercerMap.get( valueClass );
+        if ( coercer == null )
         {
-            if ( destClass == Boolean.TYPE )
-            {
-                destClass = Boolean.class;
-            }
-            else if ( destClass == Byte.TYPE )
-            {
-                destClass = Byte.class;
-            }
-            else if ( destClass == Character.TYPE )
-            {
-                destClass = Character.class;
-            }
-            else if ( destClass == Double.TYPE )
-            {
-                destClass = Double.class;
-            }
-            else if ( destClass == Float.TYPE )
+            // What the ObjectCoercer would have done, without the call.
+            if ( destClass.isAssignableFrom( valueClass ) )
             {
-                destClass = Float.class;
+                return IDENTITY;
             }
-            else if ( destClass == Integer.TYPE )
+
+            coercer = findInheritedTypeCoercer( coercerMap, valueClass );
+        }
+
+        // use default coercer if none is found
+        if ( coercer == null )
+        {
+            coercer = coercerMap.get( Object.class );
+        }
+
+        return new TypeCoercerConverter( coercer, destClass );
+    }
+
+    private static TypeCoercer<?> findInheritedTypeCoercer( Map<Class<?>, TypeCoercer<?>> coercerMap, Class<?> valueClass )
+    {
+        if ( valueClass.isArray() && !valueClass.getComponentType().isPrimitive() )
+        {
+            return coercerMap.get( Object[].class );
+        }
+
+        for ( Class<?> c = valueClass.getSuperclass(); c != null && c != Object.class; c = c.getSuperclass() )
+        {
+            TypeCoercer<?> coercer = coercerMap.get( c );
+            if ( coercer != null )
             {
-                destClass = Integer.class;
+                return coercer;
             }
-            else if ( destClass == Long.TYPE )
+        }
+
+        // Interfaces breadth first, those of the class itself before those of its superclasses.
+        LinkedList<Class<?>> interfaces = new LinkedList<Class<?>>();
+        for ( Class<?> c = valueClass; c != null; c = c.getSuperclass() )
+        {
+            interfaces.addAll( Arrays.asList( c.getInterfaces() ) );
+        }
+        Set<Class<?>> visited = new HashSet<Class<?>>();
+        while ( !interfaces.isEmpty() )
+        {
+            Class<?> c = interfaces.removeFirst();
+            if ( !visited.add( c ) )
             {
-                destClass = Long.class;
+                continue;
             }
-            else if ( destClass == Short.TYPE )
+
+            TypeCoercer<?> coercer = coercerMap.get( c );
+            if ( coercer != null )
             {
-                destClass = Short.class;
+                return coercer;
             }
+            interfaces.addAll( Arrays.asList( c.getInterfaces() ) );
         }
 
-        // Short-circuit if destClass same as value class
-        if ( value.getClass().equals( destClass ) )
+        return null;
+    }
+
+    private static Class<?> getWrapperClass( Class<?> destClass )
+    {
+        if ( !destClass.isPrimitive() )
+        {
+            return destClass;
+        }
+
+        if ( destClass == Boolean.TYPE )
+        {
+            return Boolean.class;
+        }
+        else if ( destClass == Byte.TYPE )
+        {
+            return Byte.class;
+        }
+        else if ( destClass == Character.TYPE )
+        {
+            return Character.class;
+        }
+        else if ( destClass == Double.TYPE )
+        {
+            return Double.class;
+        }
+        else if ( destClass == Float.TYPE )
+        {
+            return Float.class;
+        }
+        else if ( destClass == Integer.TYPE )
+        {
+            return Integer.class;
+        }
+        else if ( destClass == Long.TYPE )
+        {
+            return Long.class;
+        }
+        else if ( destClass == Short.TYPE )
+        {
+            return Short.class;
+        }
+
+        return destClass;
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    private static class IdentityConverter implements Converter
+    {
+        @Override
+        public Object convert( Object value )
         {
             return value;
         }
+    }
 
-        TypeCoercer<T> coercer = (TypeCoercer<T>) coercerMap.get( value.getClass() );
+    private static class TypeCoercerConverter implements Converter
+    {
+        private TypeCoercer<Object> coercer;
+        private Class<?> destClass;
 
-        // use default coercer if none is found
-        if ( coercer == null )
+        @SuppressWarnings( "unchecked" )
+        public TypeCoercerConverter( TypeCoercer<?> coercer, Class<?> destClass )
         {
-            coercer = (TypeCoercer<T>) coercerMap.get( Object.class );
+            this.coercer = (TypeCoercer<Object>) coercer;
+            this.destClass = destClass;
         }
 
-        return coercer.coerce( value, destClass );
+        @Override
+        public Object convert( Object value )
+            throws FauxjoException
+        {
+            return value == null ? null : coercer.coerce( value, destClass );
+        }
     }
 }
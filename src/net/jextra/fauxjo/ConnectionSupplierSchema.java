@@ -24,6 +24,7 @@
 package net.jextra.fauxjo;
 
 import net.jextra.fauxjo.connectionsupplier.ConnectionSupplier;
+import net.jextra.fauxjo.connectionsupplier.SimpleConnectionSupplier;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -57,6 +58,18 @@ public abstract class ConnectionSupplierSchema extends Schema
         return connSupplier.prepareStatement( sql );
     }
 
+    @Override
+    public boolean handleSQLException( SQLException ex )
+        throws SQLException
+    {
+        if ( connSupplier instanceof SimpleConnectionSupplier )
+        {
+            return ( (SimpleConnectionSupplier) connSupplier ).handleSQLException( ex );
+        }
+
+        return false;
+    }
+
     protected abstract void initHomeObjects();
 
 }
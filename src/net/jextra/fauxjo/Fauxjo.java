@@ -23,6 +23,7 @@
 
 package net.jextra.fauxjo;
 
+import java.io.*;
 import java.lang.reflect.*;
 import java.util.*;
 import net.jextra.fauxjo.beandef.*;
@@ -35,9 +36,26 @@ import net.jextra.fauxjo.beandef.*;
  * Note: This implementation overrides the {@code hashCode} and {@code equals} methods in order to properly compare Fauxjo's properly (e.g. same
  * primary key) when placed in Collections, etc.
  * </p>
+ * <p>
+ * Note: Fauxjo is not Serializable, so what it knows about a lazily mapped bean ({@link FauxjoLazy}) or a partial bean
+ * ({@link Home#partial(java.sql.ResultSet)}) would not survive the serialization of a Serializable subclass, and the bean would
+ * come back looking fully loaded. Updating it would then overwrite the columns that were never read. To prevent that, a lazy bean
+ * is decoded before it is serialized and a partial bean can not be serialized at all (see {@link #writeReplace()}).
+ * </p>
  */
 public abstract class Fauxjo implements FauxjoInterface
 {
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    // Columns of the row the bean was mapped from that have not been decoded into it yet (see FauxjoLazy), or null.
+    private transient ResultSetRecordProcessor.LazyValues lazyValues;
+
+    // Keys of the fields that were not in the result set of a partial bean (see Home#partial) and have not been written since, or
+    // null if all are loaded.
+    private transient Set<String> notLoadedKeys;
+
     // ============================================================
     // Methods
     // ============================================================
@@ -50,6 +68,8 @@ public abstract class Fauxjo implements FauxjoInterface
     public Object readValue( String key )
         throws FauxjoException
     {
+        decodeValue( key );
+
         try
         {
             BeanDef beanDef = BeanDefCache.getBeanDef( getClass() );
@@ -57,7 +77,6 @@ public abstract class Fauxjo implements FauxjoInterface
             Field field = beanDef.getField( key );
             if ( field != null )
             {
-                field.setAccessible( true );
                 return field.get( this );
             }
 
@@ -84,6 +103,16 @@ public abstract class Fauxjo implements FauxjoInterface
     public void writeValue( String key, Object value )
         throws FauxjoException
     {
+        // A value written before it was decoded replaces the one from the row.
+        if ( lazyValues != null )
+        {
+            lazyValues.discard( key );
+        }
+        if ( notLoadedKeys != null )
+        {
+            markLoaded( key );
+        }
+
         try
         {
             BeanDef beanDef = BeanDefCache.getBeanDef( getClass() );
@@ -93,7 +122,6 @@ public abstract class Fauxjo implements FauxjoInterface
             {
                 try
                 {
-                    field.setAccessible( true );
                     field.set( this, value );
                     return;
                 }
@@ -207,54 +235,142 @@ public abstract class Fauxjo implements FauxjoInterface
         return true;
     }
 
+    /**
+     * Write all values of a lazily mapped row (see {@link FauxjoLazy}) that have not been written yet to the bean.
+     */
+    public void decodeAll()
+        throws FauxjoException
+    {
+        ResultSetRecordProcessor.LazyValues values = lazyValues;
+        if ( values != null )
+        {
+            values.decodeAll( this );
+            lazyValues = null;
+        }
+    }
+
+    /**
+     * @return False if the bean was mapped from a result set without the column of the field (see {@link Home#partial(java.sql.ResultSet)})
+     * and the field has not been written since.
+     */
+    public boolean isLoaded( String key )
+    {
+        Set<String> keys = notLoadedKeys;
+
+        return keys == null || !keys.contains( key.toLowerCase() );
+    }
+
+    /**
+     * Mark the field as loaded, so that it is updated like the others. Values written through {@link #writeValue(String, Object)} are
+     * marked automatically, setters that write the field directly have to call this for a partial bean.
+     */
+    public void markLoaded( String key )
+    {
+        Set<String> keys = notLoadedKeys;
+        String lowerKey = key.toLowerCase();
+        if ( keys != null && keys.contains( lowerKey ) )
+        {
+            // The set may be shared by all beans of a query, so it is replaced rather than changed.
+            keys = new HashSet<String>( keys );
+            keys.remove( lowerKey );
+            notLoadedKeys = keys.isEmpty() ? null : Collections.unmodifiableSet( keys );
+        }
+    }
+
+    /**
+     * @return Keys of the fields that are not loaded (see {@link #isLoaded(String)}), never null.
+     */
+    public Set<String> getNotLoadedKeys()
+    {
+        Set<String> keys = notLoadedKeys;
+
+        return keys == null ? Collections.<String>emptySet() : keys;
+    }
+
     // ----------
     // protected
     // ----------
 
+    /**
+     * Write the value of the column to the bean if it was mapped lazily (see {@link FauxjoLazy}) and has not been written yet. Meant
+     * to be called by the getters of lazy beans.
+     */
+    protected void decode( String key )
+    {
+        try
+        {
+            decodeValue( key );
+        }
+        catch ( FauxjoException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+    }
+
+    /**
+     * Called by Java serialization before a Serializable subclass is written: decodes the values of a lazily mapped bean that are still
+     * pending and refuses partial beans that have fields not loaded, since neither state is serialized. Subclasses that need a
+     * writeReplace of their own should call this one.
+     *
+     * @throws NotSerializableException If the bean is partial.
+     */
+    protected Object writeReplace()
+        throws ObjectStreamException
+    {
+        if ( notLoadedKeys != null )
+        {
+            throw new NotSerializableException( getClass().getName() + " is a partial bean (not loaded: " + notLoadedKeys +
+                "); load it fully before serializing it." );
+        }
+
+        try
+        {
+            decodeAll();
+        }
+        catch ( FauxjoException ex )
+        {
+            InvalidObjectException invalid = new InvalidObjectException( "Unable to decode lazy values of " + getClass().getName() );
+            invalid.initCause( ex );
+            throw invalid;
+        }
+
+        return this;
+    }
+
     /**
      * @return Values of primary keys in a consistent order so that it can be compared to another Fauxjo beans.
      */
     protected List<Object> getPrimaryKeyValues()
         throws FauxjoException
     {
-        try
-        {
-            // Arbitrarily ordered by keys.
-            TreeMap<String, Object> keys = new TreeMap<String, Object>();
+        return BeanDefCache.getPrimaryKeyValues( this );
+    }
 
-            Map<String, FieldDef> map = BeanDefCache.getBeanDef( getClass() ).getFieldDefs();
-            for ( String key : map.keySet() )
-            {
-                FieldDef def = map.get( key );
-                if ( def.isPrimaryKey() )
-                {
-                    if ( def.getField() != null )
-                    {
-                        def.getField().setAccessible( true );
-                        keys.put( key, def.getField().get( this ) );
-                    }
-                    else
-                    {
-                        keys.put( key, def.getReadMethod().invoke( this, new Object[0] ) );
-                    }
-                }
-            }
+    // ----------
+    // private
+    // ----------
 
-            if ( keys.size() == 0 )
-            {
-                return null;
-            }
+    void setLazyValues( ResultSetRecordProcessor.LazyValues lazyValues )
+    {
+        this.lazyValues = lazyValues;
+    }
 
-            return new ArrayList<Object>( keys.values() );
-        }
-        catch ( Exception ex )
+    void setNotLoadedKeys( Set<String> notLoadedKeys )
+    {
+        this.notLoadedKeys = notLoadedKeys;
+    }
+
+    private void decodeValue( String key )
+        throws FauxjoException
+    {
+        ResultSetRecordProcessor.LazyValues values = lazyValues;
+        if ( values != null )
         {
-            if ( ex instanceof FauxjoException )
+            values.decode( this, key );
+            if ( values.isDone() )
             {
-                throw (FauxjoException) ex;
+                lazyValues = null;
             }
-
-            throw new FauxjoException( ex );
         }
     }
 }
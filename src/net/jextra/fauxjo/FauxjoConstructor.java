@@ -0,0 +1,43 @@
+//
+// FauxjoConstructor
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo;
+
+import java.lang.annotation.*;
+
+/**
+ * <p>
+ * Annotation placed on the constructor of a Fauxjo bean that rows should be mapped through, e.g. to have immutable beans with
+ * final fields. The value lists the columns in the database that are passed, in the order of the constructor's parameters.
+ * </p><p>
+ * Columns that are not passed to the constructor are written to the bean afterwards as usual. Beans without this annotation are
+ * created with their no-argument constructor.
+ * </p>
+ */
+@Retention( RetentionPolicy.RUNTIME )
+@Target( ElementType.CONSTRUCTOR )
+public @interface FauxjoConstructor
+{
+    // Columns in database, one per parameter.
+    String[] value();
+}
@@ -0,0 +1,44 @@
+//
+// FauxjoLazy
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo;
+
+import java.lang.annotation.*;
+
+/**
+ * <p>
+ * Annotation placed on a {@link Fauxjo} bean class to map its rows lazily: the values of the columns are kept as the driver
+ * returned them and are only coerced and written to the bean when {@link Fauxjo#readValue(String)} first asks for them. Primary
+ * keys, and columns passed to a {@link FauxjoConstructor}, are always written right away. Rows of a single query can be mapped
+ * lazily with {@link Home#lazy(java.sql.ResultSet)} instead.
+ * </p><p>
+ * Getters of lazy beans must call {@link Fauxjo#decode(String)} before returning a field, and a lazy bean should be decoded
+ * completely ({@link Fauxjo#decodeAll()}) before it is shared with other threads.
+ * </p>
+ */
+@Retention( RetentionPolicy.RUNTIME )
+@Target( ElementType.TYPE )
+@Inherited
+public @interface FauxjoLazy
+{
+}
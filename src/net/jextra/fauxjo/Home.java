@@ -25,6 +25,8 @@ package net.jextra.fauxjo;
 
 import java.sql.*;
 import java.util.*;
+import net.jextra.fauxjo.columnar.*;
+import net.jextra.fauxjo.metrics.*;
 
 /**
  * <p>
@@ -64,7 +66,7 @@ public class Home<T extends FauxjoInterface>
     public PreparedStatement prepareStatement( String sql )
         throws SQLException
     {
-        return getSchema().prepareStatement( sql );
+        return getSchema().prepareStatement( sql, getMetricsName() );
     }
 
     @Deprecated
@@ -160,17 +162,107 @@ public class Home<T extends FauxjoInterface>
         return sqlProcessor.getSet( rs, maxNumRows );
     }
 
+    /**
+     * Map the rows of the result set lazily, e.g. {@code getList( lazy( statement.executeQuery() ) )}, so that only the columns the
+     * caller reads are converted. See {@link FauxjoLazy}.
+     */
+    public ResultSet lazy( ResultSet rs )
+    {
+        return getAbstractSQLProcessor().decodeLazily( rs );
+    }
+
+    /**
+     * Map the rows of the result set to partial beans, e.g.
+     * {@code getList( partial( prepareStatement( buildProjectedSelect( clause, "id", "name" ) ).executeQuery() ) )}. Fields whose
+     * column is not selected are tracked as not loaded (see {@link Fauxjo#isLoaded(String)}) and left out when the bean is updated.
+     */
+    public ResultSet partial( ResultSet rs )
+    {
+        return getAbstractSQLProcessor().mapPartially( rs );
+    }
+
     public ResultSetIterator<T> getIterator( ResultSet rs )
         throws SQLException
     {
         return sqlProcessor.getIterator( rs );
     }
 
+    /**
+     * @return The rows of the result set column by column instead of as beans, e.g. for reports that aggregate many rows. See
+     * {@link ColumnBatch}.
+     */
+    public ColumnBatch getColumns( ResultSet rs )
+        throws SQLException
+    {
+        return getAbstractSQLProcessor().getColumns( rs );
+    }
+
+    public ColumnBatch getColumns( ResultSet rs, int maxNumRows )
+        throws SQLException
+    {
+        return getAbstractSQLProcessor().getColumns( rs, maxNumRows );
+    }
+
+    /**
+     * @return Iterator that maps every row into the same bean, which is only valid until the next row is read. See
+     * {@link ResultSetIterator#reuseBeans(int)}.
+     */
+    public ResultSetIterator<T> getFlyweightIterator( ResultSet rs )
+        throws SQLException
+    {
+        return getFlyweightIterator( rs, 1 );
+    }
+
+    /**
+     * @return Iterator that maps the rows into a ring of the given number of beans. See {@link ResultSetIterator#reuseBeans(int)}.
+     */
+    public ResultSetIterator<T> getFlyweightIterator( ResultSet rs, int ringSize )
+        throws SQLException
+    {
+        return sqlProcessor.getIterator( rs ).reuseBeans( ringSize );
+    }
+
+    /**
+     * @return Publisher that executes the statement and emits its rows as beans only as the subscriber requests them.
+     */
+    public ResultSetPublisher<T> publish( PreparedStatement statement )
+    {
+        return new ResultSetPublisher<T>( sqlProcessor, statement );
+    }
+
     public String buildBasicSelect( String clause )
     {
         return sqlProcessor.buildBasicSelect( clause );
     }
 
+    public String buildProjectedSelect( String clause, String... keys )
+        throws SQLException
+    {
+        return getAbstractSQLProcessor().buildProjectedSelect( clause, keys );
+    }
+
+    /**
+     * @return Key = Operation, Value = Snapshot of the statistics recorded for this Home by {@link FauxjoMetrics}.
+     */
+    public Map<String, OperationSnapshot> getMetrics()
+    {
+        String name = getMetricsName();
+        if ( name == null )
+        {
+            return new TreeMap<String, OperationSnapshot>();
+        }
+
+        return FauxjoMetrics.getInstance().getHomeSnapshot( name );
+    }
+
+    /**
+     * @return Asynchronous view of this Home that runs on the schema's async executor.
+     */
+    public AsyncHome<T> async()
+    {
+        return new AsyncHome<T>( this );
+    }
+
     // ----------
     // protected
     // ----------
@@ -186,6 +278,19 @@ public class Home<T extends FauxjoInterface>
         return getSchema().getConnection();
     }
 
+    /**
+     * @return Name this Home's statistics and slow queries are reported under, normally its table name.
+     */
+    protected String getMetricsName()
+    {
+        if ( sqlProcessor instanceof AbstractSQLProcessor<?> )
+        {
+            return ( (AbstractSQLProcessor<?>) sqlProcessor ).getMetricsName();
+        }
+
+        return null;
+    }
+
     protected SQLProcessor<T> getSQLProcessor()
     {
         return sqlProcessor;
@@ -196,4 +301,23 @@ public class Home<T extends FauxjoInterface>
     {
         return sqlProcessor;
     }
+
+    // ----------
+    // private
+    // ----------
+
+    /**
+     * @throws UnsupportedOperationException If the processor does not extend {@link AbstractSQLProcessor}, which has the features
+     * that are not part of {@link SQLProcessor}.
+     */
+    private AbstractSQLProcessor<T> getAbstractSQLProcessor()
+    {
+        if ( !( sqlProcessor instanceof AbstractSQLProcessor<?> ) )
+        {
+            throw new UnsupportedOperationException(
+                sqlProcessor.getClass().getCanonicalName() + " does not extend " + AbstractSQLProcessor.class.getSimpleName() + "." );
+        }
+
+        return (AbstractSQLProcessor<T>) sqlProcessor;
+    }
 }
@@ -0,0 +1,367 @@
+//
+// MetadataCatalog
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo;
+
+import java.io.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.SQLTableProcessor.ColumnInfo;
+
+/**
+ * <p>
+ * The column metadata ({@link ColumnInfo}s) of the tables of a {@link Schema}, indexed by lowercase table name. The
+ * {@link SQLTableProcessor}s of the schema take the columns of their table from here.
+ * </p>
+ * <p>
+ * The catalog is read from the database for the whole schema at once, with one {@link DatabaseMetaData#getTables} and one
+ * {@link DatabaseMetaData#getColumns} call, instead of looking up every table on its own. It can also be saved to and loaded from
+ * a local file (a snapshot) so that a new process does not have to ask the database before its Homes can be used. A catalog loaded
+ * from a file is read again from the database the first time a processor loads its metadata (see {@link Schema#warmUp()}).
+ * </p>
+ * <p>
+ * The file is UTF-8 text: a header line with the format version, then a line per table followed by a line per column of it, with
+ * tab separated fields. Version 2 added the database type name of the columns, version 1 files can still be read.
+ * </p>
+ */
+public class MetadataCatalog
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    public static final int VERSION = 2;
+
+    private static final String HEADER = "fauxjo-metadata-snapshot";
+    private static final String TABLE = "table";
+    private static final String COLUMN = "column";
+    private static final String ENCODING = "UTF-8";
+
+    private static final String TABLE_SCHEM = "TABLE_SCHEM";
+    private static final String TABLE_NAME = "TABLE_NAME";
+    private static final String COLUMN_NAME = "COLUMN_NAME";
+    private static final String DATA_TYPE = "DATA_TYPE";
+    private static final String TYPE_NAME = "TYPE_NAME";
+
+    // Key = Lowercase table name.
+    // Value = Lowercase column name to the name and SQL type of the column.
+    private volatile ConcurrentMap<String, Map<String, ColumnInfo>> tables;
+
+    // True once the whole schema was read (from the database or a file).
+    private volatile boolean loaded;
+
+    // True once the whole schema was read from the database.
+    private volatile boolean verified;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public MetadataCatalog()
+    {
+        tables = new ConcurrentHashMap<String, Map<String, ColumnInfo>>();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static MetadataCatalog load( File file )
+        throws IOException
+    {
+        Reader reader = new InputStreamReader( new FileInputStream( file ), ENCODING );
+        try
+        {
+            return read( reader );
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    public static MetadataCatalog read( Reader reader )
+        throws IOException
+    {
+        BufferedReader in = new BufferedReader( reader );
+
+        String line = in.readLine();
+        String[] header = line == null ? new String[0] : line.split( "\t" );
+        if ( header.length != 2 || !header[0].equals( HEADER ) )
+        {
+            throw new IOException( "Not a metadata snapshot." );
+        }
+        if ( !header[1].equals( Integer.toString( VERSION ) ) && !header[1].equals( "1" ) )
+        {
+            throw new IOException( "Unsupported metadata snapshot version [" + header[1] + "]." );
+        }
+
+        MetadataCatalog catalog = new MetadataCatalog();
+        Map<String, ColumnInfo> columnInfos = null;
+        int lineNumber = 1;
+        while ( ( line = in.readLine() ) != null )
+        {
+            lineNumber++;
+            if ( line.isEmpty() )
+            {
+                continue;
+            }
+
+            String[] fields = line.split( "\t" );
+            if ( fields[0].equals( TABLE ) && fields.length == 2 )
+            {
+                columnInfos = new LinkedHashMap<String, ColumnInfo>();
+                catalog.tables.put( fields[1].toLowerCase(), columnInfos );
+            }
+            else if ( fields[0].equals( COLUMN ) && ( fields.length == 3 || fields.length == 4 ) && columnInfos != null )
+            {
+                try
+                {
+                    String typeName = fields.length == 4 ? fields[3] : null;
+                    columnInfos.put( fields[1].toLowerCase(), new ColumnInfo( fields[1], Integer.parseInt( fields[2] ), typeName ) );
+                }
+                catch ( NumberFormatException ex )
+                {
+                    throw new IOException( "Invalid SQL type on line " + lineNumber + " of metadata snapshot." );
+                }
+            }
+            else
+            {
+                throw new IOException( "Invalid line " + lineNumber + " of metadata snapshot." );
+            }
+        }
+        catalog.loaded = true;
+
+        return catalog;
+    }
+
+    /**
+     * Save the catalog as a snapshot file. It is written to a temporary file next to the given one first, so a process loading the
+     * file never sees it half written.
+     */
+    public void save( File file )
+        throws IOException
+    {
+        File tempFile = File.createTempFile( file.getName(), ".tmp", file.getAbsoluteFile().getParentFile() );
+        try
+        {
+            Writer writer = new OutputStreamWriter( new FileOutputStream( tempFile ), ENCODING );
+            try
+            {
+                write( writer );
+            }
+            finally
+            {
+                writer.close();
+            }
+
+            // Windows will not rename over an existing file.
+            if ( !tempFile.renameTo( file ) && !( file.delete() && tempFile.renameTo( file ) ) )
+            {
+                throw new IOException( "Unable to replace metadata snapshot [" + file + "]." );
+            }
+        }
+        finally
+        {
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Write the tables in alphabetical order so that snapshots of the same metadata are identical.
+     */
+    public void write( Writer writer )
+        throws IOException
+    {
+        BufferedWriter out = new BufferedWriter( writer );
+        out.write( HEADER + "\t" + VERSION );
+        out.newLine();
+
+        for ( Map.Entry<String, Map<String, ColumnInfo>> table : new TreeMap<String, Map<String, ColumnInfo>>( tables ).entrySet() )
+        {
+            out.write( TABLE + "\t" + table.getKey() );
+            out.newLine();
+
+            for ( ColumnInfo columnInfo : table.getValue().values() )
+            {
+                out.write( COLUMN + "\t" + columnInfo.getRealName() + "\t" + columnInfo.getSQLType() );
+                if ( columnInfo.getTypeName() != null )
+                {
+                    out.write( "\t" + columnInfo.getTypeName() );
+                }
+                out.newLine();
+            }
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Replace the content of the catalog with the tables (of any type with "table" in its name) and columns of the given schema in
+     * the database. If a name is used by tables in more than one schema (only possible when schemaName is null) the first one
+     * listed wins.
+     */
+    public synchronized void refresh( Connection connection, String schemaName )
+        throws SQLException
+    {
+        DatabaseMetaData metaData = connection.getMetaData();
+
+        List<String> tableTypes = new ArrayList<String>();
+        ResultSet rs = metaData.getTableTypes();
+        while ( rs.next() )
+        {
+            if ( rs.getString( 1 ).toLowerCase().contains( "table" ) )
+            {
+                tableTypes.add( rs.getString( 1 ) );
+            }
+        }
+        rs.close();
+
+        // Key = Lowercase table name.
+        // Value = Schema and name of the table as the database has them.
+        Map<String, String[]> realNames = new HashMap<String, String[]>();
+        rs = metaData.getTables( null, schemaName, null, tableTypes.toArray( new String[tableTypes.size()] ) );
+        while ( rs.next() )
+        {
+            String realName = rs.getString( TABLE_NAME );
+            String key = realName.toLowerCase();
+            if ( !realNames.containsKey( key ) )
+            {
+                realNames.put( key, new String[] { rs.getString( TABLE_SCHEM ), realName } );
+            }
+        }
+        rs.close();
+
+        ConcurrentMap<String, Map<String, ColumnInfo>> newTables = new ConcurrentHashMap<String, Map<String, ColumnInfo>>();
+        rs = metaData.getColumns( null, schemaName, null, null );
+        while ( rs.next() )
+        {
+            String tableSchema = rs.getString( TABLE_SCHEM );
+            String realTableName = rs.getString( TABLE_NAME );
+            String key = realTableName.toLowerCase();
+
+            String[] realName = realNames.get( key );
+            if ( realName == null || !realName[1].equals( realTableName ) || !isSame( realName[0], tableSchema ) )
+            {
+                continue;
+            }
+
+            Map<String, ColumnInfo> columnInfos = newTables.get( key );
+            if ( columnInfos == null )
+            {
+                columnInfos = new LinkedHashMap<String, ColumnInfo>();
+                newTables.put( key, columnInfos );
+            }
+
+            String columnName = rs.getString( COLUMN_NAME );
+            columnInfos.put( columnName.toLowerCase(), new ColumnInfo( columnName, rs.getInt( DATA_TYPE ), rs.getString( TYPE_NAME ) ) );
+        }
+        rs.close();
+
+        tables = newTables;
+        loaded = true;
+        verified = true;
+    }
+
+    /**
+     * Refresh the catalog from the database unless nothing has been loaded into it yet.
+     */
+    public synchronized void loadIfEmpty( Connection connection, String schemaName )
+        throws SQLException
+    {
+        if ( !loaded )
+        {
+            refresh( connection, schemaName );
+        }
+    }
+
+    /**
+     * Refresh the catalog from the database unless it has already been read from the database.
+     */
+    public synchronized void verify( Connection connection, String schemaName )
+        throws SQLException
+    {
+        if ( !verified )
+        {
+            refresh( connection, schemaName );
+        }
+    }
+
+    public boolean isLoaded()
+    {
+        return loaded;
+    }
+
+    /**
+     * @return True if the catalog was read from the database, false if it came from a snapshot file or is empty.
+     */
+    public boolean isVerified()
+    {
+        return verified;
+    }
+
+    /**
+     * @return The columns of the table keyed by lowercase column name, or null if the table is not in the catalog.
+     */
+    public Map<String, ColumnInfo> getColumnInfos( String tableName )
+    {
+        return tables.get( tableName.toLowerCase() );
+    }
+
+    /**
+     * Add or replace a single table, e.g. one created after the catalog was loaded.
+     */
+    public void putColumnInfos( String tableName, Map<String, ColumnInfo> columnInfos )
+    {
+        tables.put( tableName.toLowerCase(), columnInfos );
+    }
+
+    /**
+     * @return Lowercase names of the tables in the catalog.
+     */
+    public Set<String> getTableNames()
+    {
+        return Collections.unmodifiableSet( tables.keySet() );
+    }
+
+    public synchronized void clear()
+    {
+        tables = new ConcurrentHashMap<String, Map<String, ColumnInfo>>();
+        loaded = false;
+        verified = false;
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static boolean isSame( String a, String b )
+    {
+        return a == null ? b == null : a.equals( b );
+    }
+}
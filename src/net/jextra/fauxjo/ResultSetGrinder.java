@@ -53,9 +53,14 @@ public class ResultSetGrinder<T>
     // ============================================================
 
     public ResultSetGrinder( Class<T> beanClass )
+    {
+        this( beanClass, Coercer.getDefault() );
+    }
+
+    public ResultSetGrinder( Class<T> beanClass, Coercer coercer )
     {
         this.beanClass = beanClass;
-        coercer = new Coercer();
+        this.coercer = coercer;
     }
 
     // ============================================================
@@ -250,7 +255,6 @@ public class ResultSetGrinder<T>
             {
                 try
                 {
-                    field.setAccessible( true );
                     field.set( bean, value );
                     return;
                 }
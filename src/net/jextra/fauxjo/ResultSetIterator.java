@@ -27,9 +27,15 @@ import java.sql.*;
 import java.util.*;
 
 /**
+ * <p>
  * Iterator of a {@link ResultSet} that knows how to convert each row in the ResultSet to a
  * Fauxjo bean. This is used primarily to iterate over a large number records without having to
  * load them all into memory.
+ * </p>
+ * <p>
+ * For scans that only aggregate, {@link #reuseBeans(int)} makes the iterator map the rows into a small ring of beans instead of a
+ * new bean per row.
+ * </p>
  */
 public class ResultSetIterator<T extends FauxjoInterface> implements Iterator<T>, Iterable<T>
 {
@@ -41,6 +47,16 @@ public class ResultSetIterator<T extends FauxjoInterface> implements Iterator<T>
     private ResultSet resultSet;
     private boolean hasNext;
 
+    // How to map the rows, made for the first row.
+    private ResultSetRecordProcessor<T>.RowPlan plan;
+
+    // Beans the rows are mapped into in turn, or null for a new bean per row.
+    private List<T> ring;
+    private int ringIndex;
+
+    // Schema the statement was prepared with, told about failures so it can check its connection. Null if not known.
+    private Schema schema;
+
     // ============================================================
     // Constructors
     // ============================================================
@@ -77,7 +93,23 @@ public class ResultSetIterator<T extends FauxjoInterface> implements Iterator<T>
 
         try
         {
-            T object = sqlProcessor.convertResultSetRow( resultSet );
+            if ( plan == null )
+            {
+                plan = sqlProcessor.planRows( resultSet );
+            }
+
+            T object;
+            if ( ring == null )
+            {
+                object = sqlProcessor.convertResultSetRow( plan, resultSet, null );
+            }
+            else
+            {
+                object = sqlProcessor.convertResultSetRow( plan, resultSet, ring.get( ringIndex ) );
+                ring.set( ringIndex, object );
+                ringIndex = ( ringIndex + 1 ) % ring.size();
+            }
+
             hasNext = resultSet.next();
             if ( !hasNext )
             {
@@ -88,10 +120,34 @@ public class ResultSetIterator<T extends FauxjoInterface> implements Iterator<T>
         }
         catch ( Exception ex )
         {
+            if ( ex instanceof SQLException && schema != null )
+            {
+                schema.reportSQLException( (SQLException) ex );
+            }
             throw new RuntimeException( ex );
         }
     }
 
+    /**
+     * Map the rows into a ring of the given number of beans, overwriting the oldest one for each row, so that iterating allocates no
+     * beans once the ring is full. A bean returned by {@link #next()} is only valid until ringSize more rows have been read: keep
+     * what is needed from it, not the bean itself. Beans with a {@link FauxjoConstructor} that takes arguments cannot be reused.
+     *
+     * @return This iterator.
+     */
+    public ResultSetIterator<T> reuseBeans( int ringSize )
+    {
+        if ( ringSize < 1 )
+        {
+            throw new IllegalArgumentException( "Ring size must be at least 1." );
+        }
+
+        ring = new ArrayList<T>( Collections.<T>nCopies( ringSize, null ) );
+        ringIndex = 0;
+
+        return this;
+    }
+
     @Override
     public void remove()
     {
@@ -121,4 +177,13 @@ public class ResultSetIterator<T extends FauxjoInterface> implements Iterator<T>
     {
         return this;
     }
+
+    // ----------
+    // private
+    // ----------
+
+    void setSchema( Schema schema )
+    {
+        this.schema = schema;
+    }
 }
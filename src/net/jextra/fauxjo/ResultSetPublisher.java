@@ -0,0 +1,362 @@
+//
+// ResultSetPublisher
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo;
+
+import java.sql.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * <p>
+ * Publishes the rows of a query as Fauxjo beans, only as fast as the {@link Subscriber} asks for them. The nested interfaces follow
+ * the Reactive Streams contract ({@code java.util.concurrent.Flow} in newer JDKs), so adapting to another implementation is a thin
+ * wrapper.
+ * </p>
+ * <p>
+ * The statement is executed on the first {@link Subscription#request(long)} with its fetch size set to the requested amount (and
+ * then set back, as the statement may be cached and reused), and rows are read and converted only while there is outstanding
+ * demand. Memory stays flat no matter how large the result is, as long
+ * as the driver honors the fetch size (PostgreSQL only does so when auto-commit is off).
+ * </p>
+ * <p>
+ * Rows are delivered on the thread that calls {@code request}. The {@link ResultSet} is closed when the rows run out; cancelling,
+ * or an error, closes both the ResultSet and the statement.
+ * </p>
+ */
+public class ResultSetPublisher<T extends FauxjoInterface>
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private SQLProcessor<T> sqlProcessor;
+
+    // The record processor of the SQLProcessor if it has one, so that the rows are matched to the bean once per query.
+    private ResultSetRecordProcessor<T> recordProcessor;
+
+    private PreparedStatement statement;
+    private AtomicBoolean subscribed;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public ResultSetPublisher( SQLProcessor<T> sqlProcessor, PreparedStatement statement )
+    {
+        this.sqlProcessor = sqlProcessor;
+        if ( sqlProcessor instanceof AbstractSQLProcessor )
+        {
+            recordProcessor = ( (AbstractSQLProcessor<T>) sqlProcessor ).getResultSetRecordProcessor();
+        }
+        this.statement = statement;
+        subscribed = new AtomicBoolean();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Only one subscriber is allowed, since the underlying statement can only be read once.
+     */
+    public void subscribe( Subscriber<? super T> subscriber )
+    {
+        if ( subscriber == null )
+        {
+            throw new NullPointerException( "subscriber" );
+        }
+
+        if ( !subscribed.compareAndSet( false, true ) )
+        {
+            subscriber.onSubscribe( new RowSubscription( null ) );
+            subscriber.onError( new IllegalStateException( "A ResultSetPublisher only supports one subscriber." ) );
+            return;
+        }
+
+        RowSubscription subscription = new RowSubscription( subscriber );
+        subscriber.onSubscribe( subscription );
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    public interface Subscriber<T>
+    {
+        void onSubscribe( Subscription subscription );
+
+        void onNext( T item );
+
+        void onError( Throwable throwable );
+
+        void onComplete();
+    }
+
+    public interface Subscription
+    {
+        void request( long n );
+
+        void cancel();
+    }
+
+    private class RowSubscription implements Subscription
+    {
+        private Subscriber<? super T> subscriber;
+        private ResultSet resultSet;
+        private ResultSetRecordProcessor<T>.RowPlan plan;
+        private AtomicLong demand;
+        private AtomicInteger wip;
+        private AtomicReference<Throwable> error;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+
+        public RowSubscription( Subscriber<? super T> subscriber )
+        {
+            this.subscriber = subscriber;
+            demand = new AtomicLong();
+            wip = new AtomicInteger();
+            error = new AtomicReference<Throwable>();
+            done = subscriber == null;
+        }
+
+        @Override
+        public void request( long n )
+        {
+            if ( done )
+            {
+                return;
+            }
+
+            if ( n <= 0 )
+            {
+                // Signalled by the draining thread, like a cancel, as another thread may be reading the ResultSet right now.
+                error.compareAndSet( null, new IllegalArgumentException( "Non-positive request of " + n + " rows is not allowed." ) );
+                drain();
+                return;
+            }
+
+            // Add to demand, capping at Long.MAX_VALUE which means "unbounded".
+            for ( ;; )
+            {
+                long current = demand.get();
+                long next = current + n;
+                if ( next < 0 )
+                {
+                    next = Long.MAX_VALUE;
+                }
+
+                if ( demand.compareAndSet( current, next ) )
+                {
+                    break;
+                }
+            }
+
+            drain();
+        }
+
+        /**
+         * The ResultSet and statement are closed by whichever thread is draining, so they are never closed underneath it.
+         */
+        @Override
+        public void cancel()
+        {
+            if ( !done )
+            {
+                cancelled = true;
+                drain();
+            }
+        }
+
+        /**
+         * Emit rows while there is demand. Only one thread drains at a time; a request made while draining (e.g. from onNext) is
+         * picked up by the loop instead of recursing.
+         */
+        private void drain()
+        {
+            if ( wip.getAndIncrement() != 0 )
+            {
+                return;
+            }
+
+            int missed = 1;
+            do
+            {
+                if ( isFinished() )
+                {
+                    return;
+                }
+
+                long requested = demand.get();
+                long emitted = 0;
+
+                try
+                {
+                    while ( emitted != requested )
+                    {
+                        if ( isFinished() )
+                        {
+                            return;
+                        }
+
+                        if ( resultSet == null )
+                        {
+                            resultSet = executeQuery( requested );
+                        }
+
+                        if ( !resultSet.next() )
+                        {
+                            done = true;
+                            closeResultSet();
+                            subscriber.onComplete();
+                            return;
+                        }
+
+                        subscriber.onNext( convertRow() );
+                        emitted++;
+                    }
+                }
+                catch ( Throwable ex )
+                {
+                    fail( ex );
+                    return;
+                }
+
+                if ( isFinished() )
+                {
+                    return;
+                }
+
+                if ( requested != Long.MAX_VALUE )
+                {
+                    demand.addAndGet( -emitted );
+                }
+
+                missed = wip.addAndGet( -missed );
+            }
+            while ( missed != 0 );
+        }
+
+        /**
+         * @return true if no more rows should be emitted, closing everything first if that is due to a cancel or an invalid request.
+         */
+        private boolean isFinished()
+        {
+            if ( cancelled && !done )
+            {
+                done = true;
+                closeAll();
+            }
+            else if ( error.get() != null && !done )
+            {
+                fail( error.get() );
+            }
+
+            return done;
+        }
+
+        /**
+         * Only called by the draining thread.
+         */
+        private void fail( Throwable ex )
+        {
+            if ( done )
+            {
+                return;
+            }
+
+            done = true;
+            closeAll();
+            subscriber.onError( ex );
+        }
+
+        private ResultSet executeQuery( long requested )
+            throws SQLException
+        {
+            if ( requested >= Integer.MAX_VALUE )
+            {
+                return statement.executeQuery();
+            }
+
+            // The ResultSet keeps the fetch size it was created with.
+            int fetchSize = statement.getFetchSize();
+            statement.setFetchSize( (int) requested );
+            try
+            {
+                return statement.executeQuery();
+            }
+            finally
+            {
+                statement.setFetchSize( fetchSize );
+            }
+        }
+
+        private T convertRow()
+            throws SQLException
+        {
+            if ( recordProcessor == null )
+            {
+                return sqlProcessor.convertResultSetRow( resultSet );
+            }
+
+            if ( plan == null )
+            {
+                plan = recordProcessor.planRows( resultSet );
+            }
+
+            return recordProcessor.convertResultSetRow( plan, resultSet, null );
+        }
+
+        private void closeResultSet()
+        {
+            try
+            {
+                if ( resultSet != null )
+                {
+                    resultSet.close();
+                }
+            }
+            catch ( SQLException ex )
+            {
+                // Nothing left to report it to.
+            }
+        }
+
+        private void closeAll()
+        {
+            closeResultSet();
+
+            try
+            {
+                statement.close();
+            }
+            catch ( SQLException ex )
+            {
+                // Nothing left to report it to.
+            }
+        }
+    }
+}
@@ -23,9 +23,16 @@
 
 package net.jextra.fauxjo;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.sql.*;
 import java.util.*;
 import net.jextra.fauxjo.beandef.*;
+import net.jextra.fauxjo.coercer.*;
+import net.jextra.fauxjo.columnar.*;
+import net.jextra.fauxjo.metrics.*;
 
 /**
  * Class that's responsible for converting a result set into a {@link FauxjoInterface} bean.
@@ -36,8 +43,25 @@ public class ResultSetRecordProcessor<T extends FauxjoInterface>
     // Fields
     // ============================================================
 
+    // Modes of mapping a result set, combined as bits (see decodeLazily and mapPartially).
+    private static final int LAZY = 1;
+    private static final int PARTIAL = 2;
+
     private Class<T> beanClass;
     private Coercer coercer;
+    private String metricsName;
+    private volatile OperationStats mapStats;
+
+    // How each thread maps the rows of the last ResultSet it passed to convertResultSetRow, for callers that map rows one at a time.
+    // Loops over a whole ResultSet (processResultSet, ResultSetIterator, ResultSetPublisher) keep their own plan instead.
+    private ThreadLocal<RowPlan> threadRowPlans;
+
+    // Key = Result set whose rows are not mapped the usual way, held weakly.
+    // Value = Mode bits (LAZY, PARTIAL).
+    private Map<ResultSet, Integer> resultSetModes;
+
+    // Keys of the fields that may be missing from any result set, and are then tracked as not loaded.
+    private volatile Set<String> optionalKeys;
 
     // Key = Lowercase column name (in code known as the "key").
     // Value = Information about the bean property.
@@ -48,9 +72,18 @@ public class ResultSetRecordProcessor<T extends FauxjoInterface>
     // ============================================================
 
     public ResultSetRecordProcessor( Class<T> beanClass )
+    {
+        this( beanClass, Coercer.getDefault() );
+    }
+
+    public ResultSetRecordProcessor( Class<T> beanClass, Coercer coercer )
     {
         this.beanClass = beanClass;
-        coercer = new Coercer();
+        this.coercer = coercer;
+        metricsName = beanClass.getSimpleName();
+        resultSetModes = Collections.synchronizedMap( new WeakHashMap<ResultSet, Integer>() );
+        optionalKeys = Collections.emptySet();
+        threadRowPlans = new ThreadLocal<RowPlan>();
     }
 
     // ============================================================
@@ -61,44 +94,93 @@ public class ResultSetRecordProcessor<T extends FauxjoInterface>
     // public
     // ----------
 
+    /**
+     * Map the current row of the result set to a new bean. The columns are matched to the bean once per result set and thread, so a
+     * thread that maps rows of several result sets in turn has them matched again every time it switches.
+     */
     public T convertResultSetRow( ResultSet rs )
         throws SQLException
     {
-        try
-        {
-            ResultSetMetaData meta = rs.getMetaData();
-            int columnCount = meta.getColumnCount();
+        return convertResultSetRow( null, rs, null );
+    }
 
-            Map<String, Object> record = new HashMap<String, Object>();
-            for ( int i = 1; i <= columnCount; i++ )
-            {
-                if ( meta.getColumnType( i ) == java.sql.Types.ARRAY )
-                {
-                    Array array = rs.getArray( i );
-                    Object actualArray = null;
-                    if ( array != null )
-                    {
-                        actualArray = array.getArray();
-                    }
-                    record.put( meta.getColumnName( i ).toLowerCase(), actualArray );
-                }
-                else
-                {
-                    record.put( meta.getColumnName( i ).toLowerCase(), rs.getObject( i ) );
-                }
-            }
+    /**
+     * Map the current row into the given bean instead of a new one, overwriting every mapped field (see
+     * {@link ResultSetIterator#reuseBeans(int)}). Beans with a {@link FauxjoConstructor} that takes arguments cannot be reused.
+     *
+     * @param bean
+     *            Bean of a previous row, or null for a new one.
+     * @return The bean.
+     */
+    public T convertResultSetRow( ResultSet rs, T bean )
+        throws SQLException
+    {
+        return convertResultSetRow( null, rs, bean );
+    }
 
-            return processRecord( record );
-        }
-        catch ( Exception ex )
-        {
-            if ( ex instanceof FauxjoException )
-            {
-                throw (FauxjoException) ex;
-            }
+    /**
+     * Read up to maxNumRows rows of the result set column by column instead of into beans, and close it.
+     */
+    public ColumnBatch convertResultSetColumns( ResultSet rs, int maxNumRows )
+        throws SQLException
+    {
+        return ColumnBatch.read( rs, maxNumRows, getBeanFieldDefs( beanClass ), coercer );
+    }
 
-            throw new FauxjoException( ex );
-        }
+    /**
+     * Map the rows of the given result set lazily, as if the bean class had the {@link FauxjoLazy} annotation. Only has an effect on
+     * {@link Fauxjo} beans.
+     *
+     * @return The result set.
+     */
+    public ResultSet decodeLazily( ResultSet rs )
+    {
+        addMode( rs, LAZY );
+
+        return rs;
+    }
+
+    /**
+     * Map the rows of the given result set to partial beans: fields whose column is not in the result set are left as they are and
+     * tracked as not loaded (see {@link Fauxjo#isLoaded(String)}) instead of being an error. Only has an effect on {@link Fauxjo}
+     * beans, and the arguments of a {@link FauxjoConstructor} are still required.
+     *
+     * @return The result set.
+     */
+    public ResultSet mapPartially( ResultSet rs )
+    {
+        addMode( rs, PARTIAL );
+
+        return rs;
+    }
+
+    public Set<String> getOptionalKeys()
+    {
+        return optionalKeys;
+    }
+
+    /**
+     * Set the fields that may be missing from a result set without it being an error, like all fields of a partial result set (see
+     * {@link #mapPartially(ResultSet)}). Used for the large columns a {@link SQLTableProcessor} leaves out of its basic select. Only
+     * has an effect on {@link Fauxjo} beans.
+     */
+    public void setOptionalKeys( Set<String> optionalKeys )
+    {
+        this.optionalKeys = Collections.unmodifiableSet( new HashSet<String>( optionalKeys ) );
+    }
+
+    public String getMetricsName()
+    {
+        return metricsName;
+    }
+
+    /**
+     * Set the name the row mapping statistics are recorded under (see {@link FauxjoMetrics}), normally the Home's table name.
+     */
+    public void setMetricsName( String metricsName )
+    {
+        this.metricsName = metricsName;
+        mapStats = null;
     }
 
     public Map<String, FieldDef> getBeanFieldDefs( Class<? extends FauxjoInterface> beanClass )
@@ -169,4 +251,667 @@ public class ResultSetRecordProcessor<T extends FauxjoInterface>
 
         return bean;
     }
+
+    // ----------
+    // private
+    // ----------
+
+    /**
+     * @return How to map the rows of the result set. The plan is for one query and one thread at a time.
+     */
+    RowPlan planRows( ResultSet rs )
+        throws SQLException
+    {
+        return new RowPlan( rs );
+    }
+
+    /**
+     * Map the current row of a result set with its plan (see {@link #planRows(ResultSet)}).
+     *
+     * @param plan
+     *            The plan of the result set, or null for the plan of the last result set mapped by the calling thread.
+     * @param bean
+     *            Bean of a previous row to map into, or null for a new one.
+     */
+    T convertResultSetRow( RowPlan plan, ResultSet rs, T bean )
+        throws SQLException
+    {
+        boolean metricsEnabled = FauxjoMetrics.getInstance().isEnabled();
+        if ( !metricsEnabled && !FauxjoEvents.isEnabled() )
+        {
+            return mapRow( plan, rs, bean );
+        }
+
+        FauxjoEvents.Span span = FauxjoEvents.begin( FauxjoEventType.ROW_MAP );
+        long start = System.nanoTime();
+        boolean success = false;
+        try
+        {
+            T mapped = mapRow( plan, rs, bean );
+            success = true;
+
+            return mapped;
+        }
+        finally
+        {
+            if ( metricsEnabled )
+            {
+                getMapStats().recordSince( start, success );
+            }
+            FauxjoEvents.end( span, metricsName, null, success ? 1 : 0 );
+        }
+    }
+
+    private T mapRow( RowPlan rowPlan, ResultSet rs, T reusedBean )
+        throws SQLException
+    {
+        try
+        {
+            RowPlan plan = rowPlan;
+            if ( plan == null )
+            {
+                plan = threadRowPlans.get();
+                if ( plan == null || plan.resultSet.get() != rs )
+                {
+                    plan = new RowPlan( rs );
+                    threadRowPlans.set( plan );
+                }
+            }
+
+            T bean = reusedBean;
+            if ( bean == null )
+            {
+                bean = plan.newBean( rs );
+            }
+            else if ( plan.arguments.length > 0 )
+            {
+                throw new FauxjoException( "Fauxjo [" + beanClass.getCanonicalName() + "] cannot be reused, it is created by its " +
+                    "FauxjoConstructor" );
+            }
+
+            for ( ColumnPlan column : plan.columns )
+            {
+                column.map( rs, bean );
+            }
+
+            if ( plan.lazyColumns != null )
+            {
+                ( (Fauxjo) bean ).setLazyValues( plan.lazyColumns.capture( rs ) );
+            }
+            else if ( reusedBean instanceof Fauxjo )
+            {
+                ( (Fauxjo) bean ).setLazyValues( null );
+            }
+            if ( plan.notLoadedKeys != null || reusedBean instanceof Fauxjo )
+            {
+                ( (Fauxjo) bean ).setNotLoadedKeys( plan.notLoadedKeys );
+            }
+
+            return bean;
+        }
+        catch ( Exception ex )
+        {
+            if ( ex instanceof FauxjoException )
+            {
+                throw (FauxjoException) ex;
+            }
+
+            throw new FauxjoException( ex );
+        }
+    }
+
+    private void addMode( ResultSet rs, int mode )
+    {
+        synchronized ( resultSetModes )
+        {
+            Integer modes = resultSetModes.get( rs );
+            resultSetModes.put( rs, modes == null ? mode : modes | mode );
+        }
+    }
+
+    private int getModes( ResultSet rs )
+    {
+        Integer modes = resultSetModes.get( rs );
+
+        return modes == null ? 0 : modes;
+    }
+
+    private OperationStats getMapStats()
+    {
+        OperationStats stats = mapStats;
+        if ( stats == null )
+        {
+            stats = FauxjoMetrics.getInstance().getHomeStats( metricsName, FauxjoMetrics.MAP );
+            mapStats = stats;
+        }
+
+        return stats;
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    class RowPlan
+    {
+        // Held weakly so that a closed result set is not kept alive by the plan of its thread.
+        private WeakReference<ResultSet> resultSet;
+        private Constructor<?> constructor;
+
+        // The columns passed to the constructor, in parameter order, and a buffer for their values.
+        private ColumnPlan[] arguments;
+        private Object[] argumentValues;
+
+        // The other columns that are in the bean. Others are assumed OK and ignored.
+        private ColumnPlan[] columns;
+
+        // The columns that are decoded lazily, or null if the rows are mapped eagerly.
+        private LazyColumns lazyColumns;
+
+        // Keys of the fields that are not in the result set when mapping partial beans, shared by all of them, otherwise null.
+        private Set<String> notLoadedKeys;
+
+        public RowPlan( ResultSet resultSet )
+            throws SQLException
+        {
+            this.resultSet = new WeakReference<ResultSet>( resultSet );
+
+            // Typed getters can only bypass writeValue if the bean does not have its own.
+            boolean directFieldWrites;
+            try
+            {
+                directFieldWrites = beanClass.getMethod( "writeValue", String.class, Object.class ).getDeclaringClass() == Fauxjo.class;
+            }
+            catch ( NoSuchMethodException ex )
+            {
+                throw new FauxjoException( ex );
+            }
+
+            BeanDef beanDef = BeanDefCache.getBeanDef( beanClass );
+            boolean fauxjo = Fauxjo.class.isAssignableFrom( beanClass );
+            int modes = getModes( resultSet );
+            boolean lazy = fauxjo && ( beanDef.isLazy() || ( modes & LAZY ) != 0 );
+            boolean partial = fauxjo && ( modes & PARTIAL ) != 0;
+            List<ColumnPlan> lazyColumnList = new ArrayList<ColumnPlan>();
+
+            constructor = beanDef.getConstructor();
+            if ( constructor == null )
+            {
+                throw new FauxjoException( "Fauxjo [" + beanClass.getCanonicalName() + "] has neither a FauxjoConstructor nor a " +
+                    "no-argument constructor" );
+            }
+            List<String> constructorKeys = Arrays.asList( beanDef.getConstructorKeys() );
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            arguments = new ColumnPlan[parameterTypes.length];
+            argumentValues = new Object[parameterTypes.length];
+
+            ResultSetMetaData meta = resultSet.getMetaData();
+            int columnCount = meta.getColumnCount();
+            List<ColumnPlan> columnList = new ArrayList<ColumnPlan>();
+
+            // Remove keys from unusedFieldDefs in order to take inventory to check that all were used.
+            Map<String, FieldDef> fieldDefs = getBeanFieldDefs( beanClass );
+            Map<String, FieldDef> unusedFieldDefs = new HashMap<String, FieldDef>( fieldDefs );
+            for ( int i = 1; i <= columnCount; i++ )
+            {
+                String key = meta.getColumnName( i ).toLowerCase();
+                FieldDef fieldDef = fieldDefs.get( key );
+                unusedFieldDefs.remove( key );
+                int sqlType = meta.getColumnType( i );
+
+                int argument = constructorKeys.indexOf( key );
+                if ( argument >= 0 )
+                {
+                    arguments[argument] = createColumnPlan( i, key, sqlType, parameterTypes[argument] );
+                    continue;
+                }
+
+                if ( fieldDef == null )
+                {
+                    continue;
+                }
+
+                // Primary keys are needed for equals and hashCode, so they are never lazy.
+                if ( lazy && !fieldDef.isPrimaryKey() )
+                {
+                    lazyColumnList.add( createColumnPlan( i, key, sqlType, fieldDef.getValueClass() ) );
+                    continue;
+                }
+
+                PrimitiveGetter getter = null;
+                if ( directFieldWrites && fieldDef.getField() != null )
+                {
+                    getter = PrimitiveGetter.find( sqlType, fieldDef.getField().getType() );
+                }
+
+                if ( getter != null )
+                {
+                    columnList.add( new PrimitiveColumnPlan( i, key, fieldDef.getField(), getter ) );
+                }
+                else
+                {
+                    columnList.add( createColumnPlan( i, key, sqlType, fieldDef.getValueClass() ) );
+                }
+            }
+
+            for ( int a = 0; a < arguments.length; a++ )
+            {
+                if ( arguments[a] == null )
+                {
+                    throw new FauxjoException( "Missing column [" + constructorKeys.get( a ) + "] in ResultSet for Fauxjo [" +
+                        beanClass.getCanonicalName() + "]" );
+                }
+            }
+
+            // If any of the columns was not accounted for, throw an Exception unless partial beans are wanted or the column is optional.
+            Set<String> missingKeys = new HashSet<String>( unusedFieldDefs.keySet() );
+            if ( !partial )
+            {
+                missingKeys.retainAll( fauxjo ? optionalKeys : Collections.<String>emptySet() );
+            }
+            unusedFieldDefs.keySet().removeAll( missingKeys );
+
+            if ( !missingKeys.isEmpty() )
+            {
+                notLoadedKeys = Collections.unmodifiableSet( missingKeys );
+            }
+            if ( !unusedFieldDefs.isEmpty() )
+            {
+                throw new FauxjoException( "Missing column [" + unusedFieldDefs.keySet().iterator().next() + "] in ResultSet for Fauxjo [" +
+                    beanClass.getCanonicalName() + "]" );
+            }
+
+            columns = columnList.toArray( new ColumnPlan[columnList.size()] );
+            if ( !lazyColumnList.isEmpty() )
+            {
+                lazyColumns = new LazyColumns( lazyColumnList );
+            }
+        }
+
+        @SuppressWarnings( "unchecked" )
+        public T newBean( ResultSet rs )
+            throws SQLException
+        {
+            try
+            {
+                for ( int a = 0; a < arguments.length; a++ )
+                {
+                    argumentValues[a] = arguments[a].read( rs );
+                }
+
+                return (T) constructor.newInstance( argumentValues );
+            }
+            catch ( InvocationTargetException ex )
+            {
+                throw new FauxjoException( "Constructor of [" + beanClass.getCanonicalName() + "] failed", ex.getCause() );
+            }
+            catch ( IllegalArgumentException ex )
+            {
+                throw new FauxjoException( "Unable to pass the row to the constructor of [" + beanClass.getCanonicalName() + "]", ex );
+            }
+            catch ( Exception ex )
+            {
+                if ( ex instanceof SQLException )
+                {
+                    throw (SQLException) ex;
+                }
+
+                throw new FauxjoException( ex );
+            }
+            finally
+            {
+                // Not keeping the values of the last row alive.
+                Arrays.fill( argumentValues, null );
+            }
+        }
+
+        private ColumnPlan createColumnPlan( int index, String key, int sqlType, Class<?> destClass )
+            throws FauxjoException
+        {
+            ColumnPlan column = new ColumnPlan( index, key, sqlType, destClass, coercer );
+            if ( sqlType != java.sql.Types.ARRAY )
+            {
+                // Most drivers return the mapped class, so its converter is likely the one every row needs.
+                column.resolve( SQLTypeMapper.getInstance().getJavaClass( sqlType ) );
+            }
+
+            return column;
+        }
+    }
+
+    /**
+     * A column of the bean, with the converter of the class its values had last time. A column normally always gets the same class
+     * from the driver, so the converter is looked up once.
+     */
+    private static class ColumnPlan
+    {
+        protected int index;
+        protected String key;
+        private int sqlType;
+        private Class<?> destClass;
+        private Coercer coercer;
+        private volatile ResolvedConverter resolved;
+
+        public ColumnPlan( int index, String key, int sqlType, Class<?> destClass, Coercer coercer )
+        {
+            this.index = index;
+            this.key = key;
+            this.sqlType = sqlType;
+            this.destClass = destClass;
+            this.coercer = coercer;
+        }
+
+        public void map( ResultSet rs, FauxjoInterface bean )
+            throws SQLException
+        {
+            bean.writeValue( key, read( rs ) );
+        }
+
+        public Object read( ResultSet rs )
+            throws SQLException
+        {
+            return convert( readRaw( rs ) );
+        }
+
+        /**
+         * @return The value as the driver returned it, not converted yet.
+         */
+        public Object readRaw( ResultSet rs )
+            throws SQLException
+        {
+            if ( sqlType == java.sql.Types.ARRAY )
+            {
+                Array array = rs.getArray( index );
+                return array == null ? null : array.getArray();
+            }
+
+            return rs.getObject( index );
+        }
+
+        public Object convert( Object value )
+            throws FauxjoException
+        {
+            if ( value == null )
+            {
+                return null;
+            }
+
+            try
+            {
+                ResolvedConverter r = resolved;
+                if ( r == null || r.valueClass != value.getClass() )
+                {
+                    r = resolve( value.getClass() );
+                }
+
+                return r.converter.convert( value );
+            }
+            catch ( FauxjoException ex )
+            {
+                throw new FauxjoException( "Failed to coerce " + key, ex );
+            }
+        }
+
+        public ResolvedConverter resolve( Class<?> valueClass )
+            throws FauxjoException
+        {
+            if ( valueClass == null )
+            {
+                return null;
+            }
+
+            ResolvedConverter r = new ResolvedConverter( valueClass, coercer.getConverter( valueClass, destClass ) );
+            resolved = r;
+
+            return r;
+        }
+    }
+
+    /**
+     * A column read with a typed getter (e.g. getLong) straight into a primitive field, without boxing or coercing.
+     */
+    private static class PrimitiveColumnPlan extends ColumnPlan
+    {
+        private Field field;
+        private PrimitiveGetter getter;
+
+        public PrimitiveColumnPlan( int index, String key, Field field, PrimitiveGetter getter )
+        {
+            super( index, key, 0, field.getType(), null );
+            this.field = field;
+            this.getter = getter;
+        }
+
+        @Override
+        public void map( ResultSet rs, FauxjoInterface bean )
+            throws SQLException
+        {
+            try
+            {
+                switch ( getter )
+                {
+                    case LONG:
+                        long longValue = rs.getLong( index );
+                        if ( !rs.wasNull() )
+                        {
+                            field.setLong( bean, longValue );
+                            return;
+                        }
+                        break;
+
+                    case INT:
+                        int intValue = rs.getInt( index );
+                        if ( !rs.wasNull() )
+                        {
+                            field.setInt( bean, intValue );
+                            return;
+                        }
+                        break;
+
+                    case SHORT:
+                        short shortValue = rs.getShort( index );
+                        if ( !rs.wasNull() )
+                        {
+                            field.setShort( bean, shortValue );
+                            return;
+                        }
+                        break;
+
+                    case DOUBLE:
+                        double doubleValue = rs.getDouble( index );
+                        if ( !rs.wasNull() )
+                        {
+                            field.setDouble( bean, doubleValue );
+                            return;
+                        }
+                        break;
+
+                    case FLOAT:
+                        float floatValue = rs.getFloat( index );
+                        if ( !rs.wasNull() )
+                        {
+                            field.setFloat( bean, floatValue );
+                            return;
+                        }
+                        break;
+
+                    case BOOLEAN:
+                        boolean booleanValue = rs.getBoolean( index );
+                        if ( !rs.wasNull() )
+                        {
+                            field.setBoolean( bean, booleanValue );
+                            return;
+                        }
+                        break;
+                }
+            }
+            catch ( IllegalAccessException ex )
+            {
+                throw new FauxjoException( "Unable to write to field [" + field.getName() + "]", ex );
+            }
+
+            // A null does not fit a primitive field, let writeValue report it as it always has.
+            bean.writeValue( key, null );
+        }
+    }
+
+    /**
+     * The lazily decoded columns of a {@link RowPlan}.
+     */
+    private static class LazyColumns
+    {
+        private ColumnPlan[] columns;
+
+        // Key = Lowercase column name.
+        // Value = Index of the column in columns.
+        private Map<String, Integer> indexes;
+
+        public LazyColumns( List<ColumnPlan> columnList )
+        {
+            columns = columnList.toArray( new ColumnPlan[columnList.size()] );
+            indexes = new HashMap<String, Integer>();
+            for ( int i = 0; i < columns.length; i++ )
+            {
+                indexes.put( columns[i].key, i );
+            }
+        }
+
+        public LazyValues capture( ResultSet rs )
+            throws SQLException
+        {
+            Object[] values = new Object[columns.length];
+            for ( int i = 0; i < columns.length; i++ )
+            {
+                values[i] = columns[i].readRaw( rs );
+            }
+
+            return new LazyValues( this, values );
+        }
+    }
+
+    /**
+     * The values of a lazily mapped row that have not been written to its bean yet.
+     */
+    static class LazyValues
+    {
+        // Marks the values that have been written (or replaced) already.
+        private static final Object DECODED = new Object();
+
+        private LazyColumns columns;
+        private Object[] values;
+        private int pending;
+
+        public LazyValues( LazyColumns columns, Object[] values )
+        {
+            this.columns = columns;
+            this.values = values;
+            pending = values.length;
+        }
+
+        public void decode( FauxjoInterface bean, String key )
+            throws FauxjoException
+        {
+            Integer index = columns.indexes.get( key.toLowerCase() );
+            if ( index != null )
+            {
+                decode( bean, index );
+            }
+        }
+
+        public void decodeAll( FauxjoInterface bean )
+            throws FauxjoException
+        {
+            for ( int i = 0; i < values.length; i++ )
+            {
+                decode( bean, i );
+            }
+        }
+
+        /**
+         * Forget the value of the column, e.g. because a new one is written to the bean.
+         */
+        public void discard( String key )
+        {
+            Integer index = columns.indexes.get( key.toLowerCase() );
+            if ( index != null && values[index] != DECODED )
+            {
+                values[index] = DECODED;
+                pending--;
+            }
+        }
+
+        public boolean isDone()
+        {
+            return pending == 0;
+        }
+
+        private void decode( FauxjoInterface bean, int index )
+            throws FauxjoException
+        {
+            Object value = values[index];
+            if ( value == DECODED )
+            {
+                return;
+            }
+
+            values[index] = DECODED;
+            pending--;
+
+            ColumnPlan column = columns.columns[index];
+            bean.writeValue( column.key, column.convert( value ) );
+        }
+    }
+
+    /**
+     * The typed getters, with the primitive field types they are used for and the SQL types they read without loss.
+     */
+    private enum PrimitiveGetter
+    {
+        LONG( Long.TYPE, Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT ),
+        INT( Integer.TYPE, Types.INTEGER, Types.SMALLINT, Types.TINYINT ),
+        SHORT( Short.TYPE, Types.SMALLINT, Types.TINYINT ),
+        DOUBLE( Double.TYPE, Types.DOUBLE, Types.FLOAT, Types.REAL ),
+        FLOAT( Float.TYPE, Types.REAL ),
+        BOOLEAN( Boolean.TYPE, Types.BOOLEAN, Types.BIT );
+
+        private Class<?> fieldType;
+        private int[] sqlTypes;
+
+        private PrimitiveGetter( Class<?> fieldType, int... sqlTypes )
+        {
+            this.fieldType = fieldType;
+            this.sqlTypes = sqlTypes;
+        }
+
+        public static PrimitiveGetter find( int sqlType, Class<?> fieldType )
+        {
+            for ( PrimitiveGetter getter : values() )
+            {
+                if ( getter.fieldType == fieldType )
+                {
+                    for ( int type : getter.sqlTypes )
+                    {
+                        if ( type == sqlType )
+                        {
+                            return getter;
+                        }
+                    }
+                }
+            }
+
+            return null;
+        }
+    }
+
+    private static class ResolvedConverter
+    {
+        private final Class<?> valueClass;
+        private final Converter converter;
+
+        public ResolvedConverter( Class<?> valueClass, Converter converter )
+        {
+            this.valueClass = valueClass;
+            this.converter = converter;
+        }
+    }
 }
@@ -140,5 +140,4 @@ public interface SQLProcessor<T extends FauxjoInterface>
 
     void setDeleteValues( PreparedStatement statement, T bean )
         throws SQLException;
-
 }
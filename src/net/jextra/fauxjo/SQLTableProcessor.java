@@ -23,12 +23,21 @@
 
 package net.jextra.fauxjo;
 
+import net.jextra.fauxjo.beandef.BeanDefCache;
 import net.jextra.fauxjo.beandef.FieldDef;
+import net.jextra.fauxjo.metrics.*;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Logger;
 
 /**
  * Core Business logic for interacting with a single SQL database table.
@@ -42,6 +51,9 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
     private static final String TABLE_NAME = "TABLE_NAME";
     private static final String COLUMN_NAME = "COLUMN_NAME";
     private static final String DATA_TYPE = "DATA_TYPE";
+    private static final String TYPE_NAME = "TYPE_NAME";
+
+    private static final Logger LOGGER = Logger.getLogger( SQLTableProcessor.class.getName() );
 
     private Schema schema;
     private String tableName;
@@ -50,10 +62,24 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
 
     // Key = Lowercase column name (in code known as the "key").
     // Value = Name of column used by the database and SQL type.
-    private Map<String, ColumnInfo> dbColumnInfos;
+    private volatile Map<String, ColumnInfo> dbColumnInfos;
+
+    // False while the dbColumnInfos are from a snapshot file and not yet checked against the database.
+    private volatile boolean columnInfosVerified;
+
+    // Columns selected by buildBasicSelect, or null until the metadata has been loaded.
+    private volatile String selectColumns;
 
-    private String updateSQL;
-    private String deleteSQL;
+    // True while selectColumns is "*" because the metadata could not be loaded. loadMetadata() tries again.
+    private volatile boolean selectAllFallback;
+
+    private String insertSQL;
+    private volatile String updateSQL;
+    private volatile String deleteSQL;
+
+    // Key = Keys of the fields a partial bean did not load (see Home#partial).
+    // Value = Update SQL without those columns, or an empty string if only primary keys are loaded.
+    private ConcurrentMap<Set<String>, String> partialUpdateSQLs;
     private String[] generatedColumns;
 
     // ============================================================
@@ -62,11 +88,13 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
 
     public SQLTableProcessor( Schema schema, String tableName, Class<T> beanClass )
     {
-        super( new ResultSetRecordProcessor<T>( beanClass ) );
+        super( new ResultSetRecordProcessor<T>( beanClass, schema.getCoercer() ) );
         this.schema = schema;
         this.tableName = tableName;
-        this.coercer = new Coercer();
+        this.coercer = schema.getCoercer();
         this.beanClass = beanClass;
+        partialUpdateSQLs = new ConcurrentHashMap<Set<String>, String>();
+        getResultSetRecordProcessor().setMetricsName( tableName );
     }
 
     // ============================================================
@@ -90,28 +118,76 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
     public boolean insert( T bean )
         throws SQLException
     {
-        PreparedStatement statement = getInsertStatement( bean );
+        long start = FauxjoMetrics.getInstance().isEnabled() ? System.nanoTime() : 0;
+        boolean success = false;
+        try
+        {
+            PreparedStatement statement = getInsertStatement( bean );
 
-        setInsertValues( statement, bean );
+            setInsertValues( statement, bean );
 
-        int rows = statement.executeUpdate();
+            int rows = statement.executeUpdate();
 
-        retrieveGeneratedKeys( statement, bean );
+            retrieveGeneratedKeys( statement, bean );
 
-        return rows > 0;
+            success = true;
+            return rows > 0;
+        }
+        catch ( SQLException ex )
+        {
+            reportSQLException( ex );
+            throw ex;
+        }
+        finally
+        {
+            recordMetrics( FauxjoMetrics.INSERT, start, success );
+        }
     }
 
     /**
-     * Convert the bean into an update statement and execute it.
+     * Convert the bean into an update statement and execute it. Only the loaded columns of a partial bean (see
+     * {@link Home#partial(ResultSet)}) are updated, and nothing is if those are all primary keys.
      */
     @Override
     public int update( T bean )
         throws SQLException
     {
-        PreparedStatement statement = getUpdateStatement();
-        setUpdateValues( statement, bean );
+        long start = FauxjoMetrics.getInstance().isEnabled() ? System.nanoTime() : 0;
+        boolean success = false;
+        try
+        {
+            Set<String> notLoadedKeys = getNotLoadedKeys( bean );
+            PreparedStatement statement;
+            if ( notLoadedKeys.isEmpty() )
+            {
+                statement = getUpdateStatement();
+            }
+            else
+            {
+                String sql = getPartialUpdateSQL( notLoadedKeys );
+                if ( sql.isEmpty() )
+                {
+                    success = true;
+                    return 0;
+                }
+                statement = prepareStatement( sql );
+            }
+            setUpdateValues( statement, bean );
 
-        return statement.executeUpdate();
+            int rows = statement.executeUpdate();
+
+            success = true;
+            return rows;
+        }
+        catch ( SQLException ex )
+        {
+            reportSQLException( ex );
+            throw ex;
+        }
+        finally
+        {
+            recordMetrics( FauxjoMetrics.UPDATE, start, success );
+        }
     }
 
     /**
@@ -121,12 +197,34 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
     public boolean delete( T bean )
         throws SQLException
     {
-        PreparedStatement statement = getDeleteStatement();
-        setDeleteValues( statement, bean );
+        long start = FauxjoMetrics.getInstance().isEnabled() ? System.nanoTime() : 0;
+        boolean success = false;
+        try
+        {
+            PreparedStatement statement = getDeleteStatement();
+            setDeleteValues( statement, bean );
+
+            boolean deleted = statement.executeUpdate() > 0;
 
-        return statement.executeUpdate() > 0;
+            success = true;
+            return deleted;
+        }
+        catch ( SQLException ex )
+        {
+            reportSQLException( ex );
+            throw ex;
+        }
+        finally
+        {
+            recordMetrics( FauxjoMetrics.DELETE, start, success );
+        }
     }
 
+    /**
+     * Build a select of the columns that are mapped to the bean, leaving out large columns if the schema says so (see
+     * {@link Schema#setExcludeLargeColumns(boolean)}). Falls back to {@code select *} (with a warning) if the metadata of the table
+     * cannot be loaded, until {@link #loadMetadata()} succeeds.
+     */
     @Override
     public String buildBasicSelect( String clause )
     {
@@ -136,7 +234,36 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
             trimmedClause = clause;
         }
 
-        return String.format( "select * from %s %s", schema.getQualifiedName( tableName ), trimmedClause );
+        return String.format( "select %s from %s %s", getSelectColumns(), schema.getQualifiedName( tableName ), trimmedClause );
+    }
+
+    @Override
+    public String buildProjectedSelect( String clause, String... keys )
+        throws SQLException
+    {
+        String trimmedClause = "";
+        if ( clause != null && !clause.trim().isEmpty() )
+        {
+            trimmedClause = clause;
+        }
+
+        StringBuilder columns = new StringBuilder();
+        for ( String key : keys )
+        {
+            ColumnInfo columnInfo = getDBColumnInfos().get( key.toLowerCase() );
+            if ( columnInfo == null )
+            {
+                throw new FauxjoException( "Column [" + key + "] is not in the table [" + getQualifiedName( tableName ) + "]" );
+            }
+
+            if ( columns.length() > 0 )
+            {
+                columns.append( "," );
+            }
+            columns.append( columnInfo.getRealName() );
+        }
+
+        return String.format( "select %s from %s %s", columns, schema.getQualifiedName( tableName ), trimmedClause );
     }
 
     @Override
@@ -198,7 +325,7 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
             }
         }
 
-        String insertSQL = String.format( "insert into %s (%s) values (%s)", getQualifiedName( tableName ), columns, questionMarks );
+        insertSQL = String.format( "insert into %s (%s) values (%s)", getQualifiedName( tableName ), columns, questionMarks );
         generatedColumns = generatedKeyColumns.toArray( new String[generatedKeyColumns.size()] );
 
         return prepareStatement( insertSQL );
@@ -220,28 +347,7 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
 
                 if ( !fieldDef.isDefaultable() || val != null )
                 {
-                    //
-                    // Set in statement
-                    //
-                    int sqlType = columnInfo.getSQLType();
-
-                    if ( sqlType == Types.ARRAY )
-                    {
-                        if ( val == null )
-                        {
-                            statement.setNull( propIndex, sqlType );
-                        }
-                        else
-                        {
-                            Array array = getConnection().createArrayOf( "varchar", (Object[]) val );
-                            statement.setArray( propIndex, array );
-                        }
-                    }
-                    else
-                    {
-                        statement.setObject( propIndex, val, sqlType );
-                    }
-
+                    setParameter( statement, propIndex, val, columnInfo );
                     propIndex++;
                 }
             }
@@ -252,50 +358,12 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
     public PreparedStatement getUpdateStatement()
         throws SQLException
     {
-        if ( updateSQL != null )
-        {
-            return prepareStatement( updateSQL );
-        }
-
-        StringBuilder setterClause = new StringBuilder();
-        StringBuilder whereClause = new StringBuilder();
-
-        for ( String key : getDBColumnInfos().keySet() )
-        {
-            ColumnInfo columnInfo = getDBColumnInfos().get( key );
-
-            FieldDef fieldDef = getResultSetRecordProcessor().getBeanFieldDefs( beanClass ).get( key );
-            if ( fieldDef != null )
-            {
-                if ( fieldDef.isPrimaryKey() )
-                {
-                    if ( whereClause.length() > 0 )
-                    {
-                        whereClause.append( " and " );
-                    }
-                    whereClause.append( columnInfo.getRealName() + "=?" );
-                }
-                else
-                {
-                    if ( setterClause.length() > 0 )
-                    {
-                        setterClause.append( "," );
-                    }
-                    setterClause.append( columnInfo.getRealName() + "=?" );
-                }
-            }
-        }
-
-        if ( whereClause.length() == 0 )
+        if ( updateSQL == null )
         {
-            throw new FauxjoException( "At least one field must be identified as a primary key in order to update rows in the table [" +
-                getQualifiedName( tableName ) + "]" );
+            updateSQL = buildUpdateSQL( Collections.<String>emptySet() );
         }
 
-        updateSQL = String.format( "update %s set %s where %s", getQualifiedName( tableName ), setterClause, whereClause );
-        PreparedStatement statement = prepareStatement( updateSQL );
-
-        return statement;
+        return prepareStatement( updateSQL );
     }
 
     @Override
@@ -305,9 +373,16 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
         List<DataValue> values = new ArrayList<DataValue>();
         List<DataValue> keyValues = new ArrayList<DataValue>();
 
+        // Columns a partial bean did not load are not in its update statement (see buildUpdateSQL).
+        Set<String> notLoadedKeys = getNotLoadedKeys( bean );
         final Map<String, FieldDef> beanFieldDefs = getResultSetRecordProcessor().getBeanFieldDefs( bean.getClass() );
         for ( String key : getDBColumnInfos().keySet() )
         {
+            if ( notLoadedKeys.contains( key ) )
+            {
+                continue;
+            }
+
             ColumnInfo columnInfo = getDBColumnInfos().get( key );
             Object val = getFieldValueFromBean( bean, key, columnInfo );
 
@@ -316,11 +391,11 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
             {
                 if ( fieldDef.isPrimaryKey() )
                 {
-                    keyValues.add( new DataValue( val, columnInfo.getSQLType() ) );
+                    keyValues.add( new DataValue( val, columnInfo ) );
                 }
                 else
                 {
-                    values.add( new DataValue( val, columnInfo.getSQLType() ) );
+                    values.add( new DataValue( val, columnInfo ) );
                 }
             }
         }
@@ -328,27 +403,12 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
         int propIndex = 1;
         for ( DataValue value : values )
         {
-            if ( value.getSqlType() == java.sql.Types.ARRAY )
-            {
-                if ( value.getValue() == null )
-                {
-                    statement.setNull( propIndex, value.getSqlType() );
-                }
-                else
-                {
-                    Array array = getConnection().createArrayOf( "varchar", (Object[]) value.getValue() );
-                    statement.setArray( propIndex, array );
-                }
-            }
-            else
-            {
-                statement.setObject( propIndex, value.getValue(), value.getSqlType() );
-            }
+            setParameter( statement, propIndex, value.getValue(), value.getColumnInfo() );
             propIndex++;
         }
         for ( DataValue value : keyValues )
         {
-            statement.setObject( propIndex, value.getValue(), value.getSqlType() );
+            setParameter( statement, propIndex, value.getValue(), value.getColumnInfo() );
             propIndex++;
         }
     }
@@ -357,39 +417,11 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
     public PreparedStatement getDeleteStatement()
         throws SQLException
     {
-        if ( deleteSQL != null )
-        {
-            return prepareStatement( deleteSQL );
-        }
-
-        StringBuilder whereClause = new StringBuilder();
-
-        Map<String, FieldDef> fieldDefs = getResultSetRecordProcessor().getBeanFieldDefs( beanClass );
-        for ( String key : fieldDefs.keySet() )
-        {
-            FieldDef fieldDef = fieldDefs.get( key );
-            if ( fieldDef == null || !fieldDef.isPrimaryKey() )
-            {
-                continue;
-            }
-
-            ColumnInfo columnInfo = getDBColumnInfos().get( key );
-
-            if ( whereClause.length() > 0 )
-            {
-                whereClause.append( " and " );
-            }
-            whereClause.append( columnInfo.getRealName() + "=?" );
-        }
-
-        if ( whereClause.length() == 0 )
+        if ( deleteSQL == null )
         {
-            throw new FauxjoException( "At least one field must be identified as a primary key in order to delete from the table [" +
-                getQualifiedName( tableName ) + "]" );
+            deleteSQL = buildDeleteSQL();
         }
 
-        deleteSQL = String.format( "delete from %s where %s", getQualifiedName( tableName ), whereClause );
-
         return prepareStatement( deleteSQL );
     }
 
@@ -414,17 +446,85 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
             Object val = bean.readValue( key );
             val = coercer.coerce( val, destClass );
 
-            primaryKeyValues.add( new DataValue( val, columnInfo.getSQLType() ) );
+            primaryKeyValues.add( new DataValue( val, columnInfo ) );
         }
 
         int propIndex = 1;
         for ( DataValue value : primaryKeyValues )
         {
-            statement.setObject( propIndex, value.getValue(), value.getSqlType() );
+            setParameter( statement, propIndex, value.getValue(), value.getColumnInfo() );
             propIndex++;
         }
     }
 
+    /**
+     * Load the column metadata of the table and, if the bean has a primary key, build the update and delete SQL. Doing this up
+     * front (see {@link Schema#warmUp()}) keeps the metadata lookup off the first request. Metadata that was taken from a snapshot
+     * file (see {@link Schema#loadMetadataSnapshot(java.io.File)}) is read again from the database and replaced if the table has
+     * changed.
+     */
+    @Override
+    public void loadMetadata()
+        throws SQLException
+    {
+        if ( !columnInfosVerified )
+        {
+            Map<String, ColumnInfo> snapshotInfos = dbColumnInfos;
+
+            MetadataCatalog catalog = schema.getMetadataCatalog();
+            catalog.verify( getConnection(), schema.getSchemaName() );
+            Map<String, ColumnInfo> columnInfos = catalog.getColumnInfos( tableName );
+            if ( columnInfos == null )
+            {
+                cacheColumnInfos( true );
+            }
+            else
+            {
+                columnInfosVerified = true;
+                dbColumnInfos = columnInfos;
+            }
+
+            if ( snapshotInfos != null && !snapshotInfos.equals( dbColumnInfos ) )
+            {
+                LOGGER.warning( "Metadata snapshot of table [" + getQualifiedName( tableName ) + "] is out of date." );
+                updateSQL = null;
+                deleteSQL = null;
+                partialUpdateSQLs.clear();
+                selectColumns = null;
+            }
+        }
+
+        // The metadata is there now, so the columns can be listed after all.
+        if ( selectAllFallback )
+        {
+            selectAllFallback = false;
+            selectColumns = null;
+        }
+
+        if ( hasPrimaryKey() )
+        {
+            if ( updateSQL == null )
+            {
+                updateSQL = buildUpdateSQL( Collections.<String>emptySet() );
+            }
+            if ( deleteSQL == null )
+            {
+                deleteSQL = buildDeleteSQL();
+            }
+        }
+    }
+
+    @Override
+    public void prepareStatements()
+        throws SQLException
+    {
+        if ( hasPrimaryKey() )
+        {
+            getUpdateStatement();
+            getDeleteStatement();
+        }
+    }
+
     // ----------
     // protected
     // ----------
@@ -438,7 +538,7 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
     protected PreparedStatement prepareStatement( String sql )
         throws SQLException
     {
-        return schema.prepareStatement( sql );
+        return schema.prepareStatement( sql, tableName );
     }
 
     // ----------
@@ -450,19 +550,232 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
         return schema.getQualifiedName( name );
     }
 
+    private String getSelectColumns()
+    {
+        String columns = selectColumns;
+        if ( columns == null )
+        {
+            try
+            {
+                columns = buildSelectColumns();
+            }
+            catch ( SQLException ex )
+            {
+                // Kept, so that every select does not repeat the failing metadata lookup.
+                LOGGER.warning( "Selecting all columns of table [" + getQualifiedName( tableName ) +
+                    "] because its metadata could not be loaded: " + ex.getMessage() );
+                columns = "*";
+                selectAllFallback = true;
+            }
+            selectColumns = columns;
+        }
+
+        return columns;
+    }
+
+    /**
+     * Large columns are only left out of Fauxjo beans, which track them as not loaded so that updates do not clear them.
+     */
+    private String buildSelectColumns()
+        throws SQLException
+    {
+        Map<String, FieldDef> beanFieldDefs = getResultSetRecordProcessor().getBeanFieldDefs( beanClass );
+        List<String> constructorKeys = Arrays.asList( BeanDefCache.getBeanDef( beanClass ).getConstructorKeys() );
+        boolean excludeLarge = schema.isExcludeLargeColumns() && Fauxjo.class.isAssignableFrom( beanClass );
+
+        StringBuilder columns = new StringBuilder();
+        Set<String> excludedKeys = new HashSet<String>();
+        for ( String key : getDBColumnInfos().keySet() )
+        {
+            ColumnInfo columnInfo = getDBColumnInfos().get( key );
+            FieldDef fieldDef = beanFieldDefs.get( key );
+            boolean argument = constructorKeys.contains( key );
+            if ( fieldDef == null && !argument )
+            {
+                continue;
+            }
+
+            if ( excludeLarge && columnInfo.isLarge() && !argument && !fieldDef.isPrimaryKey() )
+            {
+                excludedKeys.add( key );
+                continue;
+            }
+
+            if ( columns.length() > 0 )
+            {
+                columns.append( "," );
+            }
+            columns.append( columnInfo.getRealName() );
+        }
+
+        // Nothing of the bean is in the table, let the database report it.
+        if ( columns.length() == 0 )
+        {
+            return "*";
+        }
+
+        getResultSetRecordProcessor().setOptionalKeys( excludedKeys );
+
+        return columns.toString();
+    }
+
+    /**
+     * @return The update SQL for partial beans that did not load the given fields, or an empty string if there is nothing to update.
+     */
+    private String getPartialUpdateSQL( Set<String> notLoadedKeys )
+        throws SQLException
+    {
+        String sql = partialUpdateSQLs.get( notLoadedKeys );
+        if ( sql == null )
+        {
+            sql = buildUpdateSQL( notLoadedKeys );
+            partialUpdateSQLs.put( notLoadedKeys, sql );
+        }
+
+        return sql;
+    }
+
+    /**
+     * @param notLoadedKeys
+     *            Columns to leave out, for partial beans.
+     * @return The update SQL, or an empty string if only primary keys are left to set.
+     */
+    private String buildUpdateSQL( Set<String> notLoadedKeys )
+        throws SQLException
+    {
+        StringBuilder setterClause = new StringBuilder();
+        StringBuilder whereClause = new StringBuilder();
+
+        for ( String key : getDBColumnInfos().keySet() )
+        {
+            ColumnInfo columnInfo = getDBColumnInfos().get( key );
+
+            FieldDef fieldDef = getResultSetRecordProcessor().getBeanFieldDefs( beanClass ).get( key );
+            if ( fieldDef != null && notLoadedKeys.contains( key ) )
+            {
+                if ( fieldDef.isPrimaryKey() )
+                {
+                    throw new FauxjoException( "Primary key [" + key + "] of a partial bean must be loaded in order to update rows in " +
+                        "the table [" + getQualifiedName( tableName ) + "]" );
+                }
+            }
+            else if ( fieldDef != null )
+            {
+                if ( fieldDef.isPrimaryKey() )
+                {
+                    if ( whereClause.length() > 0 )
+                    {
+                        whereClause.append( " and " );
+                    }
+                    whereClause.append( columnInfo.getRealName() + "=?" );
+                }
+                else
+                {
+                    if ( setterClause.length() > 0 )
+                    {
+                        setterClause.append( "," );
+                    }
+                    setterClause.append( columnInfo.getRealName() + "=?" );
+                }
+            }
+        }
+
+        if ( whereClause.length() == 0 )
+        {
+            throw new FauxjoException( "At least one field must be identified as a primary key in order to update rows in the table [" +
+                getQualifiedName( tableName ) + "]" );
+        }
+        if ( setterClause.length() == 0 && !notLoadedKeys.isEmpty() )
+        {
+            return "";
+        }
+
+        return String.format( "update %s set %s where %s", getQualifiedName( tableName ), setterClause, whereClause );
+    }
+
+    private String buildDeleteSQL()
+        throws SQLException
+    {
+        StringBuilder whereClause = new StringBuilder();
+
+        Map<String, FieldDef> fieldDefs = getResultSetRecordProcessor().getBeanFieldDefs( beanClass );
+        for ( String key : fieldDefs.keySet() )
+        {
+            FieldDef fieldDef = fieldDefs.get( key );
+            if ( fieldDef == null || !fieldDef.isPrimaryKey() )
+            {
+                continue;
+            }
+
+            ColumnInfo columnInfo = getDBColumnInfos().get( key );
+
+            if ( whereClause.length() > 0 )
+            {
+                whereClause.append( " and " );
+            }
+            whereClause.append( columnInfo.getRealName() + "=?" );
+        }
+
+        if ( whereClause.length() == 0 )
+        {
+            throw new FauxjoException( "At least one field must be identified as a primary key in order to delete from the table [" +
+                getQualifiedName( tableName ) + "]" );
+        }
+
+        return String.format( "delete from %s where %s", getQualifiedName( tableName ), whereClause );
+    }
+
+    private Set<String> getNotLoadedKeys( T bean )
+    {
+        if ( bean instanceof Fauxjo )
+        {
+            return ( (Fauxjo) bean ).getNotLoadedKeys();
+        }
+
+        return Collections.emptySet();
+    }
+
+    private boolean hasPrimaryKey()
+        throws SQLException
+    {
+        for ( FieldDef fieldDef : getResultSetRecordProcessor().getBeanFieldDefs( beanClass ).values() )
+        {
+            if ( fieldDef.isPrimaryKey() )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     private Map<String, ColumnInfo> getDBColumnInfos()
         throws SQLException
     {
-        if ( dbColumnInfos == null )
+        Map<String, ColumnInfo> columnInfos = dbColumnInfos;
+        if ( columnInfos == null )
         {
-            cacheColumnInfos( true );
+            MetadataCatalog catalog = schema.getMetadataCatalog();
+            catalog.loadIfEmpty( getConnection(), schema.getSchemaName() );
+            columnInfos = catalog.getColumnInfos( tableName );
+            if ( columnInfos != null )
+            {
+                columnInfosVerified = catalog.isVerified();
+                dbColumnInfos = columnInfos;
+            }
+            else
+            {
+                cacheColumnInfos( true );
+                columnInfos = dbColumnInfos;
+            }
         }
 
-        return dbColumnInfos;
+        return columnInfos;
     }
 
     /**
-     * This is a really slow method to call when it actually gets the meta data.
+     * This is a really slow method to call when it actually gets the meta data. It is only used for a table that is missing from
+     * the schema's {@link MetadataCatalog}, e.g. because it was created after the catalog was loaded.
      */
     private void cacheColumnInfos( boolean throwException )
         throws SQLException
@@ -492,12 +805,14 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
             String realName = rs.getString( COLUMN_NAME );
             Integer type = rs.getInt( DATA_TYPE );
 
-            map.put( realName.toLowerCase(), new ColumnInfo( realName, type ) );
+            map.put( realName.toLowerCase(), new ColumnInfo( realName, type, rs.getString( TYPE_NAME ) ) );
         }
         rs.close();
 
         // Only set field if all went well
         dbColumnInfos = map;
+        columnInfosVerified = true;
+        schema.getMetadataCatalog().putColumnInfos( tableName, map );
     }
 
     /**
@@ -534,6 +849,36 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
         return null;
     }
 
+    private void recordMetrics( String operation, long start, boolean success )
+    {
+        if ( start != 0 )
+        {
+            FauxjoMetrics.getInstance().getHomeStats( tableName, operation ).recordSince( start, success );
+        }
+    }
+
+    private void setParameter( PreparedStatement statement, int index, Object val, ColumnInfo columnInfo )
+        throws SQLException
+    {
+        int sqlType = columnInfo.getSQLType();
+        if ( sqlType == Types.ARRAY )
+        {
+            if ( val == null )
+            {
+                statement.setNull( index, sqlType );
+            }
+            else
+            {
+                Array array = getConnection().createArrayOf( columnInfo.getArrayElementTypeName(), (Object[]) val );
+                statement.setArray( index, array );
+            }
+        }
+        else
+        {
+            statement.setObject( index, val, sqlType );
+        }
+    }
+
     private Object getFieldValueFromBean( T bean, String key, ColumnInfo columnInfo )
         throws FauxjoException
     {
@@ -588,13 +933,24 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
 
     public static class ColumnInfo
     {
+        private static final String DEFAULT_ARRAY_ELEMENT_TYPE_NAME = "varchar";
+
         private String realName;
         private int sqlType;
 
+        // Database specific name of the type, e.g. "_int8" (PostgreSQL) or "BIGINT ARRAY" (H2). Null if not known.
+        private String typeName;
+
         public ColumnInfo( String realName, int sqlType )
+        {
+            this( realName, sqlType, null );
+        }
+
+        public ColumnInfo( String realName, int sqlType, String typeName )
         {
             this.realName = realName;
             this.sqlType = sqlType;
+            this.typeName = typeName;
         }
 
         public String getRealName()
@@ -616,17 +972,94 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
         {
             this.sqlType = sqlType;
         }
+
+        public String getTypeName()
+        {
+            return typeName;
+        }
+
+        public void setTypeName( String typeName )
+        {
+            this.typeName = typeName;
+        }
+
+        /**
+         * @return True for columns whose values are typically large, i.e. LOBs, long character and binary types and the unbounded
+         * text and bytea types of PostgreSQL.
+         */
+        public boolean isLarge()
+        {
+            switch ( sqlType )
+            {
+                case Types.BLOB:
+                case Types.CLOB:
+                case Types.NCLOB:
+                case Types.LONGVARBINARY:
+                case Types.LONGVARCHAR:
+                case Types.LONGNVARCHAR:
+                    return true;
+            }
+
+            return "text".equalsIgnoreCase( typeName ) || "bytea".equalsIgnoreCase( typeName );
+        }
+
+        /**
+         * @return The type name of the elements of an array column, as {@link Connection#createArrayOf(String, Object[])} takes it.
+         * Falls back to varchar if the type name does not tell.
+         */
+        public String getArrayElementTypeName()
+        {
+            if ( typeName == null )
+            {
+                return DEFAULT_ARRAY_ELEMENT_TYPE_NAME;
+            }
+
+            if ( typeName.startsWith( "_" ) )
+            {
+                return typeName.substring( 1 );
+            }
+            else if ( typeName.endsWith( "[]" ) )
+            {
+                return typeName.substring( 0, typeName.length() - 2 ).trim();
+            }
+            else if ( typeName.toUpperCase().endsWith( " ARRAY" ) )
+            {
+                return typeName.substring( 0, typeName.length() - " ARRAY".length() ).trim();
+            }
+
+            return DEFAULT_ARRAY_ELEMENT_TYPE_NAME;
+        }
+
+        @Override
+        public boolean equals( Object obj )
+        {
+            if ( !( obj instanceof ColumnInfo ) )
+            {
+                return false;
+            }
+
+            ColumnInfo other = (ColumnInfo) obj;
+
+            return realName.equals( other.realName ) && sqlType == other.sqlType &&
+                ( typeName == null ? other.typeName == null : typeName.equals( other.typeName ) );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return realName.hashCode() * 31 + sqlType;
+        }
     }
 
     private class DataValue
     {
         private Object value;
-        private int sqlType;
+        private ColumnInfo columnInfo;
 
-        public DataValue( Object value, int sqlType )
+        public DataValue( Object value, ColumnInfo columnInfo )
         {
             this.value = value;
-            this.sqlType = sqlType;
+            this.columnInfo = columnInfo;
         }
 
         public Object getValue()
@@ -634,9 +1067,9 @@ public class SQLTableProcessor<T extends FauxjoInterface> extends AbstractSQLPro
             return value;
         }
 
-        public int getSqlType()
+        public ColumnInfo getColumnInfo()
         {
-            return sqlType;
+            return columnInfo;
         }
     }
 }
@@ -23,8 +23,11 @@
 
 package net.jextra.fauxjo;
 
+import java.io.*;
 import java.sql.*;
+import java.util.*;
 import java.util.concurrent.*;
+import net.jextra.fauxjo.metrics.*;
 
 public abstract class Schema
 {
@@ -34,6 +37,12 @@ public abstract class Schema
 
     private ConcurrentMap<Class<?>, Home<?>> homes;
     private String schemaName;
+    private ExecutorService asyncExecutor;
+    private long asyncTimeoutMillis;
+    private volatile SlowQueryLog slowQueryLog;
+    private volatile MetadataCatalog metadataCatalog;
+    private volatile Coercer coercer;
+    private volatile boolean excludeLargeColumns;
 
     // ============================================================
     // Constructors
@@ -42,6 +51,8 @@ public abstract class Schema
     public Schema()
     {
         homes = new ConcurrentHashMap<Class<?>, Home<?>>();
+        metadataCatalog = new MetadataCatalog();
+        coercer = new Coercer();
     }
 
     // ============================================================
@@ -62,6 +73,67 @@ public abstract class Schema
     public abstract PreparedStatement prepareStatement( String sql )
         throws SQLException;
 
+    /**
+     * Prepare a statement on behalf of the given source (normally a Home's table name). While {@link FauxjoMetrics} or
+     * {@link FauxjoEvents} are enabled the statement is wrapped so that its executions are recorded, and if a {@link SlowQueryLog}
+     * is installed so that slow executions are logged along with the source. Prepared for an {@link AsyncHome} operation with a
+     * timeout, the statement is limited to the time the operation has left.
+     */
+    public PreparedStatement prepareStatement( String sql, String source )
+        throws SQLException
+    {
+        PreparedStatement statement = prepareStatement( sql );
+        if ( statement == null )
+        {
+            return null;
+        }
+
+        AsyncHome.watchStatement( statement );
+
+        FauxjoMetrics metrics = FauxjoMetrics.getInstance();
+        if ( metrics.isEnabled() || FauxjoEvents.isEnabled() )
+        {
+            statement = metrics.wrap( statement, sql, source );
+        }
+
+        SlowQueryLog log = slowQueryLog;
+        if ( log != null )
+        {
+            statement = log.wrap( statement, sql, source );
+        }
+
+        return statement;
+    }
+
+    /**
+     * Tell the schema about an SQLException that happened while executing a statement it prepared, so that a broken connection is
+     * replaced before it is used again. Homes do so for their inserts, updates and deletes and for failures reading rows; code that
+     * executes its own queries can call it as well. Nothing is done by default; {@link ConnectionSupplierSchema} passes it on to a
+     * {@link net.jextra.fauxjo.connectionsupplier.SimpleConnectionSupplier}.
+     *
+     * @return true if the connection was replaced.
+     */
+    public boolean handleSQLException( SQLException ex )
+        throws SQLException
+    {
+        return false;
+    }
+
+    public SlowQueryLog getSlowQueryLog()
+    {
+        return slowQueryLog;
+    }
+
+    /**
+     * Install (or with null remove) the log that statements prepared for Homes report slow executions to. Only statements prepared
+     * with {@link #prepareStatement(String, String)} are observed, which is how Homes prepare theirs; statements prepared directly
+     * with {@link #prepareStatement(String)} or on a ConnectionSupplier are not.
+     */
+    public void setSlowQueryLog( SlowQueryLog slowQueryLog )
+    {
+        this.slowQueryLog = slowQueryLog;
+    }
+
     public String getSchemaName()
     {
         return schemaName;
@@ -98,4 +170,223 @@ public abstract class Schema
     {
         return homeClass.cast( homes.get( homeClass ) );
     }
+
+    /**
+     * Load the column metadata of every Home registered with {@link #addHome(Class, Home)} and prepare their update and delete
+     * statements, so that none of it is done by the first request to each Home. Homes whose processor does not extend
+     * {@link AbstractSQLProcessor} have nothing to warm up.
+     */
+    public void warmUp()
+        throws SQLException
+    {
+        for ( Home<?> home : homes.values() )
+        {
+            if ( home.getSQLProcessor() instanceof AbstractSQLProcessor<?> )
+            {
+                ( (AbstractSQLProcessor<?>) home.getSQLProcessor() ).loadMetadata();
+            }
+        }
+
+        prepareStatements();
+    }
+
+    /**
+     * Same as {@link #warmUp()} but the metadata of the Homes is loaded in parallel on the given executor. Each task uses the
+     * connection of the thread it runs on, so this only pays off if the schema hands out a connection per thread (e.g. with a
+     * {@link ThreadSafeConnectionSupplier}). The statements are then prepared on the calling thread.
+     */
+    public void warmUp( ExecutorService executor )
+        throws SQLException
+    {
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for ( Home<?> home : homes.values() )
+        {
+            if ( !( home.getSQLProcessor() instanceof AbstractSQLProcessor<?> ) )
+            {
+                continue;
+            }
+
+            final AbstractSQLProcessor<?> processor = (AbstractSQLProcessor<?>) home.getSQLProcessor();
+            futures.add( executor.submit( new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                    throws Exception
+                {
+                    processor.loadMetadata();
+                    return null;
+                }
+            } ) );
+        }
+
+        try
+        {
+            for ( Future<Void> future : futures )
+            {
+                future.get();
+            }
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+            cancelAll( futures );
+            throw new FauxjoException( "Interrupted while warming up schema.", ex );
+        }
+        catch ( ExecutionException ex )
+        {
+            cancelAll( futures );
+            if ( ex.getCause() instanceof SQLException )
+            {
+                throw (SQLException) ex.getCause();
+            }
+
+            throw new FauxjoException( ex.getCause() );
+        }
+
+        prepareStatements();
+    }
+
+    /**
+     * @return The column metadata of the tables of this schema, which the Homes take their columns from.
+     */
+    public MetadataCatalog getMetadataCatalog()
+    {
+        return metadataCatalog;
+    }
+
+    /**
+     * Replace the catalog Homes take their columns from. It only affects Homes that have not looked up their columns yet.
+     */
+    public void setMetadataCatalog( MetadataCatalog metadataCatalog )
+    {
+        this.metadataCatalog = metadataCatalog;
+    }
+
+    /**
+     * Read the tables and columns of the whole schema from the database into the {@link MetadataCatalog}.
+     */
+    public void refreshMetadataCatalog()
+        throws SQLException
+    {
+        metadataCatalog.refresh( getConnection(), getSchemaName() );
+    }
+
+    /**
+     * Use the column metadata saved by {@link #saveMetadataSnapshot(File)} (e.g. by the previous start of the process), so the
+     * Homes can be used before any metadata query has run. Call {@link #warmUp()}, for example on a background thread, to check it
+     * against the database.
+     */
+    public void loadMetadataSnapshot( File file )
+        throws IOException
+    {
+        setMetadataCatalog( MetadataCatalog.load( file ) );
+    }
+
+    /**
+     * Read the column metadata of the whole schema from the database and save it to the given file.
+     */
+    public void saveMetadataSnapshot( File file )
+        throws SQLException, IOException
+    {
+        refreshMetadataCatalog();
+        metadataCatalog.save( file );
+    }
+
+    /**
+     * @return The Coercer the Homes of this schema convert values with. Add custom {@link net.jextra.fauxjo.coercer.TypeCoercer}s
+     * to it once, at startup.
+     */
+    public Coercer getCoercer()
+    {
+        return coercer;
+    }
+
+    /**
+     * Replace the Coercer, e.g. to share one between schemas. It only affects Homes created afterwards.
+     */
+    public void setCoercer( Coercer coercer )
+    {
+        this.coercer = coercer;
+    }
+
+    public boolean isExcludeLargeColumns()
+    {
+        return excludeLargeColumns;
+    }
+
+    /**
+     * Leave large columns (see {@link SQLTableProcessor.ColumnInfo#isLarge()}) out of the basic selects of {@link Fauxjo} beans. The
+     * beans track them as not loaded (see {@link Fauxjo#isLoaded(String)}) and updates leave them as they are. Set it before the Homes
+     * are used, each builds its column list once.
+     */
+    public void setExcludeLargeColumns( boolean excludeLargeColumns )
+    {
+        this.excludeLargeColumns = excludeLargeColumns;
+    }
+
+    public ExecutorService getAsyncExecutor()
+    {
+        return asyncExecutor;
+    }
+
+    /**
+     * Set the executor that runs the operations of {@link Home#async()}. See {@link AsyncHome#createExecutor(int, int)}.
+     */
+    public void setAsyncExecutor( ExecutorService asyncExecutor )
+    {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    public long getAsyncTimeoutMillis()
+    {
+        return asyncTimeoutMillis;
+    }
+
+    /**
+     * Set how long an asynchronous operation may take before it is cancelled, counted from when it is submitted. Zero (the default)
+     * means no timeout. See {@link AsyncHome} for how the timeout is applied and {@link AsyncHome#withTimeout(long)} to override it.
+     */
+    public void setAsyncTimeoutMillis( long asyncTimeoutMillis )
+    {
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    /**
+     * Pass a failure on to {@link #handleSQLException(SQLException)} before it is thrown, chaining any failure to reconnect to it.
+     */
+    void reportSQLException( SQLException ex )
+    {
+        try
+        {
+            handleSQLException( ex );
+        }
+        catch ( SQLException reconnectEx )
+        {
+            ex.setNextException( reconnectEx );
+        }
+    }
+
+    private void prepareStatements()
+        throws SQLException
+    {
+        for ( Home<?> home : homes.values() )
+        {
+            if ( home.getSQLProcessor() instanceof AbstractSQLProcessor<?> )
+            {
+                ( (AbstractSQLProcessor<?>) home.getSQLProcessor() ).prepareStatements();
+            }
+        }
+    }
+
+    private void cancelAll( List<? extends Future<?>> futures )
+    {
+        for ( Future<?> future : futures )
+        {
+            future.cancel( true );
+        }
+    }
 }
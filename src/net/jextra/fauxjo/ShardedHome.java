@@ -0,0 +1,251 @@
+//
+// ShardedHome
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo;
+
+import java.sql.*;
+import java.util.*;
+import net.jextra.fauxjo.beandef.*;
+
+/**
+ * <p>
+ * {@link Home} of a table that is spread across the shards of a {@link ShardedSchema}. The bean's shard key (a column mapped by a
+ * {@link FauxjoField}) decides which shard a row lives on.
+ * </p>
+ * <p>
+ * Inserts, updates and deletes are routed to the owning shard. Queries for a known shard key should be prepared with
+ * {@link #prepareStatement(Object, String)}; scans go to all shards with {@link #getListFromAllShards(ShardQuery)}.
+ * </p>
+ */
+public class ShardedHome<T extends FauxjoInterface> extends Home<T>
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private ShardedSchema schema;
+    private Class<T> beanClass;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    /**
+     * @throws IllegalArgumentException If the shard key is not a {@link FauxjoField} of the bean.
+     */
+    public ShardedHome( ShardedSchema schema, Class<T> beanClass, String tableName, String shardKey )
+    {
+        super( schema, beanClass, new ShardedSQLProcessor<T>( schema, tableName, beanClass, shardKey ) );
+        this.schema = schema;
+        this.beanClass = beanClass;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Prepare a statement on the shard that owns the given shard key value.
+     */
+    public PreparedStatement prepareStatement( Object shardKeyValue, String sql )
+        throws SQLException
+    {
+        return schema.getShardFor( shardKeyValue ).prepareStatement( sql, getMetricsName() );
+    }
+
+    public String getShardKey()
+    {
+        return getShardedSQLProcessor().getShardKey();
+    }
+
+    /**
+     * Run the query on every shard in parallel and merge the rows of all shards into one list (in shard order).
+     */
+    public List<T> getListFromAllShards( final ShardQuery query )
+        throws SQLException
+    {
+        List<List<T>> lists = schema.invokeOnAllShards( new ShardedSchema.ShardTask<List<T>>()
+        {
+            @Override
+            public List<T> call( Schema shard )
+                throws SQLException
+            {
+                return getList( query.executeQuery( shard ) );
+            }
+        } );
+
+        return concat( lists );
+    }
+
+    /**
+     * Get the beans with the given primary key values, in shard order. If the primary key is also the shard key only the owning
+     * shards are asked, otherwise every shard is; either way the shards are asked in parallel.
+     *
+     * Note: The bean must have exactly one primary key column.
+     */
+    public List<T> getByPrimaryKeys( Collection<?> keyValues )
+        throws SQLException
+    {
+        if ( keyValues.isEmpty() )
+        {
+            return new ArrayList<T>();
+        }
+
+        final String primaryKey = getPrimaryKey();
+        if ( !primaryKey.equals( getShardKey() ) )
+        {
+            final List<Object> values = new ArrayList<Object>( keyValues );
+            return getListFromAllShards( new ShardQuery()
+            {
+                @Override
+                public ResultSet executeQuery( Schema shard )
+                    throws SQLException
+                {
+                    return executeInQuery( shard, primaryKey, values );
+                }
+            } );
+        }
+
+        // Group the keys by the shard that owns them.
+        // Key = Shard index.
+        // Value = Keys owned by the shard.
+        Map<Integer, List<Object>> keysByIndex = new TreeMap<Integer, List<Object>>();
+        // Key = Shard.
+        // Value = The same lists of keys, for the tasks.
+        final Map<Schema, List<Object>> keysByShard = new HashMap<Schema, List<Object>>();
+        for ( Object value : keyValues )
+        {
+            int index = schema.getShardIndexFor( value );
+            List<Object> values = keysByIndex.get( index );
+            if ( values == null )
+            {
+                values = new ArrayList<Object>();
+                keysByIndex.put( index, values );
+                keysByShard.put( schema.getShard( index ), values );
+            }
+            values.add( value );
+        }
+
+        List<List<T>> lists = schema.invokeOnShards( keysByIndex.keySet(), new ShardedSchema.ShardTask<List<T>>()
+        {
+            @Override
+            public List<T> call( Schema shard )
+                throws SQLException
+            {
+                return getList( executeInQuery( shard, primaryKey, keysByShard.get( shard ) ) );
+            }
+        } );
+
+        return concat( lists );
+    }
+
+    // ----------
+    // protected
+    // ----------
+
+    protected ShardedSQLProcessor<T> getShardedSQLProcessor()
+    {
+        return (ShardedSQLProcessor<T>) getSQLProcessor();
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private String getPrimaryKey()
+        throws FauxjoException
+    {
+        String primaryKey = null;
+        for ( Map.Entry<String, FieldDef> entry : BeanDefCache.getFieldDefs( beanClass ).entrySet() )
+        {
+            if ( entry.getValue().isPrimaryKey() )
+            {
+                if ( primaryKey != null )
+                {
+                    throw new FauxjoException( "Bean [" + beanClass.getCanonicalName() + "] must have exactly one primary key column" );
+                }
+                primaryKey = entry.getKey();
+            }
+        }
+
+        if ( primaryKey == null )
+        {
+            throw new FauxjoException( "Bean [" + beanClass.getCanonicalName() + "] must have exactly one primary key column" );
+        }
+
+        return primaryKey;
+    }
+
+    private List<T> concat( List<List<T>> lists )
+    {
+        List<T> result = new ArrayList<T>();
+        for ( List<T> list : lists )
+        {
+            result.addAll( list );
+        }
+
+        return result;
+    }
+
+    private ResultSet executeInQuery( Schema shard, String column, List<Object> values )
+        throws SQLException
+    {
+        StringBuilder questionMarks = new StringBuilder();
+        for ( int i = 0; i < values.size(); i++ )
+        {
+            if ( i > 0 )
+            {
+                questionMarks.append( "," );
+            }
+            questionMarks.append( "?" );
+        }
+
+        PreparedStatement statement = shard.prepareStatement( buildBasicSelect( "where " + column + " in (" + questionMarks + ")" ),
+            getMetricsName() );
+        int propIndex = 1;
+        for ( Object value : values )
+        {
+            statement.setObject( propIndex, value );
+            propIndex++;
+        }
+
+        return statement.executeQuery();
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    /**
+     * Query to be executed against a single shard.
+     */
+    public interface ShardQuery
+    {
+        ResultSet executeQuery( Schema shard )
+            throws SQLException;
+    }
+}
@@ -0,0 +1,260 @@
+//
+// ShardedSQLProcessor
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo;
+
+import java.sql.*;
+import java.util.*;
+import net.jextra.fauxjo.beandef.*;
+
+/**
+ * {@link SQLProcessor} that routes each bean to the {@link SQLTableProcessor} of the shard that owns the bean's shard key value.
+ */
+public class ShardedSQLProcessor<T extends FauxjoInterface> extends AbstractSQLProcessor<T>
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private ShardedSchema schema;
+    private String tableName;
+    private String shardKey;
+
+    // One per shard, in shard order.
+    private List<SQLTableProcessor<T>> shardProcessors;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    /**
+     * @throws IllegalArgumentException If the shard key is not a {@link FauxjoField} of the bean.
+     */
+    public ShardedSQLProcessor( ShardedSchema schema, String tableName, Class<T> beanClass, String shardKey )
+    {
+        super( new ResultSetRecordProcessor<T>( beanClass, schema.getCoercer() ) );
+        checkShardKey( beanClass, shardKey );
+        this.schema = schema;
+        this.tableName = tableName;
+        this.shardKey = shardKey.toLowerCase();
+        getResultSetRecordProcessor().setMetricsName( tableName );
+
+        shardProcessors = new ArrayList<SQLTableProcessor<T>>();
+        for ( Schema shard : schema.getShards() )
+        {
+            shardProcessors.add( new SQLTableProcessor<T>( shard, tableName, beanClass ) );
+        }
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Override
+    public boolean insert( T bean )
+        throws SQLException
+    {
+        return getProcessorFor( bean ).insert( bean );
+    }
+
+    @Override
+    public int update( T bean )
+        throws SQLException
+    {
+        return getProcessorFor( bean ).update( bean );
+    }
+
+    @Override
+    public boolean delete( T bean )
+        throws SQLException
+    {
+        return getProcessorFor( bean ).delete( bean );
+    }
+
+    @Override
+    public Schema getSchema()
+    {
+        return schema;
+    }
+
+    public String getTableName()
+    {
+        return tableName;
+    }
+
+    public String getShardKey()
+    {
+        return shardKey;
+    }
+
+    @Override
+    public String buildBasicSelect( String clause )
+    {
+        SQLTableProcessor<T> processor = shardProcessors.get( 0 );
+        String sql = processor.buildBasicSelect( clause );
+
+        // The rows are mapped here, so the columns the shard leaves out must be optional here too.
+        getResultSetRecordProcessor().setOptionalKeys( processor.getResultSetRecordProcessor().getOptionalKeys() );
+
+        return sql;
+    }
+
+    @Override
+    public String buildProjectedSelect( String clause, String... keys )
+        throws SQLException
+    {
+        return shardProcessors.get( 0 ).buildProjectedSelect( clause, keys );
+    }
+
+    @Override
+    public T convertResultSetRow( ResultSet rs )
+        throws SQLException
+    {
+        return getResultSetRecordProcessor().convertResultSetRow( rs );
+    }
+
+    @Override
+    public PreparedStatement getInsertStatement( T bean )
+        throws SQLException
+    {
+        return getProcessorFor( bean ).getInsertStatement( bean );
+    }
+
+    @Override
+    public void setInsertValues( PreparedStatement statement, T bean )
+        throws SQLException
+    {
+        getProcessorFor( bean ).setInsertValues( statement, bean );
+    }
+
+    /**
+     * Not supported because there is no bean to route with, use {@link #getUpdateStatement(Object)}.
+     */
+    @Override
+    public PreparedStatement getUpdateStatement()
+        throws SQLException
+    {
+        throw new FauxjoException( "A shard key value is needed to locate the update statement for table [" + tableName + "]" );
+    }
+
+    public PreparedStatement getUpdateStatement( Object shardKeyValue )
+        throws SQLException
+    {
+        return shardProcessors.get( schema.getShardIndexFor( shardKeyValue ) ).getUpdateStatement();
+    }
+
+    @Override
+    public void setUpdateValues( PreparedStatement statement, T bean )
+        throws SQLException
+    {
+        getProcessorFor( bean ).setUpdateValues( statement, bean );
+    }
+
+    /**
+     * Not supported because there is no bean to route with, use {@link #getDeleteStatement(Object)}.
+     */
+    @Override
+    public PreparedStatement getDeleteStatement()
+        throws SQLException
+    {
+        throw new FauxjoException( "A shard key value is needed to locate the delete statement for table [" + tableName + "]" );
+    }
+
+    public PreparedStatement getDeleteStatement( Object shardKeyValue )
+        throws SQLException
+    {
+        return shardProcessors.get( schema.getShardIndexFor( shardKeyValue ) ).getDeleteStatement();
+    }
+
+    @Override
+    public void setDeleteValues( PreparedStatement statement, T bean )
+        throws SQLException
+    {
+        getProcessorFor( bean ).setDeleteValues( statement, bean );
+    }
+
+    /**
+     * Load the metadata of the table on every shard.
+     */
+    @Override
+    public void loadMetadata()
+        throws SQLException
+    {
+        for ( SQLTableProcessor<T> processor : shardProcessors )
+        {
+            processor.loadMetadata();
+        }
+    }
+
+    @Override
+    public void prepareStatements()
+        throws SQLException
+    {
+        for ( SQLTableProcessor<T> processor : shardProcessors )
+        {
+            processor.prepareStatements();
+        }
+    }
+
+    /**
+     * @return The processor of the shard that owns the given bean.
+     */
+    public SQLTableProcessor<T> getProcessorFor( T bean )
+        throws SQLException
+    {
+        Object value = bean.readValue( shardKey );
+        if ( value == null )
+        {
+            throw new FauxjoException( "Shard key [" + shardKey + "] of bean [" + bean.getClass().getCanonicalName() + "] is null" );
+        }
+
+        return shardProcessors.get( schema.getShardIndexFor( value ) );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static void checkShardKey( Class<?> beanClass, String shardKey )
+    {
+        Map<String, FieldDef> fieldDefs;
+        try
+        {
+            fieldDefs = BeanDefCache.getFieldDefs( beanClass );
+        }
+        catch ( FauxjoException ex )
+        {
+            throw new IllegalArgumentException( "Unable to read the fields of [" + beanClass.getCanonicalName() + "].", ex );
+        }
+
+        if ( shardKey == null || !fieldDefs.containsKey( shardKey.toLowerCase() ) )
+        {
+            throw new IllegalArgumentException(
+                "Shard key [" + shardKey + "] is not a FauxjoField of bean [" + beanClass.getCanonicalName() + "]." );
+        }
+    }
+}
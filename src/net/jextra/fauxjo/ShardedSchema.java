@@ -0,0 +1,513 @@
+//
+// ShardedSchema
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo;
+
+import java.math.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.connectionsupplier.*;
+import net.jextra.fauxjo.metrics.*;
+
+/**
+ * <p>
+ * A {@link Schema} whose tables are spread across multiple databases ("shards"). Each shard is represented by its own
+ * {@link ConnectionSupplier} and every shard is expected to contain the same tables.
+ * </p>
+ * <p>
+ * Rows are assigned to a shard by consistent hashing of a shard key value (see {@link #getShardFor(Object)}), so adding a
+ * shard only relocates roughly {@code 1 / numShards} of the keys. Because there is no single connection, {@link #getConnection()} and
+ * {@link #prepareStatement(String)} are not supported; use {@link ShardedHome} or ask for a specific shard instead.
+ * </p>
+ * <p>
+ * Note: Scans across all shards ({@link #invokeOnAllShards(ShardTask)}) run on worker threads, so the {@link ConnectionSupplier}s
+ * must be safe to use from those threads (e.g. {@link ThreadSafeConnectionSupplier}).
+ * </p>
+ */
+public class ShardedSchema extends Schema
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private List<Shard> shards;
+
+    // Key = Position on the hash ring.
+    // Value = Shard that owns the keys hashing up to (and including) that position.
+    private TreeMap<Long, Shard> ring;
+
+    private ExecutorService executor;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public ShardedSchema( String schemaName, List<? extends ConnectionSupplier> suppliers )
+    {
+        this( schemaName, suppliers, DEFAULT_VIRTUAL_NODES );
+    }
+
+    /**
+     * @param virtualNodes Number of positions each shard occupies on the hash ring. More positions give a more even spread of keys.
+     */
+    public ShardedSchema( String schemaName, List<? extends ConnectionSupplier> suppliers, int virtualNodes )
+    {
+        if ( suppliers == null || suppliers.isEmpty() )
+        {
+            throw new IllegalArgumentException( "At least one ConnectionSupplier must be given to a ShardedSchema." );
+        }
+
+        if ( virtualNodes < 1 )
+        {
+            throw new IllegalArgumentException( "The number of virtual nodes must be positive." );
+        }
+
+        setSchemaName( schemaName );
+
+        shards = new ArrayList<Shard>();
+        ring = new TreeMap<Long, Shard>();
+        for ( ConnectionSupplier supplier : suppliers )
+        {
+            Shard shard = new Shard( shards.size(), supplier );
+            shard.setSchemaName( schemaName );
+            shard.setMetadataCatalog( getMetadataCatalog() );
+            shard.setCoercer( getCoercer() );
+            shard.setExcludeLargeColumns( isExcludeLargeColumns() );
+            shards.add( shard );
+
+            for ( int v = 0; v < virtualNodes; v++ )
+            {
+                ring.put( hash( "shard-" + shard.getIndex() + "-" + v ), shard );
+            }
+        }
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * A ShardedSchema has no single connection.
+     */
+    @Override
+    public Connection getConnection()
+        throws SQLException
+    {
+        throw new FauxjoException( "A ShardedSchema has no single connection, use getShardFor( shardKey ) to locate a shard." );
+    }
+
+    /**
+     * A ShardedSchema can not prepare a statement without knowing which shard to prepare it on.
+     */
+    @Override
+    public PreparedStatement prepareStatement( String sql )
+        throws SQLException
+    {
+        throw new FauxjoException( "A ShardedSchema can not prepare a statement without a shard, use getShardFor( shardKey ) to locate a shard." );
+    }
+
+    @Override
+    public void setSchemaName( String schemaName )
+    {
+        super.setSchemaName( schemaName );
+
+        if ( shards != null )
+        {
+            for ( Shard shard : shards )
+            {
+                shard.setSchemaName( schemaName );
+            }
+        }
+    }
+
+    @Override
+    public void setSlowQueryLog( SlowQueryLog slowQueryLog )
+    {
+        super.setSlowQueryLog( slowQueryLog );
+
+        if ( shards != null )
+        {
+            for ( Shard shard : shards )
+            {
+                shard.setSlowQueryLog( slowQueryLog );
+            }
+        }
+    }
+
+    /**
+     * The shards share one catalog, as they all hold the same tables.
+     */
+    @Override
+    public void setMetadataCatalog( MetadataCatalog metadataCatalog )
+    {
+        super.setMetadataCatalog( metadataCatalog );
+
+        if ( shards != null )
+        {
+            for ( Shard shard : shards )
+            {
+                shard.setMetadataCatalog( metadataCatalog );
+            }
+        }
+    }
+
+    @Override
+    public void setExcludeLargeColumns( boolean excludeLargeColumns )
+    {
+        super.setExcludeLargeColumns( excludeLargeColumns );
+
+        if ( shards != null )
+        {
+            for ( Shard shard : shards )
+            {
+                shard.setExcludeLargeColumns( excludeLargeColumns );
+            }
+        }
+    }
+
+    @Override
+    public void setCoercer( Coercer coercer )
+    {
+        super.setCoercer( coercer );
+
+        if ( shards != null )
+        {
+            for ( Shard shard : shards )
+            {
+                shard.setCoercer( coercer );
+            }
+        }
+    }
+
+    /**
+     * Read the catalog from the first shard.
+     */
+    @Override
+    public void refreshMetadataCatalog()
+        throws SQLException
+    {
+        shards.get( 0 ).refreshMetadataCatalog();
+    }
+
+    public int getShardCount()
+    {
+        return shards.size();
+    }
+
+    /**
+     * @return Every shard, in the order the ConnectionSuppliers were given.
+     */
+    public List<Schema> getShards()
+    {
+        return Collections.<Schema> unmodifiableList( shards );
+    }
+
+    public Schema getShard( int index )
+    {
+        return shards.get( index );
+    }
+
+    /**
+     * @return Index of the shard that owns the given shard key value. Shard keys may be Strings, numbers, dates, UUIDs, Booleans or
+     * enums; they are hashed in a canonical form so that equal values land on the same shard in every JVM, whatever their Java type
+     * or the time zone.
+     */
+    public int getShardIndexFor( Object shardKey )
+        throws FauxjoException
+    {
+        if ( shardKey == null )
+        {
+            throw new FauxjoException( "A shard key value can not be null." );
+        }
+
+        Map.Entry<Long, Shard> entry = ring.ceilingEntry( hash( canonicalize( shardKey ) ) );
+        if ( entry == null )
+        {
+            // Wrap around the ring.
+            entry = ring.firstEntry();
+        }
+
+        return entry.getValue().getIndex();
+    }
+
+    /**
+     * @return The shard (as a regular {@link Schema}) that owns the given shard key value.
+     */
+    public Schema getShardFor( Object shardKey )
+        throws FauxjoException
+    {
+        return shards.get( getShardIndexFor( shardKey ) );
+    }
+
+    /**
+     * Run the given task against every shard in parallel and wait for all of them to finish.
+     *
+     * @return The results of each task in shard order.
+     */
+    public <V> List<V> invokeOnAllShards( ShardTask<V> task )
+        throws SQLException
+    {
+        List<Integer> indexes = new ArrayList<Integer>();
+        for ( Shard shard : shards )
+        {
+            indexes.add( shard.getIndex() );
+        }
+
+        return invokeOnShards( indexes, task );
+    }
+
+    /**
+     * Run the given task against the shards with the given indexes in parallel and wait for all of them to finish. A single shard
+     * is done on the calling thread.
+     *
+     * @return The results of each task in the order of the indexes.
+     */
+    public <V> List<V> invokeOnShards( Collection<Integer> shardIndexes, final ShardTask<V> task )
+        throws SQLException
+    {
+        if ( shardIndexes.size() == 1 )
+        {
+            return Collections.singletonList( task.call( shards.get( shardIndexes.iterator().next() ) ) );
+        }
+
+        List<Future<V>> futures = new ArrayList<Future<V>>();
+        for ( int index : shardIndexes )
+        {
+            final Shard shard = shards.get( index );
+            futures.add( getExecutor().submit( new Callable<V>()
+            {
+                @Override
+                public V call()
+                    throws Exception
+                {
+                    return task.call( shard );
+                }
+            } ) );
+        }
+
+        List<V> results = new ArrayList<V>();
+        try
+        {
+            for ( Future<V> future : futures )
+            {
+                results.add( future.get() );
+            }
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+            cancelAll( futures );
+            throw new FauxjoException( "Interrupted while waiting for shards.", ex );
+        }
+        catch ( ExecutionException ex )
+        {
+            cancelAll( futures );
+            if ( ex.getCause() instanceof SQLException )
+            {
+                throw (SQLException) ex.getCause();
+            }
+
+            throw new FauxjoException( ex.getCause() );
+        }
+
+        return results;
+    }
+
+    /**
+     * Stop the worker threads used for scans across all shards. The ConnectionSuppliers are not closed.
+     */
+    public synchronized void shutdown()
+    {
+        if ( executor != null )
+        {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private synchronized ExecutorService getExecutor()
+    {
+        if ( executor == null )
+        {
+            executor = Executors.newFixedThreadPool( shards.size(), new DaemonThreadFactory( "fauxjo-shard" ) );
+        }
+
+        return executor;
+    }
+
+    private void cancelAll( List<? extends Future<?>> futures )
+    {
+        for ( Future<?> future : futures )
+        {
+            future.cancel( true );
+        }
+    }
+
+    /**
+     * @return The form of a shard key value that is hashed. Strings and whole numbers are hashed as their decimal text (as they always
+     * were), so 5, 5L, 5.0 and BigDecimal 5.00 all land on the same shard.
+     */
+    private static String canonicalize( Object shardKey )
+        throws FauxjoException
+    {
+        if ( shardKey instanceof String || shardKey instanceof Character || shardKey instanceof UUID || shardKey instanceof Boolean )
+        {
+            return shardKey.toString();
+        }
+        else if ( shardKey instanceof Long || shardKey instanceof Integer || shardKey instanceof Short || shardKey instanceof Byte ||
+            shardKey instanceof BigInteger )
+        {
+            return shardKey.toString();
+        }
+        else if ( shardKey instanceof BigDecimal )
+        {
+            return canonicalize( (BigDecimal) shardKey );
+        }
+        else if ( shardKey instanceof Double || shardKey instanceof Float )
+        {
+            double value = ( (Number) shardKey ).doubleValue();
+            if ( Double.isNaN( value ) || Double.isInfinite( value ) )
+            {
+                throw new FauxjoException( "A shard key value must be a finite number, not [" + value + "]." );
+            }
+
+            return canonicalize( BigDecimal.valueOf( value ) );
+        }
+        else if ( shardKey instanceof java.sql.Date )
+        {
+            // A date is created at midnight of the JVM's time zone, so the day (not the instant) is what is the same everywhere.
+            return shardKey.toString();
+        }
+        else if ( shardKey instanceof java.util.Date )
+        {
+            // Timestamps too: the instant, not its text in the JVM's time zone.
+            return Long.toString( ( (java.util.Date) shardKey ).getTime() );
+        }
+        else if ( shardKey instanceof Enum<?> )
+        {
+            return ( (Enum<?>) shardKey ).name();
+        }
+
+        throw new FauxjoException( "Shard key values of type [" + shardKey.getClass().getCanonicalName() + "] are not supported." );
+    }
+
+    private static String canonicalize( BigDecimal value )
+    {
+        // stripTrailingZeros leaves zeros with a scale alone before Java 8.
+        if ( value.signum() == 0 )
+        {
+            return "0";
+        }
+
+        return value.stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * 64-bit FNV-1a hash followed by the murmur3 finalizer to spread the bits. It is deliberately not {@link Object#hashCode()}
+     * so that key placement is stable across JVMs.
+     */
+    private static long hash( String value )
+    {
+        long h = 0xcbf29ce484222325L;
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            h ^= value.charAt( i );
+            h *= 0x100000001b3L;
+        }
+
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+
+        return h;
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    /**
+     * Work to be done against a single shard.
+     */
+    public interface ShardTask<V>
+    {
+        V call( Schema shard )
+            throws SQLException;
+    }
+
+    private static class Shard extends Schema
+    {
+        private int index;
+        private ConnectionSupplier connSupplier;
+
+        public Shard( int index, ConnectionSupplier connSupplier )
+        {
+            this.index = index;
+            this.connSupplier = connSupplier;
+        }
+
+        public int getIndex()
+        {
+            return index;
+        }
+
+        @Override
+        public Connection getConnection()
+            throws SQLException
+        {
+            return connSupplier.getConnection();
+        }
+
+        @Override
+        public PreparedStatement prepareStatement( String sql )
+            throws SQLException
+        {
+            return connSupplier.prepareStatement( sql );
+        }
+
+        @Override
+        public boolean handleSQLException( SQLException ex )
+            throws SQLException
+        {
+            if ( connSupplier instanceof SimpleConnectionSupplier )
+            {
+                return ( (SimpleConnectionSupplier) connSupplier ).handleSQLException( ex );
+            }
+
+            return false;
+        }
+    }
+}
@@ -24,14 +24,21 @@
 package net.jextra.fauxjo.beandef;
 
 import net.jextra.fauxjo.FauxjoException;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
 /**
  * Represents the result of processing the annotations on the Fauxjo bean class. Processing the annotations is rather slow; therefore, this object
  * stored the results so that they can be placed in a cache.
+ *
+ * Note: A BeanDef is shared by all threads once it is in the {@link BeanDefCache}, so only the lookup methods may be used on it
+ * from then on.
  */
 public class BeanDef
 {
@@ -41,6 +48,16 @@ public class BeanDef
 
     private Map<String, FieldDef> fieldDefCache;
 
+    // Ordered by key, built on first use (so only once the BeanDef is complete).
+    private volatile List<FieldDef> primaryKeyDefs;
+
+    // Constructor rows are mapped through and the lowercase keys of its parameters (none for the no-argument constructor).
+    private Constructor<?> constructor;
+    private String[] constructorKeys;
+
+    // True if rows are decoded into the bean lazily (see FauxjoLazy).
+    private boolean lazy;
+
     // ============================================================
     // Constructors
     // ============================================================
@@ -68,7 +85,9 @@ public class BeanDef
 
     public Field getField( String key )
     {
-        return getFieldDef( key ).getField();
+        FieldDef def = fieldDefCache.get( key.toLowerCase() );
+
+        return def == null ? null : def.getField();
     }
 
     public void addReadMethod( String key, Method method )
@@ -79,7 +98,9 @@ public class BeanDef
 
     public Method getReadMethod( String key )
     {
-        return getFieldDef( key ).getReadMethod();
+        FieldDef def = fieldDefCache.get( key.toLowerCase() );
+
+        return def == null ? null : def.getReadMethod();
     }
 
     public void addWriteMethod( String key, Method method )
@@ -90,7 +111,9 @@ public class BeanDef
 
     public Method getWriteMethod( String key )
     {
-        return getFieldDef( key ).getWriteMethod();
+        FieldDef def = fieldDefCache.get( key.toLowerCase() );
+
+        return def == null ? null : def.getWriteMethod();
     }
 
     public Map<String, FieldDef> getFieldDefs()
@@ -105,6 +128,69 @@ public class BeanDef
         return map;
     }
 
+    /**
+     * @return The definitions of the primary key columns, ordered by key.
+     */
+    public List<FieldDef> getPrimaryKeyDefs()
+    {
+        List<FieldDef> defs = primaryKeyDefs;
+        if ( defs == null )
+        {
+            defs = new ArrayList<FieldDef>();
+            for ( FieldDef def : fieldDefCache.values() )
+            {
+                if ( def.isPrimaryKey() )
+                {
+                    defs.add( def );
+                }
+            }
+            defs = Collections.unmodifiableList( defs );
+            primaryKeyDefs = defs;
+        }
+
+        return defs;
+    }
+
+    public void setConstructor( Constructor<?> constructor, String[] keys )
+    {
+        this.constructor = constructor;
+        constructorKeys = new String[keys.length];
+        for ( int i = 0; i < keys.length; i++ )
+        {
+            constructorKeys[i] = keys[i].toLowerCase();
+        }
+    }
+
+    /**
+     * @return The {@link net.jextra.fauxjo.FauxjoConstructor} of the bean or else its no-argument constructor, already accessible.
+     * Null if it has neither.
+     */
+    public Constructor<?> getConstructor()
+    {
+        return constructor;
+    }
+
+    /**
+     * @return Keys of the values passed to {@link #getConstructor()}, in parameter order.
+     */
+    public String[] getConstructorKeys()
+    {
+        return constructorKeys == null ? new String[0] : constructorKeys.clone();
+    }
+
+    public boolean isLazy()
+    {
+        return lazy;
+    }
+
+    public void setLazy( boolean lazy )
+    {
+        this.lazy = lazy;
+    }
+
+    /**
+     * @return The definition of the column, which is added if there is none yet.
+     */
     public FieldDef getFieldDef( String key )
     {
         FieldDef def = fieldDefCache.get( key.toLowerCase() );
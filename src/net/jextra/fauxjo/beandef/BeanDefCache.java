@@ -24,20 +24,29 @@
 package net.jextra.fauxjo.beandef;
 
 import net.jextra.fauxjo.*;
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.*;
 
+/**
+ * <p>
+ * Cache of the {@link BeanDef}s of Fauxjo bean classes. A BeanDef is built once per class by scanning the class for fauxjo
+ * annotations and is then shared by all threads.
+ * </p>
+ * <p>
+ * Bean classes are not kept alive by the cache (see {@link ClassCache}), so redeploying an application does not leak its class
+ * loader. {@link #register(Class...)} builds the BeanDefs ahead of time, e.g. at startup, which also reports annotation mistakes
+ * early.
+ * </p>
+ */
 public abstract class BeanDefCache
 {
     // ============================================================
     // Fields
     // ============================================================
 
-    private static HashMap<Class<?>, BeanDef> beanDefCache;
+    private static ClassCache<BeanDef> beanDefCache;
 
     // ============================================================
     // Constructors
@@ -45,7 +54,15 @@ public abstract class BeanDefCache
 
     static
     {
-        beanDefCache = new HashMap<Class<?>, BeanDef>();
+        beanDefCache = new ClassCache<BeanDef>()
+        {
+            @Override
+            protected BeanDef computeValue( Class<?> fauxjoClass )
+                throws FauxjoException
+            {
+                return createBeanDef( fauxjoClass );
+            }
+        };
     }
 
     // ============================================================
@@ -59,21 +76,7 @@ public abstract class BeanDefCache
     public static Map<String, FieldDef> getFieldDefs( Class<?> fauxjoClass )
         throws FauxjoException
     {
-        try
-        {
-            BeanDef beanDef = getBeanDef( fauxjoClass );
-
-            return beanDef.getFieldDefs();
-        }
-        catch ( Exception ex )
-        {
-            if ( ex instanceof FauxjoException )
-            {
-                throw (FauxjoException) ex;
-            }
-
-            throw new FauxjoException( ex );
-        }
+        return getBeanDef( fauxjoClass ).getFieldDefs();
     }
 
     /**
@@ -84,32 +87,27 @@ public abstract class BeanDefCache
     {
         try
         {
-            // Arbitrarily ordered by keys.
-            TreeMap<String, Object> keys = new TreeMap<String, Object>();
-
-            Map<String, FieldDef> map = getFieldDefs( bean.getClass() );
-            for ( String key : map.keySet() )
+            // Ordered by keys.
+            List<FieldDef> primaryKeyDefs = getBeanDef( bean.getClass() ).getPrimaryKeyDefs();
+            if ( primaryKeyDefs.isEmpty() )
             {
-                FieldDef def = map.get( key );
-                if ( def.isPrimaryKey() )
-                {
-                    if ( def.getField() != null )
-                    {
-                        keys.put( key, def.getField().get( bean ) );
-                    }
-                    else
-                    {
-                        keys.put( key, def.getReadMethod().invoke( bean, new Object[0] ) );
-                    }
-                }
+                return null;
             }
 
-            if ( keys.size() == 0 )
+            List<Object> values = new ArrayList<Object>( primaryKeyDefs.size() );
+            for ( FieldDef def : primaryKeyDefs )
             {
-                return null;
+                if ( def.getField() != null )
+                {
+                    values.add( def.getField().get( bean ) );
+                }
+                else
+                {
+                    values.add( def.getReadMethod().invoke( bean, new Object[0] ) );
+                }
             }
 
-            return new ArrayList<Object>( keys.values() );
+            return values;
         }
         catch ( Exception ex )
         {
@@ -123,24 +121,59 @@ public abstract class BeanDefCache
     }
 
     public static BeanDef getBeanDef( Class<?> fauxjoClass )
-        throws FauxjoException, IntrospectionException
+        throws FauxjoException
     {
-        BeanDef beanDef = beanDefCache.get( fauxjoClass );
-        if ( beanDef != null )
+        return beanDefCache.get( fauxjoClass );
+    }
+
+    /**
+     * Build and cache the BeanDefs of the given classes now instead of on first use.
+     */
+    public static void register( Class<?>... fauxjoClasses )
+        throws FauxjoException
+    {
+        for ( Class<?> fauxjoClass : fauxjoClasses )
         {
-            return beanDef;
+            beanDefCache.get( fauxjoClass );
         }
+    }
+
+    /**
+     * Forget the BeanDef of the given class, e.g. after it was reloaded.
+     */
+    public static void remove( Class<?> fauxjoClass )
+    {
+        beanDefCache.remove( fauxjoClass );
+    }
+
+    /**
+     * Forget every BeanDef, e.g. when an application is undeployed.
+     */
+    public static void clear()
+    {
+        beanDefCache.clear();
+    }
 
-        //
-        // Was not cached, collect information.
-        //
-        beanDef = new BeanDef();
+    // ----------
+    // private
+    // ----------
+
+    /**
+     * Collect the information of the fauxjo annotations on the fields and public methods of the class.
+     */
+    private static BeanDef createBeanDef( Class<?> fauxjoClass )
+        throws FauxjoException
+    {
+        BeanDef beanDef = new BeanDef();
 
         for ( Field field : getFauxjoFields( fauxjoClass ) )
         {
             FauxjoField ann = field.getAnnotation( FauxjoField.class );
             String key = ann.value();
 
+            // Accessible once here rather than on every read and write.
+            field.setAccessible( true );
+
             FieldDef fieldDef = beanDef.addField( key, field );
             fieldDef.setDefaultable( ann.defaultable() );
 
@@ -153,63 +186,101 @@ public abstract class BeanDefCache
             }
         }
 
-        BeanInfo info = Introspector.getBeanInfo( fauxjoClass );
-        for ( PropertyDescriptor prop : info.getPropertyDescriptors() )
+        for ( Method method : fauxjoClass.getMethods() )
         {
-            if ( prop.getWriteMethod() != null )
+            if ( method.isBridge() || method.isSynthetic() )
             {
-                FauxjoSetter ann = prop.getWriteMethod().getAnnotation( FauxjoSetter.class );
-                if ( ann != null )
-                {
-                    String key = ann.value();
+                continue;
+            }
 
-                    Field field = beanDef.getField( key );
-                    if ( field != null )
-                    {
-                        throw new FauxjoException( "FauxjoSetter defined on method where a FauxjoField " +
-                            "already defines the link to the column [" + key + "]" );
-                    }
+            FauxjoSetter setter = method.getAnnotation( FauxjoSetter.class );
+            if ( setter != null && method.getParameterTypes().length == 1 )
+            {
+                String key = setter.value();
 
-                    beanDef.addWriteMethod( key, prop.getWriteMethod() );
+                if ( beanDef.getField( key ) != null )
+                {
+                    throw new FauxjoException( "FauxjoSetter defined on method where a FauxjoField " +
+                        "already defines the link to the column [" + key + "]" );
                 }
+
+                beanDef.addWriteMethod( key, method );
             }
 
-            if ( prop.getReadMethod() != null )
+            FauxjoGetter getter = method.getAnnotation( FauxjoGetter.class );
+            if ( getter != null && method.getParameterTypes().length == 0 && method.getReturnType() != Void.TYPE )
             {
-                FauxjoGetter ann = prop.getReadMethod().getAnnotation( FauxjoGetter.class );
-                if ( ann != null )
+                String key = getter.value();
+
+                if ( beanDef.getField( key ) != null )
                 {
-                    String key = ann.value();
-
-                    Field field = beanDef.getField( key );
-                    if ( field != null )
-                    {
-                        throw new FauxjoException( "FauxjoGetter defined on method where a FauxjoField " +
-                            "already defines the link to the column [" + key + "]" );
-                    }
-
-                    beanDef.addReadMethod( key, prop.getReadMethod() );
-
-                    //
-                    // Check if FauxjoPrimaryKey.
-                    //
-                    if ( prop.getReadMethod().isAnnotationPresent( FauxjoPrimaryKey.class ) )
-                    {
-                        beanDef.getFieldDef( key ).setPrimaryKey( true );
-                    }
+                    throw new FauxjoException( "FauxjoGetter defined on method where a FauxjoField " +
+                        "already defines the link to the column [" + key + "]" );
+                }
+
+                beanDef.addReadMethod( key, method );
+
+                //
+                // Check if FauxjoPrimaryKey.
+                //
+                if ( method.isAnnotationPresent( FauxjoPrimaryKey.class ) )
+                {
+                    beanDef.getFieldDef( key ).setPrimaryKey( true );
                 }
             }
         }
 
-        // Put in cacche 
-        beanDefCache.put( fauxjoClass, beanDef );
+        setConstructor( beanDef, fauxjoClass );
+        beanDef.setLazy( fauxjoClass.isAnnotationPresent( FauxjoLazy.class ) );
 
         return beanDef;
     }
 
-    // ----------
-    // private
-    // ----------
+    private static void setConstructor( BeanDef beanDef, Class<?> fauxjoClass )
+        throws FauxjoException
+    {
+        Constructor<?> constructor = null;
+        String[] keys = null;
+        for ( Constructor<?> c : fauxjoClass.getDeclaredConstructors() )
+        {
+            FauxjoConstructor ann = c.getAnnotation( FauxjoConstructor.class );
+            if ( ann == null )
+            {
+                continue;
+            }
+
+            if ( constructor != null )
+            {
+                throw new FauxjoException( "FauxjoConstructor defined on more than one constructor of [" + fauxjoClass.getCanonicalName() +
+                    "]" );
+            }
+            if ( ann.value().length != c.getParameterTypes().length )
+            {
+                throw new FauxjoException( "FauxjoConstructor of [" + fauxjoClass.getCanonicalName() + "] must list one column per parameter" );
+            }
+
+            constructor = c;
+            keys = ann.value();
+        }
+
+        if ( constructor == null )
+        {
+            try
+            {
+                constructor = fauxjoClass.getDeclaredConstructor();
+                keys = new String[0];
+            }
+            catch ( NoSuchMethodException ex )
+            {
+                // Rows cannot be mapped to this class, which is only a problem if that is attempted.
+                return;
+            }
+        }
+
+        // Accessible once here rather than on every row.
+        constructor.setAccessible( true );
+        beanDef.setConstructor( constructor, keys );
+    }
 
     private static Collection<Field> getFauxjoFields( Class<?> cls )
     {
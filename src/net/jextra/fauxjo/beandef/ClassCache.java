@@ -0,0 +1,276 @@
+//
+// ClassCache
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.beandef;
+
+import java.lang.ref.*;
+import net.jextra.fauxjo.*;
+
+/**
+ * <p>
+ * Thread-safe cache of a value computed once per class, in the spirit of the Java 7 ClassValue.
+ * </p>
+ * <p>
+ * Classes are held weakly and values softly, so the cache does not keep the classes of a redeployed application (and their
+ * class loader) alive: once nothing else uses them, their values are dropped by the garbage collector like any soft reference and
+ * the entries are purged. If a value is dropped while its class is still in use it is simply computed again.
+ * </p>
+ * <p>
+ * Lookups take no lock and allocate nothing; only computing and storing a value synchronizes.
+ * </p>
+ */
+public abstract class ClassCache<V>
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Chains of entries hashed by the identity of their class. Entries are immutable, a change replaces the whole chain.
+    private volatile Entry<V>[] table;
+    private int size;
+    private ReferenceQueue<Class<?>> queue;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public ClassCache()
+    {
+        table = newTable( INITIAL_CAPACITY );
+        queue = new ReferenceQueue<Class<?>>();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * @return The value for the class, computed by {@link #computeValue(Class)} if there is none yet.
+     */
+    public V get( Class<?> type )
+        throws FauxjoException
+    {
+        Entry<V>[] tab = table;
+        for ( Entry<V> entry = tab[indexFor( type, tab.length )]; entry != null; entry = entry.next )
+        {
+            if ( entry.get() == type )
+            {
+                V value = entry.value.get();
+                if ( value != null )
+                {
+                    return value;
+                }
+                break;
+            }
+        }
+
+        return compute( type );
+    }
+
+    /**
+     * Set the value of the class instead of having it computed.
+     */
+    public synchronized void put( Class<?> type, V value )
+    {
+        expungeStaleEntries();
+
+        Entry<V>[] tab = table;
+        int index = indexFor( type, tab.length );
+        tab[index] = new Entry<V>( type, value, queue, without( tab[index], type ) );
+        size++;
+
+        if ( size > tab.length * 3 / 4 )
+        {
+            resize( tab.length * 2 );
+        }
+        else
+        {
+            // Publish the new chain.
+            table = tab;
+        }
+    }
+
+    public synchronized void remove( Class<?> type )
+    {
+        Entry<V>[] tab = table;
+        int index = indexFor( type, tab.length );
+        tab[index] = without( tab[index], type );
+        table = tab;
+    }
+
+    public synchronized void clear()
+    {
+        while ( queue.poll() != null )
+        {
+        }
+
+        table = newTable( INITIAL_CAPACITY );
+        size = 0;
+    }
+
+    /**
+     * @return Number of classes in the cache, not counting classes that have been garbage collected.
+     */
+    public synchronized int size()
+    {
+        expungeStaleEntries();
+
+        return size;
+    }
+
+    // ----------
+    // protected
+    // ----------
+
+    protected abstract V computeValue( Class<?> type )
+        throws FauxjoException;
+
+    // ----------
+    // private
+    // ----------
+
+    private synchronized V compute( Class<?> type )
+        throws FauxjoException
+    {
+        // Another thread may have stored it while this one waited.
+        Entry<V>[] tab = table;
+        for ( Entry<V> entry = tab[indexFor( type, tab.length )]; entry != null; entry = entry.next )
+        {
+            if ( entry.get() == type )
+            {
+                V value = entry.value.get();
+                if ( value != null )
+                {
+                    return value;
+                }
+            }
+        }
+
+        V value = computeValue( type );
+        put( type, value );
+
+        return value;
+    }
+
+    /**
+     * @return The chain without the entry of the given class (and without entries whose class has been collected). The size is
+     * adjusted for every entry left out.
+     */
+    private Entry<V> without( Entry<V> chain, Class<?> type )
+    {
+        if ( chain == null )
+        {
+            return null;
+        }
+
+        Entry<V> rest = without( chain.next, type );
+        Class<?> entryType = chain.get();
+        if ( entryType == null || entryType == type )
+        {
+            size--;
+            return rest;
+        }
+
+        return rest == chain.next ? chain : new Entry<V>( entryType, chain.value, queue, rest );
+    }
+
+    private void expungeStaleEntries()
+    {
+        boolean stale = false;
+        while ( queue.poll() != null )
+        {
+            stale = true;
+        }
+
+        if ( stale )
+        {
+            resize( table.length );
+        }
+    }
+
+    /**
+     * Rebuild the table with the given capacity, dropping entries whose class has been collected.
+     */
+    private void resize( int capacity )
+    {
+        Entry<V>[] newTab = newTable( capacity );
+        int newSize = 0;
+        for ( Entry<V> chain : table )
+        {
+            for ( Entry<V> entry = chain; entry != null; entry = entry.next )
+            {
+                Class<?> type = entry.get();
+                if ( type != null )
+                {
+                    int index = indexFor( type, capacity );
+                    newTab[index] = new Entry<V>( type, entry.value, queue, newTab[index] );
+                    newSize++;
+                }
+            }
+        }
+
+        size = newSize;
+        table = newTab;
+    }
+
+    private static int indexFor( Class<?> type, int length )
+    {
+        int hash = System.identityHashCode( type );
+
+        return ( hash ^ ( hash >>> 16 ) ) & ( length - 1 );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static <V> Entry<V>[] newTable( int capacity )
+    {
+        return (Entry<V>[]) new Entry<?>[capacity];
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    private static class Entry<V> extends WeakReference<Class<?>>
+    {
+        private final SoftReference<V> value;
+        private final Entry<V> next;
+
+        public Entry( Class<?> type, V value, ReferenceQueue<Class<?>> queue, Entry<V> next )
+        {
+            this( type, new SoftReference<V>( value ), queue, next );
+        }
+
+        public Entry( Class<?> type, SoftReference<V> value, ReferenceQueue<Class<?>> queue, Entry<V> next )
+        {
+            super( type, queue );
+            this.value = value;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+//
+// ArrayCoercer
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.coercer;
+
+import java.lang.reflect.Array;
+import java.math.*;
+import net.jextra.fauxjo.*;
+
+/**
+ * <p>
+ * Converts between arrays of different component types, e.g. the Long[] a driver returns for an int8[] column to a long[] field,
+ * or a long[] field to the Object[] that {@link java.sql.Connection#createArrayOf(String, Object[])} takes.
+ * </p>
+ * <p>
+ * Numbers are only narrowed when nothing is lost: an element that does not fit the component type (e.g. a bigint beyond the
+ * range of an int[] field), or a fraction for an integral type, fails with a {@link FauxjoException}.
+ * </p>
+ */
+public class ArrayCoercer implements TypeCoercer<Object>
+{
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Override
+    public Object coerce( Object value, Class<?> destClass )
+        throws FauxjoException
+    {
+        if ( !destClass.isArray() )
+        {
+            throw new FauxjoException( "The ArrayCoercer does not know how to convert to type " + destClass.getCanonicalName() );
+        }
+
+        Class<?> componentType = destClass.getComponentType();
+        int length = Array.getLength( value );
+        Object array = Array.newInstance( componentType, length );
+        for ( int i = 0; i < length; i++ )
+        {
+            Object element = Array.get( value, i );
+            if ( !componentType.isPrimitive() )
+            {
+                if ( element != null && !componentType.isInstance( element ) )
+                {
+                    throw new FauxjoException( "Unable to convert array element [" + element + "] to type " + componentType.getCanonicalName() );
+                }
+                Array.set( array, i, element );
+            }
+            else if ( componentType == Boolean.TYPE && element instanceof Boolean )
+            {
+                Array.setBoolean( array, i, (Boolean) element );
+            }
+            else if ( element instanceof Number )
+            {
+                setNumber( array, i, componentType, (Number) element );
+            }
+            else
+            {
+                throw new FauxjoException( "Unable to convert array element [" + element + "] to type " + componentType.getCanonicalName() );
+            }
+        }
+
+        return array;
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private void setNumber( Object array, int index, Class<?> componentType, Number number )
+        throws FauxjoException
+    {
+        if ( componentType == Long.TYPE )
+        {
+            Array.setLong( array, index, toLong( number, componentType, Long.MIN_VALUE, Long.MAX_VALUE ) );
+        }
+        else if ( componentType == Integer.TYPE )
+        {
+            Array.setInt( array, index, (int) toLong( number, componentType, Integer.MIN_VALUE, Integer.MAX_VALUE ) );
+        }
+        else if ( componentType == Double.TYPE )
+        {
+            Array.setDouble( array, index, number.doubleValue() );
+        }
+        else if ( componentType == Float.TYPE )
+        {
+            double value = number.doubleValue();
+            if ( !Double.isInfinite( value ) && !Double.isNaN( value ) && Math.abs( value ) > Float.MAX_VALUE )
+            {
+                throw outOfRange( number, componentType );
+            }
+            Array.setFloat( array, index, (float) value );
+        }
+        else if ( componentType == Short.TYPE )
+        {
+            Array.setShort( array, index, (short) toLong( number, componentType, Short.MIN_VALUE, Short.MAX_VALUE ) );
+        }
+        else if ( componentType == Byte.TYPE )
+        {
+            Array.setByte( array, index, (byte) toLong( number, componentType, Byte.MIN_VALUE, Byte.MAX_VALUE ) );
+        }
+        else
+        {
+            throw new FauxjoException( "Unable to convert array element [" + number + "] to type " + componentType.getCanonicalName() );
+        }
+    }
+
+    /**
+     * @return The number as a long, if it is a whole number between min and max.
+     */
+    private long toLong( Number number, Class<?> componentType, long min, long max )
+        throws FauxjoException
+    {
+        long value;
+        if ( number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte )
+        {
+            value = number.longValue();
+        }
+        else
+        {
+            try
+            {
+                BigDecimal decimal;
+                if ( number instanceof BigDecimal )
+                {
+                    decimal = (BigDecimal) number;
+                }
+                else if ( number instanceof BigInteger )
+                {
+                    decimal = new BigDecimal( (BigInteger) number );
+                }
+                else
+                {
+                    decimal = BigDecimal.valueOf( number.doubleValue() );
+                }
+                value = decimal.longValueExact();
+            }
+            catch ( ArithmeticException ex )
+            {
+                throw outOfRange( number, componentType );
+            }
+            catch ( NumberFormatException ex )
+            {
+                // NaN or infinite.
+                throw outOfRange( number, componentType );
+            }
+        }
+
+        if ( value < min || value > max )
+        {
+            throw outOfRange( number, componentType );
+        }
+
+        return value;
+    }
+
+    private FauxjoException outOfRange( Number number, Class<?> componentType )
+    {
+        return new FauxjoException( "Array element [" + number + "] does not fit type " + componentType.getCanonicalName() );
+    }
+}
@@ -0,0 +1,177 @@
+//
+// Column
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.columnar;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * <p>
+ * The values of one bean field for every row of a {@link ColumnBatch}, with a bitmap of the rows that are null.
+ * </p>
+ * <p>
+ * Subclasses keep the values in a single array (a vector) of the row count, so that scanning a column does not touch any other
+ * data of the rows.
+ * </p>
+ */
+public abstract class Column
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    protected static final int INITIAL_CAPACITY = 64;
+
+    private String key;
+    private int size;
+    private int capacity;
+
+    // A bit per row, set if the value of the row is null.
+    private long[] nulls;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    protected Column( String key )
+    {
+        this.key = key;
+        capacity = INITIAL_CAPACITY;
+        nulls = new long[getWordCount( capacity )];
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * @return Lowercase name of the column.
+     */
+    public String getKey()
+    {
+        return key;
+    }
+
+    /**
+     * @return Number of rows.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isNull( int row )
+    {
+        checkRow( row );
+
+        return ( nulls[row >>> 6] & ( 1L << row ) ) != 0;
+    }
+
+    public int getNullCount()
+    {
+        int count = 0;
+        for ( long word : nulls )
+        {
+            count += Long.bitCount( word );
+        }
+
+        return count;
+    }
+
+    /**
+     * @return The value of the row as an object, null if the row is null.
+     */
+    public abstract Object getObject( int row );
+
+    // ----------
+    // protected
+    // ----------
+
+    /**
+     * Read the value of the current row of the result set into the given row of the vector, which has room for it.
+     *
+     * @return False if the value is null.
+     */
+    protected abstract boolean read( ResultSet rs, int columnIndex, int row )
+        throws SQLException;
+
+    /**
+     * Resize the vector to the given capacity.
+     */
+    protected abstract void resize( int capacity );
+
+    protected void checkRow( int row )
+    {
+        if ( row < 0 || row >= size )
+        {
+            throw new IndexOutOfBoundsException( "Row " + row + " of column [" + key + "] with " + size + " rows" );
+        }
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    /**
+     * Append the value of the current row of the result set.
+     */
+    void readRow( ResultSet rs, int columnIndex )
+        throws SQLException
+    {
+        if ( size == capacity )
+        {
+            capacity *= 2;
+            resize( capacity );
+            nulls = Arrays.copyOf( nulls, getWordCount( capacity ) );
+        }
+
+        if ( !read( rs, columnIndex, size ) )
+        {
+            nulls[size >>> 6] |= 1L << size;
+        }
+        size++;
+    }
+
+    /**
+     * Shrink the vector to the row count, once all rows have been read.
+     */
+    void trim()
+    {
+        if ( capacity != size )
+        {
+            capacity = size;
+            resize( capacity );
+            nulls = Arrays.copyOf( nulls, getWordCount( capacity ) );
+        }
+    }
+
+    private static int getWordCount( int capacity )
+    {
+        return ( capacity + 63 ) >>> 6;
+    }
+}
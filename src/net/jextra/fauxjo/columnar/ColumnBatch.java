@@ -0,0 +1,223 @@
+//
+// ColumnBatch
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.columnar;
+
+import java.sql.*;
+import java.util.*;
+import net.jextra.fauxjo.*;
+import net.jextra.fauxjo.beandef.*;
+
+/**
+ * <p>
+ * The rows of a result set held column by column (struct of arrays) instead of as a bean per row, for reports and other queries that
+ * aggregate many rows (see {@link Home#getColumns(ResultSet)}).
+ * </p>
+ * <p>
+ * There is a column for each selected column that is a field of the bean, of a kind chosen by the type of the field:
+ * {@link LongColumn}, {@link IntColumn} and {@link DoubleColumn} hold primitive vectors, {@link StringColumn} is dictionary
+ * encoded and {@link ObjectColumn} holds anything else. Columns of the result set that are not in the bean are ignored, and fields
+ * that are not in the result set are simply not in the batch.
+ * </p>
+ */
+public class ColumnBatch
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private int size;
+
+    // Key = Lowercase column name (in code known as the "key").
+    // Value = The column, in result set order.
+    private Map<String, Column> columns;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public ColumnBatch( List<Column> columnList, int size )
+    {
+        this.size = size;
+        columns = new LinkedHashMap<String, Column>();
+        for ( Column column : columnList )
+        {
+            columns.put( column.getKey(), column );
+        }
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Read up to maxNumRows rows of the result set into a batch and close it.
+     *
+     * @param fieldDefs
+     *            The fields of the bean, by key.
+     */
+    public static ColumnBatch read( ResultSet rs, int maxNumRows, Map<String, FieldDef> fieldDefs, Coercer coercer )
+        throws SQLException
+    {
+        ResultSetMetaData meta = rs.getMetaData();
+        List<Column> columnList = new ArrayList<Column>();
+        List<Integer> indexList = new ArrayList<Integer>();
+        for ( int i = 1; i <= meta.getColumnCount(); i++ )
+        {
+            String key = meta.getColumnName( i ).toLowerCase();
+            FieldDef fieldDef = fieldDefs.get( key );
+            if ( fieldDef != null )
+            {
+                columnList.add( createColumn( key, fieldDef.getValueClass(), coercer ) );
+                indexList.add( i );
+            }
+        }
+
+        Column[] columns = columnList.toArray( new Column[columnList.size()] );
+        int[] indexes = new int[columns.length];
+        for ( int c = 0; c < indexes.length; c++ )
+        {
+            indexes[c] = indexList.get( c );
+        }
+
+        int rows = 0;
+        while ( rows < maxNumRows && rs.next() )
+        {
+            for ( int c = 0; c < columns.length; c++ )
+            {
+                columns[c].readRow( rs, indexes[c] );
+            }
+            rows++;
+        }
+        rs.close();
+
+        for ( Column column : columns )
+        {
+            column.trim();
+        }
+
+        return new ColumnBatch( columnList, rows );
+    }
+
+    /**
+     * @return Number of rows.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return Keys of the columns, in result set order.
+     */
+    public Set<String> getKeys()
+    {
+        return Collections.unmodifiableSet( columns.keySet() );
+    }
+
+    /**
+     * @return The column, or null if it is not in the batch.
+     */
+    public Column getColumn( String key )
+    {
+        return columns.get( key.toLowerCase() );
+    }
+
+    public LongColumn getLongColumn( String key )
+        throws FauxjoException
+    {
+        return getColumn( key, LongColumn.class );
+    }
+
+    public IntColumn getIntColumn( String key )
+        throws FauxjoException
+    {
+        return getColumn( key, IntColumn.class );
+    }
+
+    public DoubleColumn getDoubleColumn( String key )
+        throws FauxjoException
+    {
+        return getColumn( key, DoubleColumn.class );
+    }
+
+    public StringColumn getStringColumn( String key )
+        throws FauxjoException
+    {
+        return getColumn( key, StringColumn.class );
+    }
+
+    public ObjectColumn getObjectColumn( String key )
+        throws FauxjoException
+    {
+        return getColumn( key, ObjectColumn.class );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private <C extends Column> C getColumn( String key, Class<C> columnClass )
+        throws FauxjoException
+    {
+        Column column = getColumn( key );
+        if ( column == null )
+        {
+            throw new FauxjoException( "Missing column [" + key + "] in ColumnBatch" );
+        }
+        if ( !columnClass.isInstance( column ) )
+        {
+            throw new FauxjoException( "Column [" + key + "] is a " + column.getClass().getSimpleName() + ", not a " +
+                columnClass.getSimpleName() );
+        }
+
+        return columnClass.cast( column );
+    }
+
+    private static Column createColumn( String key, Class<?> valueClass, Coercer coercer )
+    {
+        if ( valueClass == long.class || valueClass == Long.class )
+        {
+            return new LongColumn( key );
+        }
+        else if ( valueClass == int.class || valueClass == Integer.class || valueClass == short.class || valueClass == Short.class ||
+            valueClass == byte.class || valueClass == Byte.class )
+        {
+            return new IntColumn( key );
+        }
+        else if ( valueClass == double.class || valueClass == Double.class || valueClass == float.class || valueClass == Float.class )
+        {
+            return new DoubleColumn( key );
+        }
+        else if ( valueClass == String.class )
+        {
+            return new StringColumn( key );
+        }
+
+        return new ObjectColumn( key, valueClass, coercer );
+    }
+}
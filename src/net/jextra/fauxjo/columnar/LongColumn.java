@@ -0,0 +1,115 @@
+//
+// LongColumn
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.columnar;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Column of long and Long fields, read with {@link ResultSet#getLong(int)}.
+ */
+public class LongColumn extends Column
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    // Null rows are zero.
+    private long[] values;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public LongColumn( String key )
+    {
+        super( key );
+        values = new long[INITIAL_CAPACITY];
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * @return The value of the row, zero if the row is null (see {@link #isNull(int)}).
+     */
+    public long get( int row )
+    {
+        checkRow( row );
+
+        return values[row];
+    }
+
+    /**
+     * @return The vector itself, one value per row with zero for null rows. Not to be changed.
+     */
+    public long[] getValues()
+    {
+        return values;
+    }
+
+    /**
+     * @return Sum of the values, null rows count as zero.
+     */
+    public long sum()
+    {
+        long sum = 0;
+        for ( long value : values )
+        {
+            sum += value;
+        }
+
+        return sum;
+    }
+
+    @Override
+    public Object getObject( int row )
+    {
+        return isNull( row ) ? null : values[row];
+    }
+
+    // ----------
+    // protected
+    // ----------
+
+    @Override
+    protected boolean read( ResultSet rs, int columnIndex, int row )
+        throws SQLException
+    {
+        values[row] = rs.getLong( columnIndex );
+
+        return !rs.wasNull();
+    }
+
+    @Override
+    protected void resize( int capacity )
+    {
+        values = Arrays.copyOf( values, capacity );
+    }
+}
@@ -0,0 +1,108 @@
+//
+// ObjectColumn
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.columnar;
+
+import java.sql.*;
+import java.util.*;
+import net.jextra.fauxjo.*;
+
+/**
+ * Column of the fields that have no vector of their own (dates, booleans, BigDecimals, ...), holding the values as the bean would,
+ * converted by the {@link Coercer}.
+ */
+public class ObjectColumn extends Column
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private Class<?> valueClass;
+    private Coercer coercer;
+    private Object[] values;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public ObjectColumn( String key, Class<?> valueClass, Coercer coercer )
+    {
+        super( key );
+        this.valueClass = valueClass;
+        this.coercer = coercer;
+        values = new Object[INITIAL_CAPACITY];
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public Class<?> getValueClass()
+    {
+        return valueClass;
+    }
+
+    @Override
+    public Object getObject( int row )
+    {
+        checkRow( row );
+
+        return values[row];
+    }
+
+    // ----------
+    // protected
+    // ----------
+
+    @Override
+    protected boolean read( ResultSet rs, int columnIndex, int row )
+        throws SQLException
+    {
+        Object value = rs.getObject( columnIndex );
+        if ( value == null )
+        {
+            return false;
+        }
+
+        try
+        {
+            values[row] = coercer.coerce( value, valueClass );
+        }
+        catch ( FauxjoException ex )
+        {
+            throw new FauxjoException( "Failed to coerce " + getKey(), ex );
+        }
+
+        return true;
+    }
+
+    @Override
+    protected void resize( int capacity )
+    {
+        values = Arrays.copyOf( values, capacity );
+    }
+}
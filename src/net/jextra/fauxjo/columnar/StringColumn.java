@@ -0,0 +1,149 @@
+//
+// StringColumn
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.columnar;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * <p>
+ * Column of String fields, dictionary encoded: every distinct value is kept once, and each row holds the code (index) of its value
+ * in the dictionary.
+ * </p>
+ * <p>
+ * Reporting columns (states, categories, names) tend to repeat a few values over many rows, so grouping by the codes avoids both
+ * the strings of the rows and comparing them.
+ * </p>
+ */
+public class StringColumn extends Column
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int NULL_CODE = -1;
+
+    // Code of the value of each row, -1 for null rows.
+    private int[] codes;
+
+    // Distinct values in the order first read. The code of a value is its index.
+    private List<String> dictionary;
+
+    // Key = Value.
+    // Value = Code of the value.
+    private Map<String, Integer> codesByValue;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public StringColumn( String key )
+    {
+        super( key );
+        codes = new int[INITIAL_CAPACITY];
+        dictionary = new ArrayList<String>();
+        codesByValue = new HashMap<String, Integer>();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public String get( int row )
+    {
+        checkRow( row );
+        int code = codes[row];
+
+        return code == NULL_CODE ? null : dictionary.get( code );
+    }
+
+    /**
+     * @return Index of the value of the row in {@link #getDictionary()}, -1 if the row is null.
+     */
+    public int getCode( int row )
+    {
+        checkRow( row );
+
+        return codes[row];
+    }
+
+    /**
+     * @return The codes of all rows (see {@link #getCode(int)}). Not to be changed.
+     */
+    public int[] getCodes()
+    {
+        return codes;
+    }
+
+    /**
+     * @return The distinct values, indexed by code.
+     */
+    public List<String> getDictionary()
+    {
+        return Collections.unmodifiableList( dictionary );
+    }
+
+    @Override
+    public Object getObject( int row )
+    {
+        return get( row );
+    }
+
+    // ----------
+    // protected
+    // ----------
+
+    @Override
+    protected boolean read( ResultSet rs, int columnIndex, int row )
+        throws SQLException
+    {
+        String value = rs.getString( columnIndex );
+        if ( value == null )
+        {
+            codes[row] = NULL_CODE;
+            return false;
+        }
+
+        Integer code = codesByValue.get( value );
+        if ( code == null )
+        {
+            code = dictionary.size();
+            dictionary.add( value );
+            codesByValue.put( value, code );
+        }
+        codes[row] = code;
+
+        return true;
+    }
+
+    @Override
+    protected void resize( int capacity )
+    {
+        codes = Arrays.copyOf( codes, capacity );
+    }
+}
@@ -26,6 +26,7 @@ package net.jextra.fauxjo.connectionsupplier;
 import java.sql.*;
 import java.util.*;
 import javax.sql.*;
+import net.jextra.fauxjo.metrics.*;
 
 /**
  * <p>
@@ -89,7 +90,9 @@ public class PooledConnectionSupplier implements ConnectionSupplier
         Connection cnx = null;
         if ( threadConnection.get() == null )
         {
+            FauxjoEvents.Span span = FauxjoEvents.begin( FauxjoEventType.CONNECTION_ACQUIRE );
             threadConnection.set( dataSource.getConnection() );
+            FauxjoEvents.end( span, null, null, -1 );
         }
 
         cnx = threadConnection.get();
@@ -153,6 +156,8 @@ public class PooledConnectionSupplier implements ConnectionSupplier
 
         if ( statement == null || statement.isClosed() )
         {
+            FauxjoEvents.emit( FauxjoEventType.STATEMENT_CACHE_MISS, null, sql, -1 );
+            FauxjoEvents.Span span = FauxjoEvents.begin( FauxjoEventType.STATEMENT_PREPARE );
             if ( SQLInspector.isInsertStatement( sql ) )
             {
                 statement = getConnection().prepareStatement( sql, Statement.RETURN_GENERATED_KEYS );
@@ -163,6 +168,11 @@ public class PooledConnectionSupplier implements ConnectionSupplier
             }
 
             map.put( sql, statement );
+            FauxjoEvents.end( span, null, sql, -1 );
+        }
+        else
+        {
+            FauxjoEvents.emit( FauxjoEventType.STATEMENT_CACHE_HIT, null, sql, -1 );
         }
 
         return statement;
@@ -23,6 +23,9 @@
 
 package net.jextra.fauxjo.connectionsupplier;
 
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
 import java.util.regex.Pattern;
 
 final class SQLInspector
@@ -34,4 +37,37 @@ final class SQLInspector
     {
         return INSERT_PATTERN.matcher( sql ).find();
     }
+
+    /**
+     * @return true if the exception (or any exception chained to it) says the connection itself is broken, as opposed to a
+     *         problem with the SQL or the data.
+     */
+    public static boolean isConnectionFailure( SQLException ex )
+    {
+        for ( Throwable t = ex; t != null; t = t.getCause() )
+        {
+            if ( t instanceof SQLRecoverableException || t instanceof SQLNonTransientConnectionException )
+            {
+                return true;
+            }
+
+            if ( t instanceof SQLException )
+            {
+                // SQL state class 08 = connection exception.
+                String state = ( (SQLException) t ).getSQLState();
+                if ( state != null && state.startsWith( "08" ) )
+                {
+                    return true;
+                }
+
+                SQLException next = ( (SQLException) t ).getNextException();
+                if ( next != null && next != t.getCause() && isConnectionFailure( next ) )
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
 }
@@ -25,7 +25,9 @@ package net.jextra.fauxjo.connectionsupplier;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.*;
 import javax.sql.*;
+import net.jextra.fauxjo.metrics.*;
 
 /**
  * <p>
@@ -34,6 +36,13 @@ import javax.sql.*;
  * <p>
  * This is useful for thick Swing applications where Swing threads should get same connection as the main thread.
  * </p>
+ * <p>
+ * The connection is only validated (with {@link Connection#isValid(int)}, a round trip to the database on many drivers) when it
+ * has been idle for longer than the validation idle time, or after {@link #handleSQLException(SQLException)} was told about a
+ * failure (a {@link net.jextra.fauxjo.ConnectionSupplierSchema} does so for the statements of its Homes that fail to execute or
+ * to read their rows). A broken connection is replaced from the {@link DataSource} (if there is one) and the statement cache is rebuilt as
+ * statements are prepared again.
+ * </p>
  */
 public class SimpleConnectionSupplier implements ConnectionSupplier
 {
@@ -41,10 +50,19 @@ public class SimpleConnectionSupplier implements ConnectionSupplier
     // Fields
     // ============================================================
 
+    public static final long DEFAULT_VALIDATION_IDLE_MILLIS = 30000;
+
+    // Connection.isValid takes seconds, not milliseconds.
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
     private Connection connection;
     private DataSource dataSource;
     private HashMap<String, PreparedStatement> preparedStatements;
 
+    private long validationIdleNanos;
+    private long lastUsedNanos;
+    private volatile boolean validationRequested;
+
     // ============================================================
     // Constructors
     // ============================================================
@@ -52,6 +70,7 @@ public class SimpleConnectionSupplier implements ConnectionSupplier
     public SimpleConnectionSupplier()
     {
         preparedStatements = new HashMap<String, PreparedStatement>();
+        setValidationIdleMillis( DEFAULT_VALIDATION_IDLE_MILLIS );
     }
 
     public SimpleConnectionSupplier( Connection conn )
@@ -81,20 +100,35 @@ public class SimpleConnectionSupplier implements ConnectionSupplier
         throws SQLException
     {
         dataSource = ds;
-        connection = dataSource.getConnection();
+        acquireConnection();
     }
 
     public void setConnection( Connection conn )
     {
         connection = conn;
         dataSource = null;
+        markUsed();
+    }
+
+    public long getValidationIdleMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis( validationIdleNanos );
+    }
+
+    /**
+     * Set how long the connection may sit unused before it is validated again on its next use. Zero validates on every use.
+     */
+    public void setValidationIdleMillis( long millis )
+    {
+        validationIdleNanos = TimeUnit.MILLISECONDS.toNanos( millis );
     }
 
     @Override
     public Connection getConnection()
         throws SQLException
     {
-        validateConnection();
+        validateConnectionIfIdle();
+        markUsed();
 
         return connection;
     }
@@ -131,37 +165,145 @@ public class SimpleConnectionSupplier implements ConnectionSupplier
     public PreparedStatement prepareStatement( String sql )
         throws SQLException
     {
-        validateConnection();
+        validateConnectionIfIdle();
+        markUsed();
 
         PreparedStatement statement = preparedStatements.get( sql );
         if ( statement == null || statement.isClosed() )
         {
-            if ( SQLInspector.isInsertStatement( sql ) )
+            FauxjoEvents.emit( FauxjoEventType.STATEMENT_CACHE_MISS, null, sql, -1 );
+            FauxjoEvents.Span span = FauxjoEvents.begin( FauxjoEventType.STATEMENT_PREPARE );
+            try
             {
-                statement = getConnection().prepareStatement( sql, Statement.RETURN_GENERATED_KEYS );
+                statement = createStatement( sql );
             }
-            else
+            catch ( SQLException ex )
             {
-                statement = getConnection().prepareStatement( sql );
+                // Retry once on a fresh connection if the old one turned out to be broken.
+                if ( !handleSQLException( ex ) )
+                {
+                    throw ex;
+                }
+
+                statement = createStatement( sql );
             }
             preparedStatements.put( sql, statement );
+            FauxjoEvents.end( span, null, sql, -1 );
+        }
+        else
+        {
+            FauxjoEvents.emit( FauxjoEventType.STATEMENT_CACHE_HIT, null, sql, -1 );
         }
 
         return statement;
     }
 
+    /**
+     * Validate the connection now, regardless of how recently it was used, and replace it if it is no longer valid.
+     */
     public void validateConnection()
         throws SQLException
     {
-        if ( connection != null && !connection.isValid( 1000 ) )
+        validationRequested = false;
+
+        if ( connection != null && !connection.isValid( VALIDATION_TIMEOUT_SECONDS ) )
+        {
+            reconnect();
+        }
+    }
+
+    /**
+     * Ask for the connection to be validated on its next use. This is cheap and safe to call from any thread, e.g. from a
+     * background timer.
+     */
+    public void requestValidation()
+    {
+        validationRequested = true;
+    }
+
+    /**
+     * Tell this supplier about an SQLException that happened while using its connection. If the exception indicates a broken
+     * connection, the connection is validated and replaced if needed.
+     *
+     * @return true if the connection was replaced, meaning the failed work can be retried.
+     */
+    public boolean handleSQLException( SQLException ex )
+        throws SQLException
+    {
+        if ( connection == null || !SQLInspector.isConnectionFailure( ex ) )
+        {
+            return false;
+        }
+
+        if ( connection.isValid( VALIDATION_TIMEOUT_SECONDS ) )
+        {
+            return false;
+        }
+
+        reconnect();
+
+        return connection != null;
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private void validateConnectionIfIdle()
+        throws SQLException
+    {
+        if ( validationRequested || System.nanoTime() - lastUsedNanos >= validationIdleNanos )
+        {
+            validateConnection();
+        }
+    }
+
+    private void markUsed()
+    {
+        lastUsedNanos = System.nanoTime();
+    }
+
+    private PreparedStatement createStatement( String sql )
+        throws SQLException
+    {
+        if ( SQLInspector.isInsertStatement( sql ) )
+        {
+            return connection.prepareStatement( sql, Statement.RETURN_GENERATED_KEYS );
+        }
+
+        return connection.prepareStatement( sql );
+    }
+
+    /**
+     * Throw away the broken connection (and its statements) and get a new one if there is a dataSource.
+     */
+    private void reconnect()
+        throws SQLException
+    {
+        try
         {
             closeConnection();
+        }
+        catch ( SQLException ex )
+        {
+            // The connection is already broken, closing it is best effort.
+            preparedStatements.clear();
+            connection = null;
+        }
 
-            // If there is a dataSource, go get a new connection.
-            if ( dataSource != null )
-            {
-                connection = dataSource.getConnection();
-            }
+        // If there is a dataSource, go get a new connection.
+        if ( dataSource != null )
+        {
+            acquireConnection();
         }
     }
+
+    private void acquireConnection()
+        throws SQLException
+    {
+        FauxjoEvents.Span span = FauxjoEvents.begin( FauxjoEventType.CONNECTION_ACQUIRE );
+        connection = dataSource.getConnection();
+        markUsed();
+        FauxjoEvents.end( span, null, null, -1 );
+    }
 }
@@ -26,6 +26,7 @@ package net.jextra.fauxjo.connectionsupplier;
 import java.sql.*;
 import java.util.*;
 import javax.sql.*;
+import net.jextra.fauxjo.metrics.*;
 
 public class ThreadSafeConnectionSupplier implements ConnectionSupplier
 {
@@ -77,6 +78,7 @@ public class ThreadSafeConnectionSupplier implements ConnectionSupplier
         Connection cnx = null;
         if ( threadConnection.get() == null )
         {
+            FauxjoEvents.Span span = FauxjoEvents.begin( FauxjoEventType.CONNECTION_ACQUIRE );
             if ( connectionBuilder != null )
             {
                 threadConnection.set( connectionBuilder.getConnection() );
@@ -85,6 +87,7 @@ public class ThreadSafeConnectionSupplier implements ConnectionSupplier
             {
                 threadConnection.set( dataSource.getConnection() );
             }
+            FauxjoEvents.end( span, null, null, -1 );
         }
 
         cnx = threadConnection.get();
@@ -137,6 +140,8 @@ public class ThreadSafeConnectionSupplier implements ConnectionSupplier
 
         if ( statement == null || statement.get() == null || statement.get().isClosed() )
         {
+            FauxjoEvents.emit( FauxjoEventType.STATEMENT_CACHE_MISS, null, sql, -1 );
+            FauxjoEvents.Span span = FauxjoEvents.begin( FauxjoEventType.STATEMENT_PREPARE );
             PreparedStatement s;
             if ( SQLInspector.isInsertStatement( sql ) )
             {
@@ -152,6 +157,11 @@ public class ThreadSafeConnectionSupplier implements ConnectionSupplier
                 preparedStatements.put( sql, statement );
             }
             statement.set( s );
+            FauxjoEvents.end( span, null, sql, -1 );
+        }
+        else
+        {
+            FauxjoEvents.emit( FauxjoEventType.STATEMENT_CACHE_HIT, null, sql, -1 );
         }
 
         return statement.get();
@@ -0,0 +1,68 @@
+//
+// FauxjoEventListener
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.metrics;
+
+/**
+ * <p>
+ * Receives the low level events of fauxjo (see {@link FauxjoEventType}) as they happen, on the thread that does the work. Register
+ * with {@link FauxjoEvents#addListener(FauxjoEventListener)}. Listeners should be quick and must not throw.
+ * </p>
+ * <p>
+ * Each piece of work is reported twice: {@link #begin(FauxjoEventType)} right before it starts and
+ * {@link #end(Object, FauxjoEventType, String, String, long, long, long)} right after it is done, so a listener can put it on a
+ * timeline. Neither is called for a type the listener is not {@link #isEnabled(FauxjoEventType) enabled} for, and if no listener
+ * is, nothing is timed or allocated at all.
+ * </p>
+ * <p>
+ * The separate fauxjo-jfr module (the jfr directory, Java 8u262 or later) bridges the events to JDK Flight Recorder with
+ * JfrEventListener.register().
+ * </p>
+ */
+public interface FauxjoEventListener
+{
+    /**
+     * Checked before each piece of work, so it should be no more than a field read.
+     */
+    boolean isEnabled( FauxjoEventType type );
+
+    /**
+     * The work is about to start.
+     *
+     * @return Handle passed back to {@link #end(Object, FauxjoEventType, String, String, long, long, long)} (may be null).
+     */
+    Object begin( FauxjoEventType type );
+
+    /**
+     * The work that began is done. Not called if the work failed before it could be reported.
+     *
+     * @param handle What {@link #begin(FauxjoEventType)} returned.
+     * @param tableName Table of the Home involved, or null if not known (e.g. in a ConnectionSupplier).
+     * @param sqlFingerprint Normalized SQL (see {@link SQLFingerprint}), or null if no statement is involved.
+     * @param startNanos {@link System#nanoTime()} when the work started.
+     * @param durationNanos How long the work took.
+     * @param rowCount Rows involved, or -1 if not applicable.
+     */
+    void end( Object handle, FauxjoEventType type, String tableName, String sqlFingerprint, long startNanos, long durationNanos,
+        long rowCount );
+}
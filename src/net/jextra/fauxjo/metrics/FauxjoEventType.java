@@ -0,0 +1,52 @@
+//
+// FauxjoEventType
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.metrics;
+
+/**
+ * Kinds of events reported to {@link FauxjoEventListener}s.
+ */
+public enum FauxjoEventType
+{
+    // A ConnectionSupplier got a new connection from its DataSource (duration = time waited for it, including any wait for a
+    // pooled connection to be free).
+    CONNECTION_ACQUIRE,
+
+    // A ConnectionSupplier found the statement in its cache.
+    STATEMENT_CACHE_HIT,
+
+    // A ConnectionSupplier did not find the statement in its cache.
+    STATEMENT_CACHE_MISS,
+
+    // A statement was prepared on the connection.
+    STATEMENT_PREPARE,
+
+    // A statement was executed (row count = rows updated).
+    STATEMENT_EXECUTE,
+
+    // The rows of a ResultSet were fetched and mapped to beans (row count = rows mapped).
+    RESULT_FETCH,
+
+    // A row of a ResultSet was mapped to a bean (row count = 1, or 0 if it failed).
+    ROW_MAP
+}
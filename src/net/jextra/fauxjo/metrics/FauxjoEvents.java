@@ -0,0 +1,183 @@
+//
+// FauxjoEvents
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.metrics;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Registry of {@link FauxjoEventListener}s. The instrumented code brackets its work with {@link #begin(FauxjoEventType)} and
+ * {@link #end(Span, String, String, long)}; while no listener is enabled for the type of event, begin returns null (after a single
+ * volatile read when none is registered) and nothing is timed or allocated.
+ * </p>
+ *
+ * <pre>
+ * FauxjoEvents.Span span = FauxjoEvents.begin( FauxjoEventType.STATEMENT_EXECUTE );
+ * int rows = statement.executeUpdate();
+ * FauxjoEvents.end( span, tableName, sql, rows );
+ * </pre>
+ */
+public abstract class FauxjoEvents
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    // Replaced as a whole on change so it can be read without locking.
+    private static volatile FauxjoEventListener[] listeners = new FauxjoEventListener[0];
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * @return true if any listener is registered, whatever the types it is enabled for.
+     */
+    public static boolean isEnabled()
+    {
+        return listeners.length > 0;
+    }
+
+    public static synchronized void addListener( FauxjoEventListener listener )
+    {
+        List<FauxjoEventListener> list = new ArrayList<FauxjoEventListener>( Arrays.asList( listeners ) );
+        list.add( listener );
+        listeners = list.toArray( new FauxjoEventListener[list.size()] );
+    }
+
+    public static synchronized void removeListener( FauxjoEventListener listener )
+    {
+        List<FauxjoEventListener> list = new ArrayList<FauxjoEventListener>( Arrays.asList( listeners ) );
+        list.remove( listener );
+        listeners = list.toArray( new FauxjoEventListener[list.size()] );
+    }
+
+    /**
+     * Start timing work of the given type.
+     *
+     * @return The span to end when the work is done, or null if no listener is enabled for the type.
+     */
+    public static Span begin( FauxjoEventType type )
+    {
+        FauxjoEventListener[] current = listeners;
+        if ( current.length == 0 )
+        {
+            return null;
+        }
+
+        int count = 0;
+        for ( FauxjoEventListener listener : current )
+        {
+            if ( listener.isEnabled( type ) )
+            {
+                count++;
+            }
+        }
+        if ( count == 0 )
+        {
+            return null;
+        }
+
+        FauxjoEventListener[] enabled = new FauxjoEventListener[count];
+        Object[] handles = new Object[count];
+        int i = 0;
+        for ( FauxjoEventListener listener : current )
+        {
+            // A listener may have been enabled since it was counted.
+            if ( listener.isEnabled( type ) && i < count )
+            {
+                enabled[i] = listener;
+                handles[i] = listener.begin( type );
+                i++;
+            }
+        }
+
+        return new Span( type, enabled, handles, System.nanoTime() );
+    }
+
+    /**
+     * Report the work of the span as done. Does nothing for a null span.
+     *
+     * @param sql Raw SQL of the statement involved (it is fingerprinted before it is passed on), or null.
+     */
+    public static void end( Span span, String tableName, String sql, long rowCount )
+    {
+        if ( span == null )
+        {
+            return;
+        }
+
+        long durationNanos = System.nanoTime() - span.startNanos;
+        String fingerprint = sql == null ? null : SQLFingerprint.get( sql );
+        for ( int i = 0; i < span.listeners.length; i++ )
+        {
+            span.listeners[i].end( span.handles[i], span.type, tableName, fingerprint, span.startNanos, durationNanos, rowCount );
+        }
+    }
+
+    /**
+     * Report something that takes no time of its own, such as a statement cache hit.
+     */
+    public static void emit( FauxjoEventType type, String tableName, String sql, long rowCount )
+    {
+        end( begin( type ), tableName, sql, rowCount );
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    /**
+     * Work in progress, as returned by {@link FauxjoEvents#begin(FauxjoEventType)}.
+     */
+    public static final class Span
+    {
+        private FauxjoEventType type;
+        private FauxjoEventListener[] listeners;
+        private Object[] handles;
+        private long startNanos;
+
+        private Span( FauxjoEventType type, FauxjoEventListener[] listeners, Object[] handles, long startNanos )
+        {
+            this.type = type;
+            this.listeners = listeners;
+            this.handles = handles;
+            this.startNanos = startNanos;
+        }
+
+        public FauxjoEventType getType()
+        {
+            return type;
+        }
+
+        public long getStartNanos()
+        {
+            return startNanos;
+        }
+    }
+}
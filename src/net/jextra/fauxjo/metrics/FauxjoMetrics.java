@@ -0,0 +1,317 @@
+//
+// FauxjoMetrics
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.metrics;
+
+import java.lang.reflect.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * <p>
+ * Registry of the call counts, error counts and latency histograms recorded inside fauxjo. Statistics are kept per Home (by table
+ * name) and operation ({@link #INSERT}, {@link #UPDATE}, {@link #DELETE}, {@link #MAP}) and per SQL statement (by
+ * {@link SQLFingerprint}). The per SQL statistics cover every execution of a statement prepared through
+ * {@link net.jextra.fauxjo.Schema#prepareStatement(String, String)}, which is how Homes prepare theirs (see {@link #wrap}).
+ * </p>
+ * <p>
+ * Recording is off by default. While disabled the instrumented code only reads one volatile flag.
+ * </p>
+ */
+public class FauxjoMetrics
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    public static final String INSERT = "insert";
+    public static final String UPDATE = "update";
+    public static final String DELETE = "delete";
+    public static final String MAP = "map";
+
+    // Statements beyond this many distinct fingerprints are lumped together.
+    public static final int MAX_FINGERPRINTS = 1000;
+    public static final String OTHER_FINGERPRINT = "(other)";
+
+    private static FauxjoMetrics instance = new FauxjoMetrics();
+
+    private volatile boolean enabled;
+
+    // Key = Home name.
+    // Value = Key = Operation, Value = Statistics.
+    private ConcurrentMap<String, ConcurrentMap<String, OperationStats>> homeStats;
+
+    // Key = SQL fingerprint.
+    private ConcurrentMap<String, OperationStats> sqlStats;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public FauxjoMetrics()
+    {
+        homeStats = new ConcurrentHashMap<String, ConcurrentMap<String, OperationStats>>();
+        sqlStats = new ConcurrentHashMap<String, OperationStats>();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static FauxjoMetrics getInstance()
+    {
+        return instance;
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public void setEnabled( boolean enabled )
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return Statistics of the given operation of the given Home, created if needed. The same object is returned for as long
+     *         as this registry lives, so it may be held on to.
+     */
+    public OperationStats getHomeStats( String homeName, String operation )
+    {
+        ConcurrentMap<String, OperationStats> map = homeStats.get( homeName );
+        if ( map == null )
+        {
+            map = new ConcurrentHashMap<String, OperationStats>();
+            ConcurrentMap<String, OperationStats> existing = homeStats.putIfAbsent( homeName, map );
+            if ( existing != null )
+            {
+                map = existing;
+            }
+        }
+
+        return getOrCreate( map, operation );
+    }
+
+    /**
+     * @return Statistics of statements with the same fingerprint as the given SQL, created if needed.
+     */
+    public OperationStats getSQLStats( String sql )
+    {
+        String fingerprint = SQLFingerprint.get( sql );
+        if ( !sqlStats.containsKey( fingerprint ) && sqlStats.size() >= MAX_FINGERPRINTS )
+        {
+            fingerprint = OTHER_FINGERPRINT;
+        }
+
+        return getOrCreate( sqlStats, fingerprint );
+    }
+
+    /**
+     * @return Statement that behaves like the given one but records the time of each execution in the statistics of its SQL, and
+     *         reports it as a {@link FauxjoEventType#STATEMENT_EXECUTE} event with the source as table name.
+     */
+    public PreparedStatement wrap( PreparedStatement statement, String sql, String source )
+    {
+        return (PreparedStatement) Proxy.newProxyInstance( FauxjoMetrics.class.getClassLoader(), new Class<?>[] { PreparedStatement.class },
+            new StatementHandler( statement, sql, source ) );
+    }
+
+    /**
+     * @return Key = Operation, Value = Snapshot of its statistics.
+     */
+    public Map<String, OperationSnapshot> getHomeSnapshot( String homeName )
+    {
+        ConcurrentMap<String, OperationStats> map = homeStats.get( homeName );
+        if ( map == null )
+        {
+            return new TreeMap<String, OperationSnapshot>();
+        }
+
+        return snapshot( map );
+    }
+
+    /**
+     * @return Key = Home name, Value = Key = Operation, Value = Snapshot of its statistics.
+     */
+    public Map<String, Map<String, OperationSnapshot>> getHomeSnapshots()
+    {
+        TreeMap<String, Map<String, OperationSnapshot>> result = new TreeMap<String, Map<String, OperationSnapshot>>();
+        for ( Map.Entry<String, ConcurrentMap<String, OperationStats>> entry : homeStats.entrySet() )
+        {
+            result.put( entry.getKey(), snapshot( entry.getValue() ) );
+        }
+
+        return result;
+    }
+
+    /**
+     * @return Key = SQL fingerprint, Value = Snapshot of the statistics of executing it.
+     */
+    public Map<String, OperationSnapshot> getSQLSnapshots()
+    {
+        return snapshot( sqlStats );
+    }
+
+    /**
+     * Zero all statistics. The statistics objects themselves are kept so references held by the instrumented code stay valid.
+     */
+    public void reset()
+    {
+        for ( ConcurrentMap<String, OperationStats> map : homeStats.values() )
+        {
+            for ( OperationStats stats : map.values() )
+            {
+                stats.reset();
+            }
+        }
+
+        for ( OperationStats stats : sqlStats.values() )
+        {
+            stats.reset();
+        }
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private OperationStats getOrCreate( ConcurrentMap<String, OperationStats> map, String key )
+    {
+        OperationStats stats = map.get( key );
+        if ( stats == null )
+        {
+            stats = new OperationStats();
+            OperationStats existing = map.putIfAbsent( key, stats );
+            if ( existing != null )
+            {
+                stats = existing;
+            }
+        }
+
+        return stats;
+    }
+
+    private static long countRows( Object result )
+    {
+        if ( result instanceof Integer )
+        {
+            return (Integer) result;
+        }
+
+        if ( result instanceof int[] )
+        {
+            long rows = 0;
+            for ( int count : (int[]) result )
+            {
+                rows += Math.max( count, 0 );
+            }
+
+            return rows;
+        }
+
+        return -1;
+    }
+
+    private Map<String, OperationSnapshot> snapshot( Map<String, OperationStats> map )
+    {
+        TreeMap<String, OperationSnapshot> result = new TreeMap<String, OperationSnapshot>();
+        for ( Map.Entry<String, OperationStats> entry : map.entrySet() )
+        {
+            result.put( entry.getKey(), entry.getValue().snapshot() );
+        }
+
+        return result;
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    /**
+     * Times the executions of one prepared statement.
+     */
+    private class StatementHandler implements InvocationHandler
+    {
+        private PreparedStatement statement;
+        private String sql;
+        private String source;
+
+        public StatementHandler( PreparedStatement statement, String sql, String source )
+        {
+            this.statement = statement;
+            this.sql = sql;
+            this.source = source;
+        }
+
+        @Override
+        public Object invoke( Object proxy, Method method, Object[] args )
+            throws Throwable
+        {
+            if ( !method.getName().startsWith( "execute" ) || ( args != null && args.length > 0 ) )
+            {
+                return invokeStatement( method, args );
+            }
+
+            FauxjoEvents.Span span = FauxjoEvents.begin( FauxjoEventType.STATEMENT_EXECUTE );
+            long start = System.nanoTime();
+            boolean success = false;
+            try
+            {
+                Object result = invokeStatement( method, args );
+                success = true;
+                if ( span != null )
+                {
+                    FauxjoEvents.end( span, source, sql, countRows( result ) );
+                }
+
+                return result;
+            }
+            finally
+            {
+                if ( enabled )
+                {
+                    getSQLStats( sql ).recordSince( start, success );
+                }
+            }
+        }
+
+        private Object invokeStatement( Method method, Object[] args )
+            throws Throwable
+        {
+            try
+            {
+                return method.invoke( statement, args );
+            }
+            catch ( InvocationTargetException ex )
+            {
+                throw ex.getCause();
+            }
+        }
+    }
+}
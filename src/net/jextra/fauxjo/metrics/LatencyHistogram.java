@@ -0,0 +1,217 @@
+//
+// LatencyHistogram
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.metrics;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * <p>
+ * Lock-free histogram of latencies in nanoseconds with log-linear buckets (in the style of HdrHistogram): each power of two is
+ * split into {@value #SUB_BUCKETS} equal buckets, so any recorded value is known to within about 6%. Recording is a few shifts
+ * and one atomic increment.
+ * </p>
+ * <p>
+ * Values of more than 2^{@value #MAX_EXPONENT} nanoseconds (about 4.9 hours) are counted in the last bucket.
+ * </p>
+ */
+public class LatencyHistogram
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int SUB_BUCKET_BITS = 4;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    public static final int MAX_EXPONENT = 44;
+
+    private static final int NUM_BUCKETS = SUB_BUCKETS + ( MAX_EXPONENT - SUB_BUCKET_BITS + 1 ) * SUB_BUCKETS;
+
+    private AtomicLongArray buckets;
+    private StripedLong totalNanos;
+    private AtomicLong maxNanos;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public LatencyHistogram()
+    {
+        buckets = new AtomicLongArray( NUM_BUCKETS );
+        totalNanos = new StripedLong();
+        maxNanos = new AtomicLong();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public void record( long nanos )
+    {
+        if ( nanos < 0 )
+        {
+            nanos = 0;
+        }
+
+        buckets.incrementAndGet( getBucketIndex( nanos ) );
+        totalNanos.add( nanos );
+
+        long max = maxNanos.get();
+        while ( nanos > max && !maxNanos.compareAndSet( max, nanos ) )
+        {
+            max = maxNanos.get();
+        }
+    }
+
+    public long getCount()
+    {
+        long count = 0;
+        for ( int i = 0; i < NUM_BUCKETS; i++ )
+        {
+            count += buckets.get( i );
+        }
+
+        return count;
+    }
+
+    public long getTotalNanos()
+    {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos()
+    {
+        return maxNanos.get();
+    }
+
+    /**
+     * @param percentile Between 0 and 100.
+     * @return Highest value that falls in the same bucket as the value at the given percentile (never more than the max).
+     */
+    public long getPercentileNanos( double percentile )
+    {
+        long[] counts = new long[NUM_BUCKETS];
+        long total = 0;
+        for ( int i = 0; i < NUM_BUCKETS; i++ )
+        {
+            counts[i] = buckets.get( i );
+            total += counts[i];
+        }
+
+        return getPercentileNanos( counts, total, percentile );
+    }
+
+    public void reset()
+    {
+        for ( int i = 0; i < NUM_BUCKETS; i++ )
+        {
+            buckets.set( i, 0 );
+        }
+        totalNanos.reset();
+        maxNanos.set( 0 );
+    }
+
+    /**
+     * @return Consistent view of the count and the standard percentiles.
+     */
+    public OperationSnapshot snapshot( long errorCount )
+    {
+        long[] counts = new long[NUM_BUCKETS];
+        long total = 0;
+        for ( int i = 0; i < NUM_BUCKETS; i++ )
+        {
+            counts[i] = buckets.get( i );
+            total += counts[i];
+        }
+
+        return new OperationSnapshot( total, errorCount, getTotalNanos(), getMaxNanos(), getPercentileNanos( counts, total, 50 ),
+            getPercentileNanos( counts, total, 90 ), getPercentileNanos( counts, total, 99 ), getPercentileNanos( counts, total, 99.9 ) );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private long getPercentileNanos( long[] counts, long total, double percentile )
+    {
+        if ( total == 0 )
+        {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil( total * Math.min( 100.0, Math.max( 0.0, percentile ) ) / 100.0 );
+        if ( rank < 1 )
+        {
+            rank = 1;
+        }
+
+        long max = getMaxNanos();
+        long seen = 0;
+        for ( int i = 0; i < NUM_BUCKETS; i++ )
+        {
+            seen += counts[i];
+            if ( seen >= rank )
+            {
+                return Math.min( getBucketUpperBound( i ), max );
+            }
+        }
+
+        return max;
+    }
+
+    static int getBucketIndex( long nanos )
+    {
+        if ( nanos < SUB_BUCKETS )
+        {
+            return (int) nanos;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros( nanos );
+        if ( exponent > MAX_EXPONENT )
+        {
+            return NUM_BUCKETS - 1;
+        }
+
+        int mantissa = (int) ( nanos >>> ( exponent - SUB_BUCKET_BITS ) ) & ( SUB_BUCKETS - 1 );
+
+        return SUB_BUCKETS + ( exponent - SUB_BUCKET_BITS ) * SUB_BUCKETS + mantissa;
+    }
+
+    static long getBucketUpperBound( int index )
+    {
+        if ( index < SUB_BUCKETS )
+        {
+            return index;
+        }
+
+        int exponent = ( index - SUB_BUCKETS ) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        long mantissa = ( index - SUB_BUCKETS ) % SUB_BUCKETS;
+        long lower = ( 1L << exponent ) | ( mantissa << ( exponent - SUB_BUCKET_BITS ) );
+
+        return lower + ( 1L << ( exponent - SUB_BUCKET_BITS ) ) - 1;
+    }
+}
@@ -0,0 +1,132 @@
+//
+// OperationSnapshot
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.metrics;
+
+import java.util.concurrent.*;
+
+/**
+ * Immutable point in time view of the statistics of one operation.
+ */
+public class OperationSnapshot
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private long count;
+    private long errorCount;
+    private long totalNanos;
+    private long maxNanos;
+    private long p50Nanos;
+    private long p90Nanos;
+    private long p99Nanos;
+    private long p999Nanos;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public OperationSnapshot( long count, long errorCount, long totalNanos, long maxNanos, long p50Nanos, long p90Nanos, long p99Nanos,
+        long p999Nanos )
+    {
+        this.count = count;
+        this.errorCount = errorCount;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public long getErrorCount()
+    {
+        return errorCount;
+    }
+
+    public long getTotalNanos()
+    {
+        return totalNanos;
+    }
+
+    public long getMeanNanos()
+    {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    public long getMaxNanos()
+    {
+        return maxNanos;
+    }
+
+    public long getP50Nanos()
+    {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos()
+    {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos()
+    {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos()
+    {
+        return p999Nanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "count=%d errors=%d mean=%dus p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus", count, errorCount,
+            toMicros( getMeanNanos() ), toMicros( p50Nanos ), toMicros( p90Nanos ), toMicros( p99Nanos ), toMicros( p999Nanos ),
+            toMicros( maxNanos ) );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static long toMicros( long nanos )
+    {
+        return TimeUnit.NANOSECONDS.toMicros( nanos );
+    }
+}
@@ -0,0 +1,106 @@
+//
+// OperationStats
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.metrics;
+
+/**
+ * Live statistics (calls, errors and latency) of one kind of operation. Safe to record into from any number of threads.
+ */
+public class OperationStats
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private LatencyHistogram histogram;
+    private StripedLong errors;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public OperationStats()
+    {
+        histogram = new LatencyHistogram();
+        errors = new StripedLong();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public void record( long nanos )
+    {
+        histogram.record( nanos );
+    }
+
+    /**
+     * Record a call that failed. Its latency is recorded too.
+     */
+    public void recordError( long nanos )
+    {
+        histogram.record( nanos );
+        errors.increment();
+    }
+
+    /**
+     * Record a call that started at the given {@link System#nanoTime()}.
+     */
+    public void recordSince( long startNanos, boolean success )
+    {
+        long nanos = System.nanoTime() - startNanos;
+        if ( success )
+        {
+            record( nanos );
+        }
+        else
+        {
+            recordError( nanos );
+        }
+    }
+
+    public LatencyHistogram getHistogram()
+    {
+        return histogram;
+    }
+
+    public long getErrorCount()
+    {
+        return errors.sum();
+    }
+
+    public OperationSnapshot snapshot()
+    {
+        return histogram.snapshot( errors.sum() );
+    }
+
+    public void reset()
+    {
+        histogram.reset();
+        errors.reset();
+    }
+}
@@ -0,0 +1,167 @@
+//
+// SQLFingerprint
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.metrics;
+
+import java.util.concurrent.*;
+import java.util.regex.*;
+
+/**
+ * Normalizes SQL so that statements that only differ in their literal values, whitespace, comments or the length of their
+ * parameter lists share the same fingerprint. For example {@code select * from a where id in (1, 2,3)} and
+ * {@code SELECT * FROM a WHERE id IN (?,?)} both become {@code select * from a where id in (?...)}.
+ */
+public class SQLFingerprint
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int MAX_CACHED = 10000;
+    private static final Pattern PARAMETER_LIST = Pattern.compile( "\\?(?: ?, ?\\?)+" );
+
+    // Key = SQL as given.
+    // Value = Its fingerprint.
+    private static ConcurrentMap<String, String> cache = new ConcurrentHashMap<String, String>();
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static String get( String sql )
+    {
+        String fingerprint = cache.get( sql );
+        if ( fingerprint == null )
+        {
+            fingerprint = normalize( sql );
+
+            // Statements built with literals could be endless, so stop caching at some point.
+            if ( cache.size() < MAX_CACHED )
+            {
+                cache.put( sql, fingerprint );
+            }
+        }
+
+        return fingerprint;
+    }
+
+    public static String normalize( String sql )
+    {
+        StringBuilder builder = new StringBuilder( sql.length() );
+
+        int length = sql.length();
+        int i = 0;
+        while ( i < length )
+        {
+            char c = sql.charAt( i );
+
+            if ( c == '\'' )
+            {
+                // String literal, '' is an escaped quote.
+                i++;
+                while ( i < length )
+                {
+                    if ( sql.charAt( i ) == '\'' )
+                    {
+                        if ( i + 1 < length && sql.charAt( i + 1 ) == '\'' )
+                        {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                builder.append( '?' );
+                i++;
+            }
+            else if ( c == '"' )
+            {
+                // Quoted identifier, keep as is.
+                int end = sql.indexOf( '"', i + 1 );
+                end = end < 0 ? length : end + 1;
+                builder.append( sql, i, end );
+                i = end;
+            }
+            else if ( c == '-' && i + 1 < length && sql.charAt( i + 1 ) == '-' )
+            {
+                int end = sql.indexOf( '\n', i );
+                i = end < 0 ? length : end;
+            }
+            else if ( c == '/' && i + 1 < length && sql.charAt( i + 1 ) == '*' )
+            {
+                int end = sql.indexOf( "*/", i + 2 );
+                i = end < 0 ? length : end + 2;
+                appendSpace( builder );
+            }
+            else if ( Character.isWhitespace( c ) )
+            {
+                appendSpace( builder );
+                i++;
+            }
+            else if ( Character.isDigit( c ) && !isIdentifierPart( builder ) )
+            {
+                while ( i < length && ( Character.isLetterOrDigit( sql.charAt( i ) ) || sql.charAt( i ) == '.' ) )
+                {
+                    i++;
+                }
+                builder.append( '?' );
+            }
+            else
+            {
+                builder.append( Character.toLowerCase( c ) );
+                i++;
+            }
+        }
+
+        return PARAMETER_LIST.matcher( builder.toString().trim() ).replaceAll( "?..." );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static void appendSpace( StringBuilder builder )
+    {
+        if ( builder.length() > 0 && builder.charAt( builder.length() - 1 ) != ' ' )
+        {
+            builder.append( ' ' );
+        }
+    }
+
+    private static boolean isIdentifierPart( StringBuilder builder )
+    {
+        if ( builder.length() == 0 )
+        {
+            return false;
+        }
+
+        char last = builder.charAt( builder.length() - 1 );
+
+        return Character.isLetterOrDigit( last ) || last == '_' || last == '$';
+    }
+}
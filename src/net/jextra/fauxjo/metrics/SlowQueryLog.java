@@ -0,0 +1,341 @@
+//
+// SlowQueryLog
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.metrics;
+
+import java.lang.reflect.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.*;
+
+/**
+ * <p>
+ * Logs statements whose execution plus fetch time goes over a threshold, together with their normalized SQL, bound parameters, row
+ * count and the Home that prepared them. It is installed with {@link net.jextra.fauxjo.Schema#setSlowQueryLog(SlowQueryLog)}, and
+ * then every statement prepared through the schema for a Home is wrapped so its timing can be observed. Statements prepared with
+ * the plain {@link net.jextra.fauxjo.Schema#prepareStatement(String)} are not.
+ * </p>
+ * <p>
+ * With no SlowQueryLog installed, statements are handed out unwrapped, so the only cost is one field read per prepare.
+ * </p>
+ * <p>
+ * Log records go to the {@code java.util.logging} logger named after this class at level WARNING. Override
+ * {@link #logSlowQuery(String, String, Object[], long, long, long)} to send them elsewhere.
+ * </p>
+ */
+public class SlowQueryLog
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int MAX_PARAMETER_LENGTH = 100;
+
+    private static final Logger LOGGER = Logger.getLogger( SlowQueryLog.class.getName() );
+
+    // Read by every thread that executes a statement, so a change is seen right away.
+    private volatile long thresholdNanos;
+    private volatile boolean redactParameters;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public SlowQueryLog( long thresholdMillis )
+    {
+        setThresholdMillis( thresholdMillis );
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public long getThresholdMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis( thresholdNanos );
+    }
+
+    public void setThresholdMillis( long thresholdMillis )
+    {
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos( thresholdMillis );
+    }
+
+    public boolean isRedactParameters()
+    {
+        return redactParameters;
+    }
+
+    /**
+     * If true, bound parameter values are replaced with "?" in the log, e.g. when they may hold personal data.
+     */
+    public void setRedactParameters( boolean redactParameters )
+    {
+        this.redactParameters = redactParameters;
+    }
+
+    /**
+     * @return Statement that behaves like the given one but reports to this log when it is slow.
+     */
+    public PreparedStatement wrap( PreparedStatement statement, String sql, String source )
+    {
+        return (PreparedStatement) Proxy.newProxyInstance( SlowQueryLog.class.getClassLoader(), new Class<?>[] { PreparedStatement.class },
+            new StatementHandler( statement, sql, source ) );
+    }
+
+    // ----------
+    // protected
+    // ----------
+
+    protected void logSlowQuery( String source, String sql, Object[] parameters, long executeNanos, long fetchNanos, long rows )
+    {
+        if ( !LOGGER.isLoggable( Level.WARNING ) )
+        {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder();
+        message.append( "Slow query (" ).append( toMillis( executeNanos + fetchNanos ) ).append( " ms: execute " );
+        message.append( toMillis( executeNanos ) ).append( " ms, fetch " ).append( toMillis( fetchNanos ) ).append( " ms" );
+        if ( rows >= 0 )
+        {
+            message.append( ", " ).append( rows ).append( " rows" );
+        }
+        message.append( ")" );
+        if ( source != null )
+        {
+            message.append( " from " ).append( source );
+        }
+        message.append( ": " ).append( SQLFingerprint.get( sql ) );
+
+        if ( parameters.length > 0 )
+        {
+            message.append( " [" );
+            for ( int i = 0; i < parameters.length; i++ )
+            {
+                if ( i > 0 )
+                {
+                    message.append( ", " );
+                }
+                message.append( formatParameter( parameters[i] ) );
+            }
+            message.append( "]" );
+        }
+
+        LOGGER.warning( message.toString() );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private String formatParameter( Object value )
+    {
+        if ( redactParameters )
+        {
+            return "?";
+        }
+
+        if ( value == null )
+        {
+            return "null";
+        }
+
+        String string = value instanceof String ? "'" + value + "'" : String.valueOf( value );
+        if ( string.length() > MAX_PARAMETER_LENGTH )
+        {
+            string = string.substring( 0, MAX_PARAMETER_LENGTH ) + "...";
+        }
+
+        return string;
+    }
+
+    private static long toMillis( long nanos )
+    {
+        return TimeUnit.NANOSECONDS.toMillis( nanos );
+    }
+
+    private static Object invoke( Object target, Method method, Object[] args )
+        throws Throwable
+    {
+        try
+        {
+            return method.invoke( target, args );
+        }
+        catch ( InvocationTargetException ex )
+        {
+            throw ex.getCause();
+        }
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    /**
+     * Captures parameters and times the executions of one prepared statement.
+     */
+    private class StatementHandler implements InvocationHandler
+    {
+        private PreparedStatement statement;
+        private String sql;
+        private String source;
+
+        // Index 0 = parameter 1.
+        private ArrayList<Object> parameters;
+
+        public StatementHandler( PreparedStatement statement, String sql, String source )
+        {
+            this.statement = statement;
+            this.sql = sql;
+            this.source = source;
+            parameters = new ArrayList<Object>();
+        }
+
+        @Override
+        public Object invoke( Object proxy, Method method, Object[] args )
+            throws Throwable
+        {
+            String name = method.getName();
+
+            if ( name.startsWith( "set" ) && args != null && args.length >= 2 && method.getParameterTypes()[0] == Integer.TYPE )
+            {
+                setParameter( (Integer) args[0], name.equals( "setNull" ) ? null : args[1] );
+            }
+            else if ( name.equals( "clearParameters" ) )
+            {
+                parameters.clear();
+            }
+            else if ( name.equals( "executeQuery" ) && ( args == null || args.length == 0 ) )
+            {
+                long start = System.nanoTime();
+                ResultSet rs = (ResultSet) SlowQueryLog.invoke( statement, method, args );
+
+                return wrapResultSet( rs, System.nanoTime() - start );
+            }
+            else if ( name.startsWith( "execute" ) && ( args == null || args.length == 0 ) )
+            {
+                long start = System.nanoTime();
+                Object result = SlowQueryLog.invoke( statement, method, args );
+                long executeNanos = System.nanoTime() - start;
+
+                if ( executeNanos >= thresholdNanos )
+                {
+                    long rows = result instanceof Integer ? (Integer) result : -1;
+                    logSlowQuery( source, sql, parameters.toArray(), executeNanos, 0, rows );
+                }
+
+                return result;
+            }
+
+            return SlowQueryLog.invoke( statement, method, args );
+        }
+
+        private void setParameter( int index, Object value )
+        {
+            while ( parameters.size() < index )
+            {
+                parameters.add( null );
+            }
+            parameters.set( index - 1, value );
+        }
+
+        private ResultSet wrapResultSet( ResultSet rs, long executeNanos )
+        {
+            if ( rs == null )
+            {
+                return null;
+            }
+
+            return (ResultSet) Proxy.newProxyInstance( SlowQueryLog.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+                new ResultSetHandler( rs, parameters.toArray(), executeNanos ) );
+        }
+
+        /**
+         * Adds up the time spent in next() and reports once the rows run out or the ResultSet is closed.
+         */
+        private class ResultSetHandler implements InvocationHandler
+        {
+            private ResultSet rs;
+            private Object[] boundParameters;
+            private long executeNanos;
+            private long fetchNanos;
+            private long rows;
+            private boolean reported;
+
+            public ResultSetHandler( ResultSet rs, Object[] boundParameters, long executeNanos )
+            {
+                this.rs = rs;
+                this.boundParameters = boundParameters;
+                this.executeNanos = executeNanos;
+            }
+
+            @Override
+            public Object invoke( Object proxy, Method method, Object[] args )
+                throws Throwable
+            {
+                String name = method.getName();
+
+                if ( name.equals( "next" ) )
+                {
+                    long start = System.nanoTime();
+                    Boolean hasNext = (Boolean) SlowQueryLog.invoke( rs, method, args );
+                    fetchNanos += System.nanoTime() - start;
+
+                    if ( hasNext )
+                    {
+                        rows++;
+                    }
+                    else
+                    {
+                        report();
+                    }
+
+                    return hasNext;
+                }
+                else if ( name.equals( "close" ) )
+                {
+                    report();
+                }
+
+                return SlowQueryLog.invoke( rs, method, args );
+            }
+
+            private void report()
+            {
+                if ( !reported )
+                {
+                    reported = true;
+                    if ( executeNanos + fetchNanos >= thresholdNanos )
+                    {
+                        logSlowQuery( source, sql, boundParameters, executeNanos, fetchNanos, rows );
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+//
+// StripedLong
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.metrics;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Counter that spreads its updates over several padded cells, chosen by thread, so that many threads can add to it without
+ * fighting over one cache line. Reading the total sums the cells, which is comparatively slow.
+ */
+public class StripedLong
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int NUM_STRIPES;
+
+    // Longs per cell, so each cell is on its own 64 byte cache line.
+    private static final int PADDING = 8;
+
+    private AtomicLongArray cells;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    static
+    {
+        int stripes = 1;
+        while ( stripes < Runtime.getRuntime().availableProcessors() * 2 && stripes < 64 )
+        {
+            stripes <<= 1;
+        }
+        NUM_STRIPES = stripes;
+    }
+
+    public StripedLong()
+    {
+        cells = new AtomicLongArray( NUM_STRIPES * PADDING );
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public void add( long value )
+    {
+        cells.addAndGet( getCellIndex(), value );
+    }
+
+    public void increment()
+    {
+        add( 1 );
+    }
+
+    public long sum()
+    {
+        long sum = 0;
+        for ( int i = 0; i < NUM_STRIPES; i++ )
+        {
+            sum += cells.get( i * PADDING );
+        }
+
+        return sum;
+    }
+
+    public void reset()
+    {
+        for ( int i = 0; i < NUM_STRIPES; i++ )
+        {
+            cells.set( i * PADDING, 0 );
+        }
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static int getCellIndex()
+    {
+        long id = Thread.currentThread().getId();
+        int hash = (int) ( id ^ ( id >>> 32 ) ) * 0x9E3779B9;
+
+        return ( ( hash >>> 16 ) & ( NUM_STRIPES - 1 ) ) * PADDING;
+    }
+}
@@ -0,0 +1,297 @@
+package net.jextra.fauxjo;
+
+import net.jextra.fauxjo.mock.TestCharacter;
+import net.jextra.fauxjo.stub.StubConnection;
+import net.jextra.fauxjo.stub.StubPreparedStatement;
+import org.junit.*;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncHomeTest
+{
+    private Schema schema;
+    private Home<TestCharacter> home;
+    private PreparedStatement statement;
+
+    @Before
+    public void setUp()
+    {
+        schema = new Schema()
+        {
+            @Override
+            public Connection getConnection()
+            {
+                return null;
+            }
+
+            @Override
+            public PreparedStatement prepareStatement( String sql )
+            {
+                return statement;
+            }
+        };
+        home = new Home<TestCharacter>( schema, TestCharacter.class, "character" );
+    }
+
+    @After
+    public void tearDown()
+    {
+        if ( schema.getAsyncExecutor() != null )
+        {
+            schema.getAsyncExecutor().shutdownNow();
+        }
+    }
+
+    @Test( expected = IllegalStateException.class )
+    public void testNoExecutor()
+    {
+        home.async().submit( new Callable<Object>()
+        {
+            @Override
+            public Object call()
+            {
+                return null;
+            }
+        } );
+    }
+
+    @Test
+    public void testSubmit()
+        throws Exception
+    {
+        schema.setAsyncExecutor( AsyncHome.createExecutor( 2, 10 ) );
+
+        Future<String> future = home.async().submit( new Callable<String>()
+        {
+            @Override
+            public String call()
+            {
+                return Thread.currentThread().getName();
+            }
+        } );
+
+        assertTrue( future.get().startsWith( "fauxjo-async-" ) );
+    }
+
+    @Test
+    public void testTimeoutCancels()
+        throws Exception
+    {
+        schema.setAsyncExecutor( AsyncHome.createExecutor( 1, 10 ) );
+        schema.setAsyncTimeoutMillis( 50 );
+
+        Future<Object> future = home.async().submit( new Callable<Object>()
+        {
+            @Override
+            public Object call()
+                throws Exception
+            {
+                Thread.sleep( 10000 );
+                return null;
+            }
+        } );
+
+        try
+        {
+            future.get( 5, TimeUnit.SECONDS );
+        }
+        catch ( CancellationException ex )
+        {
+            // expected
+        }
+        assertTrue( future.isCancelled() );
+    }
+
+    @Test
+    public void testPerCallTimeout()
+        throws Exception
+    {
+        schema.setAsyncExecutor( AsyncHome.createExecutor( 1, 10 ) );
+        schema.setAsyncTimeoutMillis( 60000 );
+        assertEquals( 60000, home.async().getTimeoutMillis() );
+        assertEquals( 0, home.async().withTimeout( 0 ).getTimeoutMillis() );
+
+        Future<Object> future = home.async().withTimeout( 50 ).submit( new Callable<Object>()
+        {
+            @Override
+            public Object call()
+                throws Exception
+            {
+                Thread.sleep( 10000 );
+                return null;
+            }
+        } );
+
+        try
+        {
+            future.get( 5, TimeUnit.SECONDS );
+        }
+        catch ( CancellationException ex )
+        {
+            // expected
+        }
+        assertTrue( future.isCancelled() );
+    }
+
+    @Test
+    public void testTimeoutCancelsStatement()
+        throws Exception
+    {
+        schema.setAsyncExecutor( AsyncHome.createExecutor( 1, 10 ) );
+        BlockingStatement blocking = new BlockingStatement();
+        statement = blocking;
+
+        Future<ResultSet> future = home.async().withTimeout( 100 ).submit( new Callable<ResultSet>()
+        {
+            @Override
+            public ResultSet call()
+                throws SQLException
+            {
+                return home.prepareStatement( "SELECT * FROM character" ).executeQuery();
+            }
+        } );
+
+        try
+        {
+            future.get( 5, TimeUnit.SECONDS );
+        }
+        catch ( CancellationException ex )
+        {
+            // expected
+        }
+        assertTrue( future.isCancelled() );
+        assertTrue( blocking.cancelled.await( 5, TimeUnit.SECONDS ) );
+        assertEquals( 1, blocking.executeQueryTimeout );
+
+        // The cached statement gets its own timeout back once the worker is done with it.
+        schema.getAsyncExecutor().shutdown();
+        assertTrue( schema.getAsyncExecutor().awaitTermination( 5, TimeUnit.SECONDS ) );
+        assertEquals( 0, blocking.getQueryTimeout() );
+    }
+
+    @Test
+    public void testTimeoutCountsQueueTime()
+        throws Exception
+    {
+        schema.setAsyncExecutor( AsyncHome.createExecutor( 1, 10 ) );
+        final CountDownLatch latch = new CountDownLatch( 1 );
+        home.async().submit( new Callable<Object>()
+        {
+            @Override
+            public Object call()
+                throws Exception
+            {
+                latch.await();
+                return null;
+            }
+        } );
+
+        final AtomicBoolean ran = new AtomicBoolean();
+        Future<Object> queued = home.async().withTimeout( 50 ).submit( new Callable<Object>()
+        {
+            @Override
+            public Object call()
+            {
+                ran.set( true );
+                return null;
+            }
+        } );
+
+        // Runs out while still waiting behind the first operation, so it is never run.
+        try
+        {
+            queued.get( 5, TimeUnit.SECONDS );
+        }
+        catch ( CancellationException ex )
+        {
+            // expected
+        }
+        latch.countDown();
+        schema.getAsyncExecutor().shutdown();
+        assertTrue( schema.getAsyncExecutor().awaitTermination( 5, TimeUnit.SECONDS ) );
+
+        assertTrue( queued.isCancelled() );
+        assertFalse( ran.get() );
+    }
+
+    @Test
+    public void testQueueLimit()
+        throws Exception
+    {
+        schema.setAsyncExecutor( AsyncHome.createExecutor( 1, 1 ) );
+        final CountDownLatch latch = new CountDownLatch( 1 );
+        Callable<Object> blocker = new Callable<Object>()
+        {
+            @Override
+            public Object call()
+                throws Exception
+            {
+                latch.await();
+                return null;
+            }
+        };
+
+        int rejected = 0;
+        for ( int i = 0; i < 3; i++ )
+        {
+            try
+            {
+                home.async().submit( blocker );
+            }
+            catch ( RejectedExecutionException ex )
+            {
+                rejected++;
+            }
+        }
+        latch.countDown();
+
+        // One running, one queued, one rejected.
+        assertEquals( 1, rejected );
+    }
+
+    /**
+     * Statement whose query blocks, ignoring interrupts like a driver reading its socket, until it is cancelled.
+     */
+    private static class BlockingStatement extends StubPreparedStatement
+    {
+        private CountDownLatch cancelled = new CountDownLatch( 1 );
+        private volatile int executeQueryTimeout;
+
+        public BlockingStatement()
+        {
+            super( new StubConnection(), "SELECT * FROM character", false );
+        }
+
+        @Override
+        public ResultSet executeQuery()
+            throws SQLException
+        {
+            executeQueryTimeout = getQueryTimeout();
+            while ( true )
+            {
+                try
+                {
+                    cancelled.await();
+                    throw new SQLException( "Query was cancelled", "57014" );
+                }
+                catch ( InterruptedException ex )
+                {
+                    // Ignored.
+                }
+            }
+        }
+
+        @Override
+        public void cancel()
+        {
+            cancelled.countDown();
+        }
+    }
+}
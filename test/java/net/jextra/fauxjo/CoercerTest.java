@@ -0,0 +1,77 @@
+package net.jextra.fauxjo;
+
+import java.sql.Time;
+import java.sql.Timestamp;
+import net.jextra.fauxjo.coercer.Converter;
+import net.jextra.fauxjo.coercer.TypeCoercer;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CoercerTest
+{
+    @Test
+    public void testConverterIsCached()
+        throws Exception
+    {
+        Coercer coercer = new Coercer();
+        Converter converter = coercer.getConverter( String.class, Integer.class );
+        assertSame( converter, coercer.getConverter( String.class, Integer.class ) );
+        assertSame( converter, coercer.getConverter( String.class, Integer.TYPE ) );
+        assertEquals( 42, converter.convert( "42" ) );
+        assertNull( converter.convert( null ) );
+    }
+
+    @Test
+    public void testIdentity()
+        throws Exception
+    {
+        Coercer coercer = new Coercer();
+        Long value = 7L;
+        assertSame( value, coercer.coerce( value, Long.TYPE ) );
+
+        Time time = new Time( 1000L );
+        assertSame( time, coercer.coerce( time, java.util.Date.class ) );
+    }
+
+    @Test
+    public void testTimestampStillConverted()
+        throws Exception
+    {
+        Coercer coercer = new Coercer();
+        Object value = coercer.coerce( new Timestamp( 1000L ), java.util.Date.class );
+        assertEquals( java.util.Date.class, value.getClass() );
+    }
+
+    @Test
+    public void testSuperclassCoercer()
+        throws Exception
+    {
+        // Time has no coercer of its own, the one of java.util.Date is used.
+        Coercer coercer = new Coercer();
+        Object value = coercer.coerce( new Time( 1000L ), java.sql.Date.class );
+        assertEquals( java.sql.Date.class, value.getClass() );
+        assertEquals( 1000L, ( (java.sql.Date) value ).getTime() );
+    }
+
+    @Test
+    public void testInterfaceCoercer()
+        throws Exception
+    {
+        Coercer coercer = new Coercer();
+        assertTrue( coercer.coerce( new StringBuilder( "12" ), Integer.class ) instanceof StringBuilder );
+
+        coercer.addTypeCoercer( CharSequence.class, new TypeCoercer<CharSequence>()
+        {
+            @Override
+            public Object coerce( CharSequence value, Class<?> destClass )
+                throws FauxjoException
+            {
+                return Integer.valueOf( value.toString() );
+            }
+        } );
+        assertEquals( 12, coercer.coerce( new StringBuilder( "12" ), Integer.class ) );
+    }
+}
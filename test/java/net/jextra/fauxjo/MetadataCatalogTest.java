@@ -0,0 +1,99 @@
+package net.jextra.fauxjo;
+
+import net.jextra.fauxjo.SQLTableProcessor.ColumnInfo;
+import net.jextra.fauxjo.stub.StubConnection;
+import org.junit.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MetadataCatalogTest
+{
+    @Test
+    public void testRefresh()
+        throws Exception
+    {
+        StubConnection connection = new StubConnection();
+        connection.addTable( "Character", new String[] { "characterId", "name" }, new int[] { Types.BIGINT, Types.VARCHAR } );
+        connection.addTable( "guild", new String[] { "guildid" }, new int[] { Types.INTEGER } );
+
+        MetadataCatalog catalog = new MetadataCatalog();
+        catalog.refresh( connection, "test" );
+
+        assertTrue( catalog.isVerified() );
+        assertEquals( 2, catalog.getTableNames().size() );
+        assertEquals( createColumnInfos(), catalog.getColumnInfos( "character" ) );
+        assertEquals( new ColumnInfo( "guildid", Types.INTEGER, "int4" ), catalog.getColumnInfos( "GUILD" ).get( "guildid" ) );
+    }
+
+    @Test
+    public void testRoundTrip()
+        throws Exception
+    {
+        MetadataCatalog catalog = new MetadataCatalog();
+        catalog.putColumnInfos( "Character", createColumnInfos() );
+
+        StringWriter writer = new StringWriter();
+        catalog.write( writer );
+
+        MetadataCatalog copy = MetadataCatalog.read( new StringReader( writer.toString() ) );
+        assertTrue( copy.isLoaded() );
+        assertFalse( copy.isVerified() );
+        assertEquals( createColumnInfos(), copy.getColumnInfos( "CHARACTER" ) );
+        assertEquals( "characterId", copy.getColumnInfos( "character" ).get( "characterid" ).getRealName() );
+        assertNull( copy.getColumnInfos( "other" ) );
+    }
+
+    @Test
+    public void testSaveAndLoad()
+        throws Exception
+    {
+        File file = File.createTempFile( "metadata", ".snapshot" );
+        try
+        {
+            MetadataCatalog catalog = new MetadataCatalog();
+            catalog.putColumnInfos( "character", createColumnInfos() );
+            catalog.save( file );
+
+            assertEquals( createColumnInfos(), MetadataCatalog.load( file ).getColumnInfos( "character" ) );
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testReadVersion1()
+        throws Exception
+    {
+        MetadataCatalog catalog = MetadataCatalog.read( new StringReader( "fauxjo-metadata-snapshot\t1\ntable\tcharacter\ncolumn\tname\t12\n" ) );
+
+        assertEquals( new ColumnInfo( "name", Types.VARCHAR ), catalog.getColumnInfos( "character" ).get( "name" ) );
+        assertNull( catalog.getColumnInfos( "character" ).get( "name" ).getTypeName() );
+    }
+
+    @Test( expected = IOException.class )
+    public void testUnsupportedVersion()
+        throws Exception
+    {
+        MetadataCatalog.read( new StringReader( "fauxjo-metadata-snapshot\t99\ntable\tcharacter\n" ) );
+    }
+
+    private Map<String, ColumnInfo> createColumnInfos()
+    {
+        Map<String, ColumnInfo> columnInfos = new LinkedHashMap<String, ColumnInfo>();
+        columnInfos.put( "characterid", new ColumnInfo( "characterId", Types.BIGINT, "int8" ) );
+        columnInfos.put( "name", new ColumnInfo( "name", Types.VARCHAR, "varchar" ) );
+
+        return columnInfos;
+    }
+}
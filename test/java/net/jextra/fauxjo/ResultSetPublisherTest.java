@@ -0,0 +1,192 @@
+package net.jextra.fauxjo;
+
+import net.jextra.fauxjo.connectionsupplier.SimpleConnectionSupplier;
+import net.jextra.fauxjo.mock.TestCharacter;
+import net.jextra.fauxjo.mock.TestCharacterHome;
+import net.jextra.fauxjo.mock.TestSchema;
+import net.jextra.fauxjo.stub.StubConnection;
+import net.jextra.fauxjo.stub.StubRows;
+import org.junit.*;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResultSetPublisherTest
+{
+    private static final String[] COLUMNS = { "characterid", "name", "email", "datecreated" };
+    private static final int[] TYPES = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP };
+
+    private StubConnection connection;
+    private TestCharacterHome home;
+    private PreparedStatement statement;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        connection = new StubConnection();
+        connection.addTable( "character", COLUMNS, TYPES );
+        connection.setDefaultQueryResult( StubRows.fromRows( COLUMNS, TYPES, new Object[] { 1L, "Bob", null, null },
+            new Object[] { 2L, "Sue", null, null }, new Object[] { 3L, "Al", null, null } ) );
+
+        SimpleConnectionSupplier supplier = new SimpleConnectionSupplier();
+        supplier.setConnection( connection );
+        TestSchema schema = new TestSchema();
+        schema.setSchemaConnectionSupplier( supplier );
+        home = schema.getHomeByClass( TestCharacterHome.class );
+        statement = connection.prepareStatement( "select * from test.character" );
+        statement.setFetchSize( 50 );
+    }
+
+    @Test
+    public void testDemand()
+        throws Exception
+    {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        home.publish( statement ).subscribe( subscriber );
+        assertEquals( 0, subscriber.names.size() );
+
+        subscriber.subscription.request( 2 );
+        assertEquals( "[Bob, Sue]", subscriber.names.toString() );
+        assertFalse( subscriber.completed );
+
+        // The ResultSet fetches as many rows as requested, and the statement gets its own fetch size back.
+        ResultSet rs = statement.getResultSet();
+        assertEquals( 2, rs.getFetchSize() );
+        assertEquals( 50, statement.getFetchSize() );
+
+        subscriber.subscription.request( 1 );
+        assertEquals( "[Bob, Sue, Al]", subscriber.names.toString() );
+        assertFalse( subscriber.completed );
+    }
+
+    @Test
+    public void testComplete()
+        throws Exception
+    {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        home.publish( statement ).subscribe( subscriber );
+
+        subscriber.subscription.request( Long.MAX_VALUE );
+        assertEquals( "[Bob, Sue, Al]", subscriber.names.toString() );
+        assertTrue( subscriber.completed );
+        assertNull( subscriber.error );
+
+        // Only the ResultSet is closed, the statement may be reused.
+        assertTrue( statement.getResultSet().isClosed() );
+        assertFalse( statement.isClosed() );
+    }
+
+    @Test
+    public void testCancel()
+        throws Exception
+    {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        subscriber.cancelAfter = 1;
+        home.publish( statement ).subscribe( subscriber );
+
+        subscriber.subscription.request( 3 );
+        assertEquals( "[Bob]", subscriber.names.toString() );
+        assertFalse( subscriber.completed );
+        assertNull( subscriber.error );
+        assertTrue( statement.getResultSet().isClosed() );
+        assertTrue( statement.isClosed() );
+
+        subscriber.subscription.request( 1 );
+        assertEquals( 1, subscriber.names.size() );
+    }
+
+    @Test
+    public void testNonPositiveRequest()
+        throws Exception
+    {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        home.publish( statement ).subscribe( subscriber );
+
+        subscriber.subscription.request( 1 );
+        subscriber.subscription.request( 0 );
+        assertEquals( "[Bob]", subscriber.names.toString() );
+        assertTrue( subscriber.error instanceof IllegalArgumentException );
+        assertTrue( statement.isClosed() );
+
+        // Nothing is delivered after the error.
+        subscriber.subscription.request( 1 );
+        assertEquals( 1, subscriber.names.size() );
+        assertFalse( subscriber.completed );
+    }
+
+    @Test
+    public void testNonPositiveRequestWhileDraining()
+        throws Exception
+    {
+        // Made from onNext, while the rows are being read: the error is signalled once the current row is done.
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        subscriber.invalidRequestAfter = 2;
+        home.publish( statement ).subscribe( subscriber );
+
+        subscriber.subscription.request( 3 );
+        assertEquals( "[Bob, Sue]", subscriber.names.toString() );
+        assertTrue( subscriber.error instanceof IllegalArgumentException );
+        assertTrue( statement.isClosed() );
+    }
+
+    @Test
+    public void testSecondSubscriber()
+        throws Exception
+    {
+        ResultSetPublisher<TestCharacter> publisher = home.publish( statement );
+        publisher.subscribe( new RecordingSubscriber() );
+
+        RecordingSubscriber second = new RecordingSubscriber();
+        publisher.subscribe( second );
+        assertTrue( second.error instanceof IllegalStateException );
+    }
+
+    private static class RecordingSubscriber implements ResultSetPublisher.Subscriber<TestCharacter>
+    {
+        private ResultSetPublisher.Subscription subscription;
+        private List<String> names = new ArrayList<String>();
+        private boolean completed;
+        private Throwable error;
+        private int cancelAfter = -1;
+        private int invalidRequestAfter = -1;
+
+        @Override
+        public void onSubscribe( ResultSetPublisher.Subscription subscription )
+        {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext( TestCharacter item )
+        {
+            names.add( item.getName() );
+            if ( names.size() == cancelAfter )
+            {
+                subscription.cancel();
+            }
+            if ( names.size() == invalidRequestAfter )
+            {
+                subscription.request( -1 );
+            }
+        }
+
+        @Override
+        public void onError( Throwable throwable )
+        {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete()
+        {
+            completed = true;
+        }
+    }
+}
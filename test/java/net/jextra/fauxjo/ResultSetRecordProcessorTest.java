@@ -0,0 +1,390 @@
+package net.jextra.fauxjo;
+
+import net.jextra.fauxjo.stub.StubResultSet;
+import net.jextra.fauxjo.stub.StubRows;
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.sql.ResultSet;
+import java.sql.Types;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResultSetRecordProcessorTest
+{
+    private static final String[] COLUMNS = { "id", "count", "ratio", "active", "total" };
+    private static final int[] TYPES = { Types.BIGINT, Types.INTEGER, Types.DOUBLE, Types.BOOLEAN, Types.INTEGER };
+
+    @Test
+    public void testPrimitiveColumns()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( COLUMNS, TYPES, new Object[] { 1L, 2, 0.5, true, 3 },
+            new Object[] { 4L, 5, 1.5, false, 6 } ) );
+        ResultSetRecordProcessor<PrimitiveBean> processor = new ResultSetRecordProcessor<PrimitiveBean>( PrimitiveBean.class );
+
+        assertTrue( rs.next() );
+        PrimitiveBean bean = processor.convertResultSetRow( rs );
+        assertEquals( 1L, bean.id );
+        assertEquals( 2, bean.count );
+        assertEquals( 0.5, bean.ratio, 0.0 );
+        assertTrue( bean.active );
+        assertEquals( 3L, bean.total );
+
+        assertTrue( rs.next() );
+        bean = processor.convertResultSetRow( rs );
+        assertEquals( 4L, bean.id );
+        assertEquals( 6L, bean.total );
+    }
+
+    @Test
+    public void testNullInPrimitiveColumn()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( COLUMNS, TYPES, new Object[] { 1L, null, 0.5, true, 3 } ) );
+        ResultSetRecordProcessor<PrimitiveBean> processor = new ResultSetRecordProcessor<PrimitiveBean>( PrimitiveBean.class );
+
+        assertTrue( rs.next() );
+        try
+        {
+            processor.convertResultSetRow( rs );
+            fail( "A null cannot be written to an int field." );
+        }
+        catch ( FauxjoException ex )
+        {
+            assertTrue( ex.getMessage().contains( "count" ) );
+        }
+    }
+
+    @Test
+    public void testOwnWriteValue()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( COLUMNS, TYPES, new Object[] { 1L, 2, 0.5, true, 3 } ) );
+        ResultSetRecordProcessor<CountingBean> processor = new ResultSetRecordProcessor<CountingBean>( CountingBean.class );
+
+        assertTrue( rs.next() );
+        CountingBean bean = processor.convertResultSetRow( rs );
+        assertEquals( 5, bean.writes );
+        assertEquals( 1L, bean.id );
+    }
+
+    @Test
+    public void testArrayColumns()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( new String[] { "id", "ids", "scores", "tags" },
+            new int[] { Types.BIGINT, Types.ARRAY, Types.ARRAY, Types.ARRAY },
+            new Object[] { 1L, new Long[] { 2L, 3L }, new double[] { 0.5, 1.5 }, new String[] { "a" } } ) );
+        ResultSetRecordProcessor<ArrayBean> processor = new ResultSetRecordProcessor<ArrayBean>( ArrayBean.class );
+
+        assertTrue( rs.next() );
+        ArrayBean bean = processor.convertResultSetRow( rs );
+        assertArrayEquals( new long[] { 2L, 3L }, bean.ids );
+        assertArrayEquals( new double[] { 0.5, 1.5 }, bean.scores, 0.0 );
+        assertArrayEquals( new String[] { "a" }, bean.tags );
+    }
+
+    @Test
+    public void testConstructor()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( new String[] { "id", "name", "count" },
+            new int[] { Types.BIGINT, Types.VARCHAR, Types.INTEGER }, new Object[] { 1L, "Alice", 2 }, new Object[] { 3L, "Bob", 4 } ) );
+        ResultSetRecordProcessor<ImmutableBean> processor = new ResultSetRecordProcessor<ImmutableBean>( ImmutableBean.class );
+
+        assertTrue( rs.next() );
+        ImmutableBean bean = processor.convertResultSetRow( rs );
+        assertEquals( 1L, bean.id );
+        assertEquals( "Alice", bean.name );
+        assertEquals( 2, bean.count );
+
+        assertTrue( rs.next() );
+        bean = processor.convertResultSetRow( rs );
+        assertEquals( 3L, bean.id );
+        assertEquals( "Bob", bean.name );
+    }
+
+    @Test( expected = FauxjoException.class )
+    public void testConstructorColumnMissing()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( new String[] { "id", "count" }, new int[] { Types.BIGINT, Types.INTEGER },
+            new Object[] { 1L, 2 } ) );
+
+        assertTrue( rs.next() );
+        new ResultSetRecordProcessor<ImmutableBean>( ImmutableBean.class ).convertResultSetRow( rs );
+    }
+
+    @Test
+    public void testReuseBeans()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( COLUMNS, TYPES, new Object[] { 1L, 2, 0.5, true, 3 },
+            new Object[] { 4L, 5, 1.5, false, 6 }, new Object[] { 7L, 8, 2.5, true, 9 } ) );
+        ResultSetIterator<PrimitiveBean> iterator = new ResultSetIterator<PrimitiveBean>(
+            new ResultSetRecordProcessor<PrimitiveBean>( PrimitiveBean.class ), rs ).reuseBeans( 2 );
+
+        PrimitiveBean first = iterator.next();
+        assertEquals( 1L, first.id );
+        PrimitiveBean second = iterator.next();
+        assertNotSame( first, second );
+        assertEquals( 4L, second.id );
+
+        // The third row overwrites the bean of the first.
+        assertSame( first, iterator.next() );
+        assertEquals( 7L, first.id );
+        assertEquals( 9L, first.total );
+        assertEquals( 4L, second.id );
+        assertFalse( iterator.hasNext() );
+    }
+
+    @Test
+    public void testInterleavedResultSets()
+        throws Exception
+    {
+        ResultSetRecordProcessor<PrimitiveBean> processor = new ResultSetRecordProcessor<PrimitiveBean>( PrimitiveBean.class );
+        ResultSetIterator<PrimitiveBean> first = new ResultSetIterator<PrimitiveBean>( processor, new StubResultSet(
+            StubRows.fromRows( COLUMNS, TYPES, new Object[] { 1L, 2, 0.5, true, 3 }, new Object[] { 4L, 5, 1.5, false, 6 } ) ) );
+
+        // Same columns in another order, so a plan of one would map the other wrongly.
+        String[] columns = { "total", "active", "ratio", "count", "id" };
+        int[] types = { Types.INTEGER, Types.BOOLEAN, Types.DOUBLE, Types.INTEGER, Types.BIGINT };
+        ResultSetIterator<PrimitiveBean> second = new ResultSetIterator<PrimitiveBean>( processor, new StubResultSet(
+            StubRows.fromRows( columns, types, new Object[] { 9, false, 2.5, 8, 7L }, new Object[] { 12, true, 3.5, 11, 10L } ) ) );
+
+        assertEquals( 1L, first.next().id );
+        assertEquals( 7L, second.next().id );
+        assertEquals( 4L, first.next().id );
+        PrimitiveBean bean = second.next();
+        assertEquals( 10L, bean.id );
+        assertEquals( 12L, bean.total );
+    }
+
+    @Test( expected = FauxjoException.class )
+    public void testReuseConstructorBean()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( new String[] { "id", "name", "count" },
+            new int[] { Types.BIGINT, Types.VARCHAR, Types.INTEGER }, new Object[] { 1L, "Alice", 2 }, new Object[] { 3L, "Bob", 4 } ) );
+        ResultSetRecordProcessor<ImmutableBean> processor = new ResultSetRecordProcessor<ImmutableBean>( ImmutableBean.class );
+
+        assertTrue( rs.next() );
+        ImmutableBean bean = processor.convertResultSetRow( rs );
+        assertTrue( rs.next() );
+        processor.convertResultSetRow( rs, bean );
+    }
+
+    @Test
+    public void testLazyBean()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( new String[] { "id", "name", "count" },
+            new int[] { Types.BIGINT, Types.VARCHAR, Types.INTEGER }, new Object[] { 1L, "Alice", 2 } ) );
+        ResultSetRecordProcessor<LazyBean> processor = new ResultSetRecordProcessor<LazyBean>( LazyBean.class );
+
+        assertTrue( rs.next() );
+        LazyBean bean = processor.convertResultSetRow( rs );
+        assertEquals( Long.valueOf( 1 ), bean.id );
+        assertNull( bean.name );
+        assertEquals( "Alice", bean.getName() );
+        assertEquals( "Alice", bean.name );
+
+        // A value written before it was decoded is kept.
+        bean.writeValue( "count", 9 );
+        bean.decodeAll();
+        assertEquals( Integer.valueOf( 9 ), bean.count );
+    }
+
+    @Test
+    public void testLazyResultSet()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( COLUMNS, TYPES, new Object[] { 1L, 2, 0.5, true, 3 } ) );
+        ResultSetRecordProcessor<PrimitiveBean> processor = new ResultSetRecordProcessor<PrimitiveBean>( PrimitiveBean.class );
+
+        assertTrue( processor.decodeLazily( rs ).next() );
+        PrimitiveBean bean = processor.convertResultSetRow( rs );
+        assertEquals( 1L, bean.id );
+        assertEquals( 0, bean.count );
+        assertEquals( 2, bean.readValue( "count" ) );
+        assertEquals( 2, bean.count );
+    }
+
+    @Test
+    public void testSerializeLazyBean()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( new String[] { "id", "name", "count" },
+            new int[] { Types.BIGINT, Types.VARCHAR, Types.INTEGER }, new Object[] { 1L, "Alice", 3 } ) );
+        ResultSetRecordProcessor<LazyBean> processor = new ResultSetRecordProcessor<LazyBean>( LazyBean.class );
+
+        assertTrue( rs.next() );
+        LazyBean bean = processor.convertResultSetRow( rs );
+        assertNull( bean.name );
+
+        // Decoded before it is written, so nothing is lost.
+        LazyBean copy = (LazyBean) deserialize( serialize( bean ) );
+        assertEquals( "Alice", copy.name );
+        assertEquals( Integer.valueOf( 3 ), copy.count );
+    }
+
+    @Test
+    public void testSerializePartialBean()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( new String[] { "id", "name" }, new int[] { Types.BIGINT, Types.VARCHAR },
+            new Object[] { 1L, "Alice" } ) );
+        ResultSetRecordProcessor<LazyBean> processor = new ResultSetRecordProcessor<LazyBean>( LazyBean.class );
+
+        assertTrue( processor.mapPartially( rs ).next() );
+        LazyBean bean = processor.convertResultSetRow( rs );
+        assertFalse( bean.isLoaded( "count" ) );
+        try
+        {
+            serialize( bean );
+            fail( "A partial bean must not be serialized." );
+        }
+        catch ( NotSerializableException ex )
+        {
+            // expected
+        }
+
+        // Fine once the missing field has been set.
+        bean.writeValue( "count", 4 );
+        assertEquals( Integer.valueOf( 4 ), ( (LazyBean) deserialize( serialize( bean ) ) ).count );
+    }
+
+    private static byte[] serialize( Object object )
+        throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream( bytes );
+        out.writeObject( object );
+        out.close();
+
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize( byte[] bytes )
+        throws Exception
+    {
+        return new ObjectInputStream( new ByteArrayInputStream( bytes ) ).readObject();
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    public static class PrimitiveBean extends FauxjoImpl
+    {
+        @FauxjoPrimaryKey
+        @FauxjoField( "id" )
+        protected long id;
+
+        @FauxjoField( "count" )
+        private int count;
+
+        @FauxjoField( "ratio" )
+        private double ratio;
+
+        @FauxjoField( "active" )
+        private boolean active;
+
+        // Widened from an INTEGER column.
+        @FauxjoField( "total" )
+        private long total;
+    }
+
+    public static class ArrayBean extends FauxjoImpl
+    {
+        @FauxjoPrimaryKey
+        @FauxjoField( "id" )
+        private Long id;
+
+        @FauxjoField( "ids" )
+        private long[] ids;
+
+        @FauxjoField( "scores" )
+        private double[] scores;
+
+        @FauxjoField( "tags" )
+        private String[] tags;
+
+        public ArrayBean()
+        {
+        }
+
+        public ArrayBean( Long id, long[] ids, double[] scores, String[] tags )
+        {
+            this.id = id;
+            this.ids = ids;
+            this.scores = scores;
+            this.tags = tags;
+        }
+    }
+
+    public static class ImmutableBean extends FauxjoImpl
+    {
+        @FauxjoPrimaryKey
+        @FauxjoField( "id" )
+        private final long id;
+
+        @FauxjoField( "name" )
+        private final String name;
+
+        // Not passed to the constructor.
+        @FauxjoField( "count" )
+        private int count;
+
+        @FauxjoConstructor( { "id", "name" } )
+        public ImmutableBean( long id, String name )
+        {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    @FauxjoLazy
+    public static class LazyBean extends FauxjoImpl implements Serializable
+    {
+        @FauxjoPrimaryKey
+        @FauxjoField( "id" )
+        private Long id;
+
+        @FauxjoField( "name" )
+        private String name;
+
+        @FauxjoField( "count" )
+        private Integer count;
+
+        public String getName()
+        {
+            decode( "name" );
+            return name;
+        }
+    }
+
+    public static class CountingBean extends PrimitiveBean
+    {
+        private int writes;
+
+        @Override
+        public void writeValue( String key, Object value )
+            throws FauxjoException
+        {
+            writes++;
+            super.writeValue( key, value );
+        }
+    }
+}
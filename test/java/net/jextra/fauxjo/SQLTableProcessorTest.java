@@ -0,0 +1,395 @@
+package net.jextra.fauxjo;
+
+import net.jextra.fauxjo.ResultSetRecordProcessorTest.ArrayBean;
+import net.jextra.fauxjo.coercer.TypeCoercer;
+import net.jextra.fauxjo.connectionsupplier.SimpleConnectionSupplier;
+import net.jextra.fauxjo.metrics.FauxjoMetrics;
+import net.jextra.fauxjo.metrics.OperationSnapshot;
+import net.jextra.fauxjo.metrics.SQLFingerprint;
+import net.jextra.fauxjo.mock.TestCharacter;
+import net.jextra.fauxjo.mock.TestCharacterHome;
+import net.jextra.fauxjo.mock.TestSchema;
+import net.jextra.fauxjo.stub.*;
+import org.junit.*;
+import java.io.StringReader;
+import java.sql.Array;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SQLTableProcessorTest
+{
+    private static final String[] COLUMNS = { "characterid", "name", "email", "datecreated" };
+    private static final int[] TYPES = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP };
+
+    private StubConnection connection;
+    private TestSchema schema;
+    private TestCharacterHome home;
+
+    @Before
+    public void setUp()
+    {
+        connection = new StubConnection();
+        connection.addTable( "character", COLUMNS, TYPES );
+        connection.setRecording( true );
+
+        SimpleConnectionSupplier supplier = new SimpleConnectionSupplier();
+        supplier.setConnection( connection );
+        schema = new TestSchema();
+        schema.setSchemaConnectionSupplier( supplier );
+        home = schema.getHomeByClass( TestCharacterHome.class );
+    }
+
+    @Test
+    public void testInsert()
+        throws Exception
+    {
+        Timestamp created = new Timestamp( 1500000000000L );
+        connection.setGeneratedKeys( StubRows.fromRows( new String[] { "characterid", "datecreated" },
+            new int[] { Types.BIGINT, Types.TIMESTAMP }, new Object[] { 7L, created } ) );
+
+        TestCharacter character = new TestCharacter( "Bob", "bob@example.com" );
+        assertTrue( home.insert( character ) );
+        assertEquals( Long.valueOf( 7 ), character.getId() );
+        assertEquals( created.getTime(), character.getDateCreated().getTime() );
+
+        StubPreparedStatement statement = connection.getStatements().get( 0 );
+        assertTrue( statement.getSQL().startsWith( "insert into test.character (" ) );
+        assertTrue( statement.isReturnGeneratedKeys() );
+        assertEquals( 1, statement.getExecuteCount() );
+        assertEquals( 2, statement.getParameterCount() );
+        assertTrue( Arrays.asList( statement.getParameters() ).containsAll( Arrays.asList( "Bob", "bob@example.com" ) ) );
+    }
+
+    @Test
+    public void testQuery()
+        throws Exception
+    {
+        Timestamp created = new Timestamp( 1500000000000L );
+        connection.setDefaultQueryResult( StubRows.fromRows( COLUMNS, TYPES, new Object[] { 3L, "Alice", "alice@example.com", created } ) );
+
+        TestCharacter character = home.findById( 3L );
+        assertEquals( Long.valueOf( 3 ), character.getId() );
+        assertEquals( "Alice", character.getName() );
+        assertEquals( "alice@example.com", character.getEmail() );
+
+        StubPreparedStatement statement = connection.getStatements().get( 0 );
+        assertEquals( 3L, statement.getParameter( 1 ) );
+        assertEquals( Types.BIGINT, statement.getParameterType( 1 ) );
+    }
+
+    @Test
+    public void testUpdate()
+        throws Exception
+    {
+        connection.setDefaultQueryResult( StubRows.fromRows( COLUMNS, TYPES, new Object[] { 3L, "Alice", "alice@example.com", null } ) );
+        TestCharacter character = home.findById( 3L );
+        character.setName( "Alicia" );
+
+        assertEquals( 1, home.update( character ) );
+
+        StubPreparedStatement statement = connection.getStatements().get( 1 );
+        assertTrue( statement.getSQL().startsWith( "update test.character set " ) );
+        assertTrue( statement.getSQL().endsWith( " where characterid=?" ) );
+        Object[] parameters = statement.getExecutions().get( 0 );
+        assertEquals( 4, parameters.length );
+        assertEquals( 3L, parameters[3] );
+        assertTrue( Arrays.asList( parameters ).contains( "Alicia" ) );
+    }
+
+    @Test
+    public void testSQLMetrics()
+        throws Exception
+    {
+        connection.setDefaultQueryResult( StubRows.fromRows( COLUMNS, TYPES, new Object[] { 3L, "Alice", "alice@example.com", null } ) );
+        FauxjoMetrics metrics = FauxjoMetrics.getInstance();
+        metrics.reset();
+        metrics.setEnabled( true );
+        try
+        {
+            TestCharacter character = home.findById( 3L );
+            character.setName( "Alicia" );
+            home.update( character );
+            home.findById( 4L );
+        }
+        finally
+        {
+            metrics.setEnabled( false );
+        }
+
+        // Queries are recorded as well as updates.
+        Map<String, OperationSnapshot> snapshots = metrics.getSQLSnapshots();
+        String select = SQLFingerprint.get( connection.getStatements().get( 0 ).getSQL() );
+        String update = SQLFingerprint.get( connection.getStatements().get( 1 ).getSQL() );
+        assertEquals( 2, snapshots.get( select ).getCount() );
+        assertEquals( 1, snapshots.get( update ).getCount() );
+        assertEquals( 0, snapshots.get( update ).getErrorCount() );
+    }
+
+    @Test
+    public void testBasicSelectColumns()
+        throws Exception
+    {
+        connection.addTable( "character", new String[] { "characterid", "name", "email", "datecreated", "notes" },
+            new int[] { Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.VARCHAR } );
+
+        assertEquals( "select characterid,name,email,datecreated from test.character where characterId = ?",
+            home.buildBasicSelect( "where characterId = ?" ) );
+    }
+
+    @Test
+    public void testBasicSelectWithoutMetadata()
+        throws Exception
+    {
+        final int[] metaDataCalls = new int[1];
+        StubConnection missingTable = new StubConnection()
+        {
+            @Override
+            public DatabaseMetaData getMetaData()
+                throws SQLException
+            {
+                metaDataCalls[0]++;
+                return super.getMetaData();
+            }
+        };
+        schema.getMetadataCatalog().refresh( missingTable, TestSchema.SCHEMA_NAME );
+        SimpleConnectionSupplier supplier = new SimpleConnectionSupplier();
+        supplier.setConnection( missingTable );
+        schema.setSchemaConnectionSupplier( supplier );
+
+        final List<String> warnings = new ArrayList<String>();
+        Handler handler = new Handler()
+        {
+            @Override
+            public void publish( LogRecord record )
+            {
+                if ( record.getLevel() == Level.WARNING )
+                {
+                    warnings.add( record.getMessage() );
+                }
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+        Logger logger = Logger.getLogger( SQLTableProcessor.class.getName() );
+        boolean useParentHandlers = logger.getUseParentHandlers();
+        logger.setUseParentHandlers( false );
+        logger.addHandler( handler );
+        try
+        {
+            assertEquals( "select * from test.character ", home.buildBasicSelect( null ) );
+            int calls = metaDataCalls[0];
+            assertEquals( "select * from test.character ", home.buildBasicSelect( null ) );
+
+            // Not looked up again, and only reported once.
+            assertEquals( calls, metaDataCalls[0] );
+            assertEquals( 1, warnings.size() );
+        }
+        finally
+        {
+            logger.removeHandler( handler );
+            logger.setUseParentHandlers( useParentHandlers );
+        }
+
+        // Until the metadata loads.
+        missingTable.addTable( "character", COLUMNS, TYPES );
+        schema.warmUp();
+        String select = home.buildBasicSelect( null );
+        assertFalse( select, select.contains( "*" ) );
+        assertTrue( select, select.contains( "datecreated" ) );
+    }
+
+    @Test
+    public void testExcludeLargeColumns()
+        throws Exception
+    {
+        connection.addTable( "character", COLUMNS, new int[] { Types.BIGINT, Types.VARCHAR, Types.CLOB, Types.TIMESTAMP } );
+        schema.setExcludeLargeColumns( true );
+
+        assertEquals( "select characterid,name,datecreated from test.character where characterId = ?",
+            home.buildBasicSelect( "where characterId = ?" ) );
+
+        connection.setDefaultQueryResult( StubRows.fromRows( new String[] { "characterid", "name", "datecreated" },
+            new int[] { Types.BIGINT, Types.VARCHAR, Types.TIMESTAMP }, new Object[] { 3L, "Alice", null } ) );
+        TestCharacter character = home.findById( 3L );
+        assertFalse( character.isLoaded( "email" ) );
+
+        home.update( character );
+        assertEquals( "update test.character set name=?,datecreated=? where characterid=?",
+            connection.getStatements().get( 1 ).getSQL() );
+    }
+
+    @Test
+    public void testPartialUpdate()
+        throws Exception
+    {
+        String sql = home.buildProjectedSelect( "where characterId = ?", "CharacterId", "name" );
+        assertEquals( "select characterid,name from test.character where characterId = ?", sql );
+
+        connection.setDefaultQueryResult( StubRows.fromRows( new String[] { "characterid", "name" },
+            new int[] { Types.BIGINT, Types.VARCHAR }, new Object[] { 3L, "Alice" } ) );
+        TestCharacter character = home.getUnique( home.partial( home.prepareStatement( sql ).executeQuery() ) );
+        assertEquals( "Alice", character.getName() );
+        assertTrue( character.isLoaded( "name" ) );
+        assertFalse( character.isLoaded( "email" ) );
+
+        character.setName( "Alicia" );
+        assertEquals( 1, home.update( character ) );
+
+        StubPreparedStatement statement = connection.getStatements().get( 1 );
+        assertEquals( "update test.character set name=? where characterid=?", statement.getSQL() );
+        assertArrayEquals( new Object[] { "Alicia", 3L }, statement.getExecutions().get( 0 ) );
+
+        // A field set after the query is updated from then on once marked loaded.
+        character.setEmail( "alicia@example.com" );
+        character.markLoaded( "email" );
+        assertTrue( character.isLoaded( "email" ) );
+        home.update( character );
+        assertEquals( "update test.character set name=?,email=? where characterid=?", connection.getStatements().get( 2 ).getSQL() );
+    }
+
+    @Test( expected = FauxjoException.class )
+    public void testPartialWithoutPrimaryKey()
+        throws Exception
+    {
+        connection.setDefaultQueryResult( StubRows.fromRows( new String[] { "name" }, new int[] { Types.VARCHAR }, new Object[] { "Alice" } ) );
+        TestCharacter character = home.getUnique( home.partial( home.prepareStatement( home.buildProjectedSelect( null, "name" ) )
+            .executeQuery() ) );
+
+        home.update( character );
+    }
+
+    @Test
+    public void testWarmUp()
+        throws Exception
+    {
+        schema.warmUp();
+
+        assertEquals( 2, connection.getStatements().size() );
+        assertTrue( connection.getStatements().get( 0 ).getSQL().startsWith( "update test.character set " ) );
+        assertEquals( "delete from test.character where characterid=?", connection.getStatements().get( 1 ).getSQL() );
+
+        // The first update uses the statement prepared by the warm up.
+        TestCharacter character = new TestCharacter( "Bob", "bob@example.com" );
+        character.writeValue( "characterid", 5L );
+        home.update( character );
+        assertEquals( 2, connection.getStatements().size() );
+        assertEquals( 1, connection.getStatements().get( 0 ).getExecuteCount() );
+    }
+
+    @Test
+    public void testParallelWarmUp()
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( 2 );
+        try
+        {
+            schema.warmUp( executor );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        assertEquals( 2, connection.getStatements().size() );
+        assertEquals( "delete from test.character where characterid=?", connection.getStatements().get( 1 ).getSQL() );
+    }
+
+    @Test
+    public void testArrayParameters()
+        throws Exception
+    {
+        connection.addTable( "scores", new String[] { "id", "ids", "scores", "tags" },
+            new int[] { Types.BIGINT, Types.ARRAY, Types.ARRAY, Types.ARRAY }, new String[] { "int8", "_int8", "_float8", "_varchar" } );
+        SQLTableProcessor<ArrayBean> processor = new SQLTableProcessor<ArrayBean>( schema, "scores", ArrayBean.class );
+
+        ArrayBean bean = new ArrayBean( 1L, new long[] { 2L, 3L }, new double[] { 0.5 }, new String[] { "a" } );
+        StubPreparedStatement statement = (StubPreparedStatement) processor.getInsertStatement( bean );
+        processor.setInsertValues( statement, bean );
+
+        Array ids = (Array) statement.getParameter( 2 );
+        assertEquals( "int8", ids.getBaseTypeName() );
+        assertArrayEquals( new Object[] { 2L, 3L }, (Object[]) ids.getArray() );
+        assertEquals( "float8", ( (Array) statement.getParameter( 3 ) ).getBaseTypeName() );
+        assertEquals( "varchar", ( (Array) statement.getParameter( 4 ) ).getBaseTypeName() );
+    }
+
+    @Test
+    public void testSchemaCoercer()
+        throws Exception
+    {
+        schema.getCoercer().addTypeCoercer( CharSequence.class, new TypeCoercer<CharSequence>()
+        {
+            @Override
+            public Object coerce( CharSequence value, Class<?> destClass )
+            {
+                return value.toString();
+            }
+        } );
+        connection.setDefaultQueryResult(
+            StubRows.fromRows( COLUMNS, TYPES, new Object[] { 3L, new StringBuilder( "Alice" ), "alice@example.com", null } ) );
+
+        assertEquals( "Alice", home.findById( 3L ).getName() );
+
+        // Only the Homes of the schema see it.
+        assertTrue( Coercer.getDefault().coerce( new StringBuilder( "Alice" ), String.class ) instanceof StringBuilder );
+    }
+
+    @Test
+    public void testMetadataSnapshot()
+        throws Exception
+    {
+        // A snapshot from before the email column was added.
+        schema.setMetadataCatalog( MetadataCatalog.read( new StringReader(
+            "fauxjo-metadata-snapshot\t1\ntable\tcharacter\ncolumn\tcharacterid\t-5\ncolumn\tname\t12\n" ) ) );
+
+        TestCharacter character = new TestCharacter( "Bob", "bob@example.com" );
+        character.writeValue( "characterid", 5L );
+        home.update( character );
+        assertEquals( "update test.character set name=? where characterid=?", connection.getStatements().get( 0 ).getSQL() );
+
+        // Warming up checks the snapshot against the database.
+        schema.warmUp();
+        home.update( character );
+        StubPreparedStatement statement = connection.getStatements().get( 1 );
+        assertTrue( statement.getSQL().contains( "email=?" ) );
+        assertEquals( 1, statement.getExecuteCount() );
+        assertEquals( 4, schema.getMetadataCatalog().getColumnInfos( "character" ).size() );
+    }
+
+    @Test
+    public void testTableMissingFromCatalog()
+        throws Exception
+    {
+        // Catalog loaded before the table was created.
+        schema.getMetadataCatalog().refresh( new StubConnection(), TestSchema.SCHEMA_NAME );
+
+        connection.setDefaultQueryResult( StubRows.fromRows( COLUMNS, TYPES, new Object[] { 3L, "Alice", "alice@example.com", null } ) );
+        TestCharacter character = home.findById( 3L );
+        assertEquals( 1, home.update( character ) );
+        assertEquals( 4, schema.getMetadataCatalog().getColumnInfos( "character" ).size() );
+    }
+}
@@ -0,0 +1,240 @@
+package net.jextra.fauxjo;
+
+import net.jextra.fauxjo.connectionsupplier.ConnectionSupplier;
+import net.jextra.fauxjo.connectionsupplier.SimpleConnectionSupplier;
+import net.jextra.fauxjo.mock.TestCharacter;
+import net.jextra.fauxjo.stub.StubConnection;
+import net.jextra.fauxjo.stub.StubPreparedStatement;
+import net.jextra.fauxjo.stub.StubRows;
+import org.junit.Test;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShardedSchemaTest
+{
+    private static final int NUM_KEYS = 10000;
+    private static final String[] COLUMNS = { "characterid", "name", "email", "datecreated" };
+    private static final int[] TYPES = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP };
+
+    @Test
+    public void testRoutingIsStable()
+        throws FauxjoException
+    {
+        ShardedSchema schema1 = new ShardedSchema( "test", createSuppliers( 4 ) );
+        ShardedSchema schema2 = new ShardedSchema( "test", createSuppliers( 4 ) );
+
+        for ( long key = 0; key < NUM_KEYS; key++ )
+        {
+            assertEquals( schema1.getShardIndexFor( key ), schema2.getShardIndexFor( key ) );
+        }
+    }
+
+    @Test
+    public void testKeysAreSpreadAcrossShards()
+        throws FauxjoException
+    {
+        ShardedSchema schema = new ShardedSchema( "test", createSuppliers( 4 ) );
+
+        int[] counts = new int[4];
+        for ( long key = 0; key < NUM_KEYS; key++ )
+        {
+            counts[schema.getShardIndexFor( key )]++;
+        }
+
+        for ( int count : counts )
+        {
+            assertTrue( "uneven shard " + count, count > NUM_KEYS / 8 && count < NUM_KEYS / 2 );
+        }
+    }
+
+    @Test
+    public void testAddingShardMovesFewKeys()
+        throws FauxjoException
+    {
+        ShardedSchema before = new ShardedSchema( "test", createSuppliers( 4 ) );
+        ShardedSchema after = new ShardedSchema( "test", createSuppliers( 5 ) );
+
+        int moved = 0;
+        for ( long key = 0; key < NUM_KEYS; key++ )
+        {
+            int newIndex = after.getShardIndexFor( key );
+            if ( before.getShardIndexFor( key ) != newIndex )
+            {
+                // Keys may only move to the new shard.
+                assertEquals( 4, newIndex );
+                moved++;
+            }
+        }
+
+        assertTrue( "too many keys moved " + moved, moved < NUM_KEYS / 3 );
+    }
+
+    @Test
+    public void testShardsShareSchemaName()
+    {
+        ShardedSchema schema = new ShardedSchema( "test", createSuppliers( 2 ) );
+        schema.setSchemaName( "other" );
+
+        for ( Schema shard : schema.getShards() )
+        {
+            assertEquals( "other.character", shard.getQualifiedName( "character" ) );
+        }
+    }
+
+    @Test( expected = FauxjoException.class )
+    public void testNullShardKey()
+        throws FauxjoException
+    {
+        new ShardedSchema( "test", createSuppliers( 2 ) ).getShardFor( null );
+    }
+
+    @Test
+    public void testCanonicalKeys()
+        throws Exception
+    {
+        ShardedSchema schema = new ShardedSchema( "test", createSuppliers( 16 ) );
+        for ( int key = 0; key < 100; key++ )
+        {
+            int index = schema.getShardIndexFor( key );
+            assertEquals( index, schema.getShardIndexFor( (long) key ) );
+            assertEquals( index, schema.getShardIndexFor( String.valueOf( key ) ) );
+            assertEquals( index, schema.getShardIndexFor( new BigDecimal( key + ".00" ) ) );
+            assertEquals( index, schema.getShardIndexFor( (double) key ) );
+        }
+        assertEquals( schema.getShardIndexFor( new BigDecimal( "1.5" ) ), schema.getShardIndexFor( new BigDecimal( "1.50" ) ) );
+
+        // The instant, whatever the JVM's time zone.
+        long millis = 1700000000123L;
+        TimeZone timeZone = TimeZone.getDefault();
+        try
+        {
+            TimeZone.setDefault( TimeZone.getTimeZone( "UTC" ) );
+            int index = schema.getShardIndexFor( new Timestamp( millis ) );
+            TimeZone.setDefault( TimeZone.getTimeZone( "Pacific/Auckland" ) );
+            assertEquals( index, schema.getShardIndexFor( new Timestamp( millis ) ) );
+            assertEquals( index, schema.getShardIndexFor( new java.util.Date( millis ) ) );
+        }
+        finally
+        {
+            TimeZone.setDefault( timeZone );
+        }
+    }
+
+    @Test( expected = FauxjoException.class )
+    public void testUnsupportedShardKey()
+        throws FauxjoException
+    {
+        new ShardedSchema( "test", createSuppliers( 2 ) ).getShardFor( new Object() );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testShardKeyNotAField()
+    {
+        new ShardedHome<TestCharacter>( new ShardedSchema( "test", createSuppliers( 2 ) ), TestCharacter.class, "character", "nope" );
+    }
+
+    @Test
+    public void testGetByPrimaryKeysOnOwningShards()
+        throws Exception
+    {
+        final List<String> threads = Collections.synchronizedList( new ArrayList<String>() );
+        List<StubConnection> connections = new ArrayList<StubConnection>();
+        List<ConnectionSupplier> suppliers = new ArrayList<ConnectionSupplier>();
+        for ( int i = 0; i < 3; i++ )
+        {
+            StubConnection connection = new StubConnection()
+            {
+                @Override
+                public PreparedStatement prepareStatement( String sql )
+                    throws SQLException
+                {
+                    threads.add( Thread.currentThread().getName() );
+                    return super.prepareStatement( sql );
+                }
+            };
+            connection.addTable( "character", COLUMNS, TYPES );
+            connection.setRecording( true );
+            connection.setDefaultQueryResult( StubRows.fromRows( COLUMNS, TYPES, new Object[] { (long) i, "shard" + i, null, null } ) );
+            connections.add( connection );
+            suppliers.add( new SimpleConnectionSupplier( connection ) );
+        }
+        ShardedSchema schema = new ShardedSchema( "test", suppliers );
+        ShardedHome<TestCharacter> home = new ShardedHome<TestCharacter>( schema, TestCharacter.class, "character", "characterId" );
+
+        // A key on each shard, given in reverse shard order.
+        List<Long> keys = new ArrayList<Long>();
+        for ( int index = 2; index >= 0; index-- )
+        {
+            long key = 0;
+            while ( schema.getShardIndexFor( key ) != index )
+            {
+                key++;
+            }
+            keys.add( key );
+        }
+
+        try
+        {
+            List<TestCharacter> characters = home.getByPrimaryKeys( keys );
+
+            // Merged in shard order, each shard asked only for its own key, on the worker threads.
+            assertEquals( 3, characters.size() );
+            for ( int index = 0; index < 3; index++ )
+            {
+                assertEquals( "shard" + index, characters.get( index ).getName() );
+                List<StubPreparedStatement> statements = connections.get( index ).getStatements();
+                Object[] parameters = statements.get( statements.size() - 1 ).getExecutions().get( 0 );
+                assertArrayEquals( new Object[] { keys.get( 2 - index ) }, parameters );
+            }
+            for ( String thread : threads )
+            {
+                assertTrue( thread, thread.startsWith( "fauxjo-shard" ) );
+            }
+        }
+        finally
+        {
+            schema.shutdown();
+        }
+    }
+
+    private List<ConnectionSupplier> createSuppliers( int count )
+    {
+        List<ConnectionSupplier> suppliers = new ArrayList<ConnectionSupplier>();
+        for ( int i = 0; i < count; i++ )
+        {
+            suppliers.add( new ConnectionSupplier()
+            {
+                @Override
+                public Connection getConnection()
+                {
+                    return null;
+                }
+
+                @Override
+                public boolean closeConnection()
+                {
+                    return false;
+                }
+
+                @Override
+                public PreparedStatement prepareStatement( String sql )
+                {
+                    return null;
+                }
+            } );
+        }
+
+        return suppliers;
+    }
+}
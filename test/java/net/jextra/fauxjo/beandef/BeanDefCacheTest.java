@@ -0,0 +1,164 @@
+package net.jextra.fauxjo.beandef;
+
+import net.jextra.fauxjo.Fauxjo;
+import net.jextra.fauxjo.FauxjoException;
+import net.jextra.fauxjo.FauxjoGetter;
+import net.jextra.fauxjo.FauxjoPrimaryKey;
+import net.jextra.fauxjo.FauxjoSetter;
+import net.jextra.fauxjo.mock.TestCharacter;
+import org.junit.Test;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BeanDefCacheTest
+{
+    @Test
+    public void testFieldAnnotations()
+        throws Exception
+    {
+        BeanDefCache.register( TestCharacter.class );
+        BeanDef beanDef = BeanDefCache.getBeanDef( TestCharacter.class );
+
+        assertSame( beanDef, BeanDefCache.getBeanDef( TestCharacter.class ) );
+        assertNotNull( beanDef.getField( "characterId" ) );
+        assertNull( beanDef.getField( "unknown" ) );
+        assertEquals( 1, beanDef.getPrimaryKeyDefs().size() );
+        assertEquals( 4, beanDef.getFieldDefs().size() );
+    }
+
+    @Test
+    public void testMethodAnnotations()
+        throws Exception
+    {
+        BeanDef beanDef = BeanDefCache.getBeanDef( MethodBean.class );
+
+        assertNotNull( beanDef.getReadMethod( "code" ) );
+        assertNotNull( beanDef.getWriteMethod( "code" ) );
+        assertTrue( beanDef.getFieldDef( "code" ).isPrimaryKey() );
+        assertEquals( String.class, beanDef.getFieldDef( "code" ).getValueClass() );
+
+        MethodBean bean = new MethodBean();
+        bean.writeValue( "code", "abc" );
+        assertEquals( "abc", bean.readValue( "code" ) );
+        assertEquals( Arrays.<Object> asList( "abc" ), BeanDefCache.getPrimaryKeyValues( bean ) );
+    }
+
+    @Test
+    public void testComputedOnce()
+        throws Exception
+    {
+        final AtomicInteger computeCount = new AtomicInteger();
+        final ClassCache<String> cache = new ClassCache<String>()
+        {
+            @Override
+            protected String computeValue( Class<?> type )
+                throws FauxjoException
+            {
+                computeCount.incrementAndGet();
+                return type.getName();
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool( 8 );
+        try
+        {
+            Future<?>[] futures = new Future<?>[8];
+            for ( int i = 0; i < futures.length; i++ )
+            {
+                futures[i] = executor.submit( new Callable<Void>()
+                {
+                    @Override
+                    public Void call()
+                        throws Exception
+                    {
+                        for ( int j = 0; j < 1000; j++ )
+                        {
+                            assertEquals( String.class.getName(), cache.get( String.class ) );
+                            assertEquals( Integer.class.getName(), cache.get( Integer.class ) );
+                        }
+                        return null;
+                    }
+                } );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        assertEquals( 2, computeCount.get() );
+        assertEquals( 2, cache.size() );
+
+        cache.remove( String.class );
+        assertEquals( 1, cache.size() );
+        cache.clear();
+        assertEquals( 0, cache.size() );
+    }
+
+    @Test
+    public void testResize()
+        throws Exception
+    {
+        ClassCache<String> cache = new ClassCache<String>()
+        {
+            @Override
+            protected String computeValue( Class<?> type )
+                throws FauxjoException
+            {
+                return type.getName();
+            }
+        };
+
+        Class<?>[] classes = { String.class, Integer.class, Long.class, Double.class, Float.class, Short.class, Byte.class,
+            Character.class, Boolean.class, Object.class, Number.class, Thread.class, Runnable.class, Class.class };
+        for ( int round = 0; round < 8; round++ )
+        {
+            for ( Class<?> type : classes )
+            {
+                cache.get( type );
+                cache.get( java.lang.reflect.Array.newInstance( type, 0 ).getClass() );
+                cache.get( java.lang.reflect.Array.newInstance( type, 0, 0 ).getClass() );
+                cache.get( java.lang.reflect.Array.newInstance( type, 0, 0, 0 ).getClass() );
+                cache.get( java.lang.reflect.Array.newInstance( type, 0, 0, 0, 0 ).getClass() );
+                cache.get( java.lang.reflect.Array.newInstance( type, 0, 0, 0, 0, 0 ).getClass() );
+            }
+        }
+
+        assertEquals( classes.length * 6, cache.size() );
+        for ( Class<?> type : classes )
+        {
+            assertEquals( type.getName(), cache.get( type ) );
+        }
+    }
+
+    public static class MethodBean extends Fauxjo
+    {
+        private String value;
+
+        @FauxjoPrimaryKey
+        @FauxjoGetter( "code" )
+        public String getValue()
+        {
+            return value;
+        }
+
+        @FauxjoSetter( "code" )
+        public void setValue( String value )
+        {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package net.jextra.fauxjo.coercer;
+
+import net.jextra.fauxjo.FauxjoException;
+import org.junit.Test;
+import java.math.BigDecimal;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+
+public class ArrayCoercerTest
+{
+    @Test
+    public void testNarrowing()
+        throws FauxjoException
+    {
+        ArrayCoercer coercer = new ArrayCoercer();
+
+        assertArrayEquals( new int[] { 1, Integer.MIN_VALUE, Integer.MAX_VALUE },
+            (int[]) coercer.coerce( new Long[] { 1L, (long) Integer.MIN_VALUE, (long) Integer.MAX_VALUE }, int[].class ) );
+        assertArrayEquals( new long[] { 2, 3 }, (long[]) coercer.coerce( new Object[] { new BigDecimal( "2.00" ), 3.0 }, long[].class ) );
+        assertArrayEquals( new short[] { -5 }, (short[]) coercer.coerce( new Integer[] { -5 }, short[].class ) );
+        assertArrayEquals( new float[] { 1.5f }, (float[]) coercer.coerce( new Double[] { 1.5 }, float[].class ), 0f );
+    }
+
+    @Test
+    public void testOutOfRange()
+    {
+        assertFails( new Long[] { 1L, Integer.MAX_VALUE + 1L }, int[].class );
+        assertFails( new Integer[] { 128 }, byte[].class );
+        assertFails( new Integer[] { Short.MIN_VALUE - 1 }, short[].class );
+        assertFails( new Double[] { 1.5 }, long[].class );
+        assertFails( new Object[] { new BigDecimal( "1e30" ) }, long[].class );
+        assertFails( new Double[] { Double.NaN }, int[].class );
+        assertFails( new Double[] { 1e300 }, float[].class );
+    }
+
+    private void assertFails( Object[] value, Class<?> destClass )
+    {
+        try
+        {
+            new ArrayCoercer().coerce( value, destClass );
+            fail( "Expected " + value[value.length - 1] + " not to fit " + destClass.getSimpleName() );
+        }
+        catch ( FauxjoException ex )
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package net.jextra.fauxjo.columnar;
+
+import net.jextra.fauxjo.Coercer;
+import net.jextra.fauxjo.FauxjoException;
+import net.jextra.fauxjo.FauxjoField;
+import net.jextra.fauxjo.FauxjoImpl;
+import net.jextra.fauxjo.FauxjoPrimaryKey;
+import net.jextra.fauxjo.beandef.BeanDefCache;
+import net.jextra.fauxjo.stub.StubResultSet;
+import net.jextra.fauxjo.stub.StubRows;
+import org.junit.Test;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnBatchTest
+{
+    private static final String[] COLUMNS = { "id", "count", "ratio", "state", "active", "notes" };
+    private static final int[] TYPES = { Types.BIGINT, Types.INTEGER, Types.DOUBLE, Types.VARCHAR, Types.BOOLEAN, Types.VARCHAR };
+
+    @Test
+    public void testRead()
+        throws Exception
+    {
+        // More rows than the initial capacity, so the vectors and null bitmaps grow.
+        Object[][] rows = new Object[100][];
+        for ( int i = 0; i < rows.length; i++ )
+        {
+            rows[i] = new Object[] { (long) i, i % 10 == 0 ? null : i, i * 0.5, i % 2 == 0 ? "open" : "closed", i % 3 == 0, "x" };
+        }
+        ResultSet rs = new StubResultSet( StubRows.fromRows( COLUMNS, TYPES, rows ) );
+
+        ColumnBatch batch = ColumnBatch.read( rs, Integer.MAX_VALUE, BeanDefCache.getFieldDefs( ReportBean.class ), new Coercer() );
+        assertEquals( 100, batch.size() );
+        assertEquals( Arrays.asList( "id", "count", "ratio", "state", "active" ), Arrays.asList( batch.getKeys().toArray() ) );
+
+        LongColumn ids = batch.getLongColumn( "ID" );
+        assertEquals( 100, ids.getValues().length );
+        assertEquals( 4950L, ids.sum() );
+        assertEquals( 99L, ids.get( 99 ) );
+
+        IntColumn counts = batch.getIntColumn( "count" );
+        assertEquals( 10, counts.getNullCount() );
+        assertTrue( counts.isNull( 90 ) );
+        assertFalse( counts.isNull( 91 ) );
+        assertNull( counts.getObject( 90 ) );
+        assertEquals( 91, counts.get( 91 ) );
+
+        assertEquals( 2475.0, batch.getDoubleColumn( "ratio" ).sum(), 0.0 );
+
+        StringColumn states = batch.getStringColumn( "state" );
+        assertEquals( Arrays.asList( "open", "closed" ), states.getDictionary() );
+        assertEquals( 1, states.getCode( 3 ) );
+        assertEquals( "closed", states.get( 3 ) );
+
+        ObjectColumn active = batch.getObjectColumn( "active" );
+        assertEquals( Boolean.TRUE, active.getObject( 3 ) );
+        assertEquals( Boolean.FALSE, active.getObject( 4 ) );
+    }
+
+    @Test
+    public void testMaxNumRows()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( COLUMNS, TYPES, new Object[] { 1L, null, null, null, null, null },
+            new Object[] { 2L, 2, 1.5, "open", true, null } ) );
+
+        ColumnBatch batch = ColumnBatch.read( rs, 1, BeanDefCache.getFieldDefs( ReportBean.class ), new Coercer() );
+        assertEquals( 1, batch.size() );
+        assertEquals( -1, batch.getStringColumn( "state" ).getCode( 0 ) );
+        assertTrue( batch.getObjectColumn( "active" ).isNull( 0 ) );
+    }
+
+    @Test( expected = FauxjoException.class )
+    public void testWrongColumnKind()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( COLUMNS, TYPES, new Object[] { 1L, 2, 1.5, "open", true, null } ) );
+
+        ColumnBatch.read( rs, 1, BeanDefCache.getFieldDefs( ReportBean.class ), new Coercer() ).getLongColumn( "ratio" );
+    }
+
+    public static class ReportBean extends FauxjoImpl
+    {
+        @FauxjoPrimaryKey
+        @FauxjoField( "id" )
+        private long id;
+
+        @FauxjoField( "count" )
+        private Integer count;
+
+        @FauxjoField( "ratio" )
+        private double ratio;
+
+        @FauxjoField( "state" )
+        private String state;
+
+        @FauxjoField( "active" )
+        private boolean active;
+    }
+}
@@ -0,0 +1,144 @@
+package net.jextra.fauxjo.connectionsupplier;
+
+import net.jextra.fauxjo.mock.TestCharacter;
+import net.jextra.fauxjo.mock.TestCharacterHome;
+import net.jextra.fauxjo.mock.TestSchema;
+import net.jextra.fauxjo.stub.StubConnection;
+import net.jextra.fauxjo.stub.StubDataSource;
+import net.jextra.fauxjo.stub.StubRows;
+import org.junit.Test;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SimpleConnectionSupplierTest
+{
+    private static final String SQL = "select * from test.character";
+
+    @Test
+    public void testValidationIdleThreshold()
+        throws Exception
+    {
+        StubConnection connection = new StubConnection();
+        SimpleConnectionSupplier supplier = new SimpleConnectionSupplier( connection );
+
+        // Used just now, so not validated.
+        supplier.getConnection();
+        supplier.prepareStatement( SQL );
+        assertEquals( 0, connection.getValidationCount() );
+
+        supplier.setValidationIdleMillis( 20 );
+        supplier.getConnection();
+        assertEquals( 0, connection.getValidationCount() );
+        Thread.sleep( 40 );
+        supplier.getConnection();
+        assertEquals( 1, connection.getValidationCount() );
+
+        // Zero validates on every use.
+        supplier.setValidationIdleMillis( 0 );
+        supplier.getConnection();
+        supplier.prepareStatement( SQL );
+        assertEquals( 3, connection.getValidationCount() );
+    }
+
+    @Test
+    public void testRequestValidation()
+        throws Exception
+    {
+        StubConnection connection = new StubConnection();
+        SimpleConnectionSupplier supplier = new SimpleConnectionSupplier( connection );
+
+        supplier.requestValidation();
+        assertEquals( 0, connection.getValidationCount() );
+        supplier.getConnection();
+        assertEquals( 1, connection.getValidationCount() );
+
+        // Only once.
+        supplier.getConnection();
+        assertEquals( 1, connection.getValidationCount() );
+    }
+
+    @Test
+    public void testReconnect()
+        throws Exception
+    {
+        StubDataSource dataSource = new StubDataSource();
+        SimpleConnectionSupplier supplier = new SimpleConnectionSupplier( dataSource );
+        StubConnection first = dataSource.getConnections().get( 0 );
+        PreparedStatement statement = supplier.prepareStatement( SQL );
+        assertSame( statement, supplier.prepareStatement( SQL ) );
+
+        first.setBroken( true );
+        supplier.requestValidation();
+        Connection connection = supplier.getConnection();
+        assertEquals( 2, dataSource.getConnections().size() );
+        assertSame( dataSource.getConnections().get( 1 ), connection );
+        assertTrue( first.isClosed() );
+
+        // The statement cache is rebuilt on the new connection.
+        assertTrue( statement.isClosed() );
+        PreparedStatement replaced = supplier.prepareStatement( SQL );
+        assertNotSame( statement, replaced );
+        assertSame( dataSource.getConnections().get( 1 ), replaced.getConnection() );
+    }
+
+    @Test
+    public void testPrepareRetry()
+        throws Exception
+    {
+        StubDataSource dataSource = new StubDataSource();
+        SimpleConnectionSupplier supplier = new SimpleConnectionSupplier( dataSource );
+        dataSource.getConnections().get( 0 ).setBroken( true );
+
+        PreparedStatement statement = supplier.prepareStatement( SQL );
+        assertEquals( 2, dataSource.getConnections().size() );
+        assertSame( dataSource.getConnections().get( 1 ), statement.getConnection() );
+    }
+
+    @Test
+    public void testExecuteFailure()
+        throws Exception
+    {
+        StubDataSource dataSource = new StubDataSource()
+        {
+            @Override
+            protected StubConnection createConnection()
+            {
+                StubConnection connection = new StubConnection();
+                connection.addTable( "character", new String[] { "characterid", "name", "email", "datecreated" },
+                    new int[] { Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP } );
+                connection.setGeneratedKeys( StubRows.fromRows( new String[] { "characterid", "datecreated" },
+                    new int[] { Types.BIGINT, Types.TIMESTAMP }, new Object[] { 7L, null } ) );
+
+                return connection;
+            }
+        };
+        TestSchema schema = new TestSchema();
+        schema.setSchemaConnectionSupplier( new SimpleConnectionSupplier( dataSource ) );
+        TestCharacterHome home = schema.getHomeByClass( TestCharacterHome.class );
+        assertTrue( home.insert( new TestCharacter( "Bob", "bob@example.com" ) ) );
+
+        // The cached insert statement fails to execute, and the schema replaces the connection before the failure is thrown.
+        dataSource.getConnections().get( 0 ).setBroken( true );
+        try
+        {
+            home.insert( new TestCharacter( "Sue", "sue@example.com" ) );
+            fail( "The connection is broken." );
+        }
+        catch ( SQLException ex )
+        {
+            assertEquals( "08006", ex.getSQLState() );
+        }
+        assertEquals( 2, dataSource.getConnections().size() );
+
+        assertTrue( home.insert( new TestCharacter( "Sue", "sue@example.com" ) ) );
+        assertFalse( dataSource.getConnections().get( 1 ).getStatements().isEmpty() );
+    }
+}
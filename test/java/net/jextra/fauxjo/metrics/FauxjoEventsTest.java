@@ -0,0 +1,70 @@
+package net.jextra.fauxjo.metrics;
+
+import java.util.*;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FauxjoEventsTest
+{
+    @Test
+    public void testListener()
+        throws Exception
+    {
+        final List<String> events = new ArrayList<String>();
+        FauxjoEventListener listener = new FauxjoEventListener()
+        {
+            @Override
+            public boolean isEnabled( FauxjoEventType type )
+            {
+                return type != FauxjoEventType.ROW_MAP;
+            }
+
+            @Override
+            public Object begin( FauxjoEventType type )
+            {
+                events.add( "begin " + type );
+                return type.name().toLowerCase();
+            }
+
+            @Override
+            public void end( Object handle, FauxjoEventType type, String tableName, String sqlFingerprint, long startNanos,
+                long durationNanos, long rowCount )
+            {
+                assertTrue( durationNanos >= 0 );
+                events.add( "end " + handle + " " + tableName + " " + sqlFingerprint + " " + rowCount );
+            }
+        };
+
+        assertFalse( FauxjoEvents.isEnabled() );
+        assertNull( FauxjoEvents.begin( FauxjoEventType.STATEMENT_EXECUTE ) );
+        FauxjoEvents.addListener( listener );
+        try
+        {
+            assertTrue( FauxjoEvents.isEnabled() );
+            FauxjoEvents.Span span = FauxjoEvents.begin( FauxjoEventType.STATEMENT_EXECUTE );
+            assertNotNull( span );
+            Thread.sleep( 2 );
+            FauxjoEvents.end( span, "character", "DELETE FROM character WHERE id = 5", 1 );
+            FauxjoEvents.emit( FauxjoEventType.STATEMENT_CACHE_HIT, null, "select 1", -1 );
+
+            // Not enabled by the listener, so not even started.
+            assertNull( FauxjoEvents.begin( FauxjoEventType.ROW_MAP ) );
+            FauxjoEvents.end( null, "character", null, 1 );
+        }
+        finally
+        {
+            FauxjoEvents.removeListener( listener );
+        }
+        assertFalse( FauxjoEvents.isEnabled() );
+
+        // Not delivered after the listener is removed.
+        FauxjoEvents.emit( FauxjoEventType.RESULT_FETCH, "character", null, 3 );
+
+        assertEquals( Arrays.asList( "begin STATEMENT_EXECUTE", "end statement_execute character delete from character where id = ? 1",
+            "begin STATEMENT_CACHE_HIT", "end statement_cache_hit null select ? -1" ), events );
+    }
+}
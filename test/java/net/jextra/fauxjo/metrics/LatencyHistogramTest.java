@@ -0,0 +1,61 @@
+package net.jextra.fauxjo.metrics;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void testBucketsCoverTheirValues()
+    {
+        long[] values = { 0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456, 999999999L, 1L << 40 };
+        for ( long value : values )
+        {
+            int index = LatencyHistogram.getBucketIndex( value );
+            assertTrue( "value " + value, LatencyHistogram.getBucketUpperBound( index ) >= value );
+            if ( index > 0 )
+            {
+                assertTrue( "value " + value, LatencyHistogram.getBucketUpperBound( index - 1 ) < value );
+            }
+        }
+    }
+
+    @Test
+    public void testPercentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( long i = 1; i <= 1000; i++ )
+        {
+            histogram.record( i * 1000 );
+        }
+
+        assertEquals( 1000, histogram.getCount() );
+        assertEquals( 1000000, histogram.getMaxNanos() );
+        assertWithin( 500000, histogram.getPercentileNanos( 50 ) );
+        assertWithin( 990000, histogram.getPercentileNanos( 99 ) );
+        assertEquals( 1000000, histogram.getPercentileNanos( 100 ) );
+
+        OperationSnapshot snapshot = histogram.snapshot( 3 );
+        assertEquals( 1000, snapshot.getCount() );
+        assertEquals( 3, snapshot.getErrorCount() );
+        assertEquals( 500500, snapshot.getMeanNanos() );
+    }
+
+    @Test
+    public void testReset()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record( 42 );
+        histogram.reset();
+
+        assertEquals( 0, histogram.getCount() );
+        assertEquals( 0, histogram.getTotalNanos() );
+        assertEquals( 0, histogram.getPercentileNanos( 50 ) );
+    }
+
+    private void assertWithin( long expected, long actual )
+    {
+        assertTrue( "expected about " + expected + " but was " + actual, Math.abs( expected - actual ) <= expected / 16 );
+    }
+}
@@ -0,0 +1,33 @@
+package net.jextra.fauxjo.metrics;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+public class SQLFingerprintTest
+{
+    @Test
+    public void testLiteralsAndWhitespace()
+    {
+        assertEquals( "select * from test.character where name = ? and id > ?",
+            SQLFingerprint.normalize( "SELECT *\n  FROM test.character WHERE name = 'O''Brien' and id > 42" ) );
+    }
+
+    @Test
+    public void testParameterLists()
+    {
+        assertEquals( SQLFingerprint.normalize( "select * from a where id in (?, ?, ?)" ),
+            SQLFingerprint.normalize( "select * from a where id in (1,2)" ) );
+    }
+
+    @Test
+    public void testIdentifiersKeepDigits()
+    {
+        assertEquals( "select col1 from t2 where \"Mixed1\" = ?", SQLFingerprint.normalize( "select col1 from t2 where \"Mixed1\" = 7" ) );
+    }
+
+    @Test
+    public void testComments()
+    {
+        assertEquals( "select a from b", SQLFingerprint.normalize( "select a /* hint */ from b -- trailing" ) );
+    }
+}
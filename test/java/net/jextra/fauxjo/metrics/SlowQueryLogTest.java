@@ -0,0 +1,212 @@
+package net.jextra.fauxjo.metrics;
+
+import net.jextra.fauxjo.stub.StubConnection;
+import net.jextra.fauxjo.stub.StubPreparedStatement;
+import net.jextra.fauxjo.stub.StubResultSet;
+import net.jextra.fauxjo.stub.StubRows;
+import org.junit.Test;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SlowQueryLogTest
+{
+    private static final String SQL = "SELECT * FROM character WHERE name = ? AND id > ?";
+
+    @Test
+    public void testThreshold()
+        throws Exception
+    {
+        RecordingLog log = new RecordingLog( 60000 );
+        PreparedStatement statement = log.wrap( new StubPreparedStatement( new StubConnection(), SQL, false ), SQL, "character" );
+        statement.executeUpdate();
+        assertTrue( log.entries.isEmpty() );
+
+        log.setThresholdMillis( 0 );
+        statement.setString( 1, "Bob" );
+        statement.executeUpdate();
+        assertEquals( 1, log.entries.size() );
+        assertEquals( "character select * from character where name = ? and id > ? [Bob] rows=1 fetch=0", log.entries.get( 0 ) );
+    }
+
+    @Test
+    public void testRowsAndFetchTime()
+        throws Exception
+    {
+        RecordingLog log = new RecordingLog( 0 );
+        PreparedStatement statement = log.wrap( new SlowStatement( 3 ), SQL, null );
+
+        // Reported once the rows run out, not again on close.
+        ResultSet rs = statement.executeQuery();
+        while ( rs.next() )
+        {
+            assertTrue( log.entries.isEmpty() );
+        }
+        rs.close();
+
+        assertEquals( 1, log.entries.size() );
+        assertTrue( log.entries.get( 0 ).contains( " rows=3 " ) );
+        assertTrue( log.fetchNanos >= TimeUnit.MILLISECONDS.toNanos( 15 ) );
+        assertTrue( log.executeNanos < log.fetchNanos );
+
+        // A ResultSet closed early reports the rows read so far.
+        rs = statement.executeQuery();
+        rs.next();
+        rs.close();
+        assertEquals( 2, log.entries.size() );
+        assertTrue( log.entries.get( 1 ).contains( " rows=1 " ) );
+    }
+
+    @Test
+    public void testParameters()
+        throws Exception
+    {
+        List<String> messages = logMessages( new SlowQueryLog( 0 ) );
+        assertEquals( 1, messages.size() );
+        assertTrue( messages.get( 0 ), messages.get( 0 ).contains( " from character: select * from character where name = ? and id > ?" ) );
+
+        String longValue = messages.get( 0 ).substring( messages.get( 0 ).indexOf( '[' ) );
+        assertTrue( longValue, longValue.startsWith( "['bob@example.com', 5, null, 'xxxxx" ) );
+        assertTrue( longValue, longValue.endsWith( "x...]" ) );
+    }
+
+    @Test
+    public void testRedactParameters()
+        throws Exception
+    {
+        SlowQueryLog log = new SlowQueryLog( 0 );
+        log.setRedactParameters( true );
+        List<String> messages = logMessages( log );
+        assertEquals( 1, messages.size() );
+        assertTrue( messages.get( 0 ), messages.get( 0 ).endsWith( " [?, ?, ?, ?]" ) );
+        assertFalse( messages.get( 0 ).contains( "bob" ) );
+    }
+
+    private List<String> logMessages( SlowQueryLog log )
+        throws SQLException
+    {
+        final List<String> messages = new ArrayList<String>();
+        Handler handler = new Handler()
+        {
+            @Override
+            public void publish( LogRecord record )
+            {
+                messages.add( record.getMessage() );
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+
+        Logger logger = Logger.getLogger( SlowQueryLog.class.getName() );
+        boolean useParentHandlers = logger.getUseParentHandlers();
+        logger.setUseParentHandlers( false );
+        logger.addHandler( handler );
+        try
+        {
+            StringBuilder longValue = new StringBuilder();
+            for ( int i = 0; i < 200; i++ )
+            {
+                longValue.append( 'x' );
+            }
+
+            PreparedStatement statement = log.wrap( new StubPreparedStatement( new StubConnection(), SQL, false ), SQL, "character" );
+            statement.setString( 1, "bob@example.com" );
+            statement.setLong( 2, 5 );
+            statement.setNull( 3, Types.VARCHAR );
+            statement.setString( 4, longValue.toString() );
+            statement.executeUpdate();
+        }
+        finally
+        {
+            logger.removeHandler( handler );
+            logger.setUseParentHandlers( useParentHandlers );
+        }
+
+        return messages;
+    }
+
+    private static class RecordingLog extends SlowQueryLog
+    {
+        private List<String> entries = new ArrayList<String>();
+        private long executeNanos;
+        private long fetchNanos;
+
+        public RecordingLog( long thresholdMillis )
+        {
+            super( thresholdMillis );
+        }
+
+        @Override
+        protected void logSlowQuery( String source, String sql, Object[] parameters, long executeNanos, long fetchNanos, long rows )
+        {
+            StringBuilder entry = new StringBuilder();
+            entry.append( source == null ? "" : source + " " ).append( SQLFingerprint.get( sql ) );
+            entry.append( " " ).append( Arrays.toString( parameters ) );
+            entry.append( " rows=" ).append( rows ).append( " fetch=" ).append( fetchNanos );
+            entries.add( entry.toString() );
+            this.executeNanos = executeNanos;
+            this.fetchNanos = fetchNanos;
+        }
+    }
+
+    /**
+     * Statement whose rows take 5 ms each to fetch.
+     */
+    private static class SlowStatement extends StubPreparedStatement
+    {
+        private StubRows rows;
+
+        public SlowStatement( int numRows )
+        {
+            super( new StubConnection(), SQL, false );
+            Object[][] values = new Object[numRows][];
+            for ( int i = 0; i < numRows; i++ )
+            {
+                values[i] = new Object[] { (long) i };
+            }
+            rows = StubRows.fromRows( new String[] { "id" }, new int[] { Types.BIGINT }, values );
+        }
+
+        @Override
+        public ResultSet executeQuery()
+        {
+            return new StubResultSet( rows, this )
+            {
+                @Override
+                public boolean next()
+                    throws SQLException
+                {
+                    try
+                    {
+                        Thread.sleep( 5 );
+                    }
+                    catch ( InterruptedException ex )
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    return super.next();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,181 @@
+//
+// StubArray
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.stub;
+
+import java.sql.*;
+
+/**
+ * {@link Array} that holds a Java array, as created by {@link StubConnection#createArrayOf(String, Object[])} or returned for array
+ * values of {@link StubRows}.
+ */
+public class StubArray implements Array
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private String baseTypeName;
+    private Object elements;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    /**
+     * @param baseTypeName Database type of the elements, or null to derive it from the Java component type.
+     * @param elements Java array (of objects or primitives).
+     */
+    public StubArray( String baseTypeName, Object elements )
+    {
+        if ( !elements.getClass().isArray() )
+        {
+            throw new IllegalArgumentException( "Not an array: " + elements.getClass().getName() );
+        }
+
+        this.baseTypeName = baseTypeName != null ? baseTypeName : getTypeName( elements.getClass().getComponentType() );
+        this.elements = elements;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Override
+    public String getBaseTypeName()
+        throws SQLException
+    {
+        return baseTypeName;
+    }
+
+    @Override
+    public int getBaseType()
+        throws SQLException
+    {
+        return StubTypes.getSQLType( baseTypeName );
+    }
+
+    @Override
+    public Object getArray()
+        throws SQLException
+    {
+        return elements;
+    }
+
+    /**
+     * @param index Index (1 based) of the first element.
+     */
+    @Override
+    public Object getArray( long index, int count )
+        throws SQLException
+    {
+        int length = java.lang.reflect.Array.getLength( elements );
+        if ( index < 1 || count < 0 || index - 1 + count > length )
+        {
+            throw new SQLException( "Elements " + index + " to " + ( index - 1 + count ) + " are out of range" );
+        }
+
+        Object slice = java.lang.reflect.Array.newInstance( elements.getClass().getComponentType(), count );
+        System.arraycopy( elements, (int) index - 1, slice, 0, count );
+
+        return slice;
+    }
+
+    @Override
+    public void free()
+        throws SQLException
+    {
+    }
+
+    @Override
+    public Object getArray( java.util.Map<String, Class<?>> map )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getArray" );
+    }
+
+    @Override
+    public Object getArray( long index, int count, java.util.Map<String, Class<?>> map )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getArray" );
+    }
+
+    @Override
+    public ResultSet getResultSet()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getResultSet" );
+    }
+
+    @Override
+    public ResultSet getResultSet( java.util.Map<String, Class<?>> map )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getResultSet" );
+    }
+
+    @Override
+    public ResultSet getResultSet( long index, int count )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getResultSet" );
+    }
+
+    @Override
+    public ResultSet getResultSet( long index, int count, java.util.Map<String, Class<?>> map )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getResultSet" );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static String getTypeName( Class<?> componentType )
+    {
+        if ( componentType == Long.class || componentType == Long.TYPE )
+        {
+            return "int8";
+        }
+        else if ( componentType == Integer.class || componentType == Integer.TYPE )
+        {
+            return "int4";
+        }
+        else if ( componentType == Double.class || componentType == Double.TYPE )
+        {
+            return "float8";
+        }
+        else if ( componentType == Boolean.class || componentType == Boolean.TYPE )
+        {
+            return "bool";
+        }
+
+        return "varchar";
+    }
+}
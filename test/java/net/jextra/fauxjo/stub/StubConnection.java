@@ -0,0 +1,832 @@
+//
+// StubConnection
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.stub;
+
+import java.lang.reflect.*;
+import java.sql.*;
+import java.sql.Array;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * <p>
+ * In-memory {@link Connection} for benchmarking and testing the mapping layer without a database. Tables added with
+ * {@link #addTable(String, String[], int[])} are reported by the {@link DatabaseMetaData}, queries return the {@link StubRows} set
+ * for their SQL and updates return a fixed update count.
+ * </p>
+ * <p>
+ * Example:
+ * </p>
+ *
+ * <pre>
+ * StubConnection connection = new StubConnection();
+ * connection.addTable( &quot;character&quot;, new String[] { &quot;characterId&quot;, &quot;name&quot; }, new int[] { Types.BIGINT, Types.VARCHAR } );
+ * SimpleConnectionSupplier supplier = new SimpleConnectionSupplier();
+ * supplier.setConnection( connection );
+ * </pre>
+ */
+public class StubConnection implements Connection
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final String[] TABLE_COLUMNS = { "TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "TABLE_TYPE" };
+    private static final String[] COLUMN_COLUMNS = { "TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "COLUMN_NAME", "DATA_TYPE", "TYPE_NAME",
+        "ORDINAL_POSITION" };
+
+    // Key = Lowercase table name.
+    // Value = Table definition.
+    private Map<String, Table> tables;
+
+    // Key = SQL.
+    // Value = Rows returned by queries of that SQL.
+    private Map<String, StubRows> queryResults;
+
+    private StubRows defaultQueryResult;
+    private StubRows generatedKeys;
+    private int updateCount;
+    private boolean recording;
+    private long metaDataLatencyNanos;
+    private List<StubPreparedStatement> statements;
+    private DatabaseMetaData metaData;
+
+    private boolean closed;
+    private boolean broken;
+    private int validationCount;
+    private boolean autoCommit;
+    private boolean readOnly;
+    private int transactionIsolation;
+    private String catalog;
+    private String schema;
+    private int networkTimeout;
+    private Properties clientInfo;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public StubConnection()
+    {
+        tables = new LinkedHashMap<String, Table>();
+        queryResults = new HashMap<String, StubRows>();
+        defaultQueryResult = StubRows.empty();
+        generatedKeys = StubRows.empty();
+        updateCount = 1;
+        statements = new ArrayList<StubPreparedStatement>();
+        autoCommit = true;
+        transactionIsolation = TRANSACTION_READ_COMMITTED;
+        clientInfo = new Properties();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Define a table to be reported by the {@link DatabaseMetaData}, with database type names derived from the sqlTypes.
+     */
+    public void addTable( String tableName, String[] columnNames, int[] sqlTypes )
+    {
+        String[] typeNames = new String[sqlTypes.length];
+        for ( int i = 0; i < sqlTypes.length; i++ )
+        {
+            typeNames[i] = StubTypes.getTypeName( sqlTypes[i] );
+        }
+
+        addTable( tableName, columnNames, sqlTypes, typeNames );
+    }
+
+    /**
+     * @param typeNames Database type names of the columns (e.g. "_int8" for an array of bigint).
+     */
+    public void addTable( String tableName, String[] columnNames, int[] sqlTypes, String[] typeNames )
+    {
+        tables.put( tableName.toLowerCase(), new Table( tableName, columnNames.clone(), sqlTypes.clone(), typeNames.clone() ) );
+    }
+
+    /**
+     * Set the rows returned when a statement of the given SQL is queried.
+     */
+    public void setQueryResult( String sql, StubRows rows )
+    {
+        queryResults.put( sql, rows );
+    }
+
+    /**
+     * Set the rows returned for SQL that has no result of its own. Defaults to no rows.
+     */
+    public void setDefaultQueryResult( StubRows rows )
+    {
+        defaultQueryResult = rows;
+    }
+
+    public boolean hasQueryResult( String sql )
+    {
+        return queryResults.containsKey( sql );
+    }
+
+    public StubRows getQueryResult( String sql )
+    {
+        StubRows rows = queryResults.get( sql );
+
+        return rows == null ? defaultQueryResult : rows;
+    }
+
+    public StubRows getGeneratedKeys()
+    {
+        return generatedKeys;
+    }
+
+    /**
+     * Set the rows returned by {@link Statement#getGeneratedKeys()}. Defaults to no rows.
+     */
+    public void setGeneratedKeys( StubRows generatedKeys )
+    {
+        this.generatedKeys = generatedKeys;
+    }
+
+    public int getUpdateCount()
+    {
+        return updateCount;
+    }
+
+    /**
+     * Set the count returned by every update. Defaults to 1.
+     */
+    public void setUpdateCount( int updateCount )
+    {
+        this.updateCount = updateCount;
+    }
+
+    public boolean isRecording()
+    {
+        return recording;
+    }
+
+    /**
+     * If true, statements keep a copy of the parameters of every execution (see {@link StubPreparedStatement#getExecutions()}).
+     * Off by default to keep benchmarks free of that allocation.
+     */
+    public void setRecording( boolean recording )
+    {
+        this.recording = recording;
+    }
+
+    public long getMetaDataLatencyMicros()
+    {
+        return TimeUnit.NANOSECONDS.toMicros( metaDataLatencyNanos );
+    }
+
+    /**
+     * Make every table and column metadata query wait this long before answering, to stand in for the round trip to a real
+     * database. Zero (the default) answers at once.
+     */
+    public void setMetaDataLatencyMicros( long micros )
+    {
+        metaDataLatencyNanos = TimeUnit.MICROSECONDS.toNanos( micros );
+    }
+
+    public boolean isBroken()
+    {
+        return broken;
+    }
+
+    /**
+     * Break the connection the way a network failure would: it is not closed, but {@link #isValid(int)} returns false and preparing
+     * or executing statements fails with a connection exception (SQL state 08006).
+     */
+    public void setBroken( boolean broken )
+    {
+        this.broken = broken;
+    }
+
+    /**
+     * @return How many times {@link #isValid(int)} was called.
+     */
+    public int getValidationCount()
+    {
+        return validationCount;
+    }
+
+    /**
+     * @return Every statement prepared on this connection, oldest first.
+     */
+    public List<StubPreparedStatement> getStatements()
+    {
+        return statements;
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql )
+        throws SQLException
+    {
+        return createStatement( sql, false );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, int autoGeneratedKeys )
+        throws SQLException
+    {
+        return createStatement( sql, autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, int[] columnIndexes )
+        throws SQLException
+    {
+        return createStatement( sql, true );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, String[] columnNames )
+        throws SQLException
+    {
+        return createStatement( sql, true );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, int resultSetType, int resultSetConcurrency )
+        throws SQLException
+    {
+        return createStatement( sql, false );
+    }
+
+    @Override
+    public Array createArrayOf( String typeName, Object[] elements )
+        throws SQLException
+    {
+        return new StubArray( typeName, elements );
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData()
+        throws SQLException
+    {
+        if ( metaData == null )
+        {
+            metaData = (DatabaseMetaData) Proxy.newProxyInstance( StubConnection.class.getClassLoader(),
+                new Class<?>[] { DatabaseMetaData.class }, new MetaDataHandler() );
+        }
+
+        return metaData;
+    }
+
+    @Override
+    public String nativeSQL( String sql )
+        throws SQLException
+    {
+        return sql;
+    }
+
+    @Override
+    public boolean getAutoCommit()
+        throws SQLException
+    {
+        return autoCommit;
+    }
+
+    @Override
+    public void setAutoCommit( boolean autoCommit )
+        throws SQLException
+    {
+        this.autoCommit = autoCommit;
+    }
+
+    @Override
+    public void commit()
+        throws SQLException
+    {
+        checkOpen();
+    }
+
+    @Override
+    public void rollback()
+        throws SQLException
+    {
+        checkOpen();
+    }
+
+    @Override
+    public boolean isReadOnly()
+        throws SQLException
+    {
+        return readOnly;
+    }
+
+    @Override
+    public void setReadOnly( boolean readOnly )
+        throws SQLException
+    {
+        this.readOnly = readOnly;
+    }
+
+    @Override
+    public int getTransactionIsolation()
+        throws SQLException
+    {
+        return transactionIsolation;
+    }
+
+    @Override
+    public void setTransactionIsolation( int level )
+        throws SQLException
+    {
+        transactionIsolation = level;
+    }
+
+    @Override
+    public String getCatalog()
+        throws SQLException
+    {
+        return catalog;
+    }
+
+    @Override
+    public void setCatalog( String catalog )
+        throws SQLException
+    {
+        this.catalog = catalog;
+    }
+
+    public String getSchema()
+        throws SQLException
+    {
+        return schema;
+    }
+
+    public void setSchema( String schema )
+        throws SQLException
+    {
+        this.schema = schema;
+    }
+
+    public int getNetworkTimeout()
+        throws SQLException
+    {
+        return networkTimeout;
+    }
+
+    public void setNetworkTimeout( Executor executor, int milliseconds )
+        throws SQLException
+    {
+        networkTimeout = milliseconds;
+    }
+
+    @Override
+    public boolean isValid( int timeout )
+        throws SQLException
+    {
+        validationCount++;
+
+        return !closed && !broken;
+    }
+
+    @Override
+    public void close()
+        throws SQLException
+    {
+        closed = true;
+    }
+
+    public void abort( Executor executor )
+        throws SQLException
+    {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed()
+        throws SQLException
+    {
+        return closed;
+    }
+
+    @Override
+    public SQLWarning getWarnings()
+        throws SQLException
+    {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings()
+        throws SQLException
+    {
+    }
+
+    @Override
+    public <T> T unwrap( Class<T> iface )
+        throws SQLException
+    {
+        if ( iface.isInstance( this ) )
+        {
+            return iface.cast( this );
+        }
+
+        throw new SQLException( "Not a wrapper of " + iface.getName() );
+    }
+
+    @Override
+    public boolean isWrapperFor( Class<?> iface )
+        throws SQLException
+    {
+        return iface.isInstance( this );
+    }
+
+    @Override
+    public Statement createStatement()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "createStatement" );
+    }
+
+    @Override
+    public CallableStatement prepareCall( String sql )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "prepareCall" );
+    }
+
+    @Override
+    public Statement createStatement( int resultSetType, int resultSetConcurrency )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "createStatement" );
+    }
+
+    @Override
+    public CallableStatement prepareCall( String sql, int resultSetType, int resultSetConcurrency )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "prepareCall" );
+    }
+
+    @Override
+    public java.util.Map<String, Class<?>> getTypeMap()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getTypeMap" );
+    }
+
+    @Override
+    public void setTypeMap( java.util.Map<String, Class<?>> map )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setTypeMap" );
+    }
+
+    @Override
+    public void setHoldability( int holdability )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setHoldability" );
+    }
+
+    @Override
+    public int getHoldability()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getHoldability" );
+    }
+
+    @Override
+    public Savepoint setSavepoint()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setSavepoint" );
+    }
+
+    @Override
+    public Savepoint setSavepoint( String name )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setSavepoint" );
+    }
+
+    @Override
+    public void rollback( Savepoint savepoint )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "rollback" );
+    }
+
+    @Override
+    public void releaseSavepoint( Savepoint savepoint )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "releaseSavepoint" );
+    }
+
+    @Override
+    public Statement createStatement( int resultSetType, int resultSetConcurrency, int resultSetHoldability )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "createStatement" );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "prepareStatement" );
+    }
+
+    @Override
+    public CallableStatement prepareCall( String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "prepareCall" );
+    }
+
+    @Override
+    public Clob createClob()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "createClob" );
+    }
+
+    @Override
+    public Blob createBlob()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "createBlob" );
+    }
+
+    @Override
+    public NClob createNClob()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "createNClob" );
+    }
+
+    @Override
+    public SQLXML createSQLXML()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "createSQLXML" );
+    }
+
+    @Override
+    public void setClientInfo( String name, String value )
+        throws SQLClientInfoException
+    {
+        clientInfo.setProperty( name, value );
+    }
+
+    @Override
+    public void setClientInfo( Properties properties )
+        throws SQLClientInfoException
+    {
+        clientInfo = new Properties();
+        clientInfo.putAll( properties );
+    }
+
+    @Override
+    public String getClientInfo( String name )
+        throws SQLException
+    {
+        return clientInfo.getProperty( name );
+    }
+
+    @Override
+    public Properties getClientInfo()
+        throws SQLException
+    {
+        return clientInfo;
+    }
+
+    @Override
+    public Struct createStruct( String typeName, Object[] attributes )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "createStruct" );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    void checkOpen()
+        throws SQLException
+    {
+        if ( closed )
+        {
+            throw new SQLException( "Connection is closed" );
+        }
+
+        if ( broken )
+        {
+            throw new SQLNonTransientConnectionException( "Connection is broken", "08006" );
+        }
+    }
+
+    private PreparedStatement createStatement( String sql, boolean returnGeneratedKeys )
+        throws SQLException
+    {
+        checkOpen();
+        StubPreparedStatement statement = new StubPreparedStatement( this, sql, returnGeneratedKeys );
+        statements.add( statement );
+
+        return statement;
+    }
+
+    /**
+     * @return true if the name matches the JDBC metadata pattern, where null matches anything.
+     */
+    private static boolean matches( String pattern, String name )
+    {
+        if ( pattern == null )
+        {
+            return true;
+        }
+
+        StringBuilder regex = new StringBuilder();
+        for ( char c : pattern.toCharArray() )
+        {
+            if ( c == '%' )
+            {
+                regex.append( ".*" );
+            }
+            else if ( c == '_' )
+            {
+                regex.append( "." );
+            }
+            else
+            {
+                regex.append( java.util.regex.Pattern.quote( String.valueOf( c ) ) );
+            }
+        }
+
+        return name.matches( regex.toString() );
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    private static class Table
+    {
+        private String name;
+        private String[] columnNames;
+        private int[] sqlTypes;
+        private String[] typeNames;
+
+        public Table( String name, String[] columnNames, int[] sqlTypes, String[] typeNames )
+        {
+            this.name = name;
+            this.columnNames = columnNames;
+            this.sqlTypes = sqlTypes;
+            this.typeNames = typeNames;
+        }
+    }
+
+    /**
+     * Answers the metadata queries fauxjo makes about tables and columns. Metadata is not on any hot path, so a proxy is enough.
+     */
+    private class MetaDataHandler implements InvocationHandler
+    {
+        @Override
+        public Object invoke( Object proxy, Method method, Object[] args )
+            throws Throwable
+        {
+            String name = method.getName();
+
+            if ( name.equals( "getTableTypes" ) )
+            {
+                waitForRoundTrip();
+                return new StubResultSet( StubRows.fromRows( new String[] { "TABLE_TYPE" }, new int[] { Types.VARCHAR },
+                    new Object[] { "TABLE" }, new Object[] { "VIEW" } ) );
+            }
+            else if ( name.equals( "getTables" ) )
+            {
+                waitForRoundTrip();
+                return getTables( (String) args[1], (String) args[2] );
+            }
+            else if ( name.equals( "getColumns" ) )
+            {
+                waitForRoundTrip();
+                return getColumns( (String) args[1], (String) args[2], (String) args[3] );
+            }
+            else if ( name.equals( "getConnection" ) )
+            {
+                return StubConnection.this;
+            }
+            else if ( name.equals( "getDatabaseProductName" ) || name.equals( "getDriverName" ) )
+            {
+                return "fauxjo stub";
+            }
+            else if ( name.equals( "getIdentifierQuoteString" ) )
+            {
+                return "\"";
+            }
+            else if ( name.equals( "supportsGetGeneratedKeys" ) )
+            {
+                return true;
+            }
+            else if ( name.equals( "unwrap" ) || name.equals( "isWrapperFor" ) )
+            {
+                boolean isWrapper = ( (Class<?>) args[0] ).isInstance( proxy );
+                if ( name.equals( "isWrapperFor" ) )
+                {
+                    return isWrapper;
+                }
+                if ( isWrapper )
+                {
+                    return proxy;
+                }
+                throw new SQLException( "Not a wrapper of " + args[0] );
+            }
+            else if ( name.equals( "hashCode" ) )
+            {
+                return System.identityHashCode( proxy );
+            }
+            else if ( name.equals( "equals" ) )
+            {
+                return proxy == args[0];
+            }
+            else if ( name.equals( "toString" ) )
+            {
+                return "StubDatabaseMetaData";
+            }
+
+            throw new SQLFeatureNotSupportedException( name );
+        }
+
+        private void waitForRoundTrip()
+        {
+            long deadline = System.nanoTime() + metaDataLatencyNanos;
+            long remaining = metaDataLatencyNanos;
+            while ( remaining > 0 )
+            {
+                LockSupport.parkNanos( remaining );
+                remaining = deadline - System.nanoTime();
+            }
+        }
+
+        private ResultSet getTables( String schemaPattern, String tableNamePattern )
+        {
+            List<Object[]> rows = new ArrayList<Object[]>();
+            for ( Table table : tables.values() )
+            {
+                if ( matches( tableNamePattern, table.name ) )
+                {
+                    rows.add( new Object[] { null, schemaPattern, table.name, "TABLE" } );
+                }
+            }
+
+            return new StubResultSet( StubRows.fromRows( TABLE_COLUMNS, new int[] { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                Types.VARCHAR }, rows.toArray( new Object[rows.size()][] ) ) );
+        }
+
+        private ResultSet getColumns( String schemaPattern, String tableNamePattern, String columnNamePattern )
+        {
+            List<Object[]> rows = new ArrayList<Object[]>();
+            for ( Table table : tables.values() )
+            {
+                if ( !matches( tableNamePattern, table.name ) )
+                {
+                    continue;
+                }
+
+                for ( int i = 0; i < table.columnNames.length; i++ )
+                {
+                    if ( matches( columnNamePattern, table.columnNames[i] ) )
+                    {
+                        rows.add( new Object[] { null, schemaPattern, table.name, table.columnNames[i], table.sqlTypes[i],
+                            table.typeNames[i], i + 1 } );
+                    }
+                }
+            }
+
+            return new StubResultSet( StubRows.fromRows( COLUMN_COLUMNS, new int[] { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.INTEGER }, rows.toArray( new Object[rows.size()][] ) ) );
+        }
+    }
+}
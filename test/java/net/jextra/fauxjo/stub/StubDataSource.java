@@ -0,0 +1,151 @@
+//
+// StubDataSource
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+package net.jextra.fauxjo.stub;
+
+import java.io.*;
+import java.sql.*;
+import java.util.*;
+import java.util.logging.*;
+import javax.sql.*;
+
+/**
+ * {@link DataSource} that hands out a new {@link StubConnection} on each call, set up by {@link #createConnection()}, e.g. to test
+ * that a ConnectionSupplier replaces a broken connection.
+ */
+public class StubDataSource implements DataSource
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private List<StubConnection> connections;
+    private PrintWriter logWriter;
+    private int loginTimeout;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public StubDataSource()
+    {
+        connections = new ArrayList<StubConnection>();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * @return Every connection handed out, oldest first.
+     */
+    public List<StubConnection> getConnections()
+    {
+        return connections;
+    }
+
+    @Override
+    public Connection getConnection()
+        throws SQLException
+    {
+        StubConnection connection = createConnection();
+        connections.add( connection );
+
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection( String username, String password )
+        throws SQLException
+    {
+        return getConnection();
+    }
+
+    @Override
+    public PrintWriter getLogWriter()
+        throws SQLException
+    {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter( PrintWriter out )
+        throws SQLException
+    {
+        logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout( int seconds )
+        throws SQLException
+    {
+        loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout()
+        throws SQLException
+    {
+        return loginTimeout;
+    }
+
+    public Logger getParentLogger()
+        throws SQLFeatureNotSupportedException
+    {
+        throw new SQLFeatureNotSupportedException( "getParentLogger" );
+    }
+
+    @Override
+    public <T> T unwrap( Class<T> iface )
+        throws SQLException
+    {
+        if ( iface.isInstance( this ) )
+        {
+            return iface.cast( this );
+        }
+
+        throw new SQLException( "Not a wrapper of " + iface.getName() );
+    }
+
+    @Override
+    public boolean isWrapperFor( Class<?> iface )
+        throws SQLException
+    {
+        return iface.isInstance( this );
+    }
+
+    // ----------
+    // protected
+    // ----------
+
+    /**
+     * Override to set up the tables and results of each new connection.
+     */
+    protected StubConnection createConnection()
+    {
+        return new StubConnection();
+    }
+}
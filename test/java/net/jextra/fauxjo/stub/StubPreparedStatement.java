@@ -0,0 +1,915 @@
+//
+// StubPreparedStatement
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.stub;
+
+import java.io.*;
+import java.math.*;
+import java.net.*;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * {@link PreparedStatement} of a {@link StubConnection}. Bound parameters are kept in an array that is reused between executions,
+ * queries return the rows the connection has for the statement's SQL and updates return the connection's update count.
+ */
+public class StubPreparedStatement implements PreparedStatement
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int UNKNOWN_TYPE = Integer.MIN_VALUE;
+
+    private StubConnection connection;
+    private String sql;
+    private boolean returnGeneratedKeys;
+    private boolean closed;
+    private int fetchSize;
+    private int maxRows;
+    private int queryTimeout;
+
+    // Index = parameter index - 1.
+    private Object[] parameters;
+    private int[] parameterTypes;
+    private int parameterCount;
+
+    private int executeCount;
+    private int batchCount;
+    private ResultSet resultSet;
+    private int updateCount;
+
+    // Copies of the parameters of each execution, only kept when the connection is recording.
+    private List<Object[]> executions;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public StubPreparedStatement( StubConnection connection, String sql, boolean returnGeneratedKeys )
+    {
+        this.connection = connection;
+        this.sql = sql;
+        this.returnGeneratedKeys = returnGeneratedKeys;
+        parameters = new Object[8];
+        parameterTypes = new int[8];
+        executions = new ArrayList<Object[]>();
+        updateCount = -1;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public String getSQL()
+    {
+        return sql;
+    }
+
+    public boolean isReturnGeneratedKeys()
+    {
+        return returnGeneratedKeys;
+    }
+
+    /**
+     * @return Highest parameter index bound since the parameters were last cleared.
+     */
+    public int getParameterCount()
+    {
+        return parameterCount;
+    }
+
+    /**
+     * @param parameterIndex 1 based, like the setters.
+     */
+    public Object getParameter( int parameterIndex )
+    {
+        return parameterIndex <= parameterCount ? parameters[parameterIndex - 1] : null;
+    }
+
+    /**
+     * @return The {@link Types} the parameter was bound with, or {@link Integer#MIN_VALUE} if it was bound without one (e.g. with
+     * {@link #setObject(int, Object)}).
+     */
+    public int getParameterType( int parameterIndex )
+    {
+        return parameterIndex <= parameterCount ? parameterTypes[parameterIndex - 1] : UNKNOWN_TYPE;
+    }
+
+    public Object[] getParameters()
+    {
+        return Arrays.copyOf( parameters, parameterCount );
+    }
+
+    public int getExecuteCount()
+    {
+        return executeCount;
+    }
+
+    /**
+     * @return The parameters of every execution, oldest first (only if {@link StubConnection#setRecording(boolean)} is on).
+     */
+    public List<Object[]> getExecutions()
+    {
+        return executions;
+    }
+
+    @Override
+    public ResultSet executeQuery()
+        throws SQLException
+    {
+        recordExecution();
+        resultSet = new StubResultSet( connection.getQueryResult( sql ), this );
+        // Like a driver, the ResultSet fetches as many rows at a time as the statement did when it was executed.
+        resultSet.setFetchSize( fetchSize );
+        updateCount = -1;
+
+        return resultSet;
+    }
+
+    @Override
+    public int executeUpdate()
+        throws SQLException
+    {
+        recordExecution();
+        resultSet = null;
+        updateCount = connection.getUpdateCount();
+
+        return updateCount;
+    }
+
+    /**
+     * Runs as a query if the connection has rows for the SQL, otherwise as an update.
+     */
+    @Override
+    public boolean execute()
+        throws SQLException
+    {
+        if ( connection.hasQueryResult( sql ) )
+        {
+            executeQuery();
+            return true;
+        }
+
+        executeUpdate();
+        return false;
+    }
+
+    @Override
+    public void addBatch()
+        throws SQLException
+    {
+        recordExecution();
+        batchCount++;
+    }
+
+    @Override
+    public void clearBatch()
+        throws SQLException
+    {
+        batchCount = 0;
+    }
+
+    @Override
+    public int[] executeBatch()
+        throws SQLException
+    {
+        checkOpen();
+        int[] counts = new int[batchCount];
+        Arrays.fill( counts, connection.getUpdateCount() );
+        batchCount = 0;
+
+        return counts;
+    }
+
+    @Override
+    public ResultSet getResultSet()
+        throws SQLException
+    {
+        return resultSet;
+    }
+
+    @Override
+    public int getUpdateCount()
+        throws SQLException
+    {
+        return updateCount;
+    }
+
+    @Override
+    public boolean getMoreResults()
+        throws SQLException
+    {
+        resultSet = null;
+        updateCount = -1;
+
+        return false;
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys()
+        throws SQLException
+    {
+        return new StubResultSet( connection.getGeneratedKeys(), this );
+    }
+
+    @Override
+    public void clearParameters()
+        throws SQLException
+    {
+        Arrays.fill( parameters, 0, parameterCount, null );
+        parameterCount = 0;
+    }
+
+    @Override
+    public void setNull( int parameterIndex, int sqlType )
+        throws SQLException
+    {
+        setParameter( parameterIndex, null, sqlType );
+    }
+
+    @Override
+    public void setNull( int parameterIndex, int sqlType, String typeName )
+        throws SQLException
+    {
+        setParameter( parameterIndex, null, sqlType );
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, UNKNOWN_TYPE );
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x, int targetSqlType )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, targetSqlType );
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x, int targetSqlType, int scaleOrLength )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, targetSqlType );
+    }
+
+    @Override
+    public void setBoolean( int parameterIndex, boolean x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.BOOLEAN );
+    }
+
+    @Override
+    public void setByte( int parameterIndex, byte x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.TINYINT );
+    }
+
+    @Override
+    public void setShort( int parameterIndex, short x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.SMALLINT );
+    }
+
+    @Override
+    public void setInt( int parameterIndex, int x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.INTEGER );
+    }
+
+    @Override
+    public void setLong( int parameterIndex, long x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.BIGINT );
+    }
+
+    @Override
+    public void setFloat( int parameterIndex, float x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.REAL );
+    }
+
+    @Override
+    public void setDouble( int parameterIndex, double x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.DOUBLE );
+    }
+
+    @Override
+    public void setBigDecimal( int parameterIndex, BigDecimal x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.NUMERIC );
+    }
+
+    @Override
+    public void setString( int parameterIndex, String x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.VARCHAR );
+    }
+
+    @Override
+    public void setBytes( int parameterIndex, byte[] x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.BINARY );
+    }
+
+    @Override
+    public void setDate( int parameterIndex, java.sql.Date x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.DATE );
+    }
+
+    @Override
+    public void setTime( int parameterIndex, Time x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.TIME );
+    }
+
+    @Override
+    public void setTimestamp( int parameterIndex, Timestamp x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.TIMESTAMP );
+    }
+
+    @Override
+    public void setArray( int parameterIndex, Array x )
+        throws SQLException
+    {
+        setParameter( parameterIndex, x, Types.ARRAY );
+    }
+
+    @Override
+    public Connection getConnection()
+        throws SQLException
+    {
+        return connection;
+    }
+
+    @Override
+    public void close()
+        throws SQLException
+    {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed()
+        throws SQLException
+    {
+        return closed;
+    }
+
+    @Override
+    public int getFetchSize()
+        throws SQLException
+    {
+        return fetchSize;
+    }
+
+    @Override
+    public void setFetchSize( int rows )
+        throws SQLException
+    {
+        fetchSize = rows;
+    }
+
+    @Override
+    public int getMaxRows()
+        throws SQLException
+    {
+        return maxRows;
+    }
+
+    @Override
+    public void setMaxRows( int max )
+        throws SQLException
+    {
+        maxRows = max;
+    }
+
+    @Override
+    public int getQueryTimeout()
+        throws SQLException
+    {
+        return queryTimeout;
+    }
+
+    @Override
+    public void setQueryTimeout( int seconds )
+        throws SQLException
+    {
+        queryTimeout = seconds;
+    }
+
+    @Override
+    public SQLWarning getWarnings()
+        throws SQLException
+    {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings()
+        throws SQLException
+    {
+    }
+
+    @Override
+    public <T> T unwrap( Class<T> iface )
+        throws SQLException
+    {
+        if ( iface.isInstance( this ) )
+        {
+            return iface.cast( this );
+        }
+
+        throw new SQLException( "Not a wrapper of " + iface.getName() );
+    }
+
+    @Override
+    public boolean isWrapperFor( Class<?> iface )
+        throws SQLException
+    {
+        return iface.isInstance( this );
+    }
+
+    @Override
+    public void setAsciiStream( int parameterIndex, java.io.InputStream x, int length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setAsciiStream" );
+    }
+
+    @Deprecated
+    @Override
+    public void setUnicodeStream( int parameterIndex, java.io.InputStream x, int length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setUnicodeStream" );
+    }
+
+    @Override
+    public void setBinaryStream( int parameterIndex, java.io.InputStream x, int length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setBinaryStream" );
+    }
+
+    @Override
+    public void setCharacterStream( int parameterIndex, java.io.Reader reader, int length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setCharacterStream" );
+    }
+
+    @Override
+    public void setRef( int parameterIndex, Ref x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setRef" );
+    }
+
+    @Override
+    public void setBlob( int parameterIndex, Blob x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setBlob" );
+    }
+
+    @Override
+    public void setClob( int parameterIndex, Clob x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setClob" );
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getMetaData" );
+    }
+
+    @Override
+    public void setDate( int parameterIndex, java.sql.Date x, Calendar cal )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setDate" );
+    }
+
+    @Override
+    public void setTime( int parameterIndex, java.sql.Time x, Calendar cal )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setTime" );
+    }
+
+    @Override
+    public void setTimestamp( int parameterIndex, java.sql.Timestamp x, Calendar cal )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setTimestamp" );
+    }
+
+    @Override
+    public void setURL( int parameterIndex, java.net.URL x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setURL" );
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getParameterMetaData" );
+    }
+
+    @Override
+    public void setRowId( int parameterIndex, RowId x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setRowId" );
+    }
+
+    @Override
+    public void setNString( int parameterIndex, String value )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setNString" );
+    }
+
+    @Override
+    public void setNCharacterStream( int parameterIndex, Reader value, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setNCharacterStream" );
+    }
+
+    @Override
+    public void setNClob( int parameterIndex, NClob value )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setNClob" );
+    }
+
+    @Override
+    public void setClob( int parameterIndex, Reader reader, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setClob" );
+    }
+
+    @Override
+    public void setBlob( int parameterIndex, InputStream inputStream, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setBlob" );
+    }
+
+    @Override
+    public void setNClob( int parameterIndex, Reader reader, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setNClob" );
+    }
+
+    @Override
+    public void setSQLXML( int parameterIndex, SQLXML xmlObject )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setSQLXML" );
+    }
+
+    @Override
+    public void setAsciiStream( int parameterIndex, java.io.InputStream x, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setAsciiStream" );
+    }
+
+    @Override
+    public void setBinaryStream( int parameterIndex, java.io.InputStream x, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setBinaryStream" );
+    }
+
+    @Override
+    public void setCharacterStream( int parameterIndex, java.io.Reader reader, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setCharacterStream" );
+    }
+
+    @Override
+    public void setAsciiStream( int parameterIndex, java.io.InputStream x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setAsciiStream" );
+    }
+
+    @Override
+    public void setBinaryStream( int parameterIndex, java.io.InputStream x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setBinaryStream" );
+    }
+
+    @Override
+    public void setCharacterStream( int parameterIndex, java.io.Reader reader )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setCharacterStream" );
+    }
+
+    @Override
+    public void setNCharacterStream( int parameterIndex, Reader value )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setNCharacterStream" );
+    }
+
+    @Override
+    public void setClob( int parameterIndex, Reader reader )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setClob" );
+    }
+
+    @Override
+    public void setBlob( int parameterIndex, InputStream inputStream )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setBlob" );
+    }
+
+    @Override
+    public void setNClob( int parameterIndex, Reader reader )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setNClob" );
+    }
+
+    @Override
+    public ResultSet executeQuery( String sql )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "executeQuery" );
+    }
+
+    @Override
+    public int executeUpdate( String sql )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "executeUpdate" );
+    }
+
+    @Override
+    public int getMaxFieldSize()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getMaxFieldSize" );
+    }
+
+    @Override
+    public void setMaxFieldSize( int max )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setMaxFieldSize" );
+    }
+
+    @Override
+    public void setEscapeProcessing( boolean enable )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setEscapeProcessing" );
+    }
+
+    @Override
+    public void cancel()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "cancel" );
+    }
+
+    @Override
+    public void setCursorName( String name )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setCursorName" );
+    }
+
+    @Override
+    public boolean execute( String sql )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "execute" );
+    }
+
+    @Override
+    public void setFetchDirection( int direction )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setFetchDirection" );
+    }
+
+    @Override
+    public int getFetchDirection()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getFetchDirection" );
+    }
+
+    @Override
+    public int getResultSetConcurrency()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getResultSetConcurrency" );
+    }
+
+    @Override
+    public int getResultSetType()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getResultSetType" );
+    }
+
+    @Override
+    public void addBatch( String sql )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "addBatch" );
+    }
+
+    @Override
+    public boolean getMoreResults( int current )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getMoreResults" );
+    }
+
+    @Override
+    public int executeUpdate( String sql, int autoGeneratedKeys )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "executeUpdate" );
+    }
+
+    @Override
+    public int executeUpdate( String sql, int[] columnIndexes )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "executeUpdate" );
+    }
+
+    @Override
+    public int executeUpdate( String sql, String[] columnNames )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "executeUpdate" );
+    }
+
+    @Override
+    public boolean execute( String sql, int autoGeneratedKeys )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "execute" );
+    }
+
+    @Override
+    public boolean execute( String sql, int[] columnIndexes )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "execute" );
+    }
+
+    @Override
+    public boolean execute( String sql, String[] columnNames )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "execute" );
+    }
+
+    @Override
+    public int getResultSetHoldability()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getResultSetHoldability" );
+    }
+
+    @Override
+    public void setPoolable( boolean poolable )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setPoolable" );
+    }
+
+    @Override
+    public boolean isPoolable()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isPoolable" );
+    }
+
+    public void closeOnCompletion()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "closeOnCompletion" );
+    }
+
+    public boolean isCloseOnCompletion()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isCloseOnCompletion" );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private void checkOpen()
+        throws SQLException
+    {
+        if ( closed )
+        {
+            throw new SQLException( "Statement is closed" );
+        }
+    }
+
+    private void setParameter( int parameterIndex, Object value, int sqlType )
+        throws SQLException
+    {
+        checkOpen();
+        if ( parameterIndex < 1 )
+        {
+            throw new SQLException( "Parameter index " + parameterIndex + " is out of range" );
+        }
+
+        if ( parameterIndex > parameters.length )
+        {
+            int length = Math.max( parameterIndex, parameters.length * 2 );
+            parameters = Arrays.copyOf( parameters, length );
+            parameterTypes = Arrays.copyOf( parameterTypes, length );
+        }
+
+        parameters[parameterIndex - 1] = value;
+        parameterTypes[parameterIndex - 1] = sqlType;
+        if ( parameterIndex > parameterCount )
+        {
+            parameterCount = parameterIndex;
+        }
+    }
+
+    private void recordExecution()
+        throws SQLException
+    {
+        checkOpen();
+        connection.checkOpen();
+        executeCount++;
+        if ( connection.isRecording() )
+        {
+            executions.add( getParameters() );
+        }
+    }
+}
@@ -0,0 +1,1561 @@
+//
+// StubResultSet
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.stub;
+
+import java.io.*;
+import java.math.*;
+import java.net.*;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Forward only {@link ResultSet} over {@link StubRows}. Values are handed out as stored, with numeric getters converting between
+ * number types. Anything beyond reading is unsupported.
+ */
+public class StubResultSet implements ResultSet
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private StubRows rows;
+    private Statement statement;
+    private int row;
+    private boolean wasNull;
+    private boolean closed;
+    private int fetchSize;
+    private ResultSetMetaData metaData;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public StubResultSet( StubRows rows )
+    {
+        this( rows, null );
+    }
+
+    public StubResultSet( StubRows rows, Statement statement )
+    {
+        this.rows = rows;
+        this.statement = statement;
+        row = -1;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public StubRows getRows()
+    {
+        return rows;
+    }
+
+    @Override
+    public boolean next()
+        throws SQLException
+    {
+        checkOpen();
+        if ( row < rows.getRowCount() )
+        {
+            row++;
+        }
+
+        return row < rows.getRowCount();
+    }
+
+    /**
+     * Go back to before the first row, so the same rows can be read again.
+     */
+    @Override
+    public void beforeFirst()
+        throws SQLException
+    {
+        checkOpen();
+        row = -1;
+    }
+
+    @Override
+    public int getRow()
+        throws SQLException
+    {
+        return row >= 0 && row < rows.getRowCount() ? row + 1 : 0;
+    }
+
+    @Override
+    public void close()
+        throws SQLException
+    {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed()
+        throws SQLException
+    {
+        return closed;
+    }
+
+    @Override
+    public boolean wasNull()
+        throws SQLException
+    {
+        return wasNull;
+    }
+
+    @Override
+    public int findColumn( String columnLabel )
+        throws SQLException
+    {
+        int index = rows.findColumn( columnLabel );
+        if ( index == 0 )
+        {
+            throw new SQLException( "Unknown column [" + columnLabel + "]" );
+        }
+
+        return index;
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData()
+        throws SQLException
+    {
+        if ( metaData == null )
+        {
+            metaData = new StubResultSetMetaData( rows );
+        }
+
+        return metaData;
+    }
+
+    @Override
+    public Statement getStatement()
+        throws SQLException
+    {
+        return statement;
+    }
+
+    @Override
+    public int getType()
+        throws SQLException
+    {
+        return TYPE_FORWARD_ONLY;
+    }
+
+    @Override
+    public int getConcurrency()
+        throws SQLException
+    {
+        return CONCUR_READ_ONLY;
+    }
+
+    @Override
+    public int getHoldability()
+        throws SQLException
+    {
+        return CLOSE_CURSORS_AT_COMMIT;
+    }
+
+    @Override
+    public int getFetchDirection()
+        throws SQLException
+    {
+        return FETCH_FORWARD;
+    }
+
+    @Override
+    public int getFetchSize()
+        throws SQLException
+    {
+        return fetchSize;
+    }
+
+    @Override
+    public void setFetchSize( int rows )
+        throws SQLException
+    {
+        fetchSize = rows;
+    }
+
+    @Override
+    public SQLWarning getWarnings()
+        throws SQLException
+    {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings()
+        throws SQLException
+    {
+    }
+
+    @Override
+    public Object getObject( int columnIndex )
+        throws SQLException
+    {
+        return getValue( columnIndex );
+    }
+
+    @Override
+    public Object getObject( String columnLabel )
+        throws SQLException
+    {
+        return getValue( findColumn( columnLabel ) );
+    }
+
+    public <T> T getObject( int columnIndex, Class<T> type )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+        if ( value != null && !type.isInstance( value ) )
+        {
+            throw new SQLException( "Column " + columnIndex + " is a " + value.getClass().getName() + ", not a " + type.getName() );
+        }
+
+        return type.cast( value );
+    }
+
+    public <T> T getObject( String columnLabel, Class<T> type )
+        throws SQLException
+    {
+        return getObject( findColumn( columnLabel ), type );
+    }
+
+    @Override
+    public String getString( int columnIndex )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public String getString( String columnLabel )
+        throws SQLException
+    {
+        return getString( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public boolean getBoolean( int columnIndex )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+        if ( value instanceof Boolean )
+        {
+            return (Boolean) value;
+        }
+
+        return value != null && getNumber( value, columnIndex ).intValue() != 0;
+    }
+
+    @Override
+    public boolean getBoolean( String columnLabel )
+        throws SQLException
+    {
+        return getBoolean( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public byte getByte( int columnIndex )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+
+        return value == null ? 0 : getNumber( value, columnIndex ).byteValue();
+    }
+
+    @Override
+    public byte getByte( String columnLabel )
+        throws SQLException
+    {
+        return getByte( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public short getShort( int columnIndex )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+
+        return value == null ? 0 : getNumber( value, columnIndex ).shortValue();
+    }
+
+    @Override
+    public short getShort( String columnLabel )
+        throws SQLException
+    {
+        return getShort( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public int getInt( int columnIndex )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+
+        return value == null ? 0 : getNumber( value, columnIndex ).intValue();
+    }
+
+    @Override
+    public int getInt( String columnLabel )
+        throws SQLException
+    {
+        return getInt( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public long getLong( int columnIndex )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+
+        return value == null ? 0 : getNumber( value, columnIndex ).longValue();
+    }
+
+    @Override
+    public long getLong( String columnLabel )
+        throws SQLException
+    {
+        return getLong( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public float getFloat( int columnIndex )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+
+        return value == null ? 0 : getNumber( value, columnIndex ).floatValue();
+    }
+
+    @Override
+    public float getFloat( String columnLabel )
+        throws SQLException
+    {
+        return getFloat( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public double getDouble( int columnIndex )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+
+        return value == null ? 0 : getNumber( value, columnIndex ).doubleValue();
+    }
+
+    @Override
+    public double getDouble( String columnLabel )
+        throws SQLException
+    {
+        return getDouble( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public BigDecimal getBigDecimal( int columnIndex )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+        if ( value == null || value instanceof BigDecimal )
+        {
+            return (BigDecimal) value;
+        }
+
+        return new BigDecimal( getNumber( value, columnIndex ).toString() );
+    }
+
+    @Override
+    public BigDecimal getBigDecimal( String columnLabel )
+        throws SQLException
+    {
+        return getBigDecimal( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public byte[] getBytes( int columnIndex )
+        throws SQLException
+    {
+        return getObject( columnIndex, byte[].class );
+    }
+
+    @Override
+    public byte[] getBytes( String columnLabel )
+        throws SQLException
+    {
+        return getBytes( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public java.sql.Date getDate( int columnIndex )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+        if ( value == null || value instanceof java.sql.Date )
+        {
+            return (java.sql.Date) value;
+        }
+
+        return new java.sql.Date( getObject( columnIndex, java.util.Date.class ).getTime() );
+    }
+
+    @Override
+    public java.sql.Date getDate( String columnLabel )
+        throws SQLException
+    {
+        return getDate( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public Time getTime( int columnIndex )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+        if ( value == null || value instanceof Time )
+        {
+            return (Time) value;
+        }
+
+        return new Time( getObject( columnIndex, java.util.Date.class ).getTime() );
+    }
+
+    @Override
+    public Time getTime( String columnLabel )
+        throws SQLException
+    {
+        return getTime( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public Timestamp getTimestamp( int columnIndex )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+        if ( value == null || value instanceof Timestamp )
+        {
+            return (Timestamp) value;
+        }
+
+        return new Timestamp( getObject( columnIndex, java.util.Date.class ).getTime() );
+    }
+
+    @Override
+    public Timestamp getTimestamp( String columnLabel )
+        throws SQLException
+    {
+        return getTimestamp( findColumn( columnLabel ) );
+    }
+
+    /**
+     * Values that are Java arrays are wrapped in a {@link StubArray}.
+     */
+    @Override
+    public Array getArray( int columnIndex )
+        throws SQLException
+    {
+        Object value = getValue( columnIndex );
+        if ( value == null || value instanceof Array )
+        {
+            return (Array) value;
+        }
+
+        if ( !value.getClass().isArray() )
+        {
+            throw new SQLException( "Column " + columnIndex + " is not an array" );
+        }
+
+        return new StubArray( null, value );
+    }
+
+    @Override
+    public Array getArray( String columnLabel )
+        throws SQLException
+    {
+        return getArray( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public <T> T unwrap( Class<T> iface )
+        throws SQLException
+    {
+        if ( iface.isInstance( this ) )
+        {
+            return iface.cast( this );
+        }
+
+        throw new SQLException( "Not a wrapper of " + iface.getName() );
+    }
+
+    @Override
+    public boolean isWrapperFor( Class<?> iface )
+        throws SQLException
+    {
+        return iface.isInstance( this );
+    }
+
+    @Deprecated
+    @Override
+    public BigDecimal getBigDecimal( int columnIndex, int scale )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getBigDecimal" );
+    }
+
+    @Override
+    public java.io.InputStream getAsciiStream( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getAsciiStream" );
+    }
+
+    @Deprecated
+    @Override
+    public java.io.InputStream getUnicodeStream( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getUnicodeStream" );
+    }
+
+    @Override
+    public java.io.InputStream getBinaryStream( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getBinaryStream" );
+    }
+
+    @Deprecated
+    @Override
+    public BigDecimal getBigDecimal( String columnLabel, int scale )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getBigDecimal" );
+    }
+
+    @Override
+    public java.io.InputStream getAsciiStream( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getAsciiStream" );
+    }
+
+    @Deprecated
+    @Override
+    public java.io.InputStream getUnicodeStream( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getUnicodeStream" );
+    }
+
+    @Override
+    public java.io.InputStream getBinaryStream( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getBinaryStream" );
+    }
+
+    @Override
+    public String getCursorName()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getCursorName" );
+    }
+
+    @Override
+    public java.io.Reader getCharacterStream( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getCharacterStream" );
+    }
+
+    @Override
+    public java.io.Reader getCharacterStream( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getCharacterStream" );
+    }
+
+    @Override
+    public boolean isBeforeFirst()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isBeforeFirst" );
+    }
+
+    @Override
+    public boolean isAfterLast()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isAfterLast" );
+    }
+
+    @Override
+    public boolean isFirst()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isFirst" );
+    }
+
+    @Override
+    public boolean isLast()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isLast" );
+    }
+
+    @Override
+    public void afterLast()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "afterLast" );
+    }
+
+    @Override
+    public boolean first()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "first" );
+    }
+
+    @Override
+    public boolean last()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "last" );
+    }
+
+    @Override
+    public boolean absolute( int row )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "absolute" );
+    }
+
+    @Override
+    public boolean relative( int rows )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "relative" );
+    }
+
+    @Override
+    public boolean previous()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "previous" );
+    }
+
+    @Override
+    public void setFetchDirection( int direction )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "setFetchDirection" );
+    }
+
+    @Override
+    public boolean rowUpdated()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "rowUpdated" );
+    }
+
+    @Override
+    public boolean rowInserted()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "rowInserted" );
+    }
+
+    @Override
+    public boolean rowDeleted()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "rowDeleted" );
+    }
+
+    @Override
+    public void updateNull( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNull" );
+    }
+
+    @Override
+    public void updateBoolean( int columnIndex, boolean x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBoolean" );
+    }
+
+    @Override
+    public void updateByte( int columnIndex, byte x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateByte" );
+    }
+
+    @Override
+    public void updateShort( int columnIndex, short x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateShort" );
+    }
+
+    @Override
+    public void updateInt( int columnIndex, int x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateInt" );
+    }
+
+    @Override
+    public void updateLong( int columnIndex, long x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateLong" );
+    }
+
+    @Override
+    public void updateFloat( int columnIndex, float x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateFloat" );
+    }
+
+    @Override
+    public void updateDouble( int columnIndex, double x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateDouble" );
+    }
+
+    @Override
+    public void updateBigDecimal( int columnIndex, BigDecimal x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBigDecimal" );
+    }
+
+    @Override
+    public void updateString( int columnIndex, String x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateString" );
+    }
+
+    @Override
+    public void updateBytes( int columnIndex, byte[] x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBytes" );
+    }
+
+    @Override
+    public void updateDate( int columnIndex, java.sql.Date x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateDate" );
+    }
+
+    @Override
+    public void updateTime( int columnIndex, java.sql.Time x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateTime" );
+    }
+
+    @Override
+    public void updateTimestamp( int columnIndex, java.sql.Timestamp x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateTimestamp" );
+    }
+
+    @Override
+    public void updateAsciiStream( int columnIndex, java.io.InputStream x, int length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateAsciiStream" );
+    }
+
+    @Override
+    public void updateBinaryStream( int columnIndex, java.io.InputStream x, int length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBinaryStream" );
+    }
+
+    @Override
+    public void updateCharacterStream( int columnIndex, java.io.Reader x, int length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateCharacterStream" );
+    }
+
+    @Override
+    public void updateObject( int columnIndex, Object x, int scaleOrLength )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateObject" );
+    }
+
+    @Override
+    public void updateObject( int columnIndex, Object x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateObject" );
+    }
+
+    @Override
+    public void updateNull( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNull" );
+    }
+
+    @Override
+    public void updateBoolean( String columnLabel, boolean x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBoolean" );
+    }
+
+    @Override
+    public void updateByte( String columnLabel, byte x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateByte" );
+    }
+
+    @Override
+    public void updateShort( String columnLabel, short x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateShort" );
+    }
+
+    @Override
+    public void updateInt( String columnLabel, int x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateInt" );
+    }
+
+    @Override
+    public void updateLong( String columnLabel, long x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateLong" );
+    }
+
+    @Override
+    public void updateFloat( String columnLabel, float x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateFloat" );
+    }
+
+    @Override
+    public void updateDouble( String columnLabel, double x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateDouble" );
+    }
+
+    @Override
+    public void updateBigDecimal( String columnLabel, BigDecimal x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBigDecimal" );
+    }
+
+    @Override
+    public void updateString( String columnLabel, String x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateString" );
+    }
+
+    @Override
+    public void updateBytes( String columnLabel, byte[] x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBytes" );
+    }
+
+    @Override
+    public void updateDate( String columnLabel, java.sql.Date x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateDate" );
+    }
+
+    @Override
+    public void updateTime( String columnLabel, java.sql.Time x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateTime" );
+    }
+
+    @Override
+    public void updateTimestamp( String columnLabel, java.sql.Timestamp x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateTimestamp" );
+    }
+
+    @Override
+    public void updateAsciiStream( String columnLabel, java.io.InputStream x, int length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateAsciiStream" );
+    }
+
+    @Override
+    public void updateBinaryStream( String columnLabel, java.io.InputStream x, int length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBinaryStream" );
+    }
+
+    @Override
+    public void updateCharacterStream( String columnLabel, java.io.Reader reader, int length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateCharacterStream" );
+    }
+
+    @Override
+    public void updateObject( String columnLabel, Object x, int scaleOrLength )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateObject" );
+    }
+
+    @Override
+    public void updateObject( String columnLabel, Object x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateObject" );
+    }
+
+    @Override
+    public void insertRow()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "insertRow" );
+    }
+
+    @Override
+    public void updateRow()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateRow" );
+    }
+
+    @Override
+    public void deleteRow()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "deleteRow" );
+    }
+
+    @Override
+    public void refreshRow()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "refreshRow" );
+    }
+
+    @Override
+    public void cancelRowUpdates()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "cancelRowUpdates" );
+    }
+
+    @Override
+    public void moveToInsertRow()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "moveToInsertRow" );
+    }
+
+    @Override
+    public void moveToCurrentRow()
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "moveToCurrentRow" );
+    }
+
+    @Override
+    public Object getObject( int columnIndex, java.util.Map<String, Class<?>> map )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getObject" );
+    }
+
+    @Override
+    public Ref getRef( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getRef" );
+    }
+
+    @Override
+    public Blob getBlob( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getBlob" );
+    }
+
+    @Override
+    public Clob getClob( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getClob" );
+    }
+
+    @Override
+    public Object getObject( String columnLabel, java.util.Map<String, Class<?>> map )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getObject" );
+    }
+
+    @Override
+    public Ref getRef( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getRef" );
+    }
+
+    @Override
+    public Blob getBlob( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getBlob" );
+    }
+
+    @Override
+    public Clob getClob( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getClob" );
+    }
+
+    @Override
+    public java.sql.Date getDate( int columnIndex, Calendar cal )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getDate" );
+    }
+
+    @Override
+    public java.sql.Date getDate( String columnLabel, Calendar cal )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getDate" );
+    }
+
+    @Override
+    public java.sql.Time getTime( int columnIndex, Calendar cal )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getTime" );
+    }
+
+    @Override
+    public java.sql.Time getTime( String columnLabel, Calendar cal )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getTime" );
+    }
+
+    @Override
+    public java.sql.Timestamp getTimestamp( int columnIndex, Calendar cal )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getTimestamp" );
+    }
+
+    @Override
+    public java.sql.Timestamp getTimestamp( String columnLabel, Calendar cal )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getTimestamp" );
+    }
+
+    @Override
+    public java.net.URL getURL( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getURL" );
+    }
+
+    @Override
+    public java.net.URL getURL( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getURL" );
+    }
+
+    @Override
+    public void updateRef( int columnIndex, java.sql.Ref x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateRef" );
+    }
+
+    @Override
+    public void updateRef( String columnLabel, java.sql.Ref x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateRef" );
+    }
+
+    @Override
+    public void updateBlob( int columnIndex, java.sql.Blob x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBlob" );
+    }
+
+    @Override
+    public void updateBlob( String columnLabel, java.sql.Blob x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBlob" );
+    }
+
+    @Override
+    public void updateClob( int columnIndex, java.sql.Clob x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateClob" );
+    }
+
+    @Override
+    public void updateClob( String columnLabel, java.sql.Clob x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateClob" );
+    }
+
+    @Override
+    public void updateArray( int columnIndex, java.sql.Array x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateArray" );
+    }
+
+    @Override
+    public void updateArray( String columnLabel, java.sql.Array x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateArray" );
+    }
+
+    @Override
+    public RowId getRowId( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getRowId" );
+    }
+
+    @Override
+    public RowId getRowId( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getRowId" );
+    }
+
+    @Override
+    public void updateRowId( int columnIndex, RowId x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateRowId" );
+    }
+
+    @Override
+    public void updateRowId( String columnLabel, RowId x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateRowId" );
+    }
+
+    @Override
+    public void updateNString( int columnIndex, String nString )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNString" );
+    }
+
+    @Override
+    public void updateNString( String columnLabel, String nString )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNString" );
+    }
+
+    @Override
+    public void updateNClob( int columnIndex, NClob nClob )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNClob" );
+    }
+
+    @Override
+    public void updateNClob( String columnLabel, NClob nClob )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNClob" );
+    }
+
+    @Override
+    public NClob getNClob( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getNClob" );
+    }
+
+    @Override
+    public NClob getNClob( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getNClob" );
+    }
+
+    @Override
+    public SQLXML getSQLXML( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getSQLXML" );
+    }
+
+    @Override
+    public SQLXML getSQLXML( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getSQLXML" );
+    }
+
+    @Override
+    public void updateSQLXML( int columnIndex, SQLXML xmlObject )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateSQLXML" );
+    }
+
+    @Override
+    public void updateSQLXML( String columnLabel, SQLXML xmlObject )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateSQLXML" );
+    }
+
+    @Override
+    public String getNString( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getNString" );
+    }
+
+    @Override
+    public String getNString( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getNString" );
+    }
+
+    @Override
+    public java.io.Reader getNCharacterStream( int columnIndex )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getNCharacterStream" );
+    }
+
+    @Override
+    public java.io.Reader getNCharacterStream( String columnLabel )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getNCharacterStream" );
+    }
+
+    @Override
+    public void updateNCharacterStream( int columnIndex, java.io.Reader x, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNCharacterStream" );
+    }
+
+    @Override
+    public void updateNCharacterStream( String columnLabel, java.io.Reader reader, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNCharacterStream" );
+    }
+
+    @Override
+    public void updateAsciiStream( int columnIndex, java.io.InputStream x, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateAsciiStream" );
+    }
+
+    @Override
+    public void updateBinaryStream( int columnIndex, java.io.InputStream x, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBinaryStream" );
+    }
+
+    @Override
+    public void updateCharacterStream( int columnIndex, java.io.Reader x, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateCharacterStream" );
+    }
+
+    @Override
+    public void updateAsciiStream( String columnLabel, java.io.InputStream x, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateAsciiStream" );
+    }
+
+    @Override
+    public void updateBinaryStream( String columnLabel, java.io.InputStream x, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBinaryStream" );
+    }
+
+    @Override
+    public void updateCharacterStream( String columnLabel, java.io.Reader reader, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateCharacterStream" );
+    }
+
+    @Override
+    public void updateBlob( int columnIndex, InputStream inputStream, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBlob" );
+    }
+
+    @Override
+    public void updateBlob( String columnLabel, InputStream inputStream, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBlob" );
+    }
+
+    @Override
+    public void updateClob( int columnIndex, Reader reader, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateClob" );
+    }
+
+    @Override
+    public void updateClob( String columnLabel, Reader reader, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateClob" );
+    }
+
+    @Override
+    public void updateNClob( int columnIndex, Reader reader, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNClob" );
+    }
+
+    @Override
+    public void updateNClob( String columnLabel, Reader reader, long length )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNClob" );
+    }
+
+    @Override
+    public void updateNCharacterStream( int columnIndex, java.io.Reader x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNCharacterStream" );
+    }
+
+    @Override
+    public void updateNCharacterStream( String columnLabel, java.io.Reader reader )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNCharacterStream" );
+    }
+
+    @Override
+    public void updateAsciiStream( int columnIndex, java.io.InputStream x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateAsciiStream" );
+    }
+
+    @Override
+    public void updateBinaryStream( int columnIndex, java.io.InputStream x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBinaryStream" );
+    }
+
+    @Override
+    public void updateCharacterStream( int columnIndex, java.io.Reader x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateCharacterStream" );
+    }
+
+    @Override
+    public void updateAsciiStream( String columnLabel, java.io.InputStream x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateAsciiStream" );
+    }
+
+    @Override
+    public void updateBinaryStream( String columnLabel, java.io.InputStream x )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBinaryStream" );
+    }
+
+    @Override
+    public void updateCharacterStream( String columnLabel, java.io.Reader reader )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateCharacterStream" );
+    }
+
+    @Override
+    public void updateBlob( int columnIndex, InputStream inputStream )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBlob" );
+    }
+
+    @Override
+    public void updateBlob( String columnLabel, InputStream inputStream )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateBlob" );
+    }
+
+    @Override
+    public void updateClob( int columnIndex, Reader reader )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateClob" );
+    }
+
+    @Override
+    public void updateClob( String columnLabel, Reader reader )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateClob" );
+    }
+
+    @Override
+    public void updateNClob( int columnIndex, Reader reader )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNClob" );
+    }
+
+    @Override
+    public void updateNClob( String columnLabel, Reader reader )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "updateNClob" );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private void checkOpen()
+        throws SQLException
+    {
+        if ( closed )
+        {
+            throw new SQLException( "ResultSet is closed" );
+        }
+    }
+
+    private Object getValue( int columnIndex )
+        throws SQLException
+    {
+        checkOpen();
+        if ( row < 0 || row >= rows.getRowCount() )
+        {
+            throw new SQLException( "ResultSet is not positioned on a row" );
+        }
+        if ( columnIndex < 1 || columnIndex > rows.getColumnCount() )
+        {
+            throw new SQLException( "Column index " + columnIndex + " is out of range" );
+        }
+
+        Object value = rows.getValue( row, columnIndex );
+        wasNull = value == null;
+
+        return value;
+    }
+
+    private Number getNumber( Object value, int columnIndex )
+        throws SQLException
+    {
+        if ( value instanceof Number )
+        {
+            return (Number) value;
+        }
+
+        if ( value instanceof String )
+        {
+            try
+            {
+                return new BigDecimal( (String) value );
+            }
+            catch ( NumberFormatException ex )
+            {
+                throw new SQLException( "Column " + columnIndex + " is not a number: " + value );
+            }
+        }
+
+        throw new SQLException( "Column " + columnIndex + " is a " + value.getClass().getName() + ", not a number" );
+    }
+}
@@ -0,0 +1,221 @@
+//
+// StubResultSetMetaData
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.stub;
+
+import java.sql.*;
+
+/**
+ * {@link ResultSetMetaData} describing the columns of {@link StubRows}.
+ */
+public class StubResultSetMetaData implements ResultSetMetaData
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private StubRows rows;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public StubResultSetMetaData( StubRows rows )
+    {
+        this.rows = rows;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Override
+    public int getColumnCount()
+        throws SQLException
+    {
+        return rows.getColumnCount();
+    }
+
+    @Override
+    public String getColumnName( int column )
+        throws SQLException
+    {
+        return rows.getColumnName( column );
+    }
+
+    @Override
+    public String getColumnLabel( int column )
+        throws SQLException
+    {
+        return rows.getColumnName( column );
+    }
+
+    @Override
+    public int getColumnType( int column )
+        throws SQLException
+    {
+        return rows.getSQLType( column );
+    }
+
+    @Override
+    public String getColumnTypeName( int column )
+        throws SQLException
+    {
+        return StubTypes.getTypeName( rows.getSQLType( column ) );
+    }
+
+    @Override
+    public int isNullable( int column )
+        throws SQLException
+    {
+        return columnNullableUnknown;
+    }
+
+    @Override
+    public <T> T unwrap( Class<T> iface )
+        throws SQLException
+    {
+        if ( iface.isInstance( this ) )
+        {
+            return iface.cast( this );
+        }
+
+        throw new SQLException( "Not a wrapper of " + iface.getName() );
+    }
+
+    @Override
+    public boolean isWrapperFor( Class<?> iface )
+        throws SQLException
+    {
+        return iface.isInstance( this );
+    }
+
+    @Override
+    public boolean isAutoIncrement( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isAutoIncrement" );
+    }
+
+    @Override
+    public boolean isCaseSensitive( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isCaseSensitive" );
+    }
+
+    @Override
+    public boolean isSearchable( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isSearchable" );
+    }
+
+    @Override
+    public boolean isCurrency( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isCurrency" );
+    }
+
+    @Override
+    public boolean isSigned( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isSigned" );
+    }
+
+    @Override
+    public int getColumnDisplaySize( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getColumnDisplaySize" );
+    }
+
+    @Override
+    public String getSchemaName( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getSchemaName" );
+    }
+
+    @Override
+    public int getPrecision( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getPrecision" );
+    }
+
+    @Override
+    public int getScale( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getScale" );
+    }
+
+    @Override
+    public String getTableName( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getTableName" );
+    }
+
+    @Override
+    public String getCatalogName( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getCatalogName" );
+    }
+
+    @Override
+    public boolean isReadOnly( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isReadOnly" );
+    }
+
+    @Override
+    public boolean isWritable( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isWritable" );
+    }
+
+    @Override
+    public boolean isDefinitelyWritable( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "isDefinitelyWritable" );
+    }
+
+    @Override
+    public String getColumnClassName( int column )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "getColumnClassName" );
+    }
+}
@@ -0,0 +1,64 @@
+package net.jextra.fauxjo.stub;
+
+import org.junit.Test;
+import java.sql.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StubResultSetTest
+{
+    @Test
+    public void testColumnArrays()
+        throws Exception
+    {
+        StubRows rows = new StubRows( new String[] { "id", "Name" }, new int[] { Types.INTEGER, Types.VARCHAR },
+            new Object[][] { { 1, null }, { "a", "b" } } );
+        ResultSet rs = new StubResultSet( rows );
+
+        assertTrue( rs.next() );
+        assertEquals( 1L, rs.getLong( 1 ) );
+        assertEquals( "a", rs.getString( "name" ) );
+        assertTrue( rs.next() );
+        assertEquals( 0, rs.getInt( "ID" ) );
+        assertTrue( rs.wasNull() );
+        assertNull( rs.getObject( 1 ) );
+        assertFalse( rs.next() );
+
+        assertEquals( 2, rs.getMetaData().getColumnCount() );
+        assertEquals( "Name", rs.getMetaData().getColumnName( 2 ) );
+        assertEquals( Types.VARCHAR, rs.getMetaData().getColumnType( 2 ) );
+    }
+
+    @Test
+    public void testArray()
+        throws Exception
+    {
+        ResultSet rs = new StubResultSet( StubRows.fromRows( new String[] { "tags" }, new int[] { Types.ARRAY },
+            new Object[] { new String[] { "x", "y", "z" } } ) );
+        rs.next();
+
+        Array array = rs.getArray( 1 );
+        assertEquals( "varchar", array.getBaseTypeName() );
+        assertArrayEquals( new String[] { "y", "z" }, (Object[]) array.getArray( 2, 2 ) );
+    }
+
+    @Test
+    public void testMetaData()
+        throws Exception
+    {
+        StubConnection connection = new StubConnection();
+        connection.addTable( "Character", new String[] { "id", "tags" }, new int[] { Types.BIGINT, Types.ARRAY }, new String[] { "int8",
+            "_text" } );
+
+        ResultSet rs = connection.getMetaData().getColumns( null, "test", "Character", null );
+        assertTrue( rs.next() );
+        assertEquals( "id", rs.getString( "COLUMN_NAME" ) );
+        assertTrue( rs.next() );
+        assertEquals( Types.ARRAY, rs.getInt( "DATA_TYPE" ) );
+        assertEquals( "_text", rs.getString( "TYPE_NAME" ) );
+        assertFalse( rs.next() );
+    }
+}
@@ -0,0 +1,153 @@
+//
+// StubRows
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.stub;
+
+import java.util.*;
+
+/**
+ * Immutable set of rows served by a {@link StubResultSet}, stored column by column.
+ */
+public class StubRows
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private String[] columnNames;
+    private int[] sqlTypes;
+
+    // Index = column index - 1, then row index.
+    private Object[][] columns;
+    private int rowCount;
+
+    // Key = Lowercase column name.
+    // Value = Column index (1 based).
+    private Map<String, Integer> columnIndexes;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    /**
+     * @param sqlTypes {@link java.sql.Types} of each column.
+     * @param columns Values of each column; all columns must have the same number of rows.
+     */
+    public StubRows( String[] columnNames, int[] sqlTypes, Object[][] columns )
+    {
+        if ( columnNames.length != sqlTypes.length || columnNames.length != columns.length )
+        {
+            throw new IllegalArgumentException( "Column names, types and values must have the same length." );
+        }
+
+        this.columnNames = columnNames.clone();
+        this.sqlTypes = sqlTypes.clone();
+        this.columns = columns.clone();
+        rowCount = columns.length == 0 ? 0 : columns[0].length;
+
+        columnIndexes = new HashMap<String, Integer>();
+        for ( int i = 0; i < columnNames.length; i++ )
+        {
+            if ( columns[i].length != rowCount )
+            {
+                throw new IllegalArgumentException( "Column [" + columnNames[i] + "] has " + columns[i].length + " rows instead of " +
+                    rowCount );
+            }
+
+            String key = columnNames[i].toLowerCase();
+            if ( !columnIndexes.containsKey( key ) )
+            {
+                columnIndexes.put( key, i + 1 );
+            }
+        }
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Build from values given row by row.
+     */
+    public static StubRows fromRows( String[] columnNames, int[] sqlTypes, Object[]... rows )
+    {
+        Object[][] columns = new Object[columnNames.length][rows.length];
+        for ( int r = 0; r < rows.length; r++ )
+        {
+            for ( int c = 0; c < columnNames.length; c++ )
+            {
+                columns[c][r] = rows[r][c];
+            }
+        }
+
+        return new StubRows( columnNames, sqlTypes, columns );
+    }
+
+    public static StubRows empty( String... columnNames )
+    {
+        return new StubRows( columnNames, new int[columnNames.length], new Object[columnNames.length][0] );
+    }
+
+    public int getColumnCount()
+    {
+        return columnNames.length;
+    }
+
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    public String getColumnName( int columnIndex )
+    {
+        return columnNames[columnIndex - 1];
+    }
+
+    public int getSQLType( int columnIndex )
+    {
+        return sqlTypes[columnIndex - 1];
+    }
+
+    /**
+     * @return Column index (1 based) of the column with the given name (case insensitive), or 0 if there is none.
+     */
+    public int findColumn( String columnName )
+    {
+        Integer index = columnIndexes.get( columnName.toLowerCase() );
+
+        return index == null ? 0 : index;
+    }
+
+    /**
+     * @param row Row index (0 based).
+     * @param columnIndex Column index (1 based).
+     */
+    public Object getValue( int row, int columnIndex )
+    {
+        return columns[columnIndex - 1][row];
+    }
+}
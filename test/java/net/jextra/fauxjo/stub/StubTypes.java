@@ -0,0 +1,102 @@
+//
+// StubTypes
+//
+// Copyright (C) jextra.net.
+//
+//  This file is part of the Fauxjo Library.
+//
+//  The Fauxjo Library is free software; you can redistribute it and/or
+//  modify it under the terms of the GNU Lesser General Public
+//  License as published by the Free Software Foundation; either
+//  version 2.1 of the License, or (at your option) any later version.
+//
+//  The Fauxjo Library is distributed in the hope that it will be useful,
+//  but WITHOUT ANY WARRANTY; without even the implied warranty of
+//  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+//  Lesser General Public License for more details.
+//
+//  You should have received a copy of the GNU Lesser General Public
+//  License along with the Fauxjo Library; if not, write to the Free
+//  Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+//  02111-1307 USA.
+//
+
+package net.jextra.fauxjo.stub;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Database type names of the {@link Types} used by the stub JDBC classes, as PostgreSQL reports them.
+ */
+public abstract class StubTypes
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    // Key = java.sql.Types value.
+    // Value = Database type name.
+    private static final Map<Integer, String> TYPE_NAMES = new LinkedHashMap<Integer, String>();
+
+    static
+    {
+        TYPE_NAMES.put( Types.BIGINT, "int8" );
+        TYPE_NAMES.put( Types.INTEGER, "int4" );
+        TYPE_NAMES.put( Types.SMALLINT, "int2" );
+        TYPE_NAMES.put( Types.DOUBLE, "float8" );
+        TYPE_NAMES.put( Types.REAL, "float4" );
+        TYPE_NAMES.put( Types.NUMERIC, "numeric" );
+        TYPE_NAMES.put( Types.VARCHAR, "varchar" );
+        TYPE_NAMES.put( Types.CHAR, "bpchar" );
+        TYPE_NAMES.put( Types.LONGVARCHAR, "text" );
+        TYPE_NAMES.put( Types.BOOLEAN, "bool" );
+        TYPE_NAMES.put( Types.BIT, "bool" );
+        TYPE_NAMES.put( Types.DATE, "date" );
+        TYPE_NAMES.put( Types.TIME, "time" );
+        TYPE_NAMES.put( Types.TIMESTAMP, "timestamp" );
+        TYPE_NAMES.put( Types.BINARY, "bytea" );
+        TYPE_NAMES.put( Types.OTHER, "uuid" );
+        TYPE_NAMES.put( Types.ARRAY, "_varchar" );
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static String getTypeName( int sqlType )
+    {
+        String name = TYPE_NAMES.get( sqlType );
+
+        return name == null ? "unknown" : name;
+    }
+
+    /**
+     * @return The {@link Types} value of a database type name, or {@link Types#OTHER} if it is not known.
+     */
+    public static int getSQLType( String typeName )
+    {
+        // PostgreSQL names array types after their element type with a leading underscore.
+        if ( typeName != null && typeName.startsWith( "_" ) )
+        {
+            return Types.ARRAY;
+        }
+
+        if ( typeName != null )
+        {
+            for ( Map.Entry<Integer, String> entry : TYPE_NAMES.entrySet() )
+            {
+                if ( entry.getValue().equalsIgnoreCase( typeName ) )
+                {
+                    return entry.getKey();
+                }
+            }
+        }
+
+        return Types.OTHER;
+    }
+}